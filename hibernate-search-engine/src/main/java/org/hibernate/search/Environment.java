@@ -63,6 +63,13 @@ public final class Environment {
 	 */
 	public static final String QUEUEINGPROCESSOR_BATCHSIZE = "hibernate.search.batch_size";
 
+	/**
+	 * When greater than 1 the changes of a transaction affecting several indexes (or shards)
+	 * are passed to each IndexManager in parallel, using a thread pool of this size.
+	 * Default 1: the IndexManagers are invoked in sequence by the committing thread.
+	 */
+	public static final String WORKER_DISPATCH_THREADPOOL_SIZE = "hibernate.search.worker.dispatch.thread_pool.size";
+
 	/**
 	 * Thread pool size
 	 * default 1
@@ -78,6 +85,109 @@ public final class Environment {
 	 */
 	public static final String WORKER_WORKQUEUE_SIZE = Environment.WORKER_PREFIX + "buffer_queue.max";
 
+	/**
+	 * Queues containing up to this number of operations are applied by the thread processing the queue,
+	 * without using the workers thread pool. Default 10.
+	 */
+	public static final String WORKER_INLINE_THRESHOLD = Environment.WORKER_PREFIX + "inline_threshold";
+
+	/**
+	 * Number of operations of the same queue applied by each task submitted to the workers thread pool.
+	 * Default 0: the queue is split evenly among the threads of the pool.
+	 */
+	public static final String WORKER_CHUNK_SIZE = Environment.WORKER_PREFIX + "chunk_size";
+
+	/**
+	 * What to do with asynchronous work when the queue of the Lucene backend is full
+	 * (see {@link #MAX_QUEUE_LENGTH}): <code>block</code> the committing thread (the default),
+	 * apply the work in the committing thread (<code>caller_runs</code>)
+	 * or <code>spill</code> it to a local on-disk journal which is re-enqueued when space is available.
+	 */
+	public static final String WORKER_OVERFLOW_POLICY = Environment.WORKER_PREFIX + "overflow_policy";
+
+	/**
+	 * Maximum time in milliseconds the <code>block</code> overflow policy waits for space in the queue;
+	 * when it expires the work is discarded and reported to the ErrorHandler.
+	 * Default 0: wait indefinitely.
+	 */
+	public static final String WORKER_OVERFLOW_TIMEOUT = WORKER_OVERFLOW_POLICY + ".timeout";
+
+	/**
+	 * Directory used by the <code>spill</code> overflow policy.
+	 * Defaults to <code>hibernate-search-spill/&lt;index name&gt;</code> in the temporary directory.
+	 */
+	public static final String WORKER_OVERFLOW_SPILL_DIRECTORY = WORKER_OVERFLOW_POLICY + ".spill_dir";
+
+	/**
+	 * When enabled the asynchronous Lucene backend skips the updates and deletes of an entity
+	 * when a later update or delete of the same entity is waiting in the queue.
+	 * This is an index-scoped property and defaults to false.
+	 */
+	public static final String WORKER_COALESCE = Environment.WORKER_PREFIX + "coalesce";
+
+	/**
+	 * When enabled the asynchronous Lucene backend appends the work of each transaction to a local
+	 * journal before enqueuing it; entries are released once the changes are committed to the index
+	 * and replayed on startup after a crash.
+	 * This is an index-scoped property and defaults to false.
+	 */
+	public static final String WORKER_JOURNAL = Environment.WORKER_PREFIX + "journal";
+
+	/**
+	 * Directory of the journal. Defaults to <code>hibernate-search-journal/&lt;index name&gt;</code>
+	 * in the temporary directory.
+	 */
+	public static final String WORKER_JOURNAL_DIRECTORY = WORKER_JOURNAL + ".directory";
+
+	/**
+	 * Interval in milliseconds between two fsync of the journal, performed by a background thread.
+	 * Default 0: the committing thread waits for the journal to be synced, sharing the fsync
+	 * with the threads committing concurrently.
+	 */
+	public static final String WORKER_JOURNAL_SYNC_INTERVAL = WORKER_JOURNAL + ".sync_interval";
+
+	/**
+	 * Size in MB after which a new journal file is started, so that files whose changes were
+	 * committed to the index can be deleted. Default 16.
+	 */
+	public static final String WORKER_JOURNAL_SEGMENT_SIZE = WORKER_JOURNAL + ".segment_size";
+
+	/**
+	 * When enabled the Lucene backend merges the work queued by several transactions
+	 * in a single IndexWriter pass followed by a single commit.
+	 * <ul>
+	 * <li>only used when execution is async</li>
+	 * <li>default false</li>
+	 * </ul>
+	 */
+	public static final String WORKER_GROUP_COMMIT = Environment.WORKER_PREFIX + "group_commit";
+
+	/**
+	 * Maximum time in milliseconds a group commit waits for more transactions to join
+	 * before applying the changes. Default 0: only the work already queued is merged.
+	 */
+	public static final String WORKER_GROUP_COMMIT_MAX_LATENCY = WORKER_GROUP_COMMIT + ".max_latency";
+
+	/**
+	 * Maximum number of transactions merged in a single group commit. Default 100.
+	 */
+	public static final String WORKER_GROUP_COMMIT_MAX_BATCH_SIZE = WORKER_GROUP_COMMIT + ".max_batch_size";
+
+	/**
+	 * When set to a positive number of milliseconds, the near-real-time IndexManager doesn't refresh
+	 * its IndexReader after each transaction but from a background thread, so that changes become
+	 * visible to queries within this time.
+	 * This is an index-scoped property and defaults to 0: refresh after each transaction.
+	 */
+	public static final String NRT_MAX_STALENESS = "nrt.max_staleness";
+
+	/**
+	 * Minimum time in milliseconds between two background refreshes of the near-real-time IndexReader,
+	 * applied while some thread is waiting to see its own changes.
+	 * This is an index-scoped property and defaults to 0.
+	 */
+	public static final String NRT_MIN_REFRESH_INTERVAL = "nrt.min_refresh_interval";
+
 	/**
 	 * define the reader prefix
 	 */
@@ -88,6 +198,27 @@ public final class Environment {
 	 */
 	public static final String READER_STRATEGY = READER_PREFIX + "." + "strategy";
 
+	/**
+	 * Number of threads searching in parallel the indexes (or shards) targeted by a query, each thread
+	 * searching one of them; the results are then merged. Defaults to 0: the indexes are searched one
+	 * after the other by the thread running the query.
+	 */
+	public static final String QUERY_SHARD_SEARCH_THREADS = "hibernate.search.query.shard_search_threads";
+
+	/**
+	 * Maximum number of query results (top documents, number of hits and facets) kept in memory, so that
+	 * executing again the same query on unchanged indexes doesn't search them. The least recently used
+	 * results are evicted first. Defaults to 0: query results are not cached.
+	 */
+	public static final String QUERY_RESULT_CACHE_SIZE = "hibernate.search.query.result_cache.size";
+
+	/**
+	 * Number of upcoming hits whose entities are loaded together, by a single query per entity type, when
+	 * iterating or scrolling over the results of a query which doesn't define its own fetch size.
+	 * Defaults to 20.
+	 */
+	public static final String QUERY_LOADING_BATCH_SIZE = "hibernate.search.query.loading_batch_size";
+
 	/**
 	 * filter caching strategy class (must have a no-arg constructor and implement FilterCachingStrategy)
 	 */
@@ -98,6 +229,11 @@ public final class Environment {
 	 */
 	public static final String CACHE_DOCIDRESULTS_SIZE = "hibernate.search.filter.cache_docidresults.size";
 
+	/**
+	 * maximum estimated size in bytes of the docidresults cached by each filter.
+	 */
+	public static final String CACHE_DOCIDRESULTS_MAX_BYTES = "hibernate.search.filter.cache_docidresults.max_bytes";
+
 	/**
 	 * When set to true a lock on the index will not be released until the
 	 * SearchFactory (or SessionFactory) is closed.
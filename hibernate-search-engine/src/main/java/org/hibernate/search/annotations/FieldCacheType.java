@@ -47,5 +47,14 @@ public enum FieldCacheType {
 	 * Attempts to the object identifier (@DocumentId).
 	 * Not all identifier types are supported.
 	 */
-	ID
+	ID,
+
+	/**
+	 * Read projected fields from the {@code FieldCache} of each index segment
+	 * instead of loading the stored {@code Document}. Only applies to stored,
+	 * single valued fields which are either numeric or indexed without analysis,
+	 * and whose bridge can be inverted from the indexed term (as for identifiers).
+	 * Other projected fields are still loaded from the stored fields.
+	 */
+	PROJECTIONS
 }
@@ -20,6 +20,7 @@
  */
 package org.hibernate.search.backend;
 
+import java.io.File;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 
@@ -114,10 +115,94 @@ public class BackendFactory {
 		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_WORKQUEUE_SIZE, Integer.MAX_VALUE );
 	}
 	
+	public static int getWorkerInlineThreshold(Properties properties) {
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_INLINE_THRESHOLD, 10 );
+	}
+
+	public static int getWorkerChunkSize(Properties properties) {
+		//split evenly among the worker threads
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_CHUNK_SIZE, 0 );
+	}
+
+	public static int getWorkerOverflowTimeout(Properties properties) {
+		//wait indefinitely
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_OVERFLOW_TIMEOUT, 0 );
+	}
+
+	/**
+	 * @param properties the configuration to parse
+	 * @param indexName the index the configuration refers to
+	 * @return the directory where work is spilled when the queue is full
+	 */
+	public static File getWorkerOverflowSpillDirectory(Properties properties, String indexName) {
+		String directory = properties.getProperty( Environment.WORKER_OVERFLOW_SPILL_DIRECTORY );
+		if ( StringHelper.isEmpty( directory ) ) {
+			File spillRoot = new File( System.getProperty( "java.io.tmpdir" ), "hibernate-search-spill" );
+			return new File( spillRoot, indexName );
+		}
+		return new File( directory );
+	}
+
+	/**
+	 * @param properties the configuration to parse
+	 * @return true if queued operations superseded by later ones on the same entity should be skipped
+	 */
+	public static boolean isCoalescingEnabled(Properties properties) {
+		return ConfigurationParseHelper.getBooleanValue( properties, Environment.WORKER_COALESCE, false );
+	}
+
+	/**
+	 * @param properties the configuration to parse
+	 * @return true if asynchronous work should be journaled before being enqueued
+	 */
+	public static boolean isJournalEnabled(Properties properties) {
+		return ConfigurationParseHelper.getBooleanValue( properties, Environment.WORKER_JOURNAL, false );
+	}
+
+	/**
+	 * @param properties the configuration to parse
+	 * @param indexName the index the configuration refers to
+	 * @return the directory of the journal of asynchronous work
+	 */
+	public static File getJournalDirectory(Properties properties, String indexName) {
+		String directory = properties.getProperty( Environment.WORKER_JOURNAL_DIRECTORY );
+		if ( StringHelper.isEmpty( directory ) ) {
+			File journalRoot = new File( System.getProperty( "java.io.tmpdir" ), "hibernate-search-journal" );
+			return new File( journalRoot, indexName );
+		}
+		return new File( directory );
+	}
+
+	public static int getJournalSyncInterval(Properties properties) {
+		//sync before returning to the committing thread
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_JOURNAL_SYNC_INTERVAL, 0 );
+	}
+
+	public static int getJournalSegmentSize(Properties properties) {
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_JOURNAL_SEGMENT_SIZE, 16 );
+	}
+
 	public static int getWorkerBatchSize(Properties properties) {
 		return ConfigurationParseHelper.getIntValue( properties, Environment.QUEUEINGPROCESSOR_BATCHSIZE, 0 );
 	}
 
+	/**
+	 * @param properties the configuration to parse
+	 * @return true if the work of several transactions should be committed together
+	 */
+	public static boolean isGroupCommitEnabled(Properties properties) {
+		return ConfigurationParseHelper.getBooleanValue( properties, Environment.WORKER_GROUP_COMMIT, false );
+	}
+
+	public static int getGroupCommitMaxLatency(Properties properties) {
+		//don't wait for more work by default
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_GROUP_COMMIT_MAX_LATENCY, 0 );
+	}
+
+	public static int getGroupCommitMaxBatchSize(Properties properties) {
+		return ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_GROUP_COMMIT_MAX_BATCH_SIZE, 100 );
+	}
+
 	public static LuceneWorkSerializer createSerializer(String indexName, Properties cfg,
 			WorkerBuildContext buildContext) {
 		try {
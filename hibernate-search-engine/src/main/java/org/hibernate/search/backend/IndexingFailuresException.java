@@ -0,0 +1,53 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.hibernate.search.SearchException;
+
+/**
+ * Thrown when the changes of a transaction could not be applied to some of the indexes
+ * it involves. The cause is the first failure, all of them are available per index name.
+ *
+ * @since 4.1
+ */
+public class IndexingFailuresException extends SearchException {
+
+	private final Map<String, Throwable> failuresByIndexName;
+
+	public IndexingFailuresException(String message, Map<String, Throwable> failuresByIndexName) {
+		super( message, failuresByIndexName.values().iterator().next() );
+		this.failuresByIndexName = Collections.unmodifiableMap( failuresByIndexName );
+	}
+
+	/**
+	 * @return the failure of each index which could not be updated, in the order the indexes were dispatched
+	 */
+	public Map<String, Throwable> getFailuresByIndexName() {
+		return failuresByIndexName;
+	}
+
+}
@@ -25,8 +25,10 @@ package org.hibernate.search.backend.configuration.impl;
 
 import java.io.Serializable;
 
+import org.apache.lucene.index.ConcurrentMergeScheduler;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LogByteSizeMergePolicy;
+import org.apache.lucene.index.TieredMergePolicy;
 import org.hibernate.search.SearchException;
 import org.hibernate.search.util.configuration.impl.ConfigurationParseHelper;
 import org.hibernate.search.util.logging.impl.Log;
@@ -71,6 +73,12 @@ public enum IndexWriterSetting implements Serializable {
 		public void applySetting(LogByteSizeMergePolicy logByteSizeMergePolicy, int value) {
 			logByteSizeMergePolicy.setMergeFactor( value );
 		}
+
+		@Override
+		public void applySetting(TieredMergePolicy tieredMergePolicy, int value) {
+			tieredMergePolicy.setMaxMergeAtOnce( value );
+			tieredMergePolicy.setSegmentsPerTier( value );
+		}
 	},
 	/**
 	 * @see org.apache.lucene.index.LogByteSizeMergePolicy#setMinMergeMB(double)
@@ -79,6 +87,11 @@ public enum IndexWriterSetting implements Serializable {
 		public void applySetting(LogByteSizeMergePolicy logByteSizeMergePolicy, int value) {
 			logByteSizeMergePolicy.setMinMergeMB( value );
 		}
+
+		@Override
+		public void applySetting(TieredMergePolicy tieredMergePolicy, int value) {
+			tieredMergePolicy.setFloorSegmentMB( value );
+		}
 	},
 	/**
 	 * @see org.apache.lucene.index.LogByteSizeMergePolicy#setMaxMergeMB(double)
@@ -87,6 +100,11 @@ public enum IndexWriterSetting implements Serializable {
 		public void applySetting(LogByteSizeMergePolicy logByteSizeMergePolicy, int value) {
 			logByteSizeMergePolicy.setMaxMergeMB( value );
 		}
+
+		@Override
+		public void applySetting(TieredMergePolicy tieredMergePolicy, int value) {
+			tieredMergePolicy.setMaxMergedSegmentMB( value );
+		}
 	},
 	/**
 	 * @see org.apache.lucene.index.LogByteSizeMergePolicy#setMaxMergeMBForForcedMerge(double)
@@ -135,7 +153,33 @@ public enum IndexWriterSetting implements Serializable {
 			boolean useCompoundFile = intToBoolean( value );
 			logByteSizeMergePolicy.setUseCompoundFile( useCompoundFile );
 		}
-	};
+
+		@Override
+		public void applySetting(TieredMergePolicy tieredMergePolicy, int value) {
+			boolean useCompoundFile = intToBoolean( value );
+			tieredMergePolicy.setUseCompoundFile( useCompoundFile );
+		}
+	},
+	/**
+	 * @see org.apache.lucene.index.ConcurrentMergeScheduler#setMaxThreadCount(int)
+	 */
+	MERGE_MAX_THREAD_COUNT( "merge_max_thread_count" ) {
+		@Override
+		public void applySetting(ConcurrentMergeScheduler mergeScheduler, int value) {
+			if ( value > mergeScheduler.getMaxMergeCount() ) {
+				//the max merge count can't be lower than the max thread count
+				mergeScheduler.setMaxMergeCount( value );
+			}
+			mergeScheduler.setMaxThreadCount( value );
+		}
+	},
+	/**
+	 * Limits the write throughput of merge threads, in MB/sec. Not a Lucene setting:
+	 * it's applied by wrapping the Directory used by the IndexWriter.
+	 *
+	 * @see org.hibernate.search.backend.impl.lucene.overrides.MergeRateLimiter
+	 */
+	MERGE_MAX_MB_PER_SEC( "merge_max_mb_per_sec" );
 	
 	private static final Log log = LoggerFactory.make();
 
@@ -160,6 +204,18 @@ public enum IndexWriterSetting implements Serializable {
 	public void applySetting(LogByteSizeMergePolicy logByteSizeMergePolicy, int value) {
 		// nothing to do unless overriden
 	}
+	/**
+	 * @throws IllegalArgumentException when user selects an invalid value; should be wrapped.
+	 */
+	public void applySetting(TieredMergePolicy tieredMergePolicy, int value) {
+		// nothing to do unless overriden
+	}
+	/**
+	 * @throws IllegalArgumentException when user selects an invalid value; should be wrapped.
+	 */
+	public void applySetting(ConcurrentMergeScheduler mergeScheduler, int value) {
+		// nothing to do unless overriden
+	}
 
 	/**
 	 * @return The key used in configuration files to select an option.
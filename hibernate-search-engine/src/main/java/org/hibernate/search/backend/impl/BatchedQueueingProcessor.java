@@ -26,10 +26,13 @@ package org.hibernate.search.backend.impl;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.hibernate.search.Environment;
 import org.hibernate.search.backend.LuceneWork;
 import org.hibernate.search.backend.spi.Work;
+import org.hibernate.search.batchindexing.impl.Executors;
 import org.hibernate.search.engine.spi.EntityIndexBinder;
 import org.hibernate.search.store.IndexShardingStrategy;
 import org.hibernate.search.util.configuration.impl.ConfigurationParseHelper;
@@ -51,9 +54,21 @@ public class BatchedQueueingProcessor implements QueueingProcessor {
 
 	private final Map<Class<?>, EntityIndexBinder> entityIndexBinders;
 
+	/**
+	 * Applies the changes to the different IndexManagers in parallel, or null when disabled.
+	 */
+	private final ExecutorService dispatchExecutor;
+
 	public BatchedQueueingProcessor(Map<Class<?>, EntityIndexBinder> entityIndexBinders, Properties properties) {
 		this.entityIndexBinders = entityIndexBinders;
 		batchSize = ConfigurationParseHelper.getIntValue( properties, Environment.QUEUEINGPROCESSOR_BATCHSIZE, 0 );
+		int dispatchThreads = ConfigurationParseHelper.getIntValue( properties, Environment.WORKER_DISPATCH_THREADPOOL_SIZE, 1 );
+		if ( dispatchThreads > 1 ) {
+			dispatchExecutor = Executors.newFixedThreadPool( dispatchThreads, "Index updates dispatcher" );
+		}
+		else {
+			dispatchExecutor = null;
+		}
 	}
 
 	public void add(Work work, WorkQueue workQueue) {
@@ -85,7 +100,7 @@ public class BatchedQueueingProcessor implements QueueingProcessor {
 			sb.append( "]" );
 			log.trace( sb.toString() );
 		}
-		WorkQueuePerIndexSplitter context = new WorkQueuePerIndexSplitter();
+		WorkQueuePerIndexSplitter context = new WorkQueuePerIndexSplitter( dispatchExecutor );
 		for ( LuceneWork work : sealedQueue ) {
 			final Class<?> entityType = work.getEntityClass();
 			EntityIndexBinder entityIndexBinding = entityIndexBinders.get( entityType );
@@ -100,4 +115,17 @@ public class BatchedQueueingProcessor implements QueueingProcessor {
 		workQueue.clear();
 	}
 
+	public void close() {
+		if ( dispatchExecutor != null ) {
+			dispatchExecutor.shutdown();
+			try {
+				dispatchExecutor.awaitTermination( Long.MAX_VALUE, TimeUnit.SECONDS );
+			}
+			catch ( InterruptedException e ) {
+				log.interruptedWhileWaitingForIndexActivity( e );
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 }
@@ -56,4 +56,9 @@ public interface QueueingProcessor {
 	 */
 	void cancelWorks(WorkQueue workQueue);
 
+	/**
+	 * Release resources, invoked when the Worker is closed
+	 */
+	void close();
+
 }
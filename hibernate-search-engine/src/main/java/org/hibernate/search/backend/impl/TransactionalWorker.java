@@ -168,6 +168,7 @@ public class TransactionalWorker implements Worker {
 	}
 
 	public void close() {
+		queueingProcessor.close();
 	}
 
 	public void flushWorks(TransactionContext transactionContext) {
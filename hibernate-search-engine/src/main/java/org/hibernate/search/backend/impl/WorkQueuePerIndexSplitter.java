@@ -20,14 +20,22 @@
  */
 package org.hibernate.search.backend.impl;
 
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.hibernate.search.backend.IndexingFailuresException;
 import org.hibernate.search.backend.IndexingMonitor;
 import org.hibernate.search.backend.LuceneWork;
 import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
 
 /**
  * Used by {@link ContextAwareSelectionDelegate} to split a list of operations
@@ -36,8 +44,25 @@ import org.hibernate.search.indexes.spi.IndexManager;
  * @author Sanne Grinovero <sanne@hibernate.org> (C) 2011 Red Hat Inc.
  */
 public class WorkQueuePerIndexSplitter {
-	
-	private IdentityHashMap<IndexManager,List<LuceneWork>> queues = new IdentityHashMap<IndexManager,List<LuceneWork>>();
+
+	private static final Log log = LoggerFactory.make();
+
+	private final IdentityHashMap<IndexManager,List<LuceneWork>> queues = new IdentityHashMap<IndexManager,List<LuceneWork>>();
+	private final ExecutorService dispatchExecutor;
+
+	/**
+	 * Creates a splitter which applies the operations to each IndexManager in sequence.
+	 */
+	public WorkQueuePerIndexSplitter() {
+		this( null );
+	}
+
+	/**
+	 * @param dispatchExecutor if not null, used to apply the operations to the different IndexManagers in parallel
+	 */
+	public WorkQueuePerIndexSplitter(ExecutorService dispatchExecutor) {
+		this.dispatchExecutor = dispatchExecutor;
+	}
 
 	/**
 	 * @param indexManager
@@ -45,7 +70,7 @@ public class WorkQueuePerIndexSplitter {
 	public List<LuceneWork> getIndexManagerQueue(IndexManager indexManager) {
 		List<LuceneWork> list = queues.get( indexManager );
 		if ( list == null ) {
-			list = new LinkedList<LuceneWork>();
+			list = new ArrayList<LuceneWork>();
 			queues.put( indexManager, list );
 		}
 		return list;
@@ -56,10 +81,119 @@ public class WorkQueuePerIndexSplitter {
 	 * if supported/enabled by each specific backend.
 	 */
 	public void commitOperations(IndexingMonitor monitor) {
-		// FIXME move executor here to parallel work - optionally? See HSEARCH-826
+		if ( dispatchExecutor == null || queues.size() < 2 ) {
+			for ( Entry<IndexManager,List<LuceneWork>> entry : queues.entrySet() ) {
+				entry.getKey().performOperations( entry.getValue(), monitor );
+			}
+		}
+		else {
+			commitOperationsInParallel( monitor );
+		}
+	}
+
+	/**
+	 * Each IndexManager but the last one is served by the dispatch executor, while the current thread
+	 * takes care of the last one. Waits for all of them to be done, so that sync backends
+	 * still return only after the changes are applied.
+	 */
+	private void commitOperationsInParallel(IndexingMonitor monitor) {
+		final int size = queues.size();
+		List<IndexManagerOperations> dispatches = new ArrayList<IndexManagerOperations>( size );
 		for ( Entry<IndexManager,List<LuceneWork>> entry : queues.entrySet() ) {
-			entry.getKey().performOperations( entry.getValue(), monitor );
+			dispatches.add( new IndexManagerOperations( entry.getKey(), entry.getValue(), monitor ) );
 		}
+		Future<?>[] futures = new Future<?>[size - 1];
+		for ( int i = 0; i < size - 1; i++ ) {
+			futures[i] = dispatchExecutor.submit( dispatches.get( i ) );
+		}
+		Throwable[] failures = new Throwable[size];
+		try {
+			dispatches.get( size - 1 ).run();
+		}
+		catch ( RuntimeException e ) {
+			failures[size - 1] = e;
+		}
+		for ( int i = 0; i < size - 1; i++ ) {
+			try {
+				futures[i].get();
+			}
+			catch ( ExecutionException e ) {
+				failures[i] = e.getCause();
+			}
+			catch ( InterruptedException e ) {
+				log.interruptedWhileWaitingForIndexActivity( e );
+				Thread.currentThread().interrupt();
+				// the shards not awaited might still be applying changes: the caller must not assume they are done
+				for ( int j = i; j < size - 1; j++ ) {
+					failures[j] = futures[j].isDone() ? failureOf( futures[j] ) : e;
+				}
+				break;
+			}
+		}
+		rethrowFailures( dispatches, failures );
+	}
+
+	/**
+	 * @return the failure of a completed dispatch, {@code null} if it succeeded
+	 */
+	private static Throwable failureOf(Future<?> future) {
+		try {
+			future.get();
+			return null;
+		}
+		catch ( ExecutionException e ) {
+			return e.getCause();
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			return e;
+		}
+	}
+
+	/**
+	 * Like in the sequential dispatch, failures are propagated to the caller:
+	 * the backends already notify the ErrorHandler of the errors they can handle.
+	 * A single exception lists all the failed indexes; its cause is the first failure.
+	 */
+	private void rethrowFailures(List<IndexManagerOperations> dispatches, Throwable[] failures) {
+		Map<String, Throwable> failuresByIndex = new LinkedHashMap<String, Throwable>();
+		StringBuilder description = new StringBuilder();
+		for ( int i = 0; i < failures.length; i++ ) {
+			Throwable failure = failures[i];
+			if ( failure != null ) {
+				String indexName = dispatches.get( i ).indexManager.getIndexName();
+				failuresByIndex.put( indexName, failure );
+				if ( description.length() > 0 ) {
+					description.append( ", " );
+				}
+				description.append( indexName ).append( " (" ).append( failure ).append( ')' );
+			}
+		}
+		if ( !failuresByIndex.isEmpty() ) {
+			throw new IndexingFailuresException(
+					log.unableToApplyChangesToSomeIndexes( failuresByIndex.size(), failures.length, description.toString() ),
+					failuresByIndex
+			);
+		}
+	}
+
+	private static final class IndexManagerOperations implements Runnable {
+
+		private final IndexManager indexManager;
+		private final List<LuceneWork> operations;
+		private final IndexingMonitor monitor;
+
+		IndexManagerOperations(IndexManager indexManager, List<LuceneWork> operations, IndexingMonitor monitor) {
+			this.indexManager = indexManager;
+			this.operations = operations;
+			this.monitor = monitor;
+		}
+
+		@Override
+		public void run() {
+			indexManager.performOperations( operations, monitor );
+		}
+
 	}
 
 }
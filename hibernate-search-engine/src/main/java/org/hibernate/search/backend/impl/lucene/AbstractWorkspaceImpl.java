@@ -67,7 +67,7 @@ public abstract class AbstractWorkspaceImpl implements Workspace {
 		this.indexManager = indexManager;
 		this.optimizerStrategy = indexManager.getOptimizerStrategy();
 		this.entitiesInIndexManager = indexManager.getContainedTypes();
-		this.writerHolder = new IndexWriterHolder( context.getErrorHandler(), indexManager );
+		this.writerHolder = new IndexWriterHolder( context.getErrorHandler(), indexManager, context.getUninitializedSearchFactory() );
 		this.indexMetadataIsComplete = CommonPropertiesParse.isIndexMetadataComplete( cfg, context );
 	}
 
@@ -105,6 +105,15 @@ public abstract class AbstractWorkspaceImpl implements Workspace {
 	@Override
 	public abstract void afterTransactionApplied(boolean someFailureHappened, boolean streaming);
 
+	/**
+	 * Invoked once the backend is done with some transactions, whether they were applied,
+	 * failed or rejected. Only the workspaces tracking which changes are visible need it.
+	 *
+	 * @param transactions the number of transactions
+	 */
+	public void transactionsProcessed(int transactions) {
+	}
+
 	public void shutDownNow() {
 		log.shuttingDownBackend( indexManager.getIndexName() );
 		writerHolder.closeIndexWriter();
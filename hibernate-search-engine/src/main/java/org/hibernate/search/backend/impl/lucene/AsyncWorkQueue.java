@@ -0,0 +1,116 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * The bounded queue of the work lists to be applied asynchronously to an index, in order.
+ * The overflow policy is applied when offering to this queue, never to the internal queue of
+ * the queueing executor: at most one drain task is scheduled on the executor at any time,
+ * applying the queued tasks one after the other.
+ *
+ * @since 4.1
+ */
+final class AsyncWorkQueue implements Runnable {
+
+	private static final Log log = LoggerFactory.make();
+
+	private final LuceneBackendQueueProcessor processor;
+	private final BlockingQueue<LuceneBackendQueueTask> pending;
+	private final AtomicBoolean drainScheduled = new AtomicBoolean( false );
+
+	AsyncWorkQueue(LuceneBackendQueueProcessor processor, int maxQueueLength) {
+		this.processor = processor;
+		this.pending = new LinkedBlockingQueue<LuceneBackendQueueTask>( maxQueueLength );
+	}
+
+	/**
+	 * Enqueues the task, applying the overflow policy if the queue is full.
+	 *
+	 * @return true if the task was added to the queue, false if the overflow policy took care of the work
+	 */
+	boolean enqueue(LuceneBackendQueueTask task, List<LuceneWork> workList, IndexingMonitor monitor,
+			IndexingJournal.Entry journalEntry) {
+		if ( processor.getSubmitter().submit( pending, task, workList, monitor, journalEntry ) ) {
+			scheduleDrain();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Enqueues the task, blocking the caller if the queue is full.
+	 */
+	void enqueueBlocking(LuceneBackendQueueTask task) {
+		try {
+			pending.put( task );
+		}
+		catch ( InterruptedException e ) {
+			log.interruptedWhileWaitingForIndexActivity( e );
+			Thread.currentThread().interrupt();
+			return;
+		}
+		scheduleDrain();
+	}
+
+	/**
+	 * @return the number of tasks waiting to be applied
+	 */
+	int size() {
+		return pending.size();
+	}
+
+	private void scheduleDrain() {
+		if ( drainScheduled.compareAndSet( false, true ) ) {
+			processor.getIndexResources().getQueueingExecutor().execute( this );
+		}
+	}
+
+	@Override
+	public void run() {
+		do {
+			try {
+				LuceneBackendQueueTask task;
+				while ( ( task = pending.poll() ) != null ) {
+					task.run();
+				}
+			}
+			finally {
+				drainScheduled.set( false );
+			}
+		}
+		// some work might have been enqueued after the last poll but before resetting the flag
+		while ( ! pending.isEmpty() && drainScheduled.compareAndSet( false, true ) );
+	}
+
+}
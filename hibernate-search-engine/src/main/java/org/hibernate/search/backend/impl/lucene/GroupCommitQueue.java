@@ -0,0 +1,186 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Collects the work lists of several transactions to be applied asynchronously to the same index,
+ * so that they can be applied in a single IndexWriter pass followed by a single commit.
+ * At most one drain task is scheduled on the queueing executor at any time: while it's busy
+ * applying a batch new work accumulates in the queue and is picked up by the next batch.
+ * A batch is closed when it contains {@code maxBatchSize} transactions or when {@code maxLatency}
+ * expired since the batch was started.
+ *
+ * @since 4.1
+ */
+final class GroupCommitQueue implements Runnable {
+
+	private static final Log log = LoggerFactory.make();
+
+	private final LuceneBackendQueueProcessor processor;
+	private final BlockingQueue<PendingWorkList> pending;
+	private final AtomicBoolean drainScheduled = new AtomicBoolean( false );
+	private final long maxLatencyNanos;
+	private final int maxBatchSize;
+
+	GroupCommitQueue(LuceneBackendQueueProcessor processor, int maxQueueLength, long maxLatencyMillis, int maxBatchSize) {
+		this.processor = processor;
+		this.pending = new LinkedBlockingQueue<PendingWorkList>( maxQueueLength );
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos( maxLatencyMillis );
+		this.maxBatchSize = Math.max( 1, maxBatchSize );
+	}
+
+	/**
+	 * Enqueues the work list, applying the overflow policy if the queue is full.
+	 */
+	void enqueue(List<LuceneWork> workList, IndexingMonitor monitor, IndexingJournal.Entry journalEntry) {
+		PendingWorkList element = new PendingWorkList( workList, monitor, journalEntry );
+		if ( processor.getSubmitter().submit( pending, element, workList, monitor, journalEntry ) ) {
+			scheduleDrain();
+		}
+	}
+
+	/**
+	 * Enqueues the work list, blocking the caller if the queue is full.
+	 */
+	void enqueueBlocking(List<LuceneWork> workList, IndexingMonitor monitor, IndexingJournal.Entry journalEntry) {
+		try {
+			pending.put( new PendingWorkList( workList, monitor, journalEntry ) );
+		}
+		catch ( InterruptedException e ) {
+			log.interruptedWhileWaitingForIndexActivity( e );
+			Thread.currentThread().interrupt();
+			return;
+		}
+		scheduleDrain();
+	}
+
+	/**
+	 * @return the number of work lists waiting to be merged in a batch
+	 */
+	int size() {
+		return pending.size();
+	}
+
+	private void scheduleDrain() {
+		if ( drainScheduled.compareAndSet( false, true ) ) {
+			processor.getIndexResources().getQueueingExecutor().execute( this );
+		}
+	}
+
+	@Override
+	public void run() {
+		do {
+			try {
+				PendingWorkList first;
+				while ( ( first = pending.poll() ) != null ) {
+					applyBatch( collectBatch( first ) );
+				}
+			}
+			finally {
+				drainScheduled.set( false );
+			}
+		}
+		// some work might have been enqueued after the last poll but before resetting the flag
+		while ( ! pending.isEmpty() && drainScheduled.compareAndSet( false, true ) );
+	}
+
+	private List<PendingWorkList> collectBatch(PendingWorkList first) {
+		List<PendingWorkList> batch = new ArrayList<PendingWorkList>();
+		batch.add( first );
+		final long deadline = System.nanoTime() + maxLatencyNanos;
+		while ( batch.size() < maxBatchSize ) {
+			long remaining = deadline - System.nanoTime();
+			if ( remaining <= 0 ) {
+				pending.drainTo( batch, maxBatchSize - batch.size() );
+				break;
+			}
+			PendingWorkList next;
+			try {
+				next = pending.poll( remaining, TimeUnit.NANOSECONDS );
+			}
+			catch ( InterruptedException e ) {
+				log.interruptedWhileWaitingForIndexActivity( e );
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if ( next == null ) {
+				break;
+			}
+			batch.add( next );
+		}
+		return batch;
+	}
+
+	private void applyBatch(List<PendingWorkList> batch) {
+		int totalSize = 0;
+		for ( PendingWorkList workList : batch ) {
+			totalSize += workList.workList.size();
+		}
+		List<LuceneWork> mergedWork = new ArrayList<LuceneWork>( totalSize );
+		List<IndexingMonitor> monitors = new ArrayList<IndexingMonitor>( totalSize );
+		List<IndexingJournal.Entry> journalEntries = new ArrayList<IndexingJournal.Entry>( batch.size() );
+		for ( PendingWorkList workList : batch ) {
+			mergedWork.addAll( workList.workList );
+			monitors.addAll( Collections.nCopies( workList.workList.size(), workList.monitor ) );
+			if ( workList.journalEntry != null ) {
+				journalEntries.add( workList.journalEntry );
+			}
+		}
+		if ( log.isTraceEnabled() ) {
+			log.tracef( "Group commit merging %d transactions, %d operations", batch.size(), totalSize );
+		}
+		new LuceneBackendQueueTask( mergedWork, monitors, processor.getIndexResources(), batch.size(), journalEntries ).run();
+	}
+
+	/**
+	 * The work list of a single transaction, its IndexingMonitor and journal entry.
+	 */
+	private static final class PendingWorkList {
+
+		private final List<LuceneWork> workList;
+		private final IndexingMonitor monitor;
+		private final IndexingJournal.Entry journalEntry;
+
+		PendingWorkList(List<LuceneWork> workList, IndexingMonitor monitor, IndexingJournal.Entry journalEntry) {
+			this.workList = workList;
+			this.monitor = monitor;
+			this.journalEntry = journalEntry;
+		}
+
+	}
+
+}
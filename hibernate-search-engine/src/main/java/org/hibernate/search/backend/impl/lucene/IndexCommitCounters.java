@@ -0,0 +1,88 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the commits applied by the Lucene backend to a single index,
+ * and how many transactions each commit covered.
+ * When group commit is disabled each commit covers exactly one transaction.
+ *
+ * @since 4.1
+ */
+public final class IndexCommitCounters {
+
+	private final AtomicLong commitCount = new AtomicLong();
+	private final AtomicLong transactionCount = new AtomicLong();
+	private final AtomicLong maxTransactionsPerCommit = new AtomicLong();
+
+	/**
+	 * Invoked after a set of changes was applied to the IndexWriter and committed.
+	 *
+	 * @param transactions the number of transactions merged in this commit
+	 */
+	void commitPerformed(int transactions) {
+		commitCount.incrementAndGet();
+		transactionCount.addAndGet( transactions );
+		for ( long old = maxTransactionsPerCommit.get();
+				transactions > old && ! maxTransactionsPerCommit.compareAndSet( old, transactions );
+				old = maxTransactionsPerCommit.get() ) {
+			;
+		}
+	}
+
+	/**
+	 * @return the number of commits applied to the index
+	 */
+	public long getCommitCount() {
+		return commitCount.get();
+	}
+
+	/**
+	 * @return the number of transactions applied to the index
+	 */
+	public long getTransactionCount() {
+		return transactionCount.get();
+	}
+
+	/**
+	 * @return the highest number of transactions covered by a single commit
+	 */
+	public long getMaxTransactionsPerCommit() {
+		return maxTransactionsPerCommit.get();
+	}
+
+	/**
+	 * @return the average number of transactions covered by each commit
+	 */
+	public double getAverageTransactionsPerCommit() {
+		long commits = commitCount.get();
+		if ( commits == 0 ) {
+			return 0d;
+		}
+		return (double) transactionCount.get() / commits;
+	}
+
+}
@@ -21,6 +21,7 @@
 package org.hibernate.search.backend.impl.lucene;
 
 import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.SimpleAnalyzer;
@@ -28,20 +29,27 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
-import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.index.SerialMergeScheduler;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.search.Similarity;
+import org.apache.lucene.store.Directory;
 
 import org.hibernate.search.Environment;
+import org.hibernate.search.backend.configuration.impl.IndexWriterSetting;
 import org.hibernate.search.backend.impl.lucene.overrides.ConcurrentMergeScheduler;
+import org.hibernate.search.backend.impl.lucene.overrides.MergeRateLimiter;
+import org.hibernate.search.backend.impl.lucene.overrides.MergeThrottlingDirectory;
 import org.hibernate.search.backend.spi.LuceneIndexingParameters;
 import org.hibernate.search.backend.spi.LuceneIndexingParameters.ParameterSet;
+import org.hibernate.search.engine.spi.SearchFactoryImplementor;
 import org.hibernate.search.exception.ErrorContext;
 import org.hibernate.search.exception.ErrorHandler;
 import org.hibernate.search.exception.impl.ErrorContextBuilder;
 import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.indexes.spi.IndexCommitListener;
 import org.hibernate.search.store.DirectoryProvider;
+import org.hibernate.search.util.impl.ClassLoaderHelper;
 import org.hibernate.search.util.logging.impl.Log;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
@@ -64,21 +72,51 @@ class IndexWriterHolder {
 	private final ParameterSet indexParameters;
 	private final DirectoryProvider directoryProvider;
 	private final String indexName;
+	private final SearchFactoryImplementor searchFactory;
+	private final DirectoryBasedIndexManager indexManager;
+
+	/**
+	 * Shared by all merge threads of this index, or null when merges are not throttled.
+	 */
+	private final MergeRateLimiter mergeRateLimiter;
 	
 	// variable state:
 	
 	/**
-	 * Current open IndexWriter, or null when closed. Guarded by synchronization.
+	 * Current open IndexWriter, or null when closed.
+	 * Reads are lock-free; changes are guarded by writerInitializationLock.
+	 */
+	private volatile IndexWriter writer;
+
+	/**
+	 * Guards opening and closing of the IndexWriter.
+	 * When more than one lock is needed they are always acquired in this order:
+	 * writerInitializationLock, commitLock, nrtReaderLock.
 	 */
-	private IndexWriter writer;
+	private final ReentrantLock writerInitializationLock = new ReentrantLock();
 
+	/**
+	 * Guards commits, so that a slow commit doesn't block threads acquiring the IndexWriter.
+	 */
+	private final ReentrantLock commitLock = new ReentrantLock();
 
-	IndexWriterHolder(ErrorHandler errorHandler, DirectoryBasedIndexManager indexManager) {
+	/**
+	 * Guards the opening of NRT IndexReaders, independently from commits.
+	 */
+	private final ReentrantLock nrtReaderLock = new ReentrantLock();
+
+
+	IndexWriterHolder(ErrorHandler errorHandler, DirectoryBasedIndexManager indexManager, SearchFactoryImplementor searchFactory) {
 		this.errorHandler = errorHandler;
+		this.searchFactory = searchFactory;
+		this.indexManager = indexManager;
 		this.indexName = indexManager.getIndexName();
 		this.luceneParameters = indexManager.getIndexingParameters();
 		this.indexParameters = luceneParameters.getIndexParameters();
 		this.directoryProvider = indexManager.getDirectoryProvider();
+		Integer maxMergeMBPerSec = indexParameters.getCurrentValueFor( IndexWriterSetting.MERGE_MAX_MB_PER_SEC );
+		this.mergeRateLimiter = ( maxMergeMBPerSec == null || maxMergeMBPerSec.intValue() < 1 )
+				? null : new MergeRateLimiter( maxMergeMBPerSec.intValue() );
 		this.luceneParameters.applyToWriter( writerConfig );
 		Similarity similarity = indexManager.getSimilarity();
 		if ( similarity != null ) {
@@ -95,18 +133,31 @@ class IndexWriterHolder {
 	 *  Is an optional parameter.
 	 * @return a new IndexWriter or one already open.
 	 */
-	public synchronized IndexWriter getIndexWriter(ErrorContextBuilder errorContextBuilder) {
-		if ( writer != null )
-			return writer;
+	public IndexWriter getIndexWriter(ErrorContextBuilder errorContextBuilder) {
+		IndexWriter indexWriter = writer;
+		if ( indexWriter != null ) {
+			return indexWriter;
+		}
+		writerInitializationLock.lock();
 		try {
-			writer = createNewIndexWriter();
-			log.trace( "IndexWriter opened" );
+			indexWriter = writer;
+			if ( indexWriter == null ) {
+				try {
+					indexWriter = createNewIndexWriter();
+					writer = indexWriter;
+					log.trace( "IndexWriter opened" );
+				}
+				catch ( IOException ioe ) {
+					indexWriter = null;
+					writer = null;
+					handleIOException( ioe, errorContextBuilder );
+				}
+			}
+			return indexWriter;
 		}
-		catch ( IOException ioe ) {
-			writer = null;
-			handleIOException( ioe, errorContextBuilder );
+		finally {
+			writerInitializationLock.unlock();
 		}
-		return writer;
 	}
 
 	public IndexWriter getIndexWriter() {
@@ -120,29 +171,65 @@ class IndexWriterHolder {
 	 * Also each new IndexWriter needs a new MergePolicy.
 	 */
 	private IndexWriter createNewIndexWriter() throws IOException {
-		LogByteSizeMergePolicy newMergePolicy = indexParameters.getNewMergePolicy(); //TODO make it possible to configure a different policy?
-		writerConfig.setMergePolicy( newMergePolicy );
-		MergeScheduler mergeScheduler = new ConcurrentMergeScheduler( this.errorHandler, this.indexName );
-		writerConfig.setMergeScheduler( mergeScheduler );
-		IndexWriter writer = new IndexWriter( directoryProvider.getDirectory(), writerConfig );
+		writerConfig.setMergePolicy( indexParameters.createMergePolicy() );
+		writerConfig.setMergeScheduler( createMergeScheduler() );
+		Directory directory = directoryProvider.getDirectory();
+		if ( mergeRateLimiter != null ) {
+			directory = new MergeThrottlingDirectory( directory, mergeRateLimiter );
+		}
+		IndexWriter writer = new IndexWriter( directory, writerConfig );
 		return writer;
 	}
 
+	/**
+	 * Only our own ConcurrentMergeScheduler reports merges to the statistics and
+	 * can be throttled: custom schedulers are used as they are.
+	 */
+	private MergeScheduler createMergeScheduler() {
+		String mergeSchedulerName = indexParameters.getMergeScheduler();
+		if ( LuceneIndexingParameters.CONCURRENT_MERGE_SCHEDULER.equals( mergeSchedulerName ) ) {
+			ConcurrentMergeScheduler mergeScheduler = new ConcurrentMergeScheduler(
+					this.errorHandler, this.indexName, this.mergeRateLimiter, this.searchFactory
+			);
+			indexParameters.applyToMergeScheduler( mergeScheduler );
+			return mergeScheduler;
+		}
+		else if ( LuceneIndexingParameters.SERIAL_MERGE_SCHEDULER.equals( mergeSchedulerName ) ) {
+			return new SerialMergeScheduler();
+		}
+		else {
+			return ClassLoaderHelper.instanceFromName(
+					MergeScheduler.class, mergeSchedulerName, IndexWriterHolder.class, "merge scheduler"
+			);
+		}
+	}
+
 	/**
 	 * Commits changes to a previously opened IndexWriter.
 	 * @param errorContextBuilder use it to handle exceptions, as it might contain a reference to the work performed before the commit
 	 */
-	//TODO HSEARCH-852 : a commit should not block a getIndexWriter: split the locking
-	public synchronized void commitIndexWriter(ErrorContextBuilder errorContextBuilder) {
-		if ( writer != null ) {
-			try {
-				writer.commit();
-				log.trace( "Index changes commited." );
-			}
-			catch ( IOException ioe ) {
-				handleIOException( ioe, errorContextBuilder );
+	public void commitIndexWriter(ErrorContextBuilder errorContextBuilder) {
+		boolean committed = false;
+		commitLock.lock();
+		try {
+			IndexWriter indexWriter = writer;
+			if ( indexWriter != null ) {
+				try {
+					indexWriter.commit();
+					log.trace( "Index changes commited." );
+					committed = true;
+				}
+				catch ( IOException ioe ) {
+					handleIOException( ioe, errorContextBuilder );
+				}
 			}
 		}
+		finally {
+			commitLock.unlock();
+		}
+		if ( committed ) {
+			notifyIndexCommitted();
+		}
 	}
 
 	/**
@@ -155,30 +242,53 @@ class IndexWriterHolder {
 	/**
 	 * Closes a previously opened IndexWriter.
 	 */
-	public synchronized void closeIndexWriter() {
-		IndexWriter toClose = writer;
-		writer = null;
-		if ( toClose != null ) {
-			try {
-				toClose.close();
-				log.trace( "IndexWriter closed" );
-			}
-			catch ( IOException ioe ) {
-				forceLockRelease();
-				handleIOException( ioe, null );
+	public void closeIndexWriter() {
+		boolean committed = false;
+		lockAll();
+		try {
+			IndexWriter toClose = writer;
+			writer = null;
+			if ( toClose != null ) {
+				try {
+					toClose.close();
+					log.trace( "IndexWriter closed" );
+					committed = true;
+				}
+				catch ( IOException ioe ) {
+					forceLockRelease();
+					handleIOException( ioe, null );
+				}
 			}
 		}
+		finally {
+			unlockAll();
+		}
+		if ( committed ) {
+			notifyIndexCommitted();
+		}
+	}
+
+	/**
+	 * Lets the registered listeners, such as a reader provider refreshing asynchronously,
+	 * know that there are changes to be seen. Invoked once the locks are released.
+	 */
+	private void notifyIndexCommitted() {
+		for ( IndexCommitListener listener : indexManager.getIndexCommitListeners() ) {
+			listener.indexCommitted();
+		}
 	}
 
 	/**
 	 * Forces release of Directory lock. Should be used only to cleanup as error recovery.
 	 */
-	public synchronized void forceLockRelease() {
+	public void forceLockRelease() {
 		log.forcingReleaseIndexWriterLock();
+		lockAll();
 		try {
 			try {
-				if ( writer != null ) {
-					writer.close();
+				IndexWriter toClose = writer;
+				if ( toClose != null ) {
+					toClose.close();
 					log.trace( "IndexWriter closed" );
 				}
 			}
@@ -190,17 +300,37 @@ class IndexWriterHolder {
 		catch (IOException ioe) {
 			handleIOException( ioe, null );
 		}
+		finally {
+			unlockAll();
+		}
+	}
+
+	/**
+	 * Acquires all locks, in the documented order: needed to change the IndexWriter instance
+	 * while no commit nor NRT reader opening is in progress on it.
+	 */
+	private void lockAll() {
+		writerInitializationLock.lock();
+		commitLock.lock();
+		nrtReaderLock.lock();
+	}
+
+	private void unlockAll() {
+		nrtReaderLock.unlock();
+		commitLock.unlock();
+		writerInitializationLock.unlock();
 	}
 
 	/**
 	 * Opens an IndexReader having visibility on uncommitted writes from
 	 * the IndexWriter, if any writer is open, or null if no IndexWriter is open.
 	 */
-	//TODO HSEARCH-852 : fine grained synchronization
-	public synchronized IndexReader openNRTIndexReader(boolean applyDeletes) {
+	public IndexReader openNRTIndexReader(boolean applyDeletes) {
+		nrtReaderLock.lock();
 		try {
-			if ( writer != null ) {
-				return IndexReader.open( writer, applyDeletes );
+			IndexWriter indexWriter = writer;
+			if ( indexWriter != null ) {
+				return IndexReader.open( indexWriter, applyDeletes );
 			}
 			else {
 				return null;
@@ -214,6 +344,9 @@ class IndexWriterHolder {
 		catch ( IOException ioe ) {
 			throw log.ioExceptionOnIndex( ioe, indexName );
 		}
+		finally {
+			nrtReaderLock.unlock();
+		}
 	}
 
 	/**
@@ -0,0 +1,423 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.zip.CRC32;
+
+import org.hibernate.search.backend.AddLuceneWork;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.UpdateLuceneWork;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Local append-only write-ahead journal of the work applied asynchronously to an index.
+ * Each work list is serialized with the {@link org.hibernate.search.indexes.serialization.spi.LuceneWorkSerializer}
+ * of the index and appended to the current segment file, prefixed by its length and checksum.
+ * An {@link Entry} is released once its changes are committed to the index; segments whose entries
+ * are all released are deleted, or truncated when it's the segment being written to.
+ * Segments found on startup are replayed, converting additions into updates so that work which
+ * was already committed is not duplicated.
+ * <p>
+ * Appends are made durable either by the committing threads, which share a single fsync
+ * among all the threads waiting for it, or periodically by a background thread.
+ *
+ * @since 4.1
+ */
+final class IndexingJournal {
+
+	private static final Log log = LoggerFactory.make();
+
+	private static final String SEGMENT_PREFIX = "journal-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final int HEADER_SIZE = 12;
+
+	private final IndexManager indexManager;
+	private final File directory;
+	private final long maxSegmentSize;
+	private final Timer syncTimer;
+
+	private List<File> recoveredSegments;
+
+	private final Object writeLock = new Object();
+	//guarded by writeLock
+	private final LinkedList<Segment> segments = new LinkedList<Segment>();
+	private Segment current;
+	private long nextSegmentNumber;
+	private long appendedBytes = 0;
+
+	private final Object syncLock = new Object();
+	//guarded by syncLock
+	private long syncedBytes = 0;
+	private boolean syncInProgress = false;
+
+	IndexingJournal(IndexManager indexManager, File directory, long maxSegmentSize, long syncIntervalMillis) throws IOException {
+		this.indexManager = indexManager;
+		this.directory = directory;
+		this.maxSegmentSize = maxSegmentSize;
+		if ( ! directory.isDirectory() && ! directory.mkdirs() ) {
+			throw new IOException( "Unable to create directory " + directory.getAbsolutePath() );
+		}
+		this.recoveredSegments = listSegments();
+		this.nextSegmentNumber = recoveredSegments.isEmpty() ? 0 : segmentNumber( recoveredSegments.get( recoveredSegments.size() - 1 ) ) + 1;
+		if ( syncIntervalMillis > 0 ) {
+			syncTimer = new Timer( "Journal sync for index " + indexManager.getIndexName(), true );
+			syncTimer.schedule( new TimerTask() {
+				@Override
+				public void run() {
+					try {
+						sync( Long.MAX_VALUE );
+					}
+					catch (IOException e) {
+						log.unableToWriteJournal( IndexingJournal.this.indexManager.getIndexName(), e );
+					}
+				}
+			}, syncIntervalMillis, syncIntervalMillis );
+		}
+		else {
+			syncTimer = null;
+		}
+	}
+
+	/**
+	 * Reads the work lists left over by a previous run, converting additions into updates.
+	 * Once they are applied {@link #deleteRecovered()} must be invoked.
+	 */
+	List<List<LuceneWork>> recover() throws IOException {
+		List<List<LuceneWork>> recovered = new ArrayList<List<LuceneWork>>();
+		for ( File file : recoveredSegments ) {
+			for ( byte[] data : readSegment( file ) ) {
+				recovered.add( toIdempotentWork( indexManager.getSerializer().toLuceneWorks( data ) ) );
+			}
+		}
+		return recovered;
+	}
+
+	void deleteRecovered() {
+		for ( File file : recoveredSegments ) {
+			file.delete();
+		}
+		recoveredSegments = new ArrayList<File>( 0 );
+	}
+
+	/**
+	 * Appends the work list to the journal; unless a sync interval is configured it returns only
+	 * when the entry is durable.
+	 *
+	 * @return the entry to release once the work is committed to the index
+	 */
+	Entry append(List<LuceneWork> workList) throws IOException {
+		byte[] data = indexManager.getSerializer().toSerializedModel( workList );
+		CRC32 checksum = new CRC32();
+		checksum.update( data );
+		ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE + data.length );
+		buffer.putInt( data.length );
+		buffer.putLong( checksum.getValue() );
+		buffer.put( data );
+		buffer.flip();
+		final Entry entry;
+		synchronized ( writeLock ) {
+			if ( current == null || current.size >= maxSegmentSize ) {
+				startSegment();
+			}
+			while ( buffer.hasRemaining() ) {
+				current.channel.write( buffer );
+			}
+			current.size += buffer.limit();
+			current.pendingEntries++;
+			appendedBytes += buffer.limit();
+			entry = new Entry( this, current, appendedBytes );
+		}
+		if ( syncTimer == null ) {
+			sync( entry.position );
+		}
+		return entry;
+	}
+
+	/**
+	 * Marks the entry as committed to the index, so that its segment can be deleted or truncated.
+	 */
+	private void release(Entry entry) {
+		synchronized ( writeLock ) {
+			Segment segment = entry.segment;
+			segment.pendingEntries--;
+			if ( segment.pendingEntries > 0 ) {
+				return;
+			}
+			try {
+				if ( segment == current ) {
+					segment.channel.truncate( 0 );
+					segment.channel.position( 0 );
+					segment.size = 0;
+				}
+				else {
+					segment.close();
+					segments.remove( segment );
+					segment.file.delete();
+				}
+			}
+			catch (IOException e) {
+				log.unableToWriteJournal( indexManager.getIndexName(), e );
+			}
+		}
+	}
+
+	/**
+	 * Stops the background sync and closes the segments; empty segments are deleted.
+	 * All entries are expected to be released.
+	 */
+	void close() {
+		if ( syncTimer != null ) {
+			syncTimer.cancel();
+		}
+		synchronized ( writeLock ) {
+			for ( Segment segment : segments ) {
+				try {
+					segment.channel.force( false );
+					segment.close();
+				}
+				catch (IOException e) {
+					log.unableToWriteJournal( indexManager.getIndexName(), e );
+				}
+				if ( segment.pendingEntries == 0 ) {
+					segment.file.delete();
+				}
+			}
+			segments.clear();
+			current = null;
+		}
+	}
+
+	/**
+	 * Waits until the first {@code position} appended bytes are durable: a single thread forces the
+	 * current segment to disk on behalf of all the threads waiting.
+	 */
+	private void sync(long position) throws IOException {
+		synchronized ( syncLock ) {
+			while ( syncInProgress && syncedBytes < position ) {
+				try {
+					syncLock.wait();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if ( syncedBytes >= position ) {
+				return;
+			}
+			syncInProgress = true;
+		}
+		long target = 0;
+		boolean synced = false;
+		try {
+			Segment segment;
+			synchronized ( writeLock ) {
+				target = appendedBytes;
+				segment = current;
+			}
+			if ( segment != null ) {
+				try {
+					segment.channel.force( false );
+				}
+				catch (ClosedChannelException e) {
+					//the segment was rolled, hence forced, and released meanwhile
+				}
+			}
+			synced = true;
+		}
+		finally {
+			synchronized ( syncLock ) {
+				syncInProgress = false;
+				if ( synced ) {
+					syncedBytes = Math.max( syncedBytes, target );
+				}
+				syncLock.notifyAll();
+			}
+		}
+	}
+
+	private void startSegment() throws IOException {
+		if ( current != null ) {
+			//older segments must be durable before writing to the new one
+			current.channel.force( false );
+		}
+		File file = new File( directory, SEGMENT_PREFIX + nextSegmentNumber++ + SEGMENT_SUFFIX );
+		current = new Segment( file );
+		segments.add( current );
+	}
+
+	private List<File> listSegments() {
+		File[] files = directory.listFiles( new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith( SEGMENT_PREFIX ) && name.endsWith( SEGMENT_SUFFIX );
+			}
+		} );
+		if ( files == null ) {
+			return new ArrayList<File>( 0 );
+		}
+		Arrays.sort( files, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				long n1 = segmentNumber( o1 );
+				long n2 = segmentNumber( o2 );
+				return n1 < n2 ? -1 : ( n1 == n2 ? 0 : 1 );
+			}
+		} );
+		return new ArrayList<File>( Arrays.asList( files ) );
+	}
+
+	private static long segmentNumber(File file) {
+		String name = file.getName();
+		return Long.parseLong( name.substring( SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length() ) );
+	}
+
+	private static List<byte[]> readSegment(File file) throws IOException {
+		List<byte[]> entries = new ArrayList<byte[]>();
+		RandomAccessFile raf = new RandomAccessFile( file, "r" );
+		try {
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			long position = 0;
+			ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+			while ( position < size ) {
+				header.clear();
+				if ( ! readFully( channel, header, position ) ) {
+					log.ignoringJournalTail( file.getAbsolutePath(), position );
+					break;
+				}
+				header.flip();
+				int length = header.getInt();
+				long expectedChecksum = header.getLong();
+				if ( length < 0 || position + HEADER_SIZE + length > size ) {
+					log.ignoringJournalTail( file.getAbsolutePath(), position );
+					break;
+				}
+				ByteBuffer data = ByteBuffer.allocate( length );
+				readFully( channel, data, position + HEADER_SIZE );
+				CRC32 checksum = new CRC32();
+				checksum.update( data.array() );
+				if ( checksum.getValue() != expectedChecksum ) {
+					log.ignoringJournalTail( file.getAbsolutePath(), position );
+					break;
+				}
+				entries.add( data.array() );
+				position += HEADER_SIZE + length;
+			}
+		}
+		finally {
+			raf.close();
+		}
+		return entries;
+	}
+
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while ( buffer.hasRemaining() ) {
+			int read = channel.read( buffer, position + buffer.position() );
+			if ( read < 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Some of the replayed work might already be committed to the index: replace additions by
+	 * updates so that the documents are not duplicated.
+	 */
+	private static List<LuceneWork> toIdempotentWork(List<LuceneWork> workList) {
+		List<LuceneWork> converted = new ArrayList<LuceneWork>( workList.size() );
+		for ( LuceneWork work : workList ) {
+			if ( work instanceof AddLuceneWork ) {
+				converted.add( new UpdateLuceneWork( work.getId(), work.getIdInString(), work.getEntityClass(),
+						work.getDocument(), work.getFieldToAnalyzerMap() ) );
+			}
+			else {
+				converted.add( work );
+			}
+		}
+		return converted;
+	}
+
+	/**
+	 * A work list appended to the journal, not released yet.
+	 */
+	static final class Entry {
+
+		private final IndexingJournal journal;
+		private final Segment segment;
+		private final long position;
+
+		private Entry(IndexingJournal journal, Segment segment, long position) {
+			this.journal = journal;
+			this.segment = segment;
+			this.position = position;
+		}
+
+		/**
+		 * To be invoked once the work of this entry is committed to the index.
+		 */
+		void release() {
+			journal.release( this );
+		}
+
+	}
+
+	private static final class Segment {
+
+		private final File file;
+		private final RandomAccessFile raf;
+		private final FileChannel channel;
+		private long size = 0;
+		private int pendingEntries = 0;
+
+		Segment(File file) throws IOException {
+			this.file = file;
+			this.raf = new RandomAccessFile( file, "rw" );
+			this.channel = raf.getChannel();
+		}
+
+		void close() throws IOException {
+			raf.close();
+		}
+
+	}
+
+}
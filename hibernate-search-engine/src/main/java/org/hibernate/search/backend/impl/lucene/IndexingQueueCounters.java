@@ -0,0 +1,132 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how asynchronous work is accepted by the queue of the Lucene backend:
+ * how long committing threads waited for space in the queue, how the
+ * {@link QueueOverflowPolicy} handled the work which didn't fit and how many
+ * operations were skipped by the {@link WorkCoalescer}.
+ * All times are in nanoseconds.
+ *
+ * @since 4.1
+ */
+public final class IndexingQueueCounters {
+
+	private final AtomicLong submittedCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
+	private final AtomicLong maxWaitTime = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong callerRunsCount = new AtomicLong();
+	private final AtomicLong spilledCount = new AtomicLong();
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	void workSubmitted(long waitTime) {
+		submittedCount.incrementAndGet();
+		totalWaitTime.addAndGet( waitTime );
+		long max = maxWaitTime.get();
+		while ( waitTime > max && ! maxWaitTime.compareAndSet( max, waitTime ) ) {
+			max = maxWaitTime.get();
+		}
+	}
+
+	void workRejected() {
+		rejectedCount.incrementAndGet();
+	}
+
+	void workRunByCaller() {
+		callerRunsCount.incrementAndGet();
+	}
+
+	void workSpilled() {
+		spilledCount.incrementAndGet();
+	}
+
+	void operationsCoalesced(int operations) {
+		coalescedCount.addAndGet( operations );
+	}
+
+	/**
+	 * @return the number of work lists submitted to the queue, whatever the outcome
+	 */
+	public long getSubmittedCount() {
+		return submittedCount.get();
+	}
+
+	/**
+	 * @return the total time committing threads waited to submit their work
+	 */
+	public long getTotalWaitTime() {
+		return totalWaitTime.get();
+	}
+
+	/**
+	 * @return the longest time a committing thread waited to submit its work
+	 */
+	public long getMaxWaitTime() {
+		return maxWaitTime.get();
+	}
+
+	/**
+	 * @return the average time committing threads waited to submit their work
+	 */
+	public long getAverageWaitTime() {
+		long submitted = submittedCount.get();
+		if ( submitted == 0 ) {
+			return 0;
+		}
+		return totalWaitTime.get() / submitted;
+	}
+
+	/**
+	 * @return the number of work lists discarded because the queue was full or the spill failed
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * @return the number of work lists applied by the committing thread as the queue was full
+	 */
+	public long getCallerRunsCount() {
+		return callerRunsCount.get();
+	}
+
+	/**
+	 * @return the number of work lists written to the spill journal as the queue was full
+	 */
+	public long getSpilledCount() {
+		return spilledCount.get();
+	}
+
+	/**
+	 * @return the number of queued operations skipped as a later operation on the same entity was queued
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+}
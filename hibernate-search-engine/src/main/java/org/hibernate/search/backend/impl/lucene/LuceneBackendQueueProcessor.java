@@ -23,6 +23,7 @@
  */
 package org.hibernate.search.backend.impl.lucene;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
@@ -34,6 +35,7 @@ import org.hibernate.search.backend.BackendFactory;
 import org.hibernate.search.backend.IndexingMonitor;
 import org.hibernate.search.backend.LuceneWork;
 import org.hibernate.search.backend.spi.BackendQueueProcessor;
+import org.hibernate.search.backend.spi.IndexingQueueStatistics;
 import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
 import org.hibernate.search.spi.WorkerBuildContext;
 import org.hibernate.search.util.logging.impl.Log;
@@ -57,6 +59,11 @@ public class LuceneBackendQueueProcessor implements BackendQueueProcessor {
 	private boolean sync;
 	private AbstractWorkspaceImpl workspaceOverride;
 	private LuceneBackendTaskStreamer streamWorker;
+	private GroupCommitQueue groupCommitQueue;
+	private AsyncWorkQueue asyncWorkQueue;
+	private LuceneBackendQueueSubmitter submitter;
+	private IndexingJournal journal;
+	private boolean journalReplayPending;
 
 	public void initialize(Properties props, WorkerBuildContext context, DirectoryBasedIndexManager indexManager) {
 		sync = BackendFactory.isConfiguredAsSync( props );
@@ -67,10 +74,72 @@ public class LuceneBackendQueueProcessor implements BackendQueueProcessor {
 		}
 		resources = new LuceneBackendResources( context, indexManager, props, workspaceOverride );
 		streamWorker = new LuceneBackendTaskStreamer( resources );
+		if ( ! sync ) {
+			submitter = createSubmitter( props, indexManager );
+			if ( BackendFactory.isJournalEnabled( props ) ) {
+				journal = createJournal( props, indexManager );
+				journalReplayPending = journal != null;
+			}
+		}
+		if ( ! sync && BackendFactory.isGroupCommitEnabled( props ) ) {
+			groupCommitQueue = new GroupCommitQueue(
+					this,
+					resources.getMaxQueueLength(),
+					BackendFactory.getGroupCommitMaxLatency( props ),
+					BackendFactory.getGroupCommitMaxBatchSize( props )
+			);
+		}
+		else if ( ! sync ) {
+			asyncWorkQueue = new AsyncWorkQueue( this, resources.getMaxQueueLength() );
+		}
+	}
+
+	private LuceneBackendQueueSubmitter createSubmitter(Properties props, DirectoryBasedIndexManager indexManager) {
+		final String indexName = indexManager.getIndexName();
+		QueueOverflowPolicy policy = QueueOverflowPolicy.fromConfiguration( indexName, props );
+		WorkSpillJournal journal = null;
+		if ( policy == QueueOverflowPolicy.SPILL ) {
+			journal = new WorkSpillJournal(
+					this,
+					indexManager,
+					BackendFactory.getWorkerOverflowSpillDirectory( props, indexName )
+			);
+		}
+		return new LuceneBackendQueueSubmitter( this, policy, BackendFactory.getWorkerOverflowTimeout( props ), journal );
+	}
+
+	private IndexingJournal createJournal(Properties props, DirectoryBasedIndexManager indexManager) {
+		final String indexName = indexManager.getIndexName();
+		if ( workspaceOverride instanceof NRTWorkspaceImpl ) {
+			// changes are not committed after each transaction, so entries could never be released
+			log.journalNotSupportedByNRT( indexName );
+			return null;
+		}
+		try {
+			return new IndexingJournal(
+					indexManager,
+					BackendFactory.getJournalDirectory( props, indexName ),
+					BackendFactory.getJournalSegmentSize( props ) * 1024L * 1024L,
+					BackendFactory.getJournalSyncInterval( props )
+			);
+		}
+		catch (IOException e) {
+			throw log.unableToReplayJournal( indexName, e );
+		}
 	}
 
 	public void close() {
-		resources.shutdown();
+		try {
+			if ( submitter != null ) {
+				submitter.close();
+			}
+		}
+		finally {
+			resources.shutdown();
+			if ( journal != null ) {
+				journal.close();
+			}
+		}
 	}
 
 	@Override
@@ -86,10 +155,19 @@ public class LuceneBackendQueueProcessor implements BackendQueueProcessor {
 		if ( workList == null ) {
 			throw new IllegalArgumentException( "workList should not be null" );
 		}
+		if ( ! sync && resources.getWorkCoalescer() != null ) {
+			resources.getWorkCoalescer().register( workList );
+		}
+		IndexingJournal.Entry journalEntry = sync ? null : appendToJournal( workList );
+		if ( groupCommitQueue != null ) {
+			groupCommitQueue.enqueue( workList, monitor, journalEntry );
+			return;
+		}
 		LuceneBackendQueueTask luceneBackendQueueProcessor = new LuceneBackendQueueTask(
 				workList,
 				resources,
-				monitor
+				monitor,
+				journalEntry
 		);
 		if ( sync ) {
 			Future<?> future = resources.getQueueingExecutor().submit( luceneBackendQueueProcessor );
@@ -104,9 +182,95 @@ public class LuceneBackendQueueProcessor implements BackendQueueProcessor {
 				throw new SearchException( "Error applying updates to the Lucene index", e.getCause() );
 			}
 		}
-		else {
+		else if ( resources.getQueueingExecutor().isShutdown() ) {
 			resources.getQueueingExecutor().execute( luceneBackendQueueProcessor );
 		}
+		else {
+			asyncWorkQueue.enqueue( luceneBackendQueueProcessor, workList, monitor, journalEntry );
+		}
+	}
+
+	/**
+	 * @return the journal entry to release once the work is committed, null if the journal is disabled
+	 */
+	private IndexingJournal.Entry appendToJournal(List<LuceneWork> workList) {
+		if ( journal == null ) {
+			return null;
+		}
+		try {
+			return journal.append( workList );
+		}
+		catch (IOException e) {
+			log.unableToWriteJournal( resources.getIndexName(), e );
+			return null;
+		}
+	}
+
+	/**
+	 * Applies the work left in the journal by a previous run, before any new work is accepted.
+	 */
+	private void replayJournal() {
+		try {
+			List<List<LuceneWork>> recovered = journal.recover();
+			if ( ! recovered.isEmpty() ) {
+				log.replayingJournal( recovered.size(), resources.getIndexName() );
+				for ( List<LuceneWork> workList : recovered ) {
+					new LuceneBackendQueueTask( workList, resources, null ).run();
+				}
+			}
+			journal.deleteRecovered();
+		}
+		catch (IOException e) {
+			throw log.unableToReplayJournal( resources.getIndexName(), e );
+		}
+	}
+
+	/**
+	 * Enqueues asynchronous work bypassing the overflow policy: blocks until there is space in the queue.
+	 * Used to enqueue again the work which was spilled to disk.
+	 */
+	void enqueueBlocking(List<LuceneWork> workList, IndexingJournal.Entry journalEntry) {
+		if ( groupCommitQueue != null ) {
+			groupCommitQueue.enqueueBlocking( workList, null, journalEntry );
+		}
+		else {
+			asyncWorkQueue.enqueueBlocking( new LuceneBackendQueueTask( workList, resources, null, journalEntry ) );
+		}
+	}
+
+	LuceneBackendQueueSubmitter getSubmitter() {
+		return submitter;
+	}
+
+	/**
+	 * @return the overflow policy applied to asynchronous work, null if the backend is synchronous
+	 */
+	public QueueOverflowPolicy getOverflowPolicy() {
+		return submitter == null ? null : submitter.getPolicy();
+	}
+
+	/**
+	 * @return the gauges of the asynchronous queue, null if the backend is synchronous
+	 */
+	public IndexingQueueStatistics getQueueStatistics() {
+		return submitter == null ? null : new LuceneIndexingQueueStatistics( this );
+	}
+
+	/**
+	 * @return the number of asynchronous work lists waiting to be applied, including the ones spilled to disk
+	 */
+	public int getQueueDepth() {
+		int depth = 0;
+		if ( groupCommitQueue != null ) {
+			depth += groupCommitQueue.size();
+		}
+		if ( asyncWorkQueue != null ) {
+			depth += asyncWorkQueue.size();
+		}
+		if ( submitter != null ) {
+			depth += submitter.getSpilledPendingCount();
+		}
+		return depth;
 	}
 
 	@Override
@@ -131,6 +295,11 @@ public class LuceneBackendQueueProcessor implements BackendQueueProcessor {
 	@Override
 	public void indexMappingChanged() {
 		resources = resources.onTheFlyRebuild();
+		if ( journalReplayPending ) {
+			// the SearchFactory is now bound: the journaled work can be deserialized
+			journalReplayPending = false;
+			replayJournal();
+		}
 	}
 
 }
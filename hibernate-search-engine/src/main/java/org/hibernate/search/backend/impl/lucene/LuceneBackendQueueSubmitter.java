@@ -0,0 +1,172 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.exception.impl.ErrorContextBuilder;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Adds asynchronous work to the queue of the Lucene backend, applying the configured
+ * {@link QueueOverflowPolicy} when the queue is full and keeping track of it in the
+ * {@link IndexingQueueCounters}.
+ *
+ * @since 4.1
+ */
+final class LuceneBackendQueueSubmitter {
+
+	private static final Log log = LoggerFactory.make();
+
+	private final LuceneBackendQueueProcessor processor;
+	private final QueueOverflowPolicy policy;
+	private final long timeoutMillis;
+	private final WorkSpillJournal journal;
+
+	LuceneBackendQueueSubmitter(LuceneBackendQueueProcessor processor, QueueOverflowPolicy policy,
+			long timeoutMillis, WorkSpillJournal journal) {
+		this.processor = processor;
+		this.policy = policy;
+		this.timeoutMillis = timeoutMillis;
+		this.journal = journal;
+	}
+
+	/**
+	 * @param queue the queue to add the element to
+	 * @param element the element representing the work list in the queue
+	 * @param workList the work to apply
+	 * @param monitor the IndexingMonitor to notify, might be null
+	 * @param journalEntry the journal entry of the work list, might be null
+	 * @return true if the element was added to the queue, false if the overflow policy took care of the work
+	 */
+	<T> boolean submit(BlockingQueue<T> queue, T element, List<LuceneWork> workList, IndexingMonitor monitor,
+			IndexingJournal.Entry journalEntry) {
+		final LuceneBackendResources resources = processor.getIndexResources();
+		final IndexingQueueCounters counters = resources.getQueueCounters();
+		final long start = System.nanoTime();
+		boolean enqueued = false;
+		try {
+			switch ( policy ) {
+				case SPILL:
+					try {
+						enqueued = journal.offerOrSpill( queue, element, workList, journalEntry );
+						if ( ! enqueued ) {
+							counters.workSpilled();
+						}
+					}
+					catch (IOException e) {
+						log.unableToSpillWork( resources.getIndexName(), e );
+						reject( resources, workList, journalEntry, e );
+					}
+					break;
+				case CALLER_RUNS:
+					enqueued = queue.offer( element );
+					break;
+				default:
+					if ( timeoutMillis <= 0 ) {
+						queue.put( element );
+						enqueued = true;
+					}
+					else {
+						enqueued = queue.offer( element, timeoutMillis, TimeUnit.MILLISECONDS );
+						if ( ! enqueued ) {
+							reject( resources, workList, journalEntry, log.indexingQueueFull( resources.getIndexName(), timeoutMillis ) );
+						}
+					}
+			}
+		}
+		catch (InterruptedException e) {
+			log.interruptedWhileWaitingForIndexActivity( e );
+			Thread.currentThread().interrupt();
+			unregisterFromCoalescer( resources, workList );
+			reject( resources, workList, journalEntry, e );
+			return false;
+		}
+		finally {
+			counters.workSubmitted( System.nanoTime() - start );
+		}
+		final WorkCoalescer coalescer = resources.getWorkCoalescer();
+		if ( enqueued ) {
+			if ( coalescer != null ) {
+				coalescer.enqueued( workList );
+			}
+		}
+		else if ( policy == QueueOverflowPolicy.CALLER_RUNS ) {
+			counters.workRunByCaller();
+			// unregisters the work from the coalescer once applied
+			new LuceneBackendQueueTask( workList, resources, monitor, journalEntry ).run();
+		}
+		else {
+			// rejected, or spilled: the work enqueued again later is a deserialized copy
+			unregisterFromCoalescer( resources, workList );
+		}
+		return enqueued;
+	}
+
+	/**
+	 * Waits for the spilled work, if any, to be enqueued again.
+	 */
+	void close() {
+		if ( journal != null ) {
+			journal.close();
+		}
+	}
+
+	/**
+	 * @return the number of work lists spilled to disk and not enqueued yet
+	 */
+	int getSpilledPendingCount() {
+		return journal == null ? 0 : journal.getPendingCount();
+	}
+
+	QueueOverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	private void unregisterFromCoalescer(LuceneBackendResources resources, List<LuceneWork> workList) {
+		if ( resources.getWorkCoalescer() != null ) {
+			resources.getWorkCoalescer().unregister( workList );
+		}
+	}
+
+	private void reject(LuceneBackendResources resources, List<LuceneWork> workList, IndexingJournal.Entry journalEntry,
+			Throwable cause) {
+		resources.getQueueCounters().workRejected();
+		resources.getWorkspace().transactionsProcessed( 1 );
+		if ( journalEntry != null ) {
+			journalEntry.release();
+		}
+		ErrorContextBuilder builder = new ErrorContextBuilder();
+		builder.allWorkToBeDone( workList );
+		builder.errorThatOccurred( cause );
+		resources.getErrorHandler().handle( builder.createErrorContext() );
+	}
+
+}
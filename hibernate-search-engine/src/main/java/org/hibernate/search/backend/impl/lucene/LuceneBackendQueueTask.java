@@ -23,6 +23,8 @@
  */
 package org.hibernate.search.backend.impl.lucene;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -33,6 +35,7 @@ import java.util.concurrent.locks.Lock;
 import org.apache.lucene.index.IndexWriter;
 import org.hibernate.search.backend.IndexingMonitor;
 import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.impl.lucene.works.LuceneWorkVisitor;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 import org.hibernate.search.util.logging.impl.Log;
 import org.hibernate.search.exception.impl.ErrorContextBuilder;
@@ -51,20 +54,51 @@ final class LuceneBackendQueueTask implements Runnable {
 
 	private final Lock modificationLock;
 	private final LuceneBackendResources resources;
-	private final List<LuceneWork> queue;
-	private final IndexingMonitor monitor;
+	private List<LuceneWork> queue;
+	private List<IndexingMonitor> monitors;
+	private final int transactions;
+	private final List<IndexingJournal.Entry> journalEntries;
 
 	LuceneBackendQueueTask(List<LuceneWork> queue, LuceneBackendResources resources, IndexingMonitor monitor) {
+		this( queue, resources, monitor, null );
+	}
+
+	/**
+	 * @param journalEntry the journal entry of the queue to release once applied, might be null
+	 */
+	LuceneBackendQueueTask(List<LuceneWork> queue, LuceneBackendResources resources, IndexingMonitor monitor, IndexingJournal.Entry journalEntry) {
+		this( queue, Collections.nCopies( queue.size(), monitor ), resources, 1,
+				journalEntry == null ? Collections.<IndexingJournal.Entry>emptyList() : Collections.singletonList( journalEntry ) );
+	}
+
+	/**
+	 * @param queue the operations to apply
+	 * @param monitors the IndexingMonitor to notify for each operation, in the same order as the queue
+	 * @param resources the backend resources of the index
+	 * @param transactions the number of transactions merged in the queue, all committed together
+	 * @param journalEntries the journal entries to release once the queue is applied
+	 */
+	LuceneBackendQueueTask(List<LuceneWork> queue, List<IndexingMonitor> monitors, LuceneBackendResources resources,
+			int transactions, List<IndexingJournal.Entry> journalEntries) {
 		this.queue = queue;
+		this.monitors = monitors;
 		this.resources = resources;
-		this.monitor = monitor;
+		this.transactions = transactions;
+		this.journalEntries = journalEntries;
 		this.modificationLock = resources.getParallelModificationLock();
 	}
 
 	public void run() {
+		WorkCoalescer coalescer = resources.getWorkCoalescer();
+		if ( coalescer != null ) {
+			skipSupersededWork( coalescer );
+		}
+		boolean releaseJournalEntries = true;
 		modificationLock.lock();
 		try {
-			applyUpdates();
+			if ( ! queue.isEmpty() ) {
+				releaseJournalEntries = applyUpdates();
+			}
 		} catch ( InterruptedException e ) {
 			log.interruptedWhileWaitingForIndexActivity( e );
 			Thread.currentThread().interrupt();
@@ -75,6 +109,37 @@ final class LuceneBackendQueueTask implements Runnable {
 		}
 		finally {
 			modificationLock.unlock();
+			resources.getWorkspace().transactionsProcessed( transactions );
+			if ( coalescer != null ) {
+				coalescer.unregister( queue );
+			}
+			// committed, or reported to the ErrorHandler: no need to replay it
+			if ( releaseJournalEntries ) {
+				for ( IndexingJournal.Entry journalEntry : journalEntries ) {
+					journalEntry.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes from the queue the operations replaced by later work on the same entity.
+	 */
+	private void skipSupersededWork(WorkCoalescer coalescer) {
+		List<LuceneWork> retainedWork = new ArrayList<LuceneWork>( queue.size() );
+		List<IndexingMonitor> retainedMonitors = new ArrayList<IndexingMonitor>( queue.size() );
+		for ( int i = 0; i < queue.size(); i++ ) {
+			LuceneWork work = queue.get( i );
+			if ( ! coalescer.isSuperseded( work ) ) {
+				retainedWork.add( work );
+				retainedMonitors.add( monitors.get( i ) );
+			}
+		}
+		int skipped = queue.size() - retainedWork.size();
+		if ( skipped > 0 ) {
+			resources.getQueueCounters().operationsCoalesced( skipped );
+			queue = retainedWork;
+			monitors = retainedMonitors;
 		}
 	}
 
@@ -86,11 +151,13 @@ final class LuceneBackendQueueTask implements Runnable {
 	}
 
 	/**
-	 * Applies all modifications to the index in parallel using the workers executor
-	 * @throws ExecutionException
+	 * Applies all modifications to the index: small queues are applied by the current thread,
+	 * larger ones are split in chunks applied in parallel using the workers executor.
+	 * @return false if nothing was applied as the IndexWriter could not be opened: the journal entries
+	 * are then kept, to replay the work on the next startup
 	 * @throws InterruptedException
 	 */
-	private void applyUpdates() throws InterruptedException, ExecutionException {
+	private boolean applyUpdates() throws InterruptedException {
 		AbstractWorkspaceImpl workspace = resources.getWorkspace();
 		
 		ErrorContextBuilder errorContextBuilder = new ErrorContextBuilder();
@@ -99,31 +166,29 @@ final class LuceneBackendQueueTask implements Runnable {
 		IndexWriter indexWriter = workspace.getIndexWriter( errorContextBuilder );
 		if ( indexWriter == null ) {
 			log.cannotOpenIndexWriterCausePreviousError();
-			return;
+			return false;
 		}
 		LinkedList<LuceneWork> failedUpdates = null;
 		try {
-			ExecutorService executor = resources.getWorkersExecutor();
 			int queueSize = queue.size();
-			Future[] submittedTasks = new Future[ queueSize ];
-			for ( int i = 0; i < queueSize; i++ ) {
-				SingleTaskRunnable task = new SingleTaskRunnable( queue.get( i ), resources, indexWriter, monitor );
-				submittedTasks[i] = executor.submit( task );
+			Throwable[] failures = new Throwable[ queueSize ];
+			if ( queueSize <= resources.getInlineThreshold() || ! allWorkTargetsSingleEntities() ) {
+				resources.getExecutionCounters().queueAppliedInline();
+				new WorkChunk( indexWriter, allPositions( queueSize ), failures ).run();
+			}
+			else {
+				applyInChunks( indexWriter, failures );
 			}
-			// now wait for all tasks being completed before releasing our lock
-			// (this thread waits even in async backend mode)
 			for ( int i = 0; i < queueSize; i++ ) {
-				Future task = submittedTasks[i];
-				try {
-					task.get();
+				if ( failures[i] == null ) {
 					errorContextBuilder.workCompleted( queue.get( i ) );
 				}
-				catch (ExecutionException e) {
+				else {
 					if ( failedUpdates == null ) {
 						failedUpdates = new LinkedList<LuceneWork>();
 					}
 					failedUpdates.add( queue.get( i ) );
-					errorContextBuilder.errorThatOccurred( e.getCause() );
+					errorContextBuilder.errorThatOccurred( failures[i] );
 				}
 			}
 			if ( failedUpdates != null ) {
@@ -136,6 +201,125 @@ final class LuceneBackendQueueTask implements Runnable {
 		}
 		finally {
 			workspace.afterTransactionApplied( failedUpdates != null, false );
+			resources.getCommitCounters().commitPerformed( transactions );
+		}
+		return true;
+	}
+
+	/**
+	 * Splits the queue in chunks by entity id, so that all operations on the same entity are applied
+	 * by the same chunk in queue order. All chunks but the last one are submitted to the workers executor;
+	 * the current thread applies the last chunk, then waits for the other ones to be done.
+	 */
+	private void applyInChunks(IndexWriter indexWriter, Throwable[] failures) throws InterruptedException {
+		final int queueSize = queue.size();
+		final int chunkSize = resources.getChunkSize( queueSize );
+		final int chunks = ( queueSize + chunkSize - 1 ) / chunkSize;
+		resources.getExecutionCounters().queueAppliedInChunks( chunks, queueSize );
+		int[][] chunkPositions = partitionByEntity( chunks );
+		ExecutorService executor = resources.getWorkersExecutor();
+		Future<?>[] submittedTasks = new Future<?>[ chunks - 1 ];
+		for ( int i = 0; i < chunks - 1; i++ ) {
+			if ( chunkPositions[i].length > 0 ) {
+				submittedTasks[i] = executor.submit( new WorkChunk( indexWriter, chunkPositions[i], failures ) );
+			}
+		}
+		new WorkChunk( indexWriter, chunkPositions[chunks - 1], failures ).run();
+		// now wait for all tasks being completed before releasing our lock
+		// (this thread waits even in async backend mode)
+		for ( int i = 0; i < chunks - 1; i++ ) {
+			if ( submittedTasks[i] == null ) {
+				continue;
+			}
+			try {
+				submittedTasks[i].get();
+			}
+			catch (ExecutionException e) {
+				// not a failure of a single operation: consider the whole chunk failed
+				for ( int position : chunkPositions[i] ) {
+					if ( failures[position] == null ) {
+						failures[position] = e.getCause();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if each operation affects a single entity, false if some operation
+	 * (like a purge all or an optimize) has to be ordered with respect to all the other ones
+	 */
+	private boolean allWorkTargetsSingleEntities() {
+		for ( LuceneWork work : queue ) {
+			if ( work.getIdInString() == null ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the queue positions each chunk has to apply, in queue order
+	 */
+	private int[][] partitionByEntity(int chunks) {
+		final int queueSize = queue.size();
+		int[] chunkOfPosition = new int[ queueSize ];
+		int[] chunkSizes = new int[ chunks ];
+		for ( int i = 0; i < queueSize; i++ ) {
+			LuceneWork work = queue.get( i );
+			int hash = 31 * work.getEntityClass().hashCode() + work.getIdInString().hashCode();
+			int chunk = ( hash & Integer.MAX_VALUE ) % chunks;
+			chunkOfPosition[i] = chunk;
+			chunkSizes[chunk]++;
+		}
+		int[][] chunkPositions = new int[ chunks ][];
+		for ( int chunk = 0; chunk < chunks; chunk++ ) {
+			chunkPositions[chunk] = new int[ chunkSizes[chunk] ];
+			chunkSizes[chunk] = 0;
+		}
+		for ( int i = 0; i < queueSize; i++ ) {
+			int chunk = chunkOfPosition[i];
+			chunkPositions[chunk][chunkSizes[chunk]++] = i;
+		}
+		return chunkPositions;
+	}
+
+	private static int[] allPositions(int queueSize) {
+		int[] positions = new int[ queueSize ];
+		for ( int i = 0; i < queueSize; i++ ) {
+			positions[i] = i;
+		}
+		return positions;
+	}
+
+	/**
+	 * Applies some operations of the queue to the IndexWriter, recording the failure of each
+	 * operation at the same position in the failures array.
+	 */
+	private final class WorkChunk implements Runnable {
+
+		private final IndexWriter indexWriter;
+		private final int[] positions;
+		private final Throwable[] failures;
+
+		WorkChunk(IndexWriter indexWriter, int[] positions, Throwable[] failures) {
+			this.indexWriter = indexWriter;
+			this.positions = positions;
+			this.failures = failures;
+		}
+
+		@Override
+		public void run() {
+			LuceneWorkVisitor visitor = resources.getVisitor();
+			for ( int i : positions ) {
+				LuceneWork work = queue.get( i );
+				try {
+					work.getWorkDelegate( visitor ).performWork( work, indexWriter, monitors.get( i ) );
+				}
+				catch (RuntimeException e) {
+					failures[i] = e;
+				}
+			}
 		}
 	}
 
@@ -58,6 +58,13 @@ public final class LuceneBackendResources {
 	private final ExecutorService workersExecutor;
 	private final int maxQueueLength;
 	private final String indexName;
+	private final IndexCommitCounters commitCounters;
+	private final WorkerExecutionCounters executionCounters;
+	private final IndexingQueueCounters queueCounters;
+	private final WorkCoalescer coalescer;
+	private final int workersThreadPoolSize;
+	private final int inlineThreshold;
+	private final int chunkSize;
 
 	private final ReadLock readLock;
 	private final WriteLock writeLock;
@@ -70,6 +77,18 @@ public final class LuceneBackendResources {
 		this.maxQueueLength = CommonPropertiesParse.extractMaxQueueSize( indexName, props );
 		this.queueingExecutor = Executors.newFixedThreadPool( 1, "Index updates queue processor for index " + indexName, maxQueueLength );
 		this.workersExecutor = BackendFactory.buildWorkersExecutor( props, indexName );
+		this.workersThreadPoolSize = BackendFactory.getWorkerThreadPoolSize( props );
+		this.inlineThreshold = BackendFactory.getWorkerInlineThreshold( props );
+		this.chunkSize = BackendFactory.getWorkerChunkSize( props );
+		this.commitCounters = new IndexCommitCounters();
+		this.executionCounters = new WorkerExecutionCounters();
+		this.queueCounters = new IndexingQueueCounters();
+		if ( ! BackendFactory.isConfiguredAsSync( props ) && BackendFactory.isCoalescingEnabled( props ) ) {
+			this.coalescer = new WorkCoalescer();
+		}
+		else {
+			this.coalescer = null;
+		}
 		ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 		readLock = readWriteLock.readLock();
 		writeLock = readWriteLock.writeLock();
@@ -83,6 +102,13 @@ public final class LuceneBackendResources {
 		this.maxQueueLength = previous.maxQueueLength;
 		this.queueingExecutor = previous.queueingExecutor;
 		this.workersExecutor = previous.workersExecutor;
+		this.workersThreadPoolSize = previous.workersThreadPoolSize;
+		this.inlineThreshold = previous.inlineThreshold;
+		this.chunkSize = previous.chunkSize;
+		this.commitCounters = previous.commitCounters;
+		this.executionCounters = previous.executionCounters;
+		this.queueCounters = previous.queueCounters;
+		this.coalescer = previous.coalescer;
 		this.readLock = previous.readLock;
 		this.writeLock = previous.writeLock;
 	}
@@ -111,6 +137,45 @@ public final class LuceneBackendResources {
 		return workspace;
 	}
 
+	public IndexCommitCounters getCommitCounters() {
+		return commitCounters;
+	}
+
+	public WorkerExecutionCounters getExecutionCounters() {
+		return executionCounters;
+	}
+
+	public IndexingQueueCounters getQueueCounters() {
+		return queueCounters;
+	}
+
+	/**
+	 * @return the WorkCoalescer of the asynchronous queue, null if coalescing is disabled
+	 */
+	WorkCoalescer getWorkCoalescer() {
+		return coalescer;
+	}
+
+	/**
+	 * @return the maximum number of operations of a queue to apply without using the workers executor
+	 */
+	public int getInlineThreshold() {
+		return inlineThreshold;
+	}
+
+	/**
+	 * @param queueSize the number of operations in the queue
+	 * @return the number of operations of the queue each worker task should apply
+	 */
+	public int getChunkSize(int queueSize) {
+		if ( chunkSize > 0 ) {
+			return chunkSize;
+		}
+		else {
+			return ( queueSize + workersThreadPoolSize - 1 ) / workersThreadPoolSize;
+		}
+	}
+
 	public void shutdown() {
 		//need to close them in this specific order:
 		try {
@@ -150,7 +215,7 @@ public final class LuceneBackendResources {
 
 	/**
 	 * Creates a replacement for this same LuceneBackendResources:
-	 * reuses the existing locks and executors (which can't be reconfigured on the fly),
+	 * reuses the existing locks, executors and counters (which can't be reconfigured on the fly),
 	 * reuses the same Workspace and ErrorHandler, but will use a new LuceneWorkVisitor.
 	 * The LuceneWorkVisitor contains the strategies we use to apply update operations on the index,
 	 * and we might need to change them after the backend is started.
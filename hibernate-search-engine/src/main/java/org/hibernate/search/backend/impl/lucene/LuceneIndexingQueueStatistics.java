@@ -0,0 +1,93 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import org.hibernate.search.backend.spi.IndexingQueueStatistics;
+
+/**
+ * Reads the queue gauges of an asynchronous {@link LuceneBackendQueueProcessor}.
+ *
+ * @since 4.1
+ */
+final class LuceneIndexingQueueStatistics implements IndexingQueueStatistics {
+
+	private final LuceneBackendQueueProcessor backend;
+
+	LuceneIndexingQueueStatistics(LuceneBackendQueueProcessor backend) {
+		this.backend = backend;
+	}
+
+	public String getIndexName() {
+		return backend.getIndexResources().getIndexName();
+	}
+
+	public String getOverflowPolicy() {
+		return backend.getOverflowPolicy().getConfigurationName();
+	}
+
+	public int getQueueDepth() {
+		return backend.getQueueDepth();
+	}
+
+	public int getMaxQueueLength() {
+		return backend.getIndexResources().getMaxQueueLength();
+	}
+
+	public long getSubmittedWorkCount() {
+		return counters().getSubmittedCount();
+	}
+
+	public long getSubmitWaitTotalTime() {
+		return counters().getTotalWaitTime();
+	}
+
+	public long getSubmitWaitMaxTime() {
+		return counters().getMaxWaitTime();
+	}
+
+	public long getSubmitWaitAvgTime() {
+		return counters().getAverageWaitTime();
+	}
+
+	public long getRejectedWorkCount() {
+		return counters().getRejectedCount();
+	}
+
+	public long getCallerRunsWorkCount() {
+		return counters().getCallerRunsCount();
+	}
+
+	public long getSpilledWorkCount() {
+		return counters().getSpilledCount();
+	}
+
+	public long getCoalescedOperationCount() {
+		return counters().getCoalescedCount();
+	}
+
+	private IndexingQueueCounters counters() {
+		return backend.getIndexResources().getQueueCounters();
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.search.batchindexing.impl.Executors;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Refreshes the IndexReader of a {@link NRTWorkspaceImpl} from a dedicated thread,
+ * so that bursts of transactions don't trigger a reopen each.
+ * <p>
+ * Each processed transaction increments the write generation; the thread reopens the IndexReader
+ * only when there are changes not visible yet, and no sooner than {@code maxStaleness} after the
+ * previous refresh. The reopen holds the exclusive write lock of the backend, so the IndexReader
+ * never includes the changes of a transaction being applied only in part. While some thread is waiting for a generation to become visible the refresh
+ * happens as soon as {@code minInterval} has elapsed instead.
+ * <p>
+ * A failed refresh doesn't make the pending generations visible: it is retried after the same
+ * interval, while the threads waiting for them are woken up with the failure.
+ *
+ * @since 4.1
+ */
+final class NRTReaderRefresher implements Runnable {
+
+	private static final Log log = LoggerFactory.make();
+
+	private final NRTWorkspaceImpl workspace;
+	private final String indexName;
+	private final long maxStalenessNanos;
+	private final long minIntervalNanos;
+	private final ExecutorService executor;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changesApplied = lock.newCondition();
+	private final Condition readerRefreshed = lock.newCondition();
+
+	//guarded by lock
+	private long writeGeneration = 0;
+	private long refreshedGeneration = 0;
+	private long lastRefreshNanos = System.nanoTime();
+	private int waitingThreads = 0;
+	private boolean stopped = false;
+	private long failedRefreshes = 0;
+	private RuntimeException lastFailure;
+
+	NRTReaderRefresher(NRTWorkspaceImpl workspace, String indexName, long maxStaleness, long minInterval) {
+		this.workspace = workspace;
+		this.indexName = indexName;
+		this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos( maxStaleness );
+		this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos( Math.min( minInterval, maxStaleness ) );
+		this.executor = Executors.newFixedThreadPool( 1, "NRT IndexReader refresher for index " + indexName );
+	}
+
+	void start() {
+		executor.execute( this );
+	}
+
+	void stop() {
+		lock.lock();
+		try {
+			stopped = true;
+			changesApplied.signalAll();
+			readerRefreshed.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+		executor.shutdown();
+		try {
+			executor.awaitTermination( Long.MAX_VALUE, TimeUnit.SECONDS );
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Notifies that some transactions were processed: applied to the IndexWriter, failed or rejected.
+	 * Transactions are processed in the order their generations were assigned, unless the
+	 * {@link QueueOverflowPolicy} has the caller run them or spills them to disk.
+	 *
+	 * @param transactions the number of transactions processed
+	 */
+	void transactionsProcessed(int transactions) {
+		lock.lock();
+		try {
+			writeGeneration += transactions;
+			changesApplied.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Blocks until the IndexReader includes the changes of the given generation.
+	 * Returns early if the refresher is stopped or the current thread is interrupted.
+	 *
+	 * @throws org.hibernate.search.SearchException if a refresh failed while waiting
+	 */
+	void waitForGeneration(long generation) {
+		lock.lock();
+		try {
+			if ( refreshedGeneration >= generation ) {
+				return;
+			}
+			waitingThreads++;
+			// the refresher might be waiting for the staleness limit: make it reconsider
+			changesApplied.signal();
+			final long failuresBeforeWait = failedRefreshes;
+			try {
+				while ( refreshedGeneration < generation && ! stopped ) {
+					if ( failedRefreshes != failuresBeforeWait ) {
+						throw log.nrtIndexReaderRefreshFailed( indexName, lastFailure );
+					}
+					readerRefreshed.await();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				waitingThreads--;
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		lock.lock();
+		try {
+			while ( ! stopped ) {
+				if ( refreshedGeneration == writeGeneration ) {
+					// no pending changes
+					changesApplied.await();
+					continue;
+				}
+				long interval = waitingThreads > 0 ? minIntervalNanos : maxStalenessNanos;
+				long delay = lastRefreshNanos + interval - System.nanoTime();
+				if ( delay > 0 ) {
+					changesApplied.awaitNanos( delay );
+					continue;
+				}
+				long targetGeneration = writeGeneration;
+				RuntimeException failure = null;
+				lock.unlock();
+				try {
+					workspace.refreshReader();
+				}
+				catch (RuntimeException e) {
+					log.unableToRefreshNRTIndexReader( indexName, e );
+					failure = e;
+				}
+				finally {
+					lock.lock();
+				}
+				// on failure the generation is not advanced, so the refresh is retried after the interval
+				lastRefreshNanos = System.nanoTime();
+				if ( failure == null ) {
+					refreshedGeneration = targetGeneration;
+				}
+				else {
+					failedRefreshes++;
+					lastFailure = failure;
+				}
+				readerRefreshed.signalAll();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+}
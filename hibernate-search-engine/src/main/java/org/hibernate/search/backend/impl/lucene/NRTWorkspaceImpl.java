@@ -22,15 +22,16 @@ package org.hibernate.search.backend.impl.lucene;
 
 import java.io.IOException;
 import java.util.Properties;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 
-import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexReader;
+import org.hibernate.search.Environment;
 import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
 import org.hibernate.search.indexes.spi.DirectoryBasedReaderProvider;
 import org.hibernate.search.spi.WorkerBuildContext;
+import org.hibernate.search.util.configuration.impl.ConfigurationParseHelper;
 import org.hibernate.search.util.logging.impl.Log;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
@@ -40,12 +41,16 @@ import org.hibernate.search.util.logging.impl.LoggerFactory;
  * to flush all pending changes to the Directory structure.
  * 
  * We keep a reference Reader, obtained from the IndexWriter each time a transactional queue
- * is applied, so that the IndexReader instance "sees" only fully committed transactions;
- * the reference is never returned to clients, but each time a client needs an IndexReader
- * a clone is created from the last refreshed IndexReader.
+ * is applied, so that the IndexReader instance "sees" only fully committed transactions.
+ * The reference Reader is shared by all clients: each client increments its reference count,
+ * and decrements it when closing it. The reference Reader is swapped atomically, so the query
+ * path needs no locking; the replaced Reader is closed when the last client using it closes it.
  * 
  * Since the backend is forced to create a reference IndexReader after each (skipped) commit,
- * some IndexReaders might be opened without being ever used.
+ * some IndexReaders might be opened without being ever used. To avoid that, when
+ * {@link Environment#NRT_MAX_STALENESS} is set the reference IndexReader is refreshed by
+ * a background thread instead, and clients needing to see their own changes can use
+ * {@link #waitForGeneration(long)}.
  * 
  * This class implements both Workspace and ReaderProvider.
  * 
@@ -55,18 +60,39 @@ public class NRTWorkspaceImpl extends AbstractWorkspaceImpl implements Directory
 
 	private static final Log log = LoggerFactory.make();
 
-	private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-
-	private final ReadLock readLock = readWriteLock.readLock();
-	private final WriteLock writeLock = readWriteLock.writeLock();
 	private final String indexName;
 
-	//guardedBy readLock/writeLok
-	private IndexReader currentReferenceReader = null;
+	private final DirectoryBasedIndexManager indexManager;
+
+	/**
+	 * The generation of the last transaction submitted to the backend.
+	 */
+	private final AtomicLong submittedGeneration = new AtomicLong();
+
+	/**
+	 * The current reference Reader, or null if none was opened yet.
+	 * The reference held by this field accounts for one unit of the Reader's refCount.
+	 */
+	private final AtomicReference<IndexReader> currentReferenceReader = new AtomicReference<IndexReader>();
+
+	/**
+	 * Null unless the reference Reader is refreshed in background.
+	 */
+	private final NRTReaderRefresher refresher;
 
 	public NRTWorkspaceImpl(DirectoryBasedIndexManager indexManager, WorkerBuildContext buildContext, Properties cfg) {
 		super( indexManager, buildContext, cfg );
+		this.indexManager = indexManager;
 		indexName = indexManager.getIndexName();
+		int maxStaleness = ConfigurationParseHelper.getIntValue( cfg, Environment.NRT_MAX_STALENESS, 0 );
+		if ( maxStaleness > 0 ) {
+			int minInterval = ConfigurationParseHelper.getIntValue( cfg, Environment.NRT_MIN_REFRESH_INTERVAL, 0 );
+			refresher = new NRTReaderRefresher( this, indexName, maxStaleness, minInterval );
+			refresher.start();
+		}
+		else {
+			refresher = null;
+		}
 	}
 
 	@Override
@@ -75,7 +101,8 @@ public class NRTWorkspaceImpl extends AbstractWorkspaceImpl implements Directory
 			writerHolder.forceLockRelease();
 		}
 		else {
-			if ( ! streaming ) {
+			// with background refresh the transaction is accounted for by transactionsProcessed
+			if ( ! streaming && refresher == null ) {
 				flush();
 			}
 		}
@@ -83,52 +110,20 @@ public class NRTWorkspaceImpl extends AbstractWorkspaceImpl implements Directory
 
 	@Override
 	public IndexReader openIndexReader() {
-		// we need to readLock to read the state of the currentReferenceReader
-		readLock.lock(); // balanced by the finally block
-		boolean readlockAcquired = true;
-		try {
-			if ( currentReferenceReader == null ) {
-				readLock.unlock();
-				// in this case we need to create a new Reader, so we need to upgrade
-				// the read lock to the write lock (upgrade is not supported by a
-				// ReentrantReadWriteLock so we need to release the readlock first)
-				readlockAcquired = false;
-				writeLock.lock(); // balanced by the inner final block
-				try {
-					// check again as we had to release the lock after the first check:
-					if ( currentReferenceReader == null) {
-						currentReferenceReader = writerHolder.openDirectoryIndexReader();
-					}
-				}
-				finally {
-					writeLock.unlock();
+		while ( true ) {
+			IndexReader indexReader = currentReferenceReader.get();
+			if ( indexReader == null ) {
+				// no NRT reader was opened yet: open one from the Directory
+				IndexReader newIndexReader = writerHolder.openDirectoryIndexReader();
+				if ( ! currentReferenceReader.compareAndSet( null, newIndexReader ) ) {
+					// another thread set a reference reader in the meantime
+					closeIndexReader( newIndexReader );
 				}
-				readLock.lock();
-				// if we succeed in acquiring this, make sure we will release it again:
-				readlockAcquired = true;
 			}
-			return cloneReader( currentReferenceReader );
-		}
-		finally {
-			if ( readlockAcquired ) {
-				readLock.unlock();
+			else if ( indexReader.tryIncRef() ) {
+				return indexReader;
 			}
-		}
-	}
-
-	/**
-	 * We need to return clones so that each reader can be closed independently;
-	 * clones should share most heavy-weight buffers anyway.
-	 */
-	private IndexReader cloneReader(IndexReader indexReader) {
-		try {
-			return indexReader.clone( true );
-		}
-		catch ( CorruptIndexException cie ) {
-			throw log.cantOpenCorruptedIndex( cie, indexName );
-		}
-		catch ( IOException ioe ) {
-			throw log.ioExceptionOnIndex( ioe, indexName );
+			// else the reader was replaced and closed after we read it: try again with the new one
 		}
 	}
 
@@ -138,7 +133,7 @@ public class NRTWorkspaceImpl extends AbstractWorkspaceImpl implements Directory
 			return;
 		}
 		try {
-			reader.close();
+			reader.decRef();
 		}
 		catch ( IOException e ) {
 			log.unableToCLoseLuceneIndexReader( e );
@@ -149,30 +144,70 @@ public class NRTWorkspaceImpl extends AbstractWorkspaceImpl implements Directory
 	public void initialize(DirectoryBasedIndexManager indexManager, Properties props) {
 	}
 
+	@Override
+	public void transactionsProcessed(int transactions) {
+		if ( refresher != null ) {
+			refresher.transactionsProcessed( transactions );
+		}
+	}
+
+	/**
+	 * Assigns the next generation to a transaction about to be submitted to the backend:
+	 * the refreshed IndexReader includes its changes once it reaches that generation.
+	 */
+	public void transactionSubmitted() {
+		submittedGeneration.incrementAndGet();
+	}
+
+	/**
+	 * @return the generation of the last transaction submitted so far, including its changes even if
+	 * they are still queued; pass it to {@link #waitForGeneration(long)} to wait for them to be visible.
+	 * Always 0 unless background refresh is enabled.
+	 */
+	public long getCurrentGeneration() {
+		return refresher == null ? 0 : submittedGeneration.get();
+	}
+
+	/**
+	 * Blocks until the IndexReaders returned by this ReaderProvider include the changes
+	 * of the given generation. Returns immediately unless background refresh is enabled,
+	 * as in that case the IndexReader is refreshed after each transaction.
+	 *
+	 * @param generation as returned by {@link #getCurrentGeneration()}
+	 */
+	public void waitForGeneration(long generation) {
+		if ( refresher != null ) {
+			refresher.waitForGeneration( generation );
+		}
+	}
+
 	@Override
 	public void stop() {
-		writeLock.lock();
+		if ( refresher != null ) {
+			refresher.stop();
+		}
+		closeIndexReader( currentReferenceReader.getAndSet( null ) );
+	}
+
+	/**
+	 * Reopens the reference Reader at a transaction boundary: used by the background refresh,
+	 * as the backend doesn't hold any lock on its behalf.
+	 */
+	void refreshReader() {
+		Lock exclusiveWriteLock = indexManager.getDirectoryModificationLock();
+		exclusiveWriteLock.lock();
 		try {
-			closeIndexReader( currentReferenceReader );
+			flush();
 		}
 		finally {
-			writeLock.unlock();
+			exclusiveWriteLock.unlock();
 		}
 	}
 
 	@Override
 	public void flush() {
 		IndexReader newIndexReader = writerHolder.openNRTIndexReader( true );
-		writeLock.lock();
-		IndexReader oldReader = currentReferenceReader;
-		currentReferenceReader = newIndexReader;
-		writeLock.unlock();
-		try {
-			oldReader.close();
-		}
-		catch ( IOException e ) {
-			log.unableToCLoseLuceneIndexReader( e );
-		}
+		closeIndexReader( currentReferenceReader.getAndSet( newIndexReader ) );
 	}
 
 }
@@ -0,0 +1,88 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.Properties;
+
+import org.hibernate.annotations.common.util.StringHelper;
+import org.hibernate.search.Environment;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * What to do with asynchronous work when the queue of the Lucene backend is full.
+ *
+ * @see Environment#WORKER_OVERFLOW_POLICY
+ * @since 4.1
+ */
+public enum QueueOverflowPolicy {
+
+	/**
+	 * Block the committing thread until there is space in the queue, optionally with a timeout.
+	 */
+	BLOCK( "block" ),
+
+	/**
+	 * Apply the work in the committing thread. Changes might be applied out of order
+	 * relative to the work still waiting in the queue.
+	 */
+	CALLER_RUNS( "caller_runs" ),
+
+	/**
+	 * Write the work to a local journal; it's enqueued again as soon as there is space,
+	 * and any further work is spilled as well until the journal is empty to preserve ordering.
+	 */
+	SPILL( "spill" );
+
+	private static final Log log = LoggerFactory.make();
+
+	private final String configurationName;
+
+	private QueueOverflowPolicy(String configurationName) {
+		this.configurationName = configurationName;
+	}
+
+	public String getConfigurationName() {
+		return configurationName;
+	}
+
+	/**
+	 * @param indexName the index the configuration refers to
+	 * @param properties the configuration to parse
+	 * @return the configured policy, {@link #BLOCK} if none is defined
+	 */
+	public static QueueOverflowPolicy fromConfiguration(String indexName, Properties properties) {
+		String value = properties.getProperty( Environment.WORKER_OVERFLOW_POLICY );
+		if ( StringHelper.isEmpty( value ) ) {
+			return BLOCK;
+		}
+		for ( QueueOverflowPolicy policy : values() ) {
+			if ( policy.configurationName.equalsIgnoreCase( value.trim() ) ) {
+				return policy;
+			}
+		}
+		throw log.invalidOverflowPolicy( indexName, value );
+	}
+
+}
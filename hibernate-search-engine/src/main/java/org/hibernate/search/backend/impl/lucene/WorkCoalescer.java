@@ -0,0 +1,160 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.search.backend.DeleteLuceneWork;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.UpdateLuceneWork;
+
+/**
+ * Identifies the operations made redundant by work queued later for the same entity:
+ * the WorkPlan already merges the operations of a single transaction, but several
+ * transactions waiting in the asynchronous queue might update the same entity.
+ * <p>
+ * The last operation registered for each (entity class, id) is tracked until it's applied;
+ * an operation is skipped when a different update or delete of the same entity was registered
+ * after it and is still pending, as that one will replace whatever this operation would write.
+ * Additions never replace earlier operations, as they don't delete the previous document.
+ * <p>
+ * Operations are registered before being submitted, but they only supersede earlier ones once
+ * the submission succeeded: work rejected by the overflow policy, run by the caller or spilled
+ * to disk never causes queued work to be skipped.
+ *
+ * @see org.hibernate.search.Environment#WORKER_COALESCE
+ * @since 4.1
+ */
+final class WorkCoalescer {
+
+	private final ConcurrentMap<EntityKey, Registration> lastRegistered = new ConcurrentHashMap<EntityKey, Registration>();
+
+	/**
+	 * To be invoked before the work list is submitted to the queue.
+	 */
+	void register(List<LuceneWork> workList) {
+		for ( LuceneWork work : workList ) {
+			EntityKey key = keyOf( work );
+			if ( key != null ) {
+				lastRegistered.put( key, new Registration( work ) );
+			}
+		}
+	}
+
+	/**
+	 * To be invoked once the work list is in the queue, so that it's guaranteed to be applied
+	 * or reported to the ErrorHandler: from now on it supersedes earlier operations.
+	 */
+	void enqueued(List<LuceneWork> workList) {
+		for ( LuceneWork work : workList ) {
+			EntityKey key = keyOf( work );
+			if ( key != null ) {
+				Registration registration = lastRegistered.get( key );
+				// might be already applied, or replaced by later work
+				if ( registration != null && registration.work == work ) {
+					registration.enqueued = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * To be invoked once the operations are applied, or when they are not enqueued,
+	 * so that they are not tracked anymore.
+	 */
+	void unregister(List<LuceneWork> workList) {
+		for ( LuceneWork work : workList ) {
+			EntityKey key = keyOf( work );
+			if ( key != null ) {
+				Registration registration = lastRegistered.get( key );
+				if ( registration != null && registration.work == work ) {
+					lastRegistered.remove( key, registration );
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if the operation doesn't need to be applied, as a later operation will replace it
+	 */
+	boolean isSuperseded(LuceneWork work) {
+		EntityKey key = keyOf( work );
+		if ( key == null ) {
+			return false;
+		}
+		Registration last = lastRegistered.get( key );
+		return last != null && last.enqueued && last.work != work
+				&& ( last.work instanceof UpdateLuceneWork || last.work instanceof DeleteLuceneWork );
+	}
+
+	private static EntityKey keyOf(LuceneWork work) {
+		if ( work.getIdInString() == null || work.getEntityClass() == null ) {
+			return null;
+		}
+		return new EntityKey( work.getEntityClass(), work.getIdInString() );
+	}
+
+	private static final class Registration {
+
+		private final LuceneWork work;
+		private volatile boolean enqueued = false;
+
+		Registration(LuceneWork work) {
+			this.work = work;
+		}
+
+	}
+
+	private static final class EntityKey {
+
+		private final Class<?> entityClass;
+		private final String id;
+
+		EntityKey(Class<?> entityClass, String id) {
+			this.entityClass = entityClass;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if ( this == o ) {
+				return true;
+			}
+			if ( o == null || getClass() != o.getClass() ) {
+				return false;
+			}
+			EntityKey other = (EntityKey) o;
+			return entityClass.equals( other.entityClass ) && id.equals( other.id );
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * entityClass.hashCode() + id.hashCode();
+		}
+
+	}
+
+}
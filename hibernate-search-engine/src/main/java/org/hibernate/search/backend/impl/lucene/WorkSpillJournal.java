@@ -0,0 +1,299 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.batchindexing.impl.Executors;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Local on-disk journal for the {@link QueueOverflowPolicy#SPILL} overflow policy.
+ * Each work list is serialized to its own file, named after a sequence number; a daemon thread
+ * reads the files back in order and enqueues them again, blocking until there is space in the queue.
+ * As long as some work is spilled all new work is spilled as well, so that changes are applied
+ * in the order they were committed. The sequence number is taken while holding the lock, but the
+ * serialization and the file write happen out of it: the draining thread waits for each file
+ * to be completely written before reading it.
+ * The spill files are not a durability mechanism: files left over by a previous run are discarded on startup,
+ * and the IndexingMonitor of spilled work is not notified. When the {@link IndexingJournal} is enabled
+ * spilled work which can't be read back stays in it, to be replayed on the next startup.
+ *
+ * @since 4.1
+ */
+final class WorkSpillJournal implements Runnable {
+
+	private static final Log log = LoggerFactory.make();
+
+	private static final String FILE_SUFFIX = ".spill";
+
+	private final LuceneBackendQueueProcessor processor;
+	private final IndexManager indexManager;
+	private final File directory;
+	private final String indexName;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition workSpilled = lock.newCondition();
+
+	//all guarded by lock
+	private long nextWriteSequence = 0;
+	private long nextReadSequence = 0;
+	private boolean stopped = false;
+	private ExecutorService drainer;
+	private final Map<Long, SpilledWork> completedWrites = new HashMap<Long, SpilledWork>();
+
+	WorkSpillJournal(LuceneBackendQueueProcessor processor, IndexManager indexManager, File directory) {
+		this.processor = processor;
+		this.indexManager = indexManager;
+		this.directory = directory;
+		this.indexName = indexManager.getIndexName();
+		discardLeftovers();
+	}
+
+	/**
+	 * Offers the element to the queue, or spills the work list if the queue is full
+	 * or some work is already spilled.
+	 *
+	 * @return true if the element was added to the queue
+	 * @throws IOException if the work list could not be written to disk
+	 */
+	<T> boolean offerOrSpill(BlockingQueue<T> queue, T element, List<LuceneWork> workList,
+			IndexingJournal.Entry journalEntry) throws IOException {
+		final long sequence;
+		lock.lock();
+		try {
+			if ( nextReadSequence == nextWriteSequence && queue.offer( element ) ) {
+				return true;
+			}
+			sequence = nextWriteSequence++;
+			if ( drainer == null ) {
+				drainer = Executors.newFixedThreadPool( 1, "Spilled work drainer for index " + indexName );
+				drainer.execute( this );
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+		boolean written = false;
+		try {
+			write( workList, sequence );
+			written = true;
+		}
+		finally {
+			writeCompleted( sequence, new SpilledWork( journalEntry, written ) );
+		}
+		return false;
+	}
+
+	/**
+	 * Makes the spilled work available to the draining thread; failed writes are skipped by it.
+	 */
+	private void writeCompleted(long sequence, SpilledWork spilledWork) {
+		lock.lock();
+		try {
+			completedWrites.put( sequence, spilledWork );
+			workSpilled.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of work lists waiting on disk
+	 */
+	int getPendingCount() {
+		lock.lock();
+		try {
+			return (int) ( nextWriteSequence - nextReadSequence );
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		while ( true ) {
+			final long sequence;
+			final SpilledWork spilledWork;
+			lock.lock();
+			try {
+				while ( ! completedWrites.containsKey( nextReadSequence ) ) {
+					if ( stopped && nextReadSequence == nextWriteSequence ) {
+						return;
+					}
+					workSpilled.awaitUninterruptibly();
+				}
+				sequence = nextReadSequence;
+				spilledWork = completedWrites.remove( sequence );
+			}
+			finally {
+				lock.unlock();
+			}
+			File file = fileForSequence( sequence );
+			boolean enqueued = false;
+			try {
+				if ( spilledWork.written ) {
+					processor.enqueueBlocking( indexManager.getSerializer().toLuceneWorks( read( file ) ), spilledWork.journalEntry );
+					enqueued = true;
+				}
+			}
+			catch (IOException e) {
+				log.unableToReadSpilledWork( file.getAbsolutePath(), e );
+			}
+			catch (RuntimeException e) {
+				log.unableToReadSpilledWork( file.getAbsolutePath(), e );
+			}
+			finally {
+				file.delete();
+				if ( ! enqueued ) {
+					// the work is lost: don't keep anyone waiting for it
+					processor.getIndexResources().getWorkspace().transactionsProcessed( 1 );
+				}
+			}
+			lock.lock();
+			try {
+				nextReadSequence++;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all the spilled work was enqueued again, then stops the draining thread.
+	 */
+	void close() {
+		ExecutorService drainerToStop;
+		lock.lock();
+		try {
+			stopped = true;
+			workSpilled.signal();
+			drainerToStop = drainer;
+		}
+		finally {
+			lock.unlock();
+		}
+		if ( drainerToStop != null ) {
+			drainerToStop.shutdown();
+			try {
+				drainerToStop.awaitTermination( Long.MAX_VALUE, TimeUnit.SECONDS );
+			}
+			catch (InterruptedException e) {
+				log.interruptedWhileWaitingForIndexActivity( e );
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void write(List<LuceneWork> workList, long sequence) throws IOException {
+		if ( ! directory.isDirectory() && ! directory.mkdirs() ) {
+			throw new IOException( "Unable to create directory " + directory.getAbsolutePath() );
+		}
+		byte[] data = indexManager.getSerializer().toSerializedModel( workList );
+		File temporary = new File( directory, sequence + FILE_SUFFIX + ".tmp" );
+		FileOutputStream out = new FileOutputStream( temporary );
+		try {
+			out.write( data );
+		}
+		finally {
+			out.close();
+		}
+		if ( ! temporary.renameTo( fileForSequence( sequence ) ) ) {
+			temporary.delete();
+			throw new IOException( "Unable to rename " + temporary.getAbsolutePath() );
+		}
+	}
+
+	private byte[] read(File file) throws IOException {
+		byte[] data = new byte[(int) file.length()];
+		FileInputStream in = new FileInputStream( file );
+		try {
+			int offset = 0;
+			while ( offset < data.length ) {
+				int read = in.read( data, offset, data.length - offset );
+				if ( read < 0 ) {
+					throw new IOException( "Unexpected end of file " + file.getAbsolutePath() );
+				}
+				offset += read;
+			}
+		}
+		finally {
+			in.close();
+		}
+		return data;
+	}
+
+	private File fileForSequence(long sequence) {
+		return new File( directory, sequence + FILE_SUFFIX );
+	}
+
+	private void discardLeftovers() {
+		File[] leftovers = directory.listFiles( new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith( FILE_SUFFIX ) || name.endsWith( FILE_SUFFIX + ".tmp" );
+			}
+		} );
+		if ( leftovers != null && leftovers.length > 0 ) {
+			log.discardingSpilledWork( leftovers.length, directory.getAbsolutePath() );
+			for ( File leftover : leftovers ) {
+				leftover.delete();
+			}
+		}
+	}
+
+	/**
+	 * The outcome of writing a work list to disk, and its journal entry.
+	 */
+	private static final class SpilledWork {
+
+		private final IndexingJournal.Entry journalEntry;
+		private final boolean written;
+
+		SpilledWork(IndexingJournal.Entry journalEntry, boolean written) {
+			this.journalEntry = journalEntry;
+			this.written = written;
+		}
+
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how the Lucene backend distributes the operations of each queue:
+ * either applied inline by the queue processing thread, or split in chunks
+ * executed by the workers thread pool.
+ * Useful to tune {@link org.hibernate.search.Environment#WORKER_INLINE_THRESHOLD}
+ * and {@link org.hibernate.search.Environment#WORKER_CHUNK_SIZE}.
+ *
+ * @since 4.1
+ */
+public final class WorkerExecutionCounters {
+
+	private final AtomicLong inlineQueueCount = new AtomicLong();
+	private final AtomicLong chunkedQueueCount = new AtomicLong();
+	private final AtomicLong chunkCount = new AtomicLong();
+	private final AtomicLong chunkedWorkCount = new AtomicLong();
+
+	void queueAppliedInline() {
+		inlineQueueCount.incrementAndGet();
+	}
+
+	void queueAppliedInChunks(int chunks, int works) {
+		chunkedQueueCount.incrementAndGet();
+		chunkCount.addAndGet( chunks );
+		chunkedWorkCount.addAndGet( works );
+	}
+
+	/**
+	 * @return the number of queues applied by the queue processing thread alone
+	 */
+	public long getInlineQueueCount() {
+		return inlineQueueCount.get();
+	}
+
+	/**
+	 * @return the number of queues split in chunks among the worker threads
+	 */
+	public long getChunkedQueueCount() {
+		return chunkedQueueCount.get();
+	}
+
+	/**
+	 * @return the total number of chunks the queues were split in
+	 */
+	public long getChunkCount() {
+		return chunkCount.get();
+	}
+
+	/**
+	 * @return the average number of operations per chunk
+	 */
+	public double getAverageChunkSize() {
+		long chunks = chunkCount.get();
+		if ( chunks == 0 ) {
+			return 0d;
+		}
+		return (double) chunkedWorkCount.get() / chunks;
+	}
+
+}
@@ -28,12 +28,15 @@ import java.io.IOException;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.util.ThreadInterruptedException;
+import org.hibernate.search.engine.spi.SearchFactoryImplementor;
 import org.hibernate.search.exception.ErrorHandler;
 import org.hibernate.search.util.logging.impl.Log;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
 /**
  * We customize Lucene's ConcurrentMergeScheduler to route eventual exceptions to our configurable errorhandler.
+ * It also reports merge times and sizes to the statistics and, when a {@link MergeRateLimiter}
+ * is provided, flags the merge threads so that their writes are throttled.
  * 
  * @see ErrorHandler
  * @since 3.3
@@ -46,10 +49,45 @@ public class ConcurrentMergeScheduler extends org.apache.lucene.index.Concurrent
 
 	private final ErrorHandler errorHandler;
 	private final String indexName;
+	private final MergeRateLimiter rateLimiter;
+	private final SearchFactoryImplementor searchFactory;
 	
 	public ConcurrentMergeScheduler(ErrorHandler errorHandler, String indexName) {
+		this( errorHandler, indexName, null, null );
+	}
+
+	/**
+	 * @param errorHandler receives exceptions happening during background merges
+	 * @param indexName the name of the index, used for thread names and statistics
+	 * @param rateLimiter throttles the writes of merge threads; might be null to not throttle
+	 * @param searchFactory the statistics of this SearchFactory are notified of each merge; might be null
+	 */
+	public ConcurrentMergeScheduler(ErrorHandler errorHandler, String indexName, MergeRateLimiter rateLimiter, SearchFactoryImplementor searchFactory) {
 		this.errorHandler = errorHandler;
 		this.indexName = indexName;
+		this.rateLimiter = rateLimiter;
+		this.searchFactory = searchFactory;
+	}
+
+	@Override
+	protected void doMerge(MergePolicy.OneMerge merge) throws IOException {
+		final long mergedBytes = merge.totalBytesSize();
+		final long startTime = System.nanoTime();
+		if ( rateLimiter != null ) {
+			rateLimiter.mergeStarted();
+		}
+		try {
+			super.doMerge( merge );
+		}
+		finally {
+			if ( rateLimiter != null ) {
+				rateLimiter.mergeFinished();
+			}
+		}
+		if ( searchFactory != null && searchFactory.getStatistics().isStatisticsEnabled() ) {
+			searchFactory.getStatisticsImplementor()
+					.indexMergeExecuted( indexName, mergedBytes, System.nanoTime() - startTime );
+		}
 	}
 	
 	@Override
@@ -0,0 +1,100 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene.overrides;
+
+import org.apache.lucene.util.ThreadInterruptedException;
+
+/**
+ * Limits the rate at which merge threads write to the index, so that background
+ * merges don't saturate the I/O needed by queries.
+ * The limit is shared by all merge threads of the same index.
+ *
+ * @see ConcurrentMergeScheduler
+ * @see MergeThrottlingDirectory
+ * @since 4.1
+ */
+public final class MergeRateLimiter {
+
+	private final ThreadLocal<Boolean> merging = new ThreadLocal<Boolean>();
+	private final double nanosPerByte;
+
+	//guarded by this
+	private long nextWriteAllowedNanos = System.nanoTime();
+
+	/**
+	 * @param maxMBPerSec the maximum write throughput of merge threads, in megabytes per second
+	 */
+	public MergeRateLimiter(int maxMBPerSec) {
+		if ( maxMBPerSec < 1 ) {
+			throw new IllegalArgumentException( "maxMBPerSec should be at least 1" );
+		}
+		this.nanosPerByte = 1000000000d / ( maxMBPerSec * 1024d * 1024d );
+	}
+
+	/**
+	 * Marks the current thread as performing a merge: writes from this thread will be throttled.
+	 */
+	void mergeStarted() {
+		merging.set( Boolean.TRUE );
+	}
+
+	void mergeFinished() {
+		merging.remove();
+	}
+
+	/**
+	 * @return true if the current thread is performing a merge
+	 */
+	boolean isMergeThread() {
+		return merging.get() != null;
+	}
+
+	/**
+	 * Accounts for written bytes, pausing the current thread as long as needed
+	 * to respect the configured throughput.
+	 *
+	 * @param writtenBytes the amount of bytes written since the previous invocation
+	 */
+	void pause(long writtenBytes) {
+		final long targetNanos;
+		synchronized ( this ) {
+			long now = System.nanoTime();
+			if ( nextWriteAllowedNanos < now ) {
+				nextWriteAllowedNanos = now;
+			}
+			nextWriteAllowedNanos += (long) ( writtenBytes * nanosPerByte );
+			targetNanos = nextWriteAllowedNanos;
+		}
+		long waitNanos = targetNanos - System.nanoTime();
+		if ( waitNanos > 0 ) {
+			try {
+				Thread.sleep( waitNanos / 1000000, (int) ( waitNanos % 1000000 ) );
+			}
+			catch (InterruptedException e) {
+				throw new ThreadInterruptedException( e );
+			}
+		}
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.impl.lucene.overrides;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.Lock;
+import org.apache.lucene.store.LockFactory;
+
+/**
+ * Wraps the Directory used by the IndexWriter to throttle the files written
+ * by merge threads, as tracked by a {@link MergeRateLimiter}.
+ * All other operations are delegated unchanged.
+ *
+ * @since 4.1
+ */
+public final class MergeThrottlingDirectory extends Directory {
+
+	/**
+	 * Don't pay for synchronization on the limiter for each written byte:
+	 * account for writes in chunks of this size.
+	 */
+	private static final int MIN_PAUSE_CHECK_BYTES = 16 * 1024;
+
+	private final Directory delegate;
+	private final MergeRateLimiter rateLimiter;
+
+	public MergeThrottlingDirectory(Directory delegate, MergeRateLimiter rateLimiter) {
+		this.delegate = delegate;
+		this.rateLimiter = rateLimiter;
+	}
+
+	@Override
+	public IndexOutput createOutput(String name) throws IOException {
+		IndexOutput output = delegate.createOutput( name );
+		if ( rateLimiter.isMergeThread() ) {
+			return new ThrottledIndexOutput( output );
+		}
+		else {
+			return output;
+		}
+	}
+
+	@Override
+	public String[] listAll() throws IOException {
+		return delegate.listAll();
+	}
+
+	@Override
+	public boolean fileExists(String name) throws IOException {
+		return delegate.fileExists( name );
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public long fileModified(String name) throws IOException {
+		return delegate.fileModified( name );
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public void touchFile(String name) throws IOException {
+		delegate.touchFile( name );
+	}
+
+	@Override
+	public void deleteFile(String name) throws IOException {
+		delegate.deleteFile( name );
+	}
+
+	@Override
+	public long fileLength(String name) throws IOException {
+		return delegate.fileLength( name );
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public void sync(String name) throws IOException {
+		delegate.sync( name );
+	}
+
+	@Override
+	public void sync(Collection<String> names) throws IOException {
+		delegate.sync( names );
+	}
+
+	@Override
+	public IndexInput openInput(String name) throws IOException {
+		return delegate.openInput( name );
+	}
+
+	@Override
+	public IndexInput openInput(String name, int bufferSize) throws IOException {
+		return delegate.openInput( name, bufferSize );
+	}
+
+	@Override
+	public Lock makeLock(String name) {
+		return delegate.makeLock( name );
+	}
+
+	@Override
+	public void clearLock(String name) throws IOException {
+		delegate.clearLock( name );
+	}
+
+	@Override
+	public void setLockFactory(LockFactory lockFactory) throws IOException {
+		delegate.setLockFactory( lockFactory );
+	}
+
+	@Override
+	public LockFactory getLockFactory() {
+		return delegate.getLockFactory();
+	}
+
+	@Override
+	public String getLockID() {
+		return delegate.getLockID();
+	}
+
+	@Override
+	public void close() throws IOException {
+		//the wrapped Directory is owned by the DirectoryProvider
+	}
+
+	@Override
+	public String toString() {
+		return "MergeThrottlingDirectory(" + delegate + ")";
+	}
+
+	private final class ThrottledIndexOutput extends IndexOutput {
+
+		private final IndexOutput delegate;
+		private long bytesSinceLastPause = 0;
+
+		ThrottledIndexOutput(IndexOutput delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void writeByte(byte b) throws IOException {
+			delegate.writeByte( b );
+			written( 1 );
+		}
+
+		@Override
+		public void writeBytes(byte[] b, int offset, int length) throws IOException {
+			delegate.writeBytes( b, offset, length );
+			written( length );
+		}
+
+		private void written(int length) {
+			bytesSinceLastPause += length;
+			if ( bytesSinceLastPause >= MIN_PAUSE_CHECK_BYTES ) {
+				rateLimiter.pause( bytesSinceLastPause );
+				bytesSinceLastPause = 0;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+
+		@Override
+		public long getFilePointer() {
+			return delegate.getFilePointer();
+		}
+
+		@Override
+		public void seek(long pos) throws IOException {
+			delegate.seek( pos );
+		}
+
+		@Override
+		public long length() throws IOException {
+			return delegate.length();
+		}
+
+		@Override
+		public void setLength(long length) throws IOException {
+			delegate.setLength( length );
+		}
+	}
+
+}
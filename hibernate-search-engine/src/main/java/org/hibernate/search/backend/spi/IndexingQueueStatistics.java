@@ -0,0 +1,64 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.backend.spi;
+
+/**
+ * Gauges of the queue of a {@link BackendQueueProcessor} applying work asynchronously.
+ * Times are in nanoseconds.
+ *
+ * @since 4.1
+ */
+public interface IndexingQueueStatistics {
+
+	String getIndexName();
+
+	/**
+	 * @return the configuration name of the overflow policy applied when the queue is full
+	 */
+	String getOverflowPolicy();
+
+	/**
+	 * @return the number of work lists waiting to be applied, including the ones spilled to disk
+	 */
+	int getQueueDepth();
+
+	int getMaxQueueLength();
+
+	long getSubmittedWorkCount();
+
+	long getSubmitWaitTotalTime();
+
+	long getSubmitWaitMaxTime();
+
+	long getSubmitWaitAvgTime();
+
+	long getRejectedWorkCount();
+
+	long getCallerRunsWorkCount();
+
+	long getSpilledWorkCount();
+
+	long getCoalescedOperationCount();
+
+}
@@ -28,14 +28,18 @@ import java.util.EnumMap;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.lucene.index.ConcurrentMergeScheduler;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LogByteSizeMergePolicy;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.TieredMergePolicy;
 
 import org.hibernate.search.backend.configuration.impl.IndexWriterSetting;
 import org.hibernate.search.util.configuration.impl.MaskedProperty;
 import org.hibernate.search.util.logging.impl.Log;
 
 import org.hibernate.search.SearchException;
+import org.hibernate.search.util.impl.ClassLoaderHelper;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
 /**
@@ -56,6 +60,20 @@ public class LuceneIndexingParameters implements Serializable {
 	public static final String EXPLICIT_DEFAULT_VALUE = "default";
 	// property path keywords
 	public static final String PROP_GROUP = "indexwriter";
+	/**
+	 * Selects the MergePolicy: {@code log_byte_size} (default), {@code tiered} or the fully qualified
+	 * name of a {@code MergePolicy} implementation having a no-arg constructor.
+	 */
+	public static final String MERGE_POLICY = "merge_policy";
+	/**
+	 * Selects the MergeScheduler: {@code concurrent} (default), {@code serial} or the fully qualified
+	 * name of a {@code MergeScheduler} implementation having a no-arg constructor.
+	 */
+	public static final String MERGE_SCHEDULER = "merge_scheduler";
+	public static final String LOG_BYTE_SIZE_MERGE_POLICY = "log_byte_size";
+	public static final String TIERED_MERGE_POLICY = "tiered";
+	public static final String CONCURRENT_MERGE_SCHEDULER = "concurrent";
+	public static final String SERIAL_MERGE_SCHEDULER = "serial";
 
 	private final ParameterSet indexParameters;
 
@@ -82,8 +100,12 @@ public class LuceneIndexingParameters implements Serializable {
 		private static final long serialVersionUID = -6121723702279869524L;
 
 		final Map<IndexWriterSetting, Integer> parameters = new EnumMap<IndexWriterSetting, Integer>( IndexWriterSetting.class );
+		private final String mergePolicy;
+		private final String mergeScheduler;
 
 		public ParameterSet(Properties prop) {
+			mergePolicy = getStrategyName( prop, MERGE_POLICY, LOG_BYTE_SIZE_MERGE_POLICY );
+			mergeScheduler = getStrategyName( prop, MERGE_SCHEDULER, CONCURRENT_MERGE_SCHEDULER );
 			//don't iterate on property entries as we know all the keys:
 			for ( IndexWriterSetting t : IndexWriterSetting.values() ) {
 				String key = t.getKey();
@@ -140,6 +162,85 @@ public class LuceneIndexingParameters implements Serializable {
 			return logByteSizeMergePolicy;
 		}
 
+		/**
+		 * Creates a new MergePolicy of the type selected by the {@value LuceneIndexingParameters#MERGE_POLICY}
+		 * option. The built-in policies are configured by this property set; custom implementations
+		 * are returned as created by their no-arg constructor.
+		 * @return a new MergePolicy instance.
+		 */
+		public MergePolicy createMergePolicy() {
+			if ( LOG_BYTE_SIZE_MERGE_POLICY.equals( mergePolicy ) ) {
+				return getNewMergePolicy();
+			}
+			else if ( TIERED_MERGE_POLICY.equals( mergePolicy ) ) {
+				TieredMergePolicy tieredMergePolicy = new TieredMergePolicy();
+				for ( Map.Entry<IndexWriterSetting, Integer> entry : parameters.entrySet() ) {
+					try {
+						entry.getKey().applySetting( tieredMergePolicy, entry.getValue() );
+					}
+					catch ( IllegalArgumentException e ) {
+						throw new SearchException(
+								"Illegal IndexWriter setting "
+										+ entry.getKey().getKey() + " " + e.getMessage(), e
+						);
+					}
+				}
+				return tieredMergePolicy;
+			}
+			else {
+				return ClassLoaderHelper.instanceFromName(
+						MergePolicy.class, mergePolicy, LuceneIndexingParameters.class, "merge policy"
+				);
+			}
+		}
+
+		/**
+		 * Applies the parameters affecting merge threads to a ConcurrentMergeScheduler.
+		 *
+		 * @param mergeScheduler the scheduler whereto the parameters will be applied.
+		 */
+		public void applyToMergeScheduler(ConcurrentMergeScheduler mergeScheduler) {
+			for ( Map.Entry<IndexWriterSetting, Integer> entry : parameters.entrySet() ) {
+				try {
+					entry.getKey().applySetting( mergeScheduler, entry.getValue() );
+				}
+				catch ( IllegalArgumentException e ) {
+					throw new SearchException(
+							"Illegal IndexWriter setting "
+									+ entry.getKey().getKey() + " " + e.getMessage(), e
+					);
+				}
+			}
+		}
+
+		/**
+		 * @return the value of the {@value LuceneIndexingParameters#MERGE_SCHEDULER} option:
+		 * {@code concurrent}, {@code serial} or a class name.
+		 */
+		public String getMergeScheduler() {
+			return mergeScheduler;
+		}
+
+		/**
+		 * @return the value of the {@value LuceneIndexingParameters#MERGE_POLICY} option:
+		 * {@code log_byte_size}, {@code tiered} or a class name.
+		 */
+		public String getMergePolicy() {
+			return mergePolicy;
+		}
+
+		private static String getStrategyName(Properties prop, String key, String defaultValue) {
+			String value = prop.getProperty( key );
+			if ( value == null ) {
+				return defaultValue;
+			}
+			value = value.trim();
+			if ( value.length() == 0 || EXPLICIT_DEFAULT_VALUE.equalsIgnoreCase( value ) ) {
+				return defaultValue;
+			}
+			return value;
+		}
+
 		public Integer getCurrentValueFor(IndexWriterSetting ws) {
 			return parameters.get( ws );
 		}
@@ -159,6 +260,8 @@ public class LuceneIndexingParameters implements Serializable {
 			int result = 1;
 			result = prime * result
 					+ ( ( parameters == null ) ? 0 : parameters.hashCode() );
+			result = prime * result + mergePolicy.hashCode();
+			result = prime * result + mergeScheduler.hashCode();
 			return result;
 		}
 
@@ -182,7 +285,8 @@ public class LuceneIndexingParameters implements Serializable {
 			else if ( !parameters.equals( other.parameters ) ) {
 				return false;
 			}
-			return true;
+			return mergePolicy.equals( other.mergePolicy )
+					&& mergeScheduler.equals( other.mergeScheduler );
 		}
 
 		@Override
@@ -190,6 +294,8 @@ public class LuceneIndexingParameters implements Serializable {
 			final StringBuilder sb = new StringBuilder();
 			sb.append( "ParameterSet" );
 			sb.append( "{parameters=" ).append( parameters );
+			sb.append( ", mergePolicy=" ).append( mergePolicy );
+			sb.append( ", mergeScheduler=" ).append( mergeScheduler );
 			sb.append( '}' );
 			return sb.toString();
 		}
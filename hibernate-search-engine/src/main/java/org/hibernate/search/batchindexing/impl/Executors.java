@@ -25,6 +25,7 @@ package org.hibernate.search.batchindexing.impl;
 
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -78,6 +79,16 @@ public class Executors {
 	            new BlockPolicy() );
 	}
 	
+	/**
+	 * Creates a new ScheduledThreadPoolExecutor.
+	 * @param threads the number of threads
+	 * @param groupname a label to identify the threadpool; useful for profiling.
+	 * @return the new ScheduledExecutorService
+	 */
+	public static ScheduledThreadPoolExecutor newScheduledThreadPool(int threads, String groupname) {
+		return new ScheduledThreadPoolExecutor( threads, new SearchThreadFactory( groupname ) );
+	}
+
 	/**
      * The thread factory, used to customize thread names
      */
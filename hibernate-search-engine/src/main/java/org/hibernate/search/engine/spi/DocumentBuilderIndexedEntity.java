@@ -84,6 +84,7 @@ import org.hibernate.search.impl.ConfigContext;
 import org.hibernate.search.query.collector.impl.FieldCacheCollectorFactory;
 import org.hibernate.search.query.fieldcache.impl.ClassLoadingStrategySelector;
 import org.hibernate.search.query.fieldcache.impl.FieldCacheLoadingType;
+import org.hibernate.search.query.fieldcache.impl.FieldCacheProjection;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
 /**
@@ -164,6 +165,11 @@ public class DocumentBuilderIndexedEntity<T> extends AbstractDocumentBuilder<T>
 	 */
 	private final FieldCacheCollectorFactory idFieldCacheCollectorFactory;
 
+	/**
+	 * The projectable fields which can be read from the FieldCache, keyed by field name
+	 */
+	private final Map<String, FieldCacheProjection> fieldCacheProjections;
+
 	/**
 	 * Creates a document builder for entities annotated with <code>@Indexed</code>.
 	 *
@@ -202,6 +208,7 @@ public class DocumentBuilderIndexedEntity<T> extends AbstractDocumentBuilder<T>
 		}
 		checkAllowFieldSelection();
 		idFieldCacheCollectorFactory = figureIdFieldCacheUsage();
+		fieldCacheProjections = figureFieldCacheProjections();
 		if ( log.isDebugEnabled() ) {
 			log.debugf(
 					"Field selection in projections is set to %b for entity %s.",
@@ -226,6 +233,77 @@ public class DocumentBuilderIndexedEntity<T> extends AbstractDocumentBuilder<T>
 		return null;
 	}
 
+	private Map<String, FieldCacheProjection> figureFieldCacheProjections() {
+		if ( !this.fieldCacheUsage.contains( org.hibernate.search.annotations.FieldCacheType.PROJECTIONS ) ) {
+			return Collections.emptyMap();
+		}
+		Map<String, FieldCacheProjection> projections = new HashMap<String, FieldCacheProjection>();
+		// names written more than once per document are multi valued: the FieldCache can't represent them
+		Set<String> ineligibleNames = new HashSet<String>();
+		projections.put(
+				ProjectionConstants.OBJECT_CLASS,
+				new FieldCacheProjection( ProjectionConstants.OBJECT_CLASS, FieldCacheLoadingType.STRING, null )
+		);
+		FieldCacheLoadingType idType = ClassLoadingStrategySelector.guessAppropriateCollectorType( idBridge );
+		if ( idType != null ) {
+			projections.put(
+					idKeywordName,
+					new FieldCacheProjection( idKeywordName, idType, ClassLoadingStrategySelector.getTwoWayStringBridge( idBridge ) )
+			);
+		}
+		else {
+			ineligibleNames.add( idKeywordName );
+		}
+		collectFieldCacheProjections( getMetadata(), true, projections, ineligibleNames );
+		for ( String fieldName : ineligibleNames ) {
+			projections.remove( fieldName );
+		}
+		return Collections.unmodifiableMap( projections );
+	}
+
+	private static void collectFieldCacheProjections(PropertiesMetadata metadata, boolean singleValued,
+			Map<String, FieldCacheProjection> projections, Set<String> ineligibleNames) {
+		for ( int index = 0; index < metadata.fieldNames.size(); index++ ) {
+			String fieldName = metadata.fieldNames.get( index );
+			FieldCacheProjection projection = null;
+			if ( singleValued && metadata.fieldStore.get( index ) != Store.NO && metadata.fieldNullTokens.get( index ) == null ) {
+				projection = createFieldCacheProjection(
+						fieldName, metadata.fieldBridges.get( index ), metadata.fieldIndex.get( index )
+				);
+			}
+			if ( projection == null || projections.put( fieldName, projection ) != null ) {
+				ineligibleNames.add( fieldName );
+			}
+		}
+		for ( int index = 0; index < metadata.embeddedPropertiesMetadata.size(); index++ ) {
+			collectFieldCacheProjections(
+					metadata.embeddedPropertiesMetadata.get( index ),
+					singleValued && metadata.embeddedContainers.get( index ) == PropertiesMetadata.Container.OBJECT,
+					projections,
+					ineligibleNames
+			);
+		}
+		// class bridges might write any value: never read them from the FieldCache
+		ineligibleNames.addAll( metadata.classNames );
+	}
+
+	private static FieldCacheProjection createFieldCacheProjection(String fieldName, FieldBridge fieldBridge, Field.Index index) {
+		if ( !( fieldBridge instanceof TwoWayFieldBridge ) || index == Field.Index.NO ) {
+			return null;
+		}
+		FieldCacheLoadingType type = ClassLoadingStrategySelector.guessAppropriateCollectorType( (TwoWayFieldBridge) fieldBridge );
+		if ( type == null ) {
+			return null;
+		}
+		if ( type == FieldCacheLoadingType.STRING && index != Field.Index.NOT_ANALYZED && index != Field.Index.NOT_ANALYZED_NO_NORMS ) {
+			// the indexed terms are not the stored value
+			return null;
+		}
+		return new FieldCacheProjection(
+				fieldName, type, ClassLoadingStrategySelector.getTwoWayStringBridge( (TwoWayFieldBridge) fieldBridge )
+		);
+	}
+
 	public XMember getIdGetter() {
 		return idGetter;
 	}
@@ -234,6 +312,14 @@ public class DocumentBuilderIndexedEntity<T> extends AbstractDocumentBuilder<T>
 		return idFieldCacheCollectorFactory;
 	}
 
+	/**
+	 * @return the projectable fields which can be read from the FieldCache, keyed by field name;
+	 * empty unless {@link org.hibernate.search.annotations.FieldCacheType#PROJECTIONS} is enabled
+	 */
+	public Map<String, FieldCacheProjection> getFieldCacheProjections() {
+		return fieldCacheProjections;
+	}
+
 	protected void documentBuilderSpecificChecks(XProperty member, PropertiesMetadata propertiesMetadata, boolean isRoot, String prefix, ConfigContext context, PathsContext pathsContext) {
 		checkDocumentId( member, propertiesMetadata, isRoot, prefix, context, pathsContext );
 	}
@@ -22,12 +22,14 @@ package org.hibernate.search.engine.spi;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.hibernate.search.backend.impl.batch.BatchBackend;
 import org.hibernate.search.batchindexing.MassIndexerProgressMonitor;
 import org.hibernate.search.engine.impl.FilterDef;
 import org.hibernate.search.filter.FilterCachingStrategy;
 import org.hibernate.search.indexes.impl.IndexManagerHolder;
+import org.hibernate.search.query.engine.impl.QueryResultCache;
 import org.hibernate.search.spi.InstanceInitializer;
 import org.hibernate.search.spi.SearchFactoryIntegrator;
 import org.hibernate.search.stat.spi.StatisticsImplementor;
@@ -52,6 +54,8 @@ public interface SearchFactoryImplementor extends SearchFactoryIntegrator {
 
 	int getFilterCacheBitResultsSize();
 
+	int getFilterCacheBitResultsMaxBytes();
+
 	Set<Class<?>> getIndexedTypesPolymorphic(Class<?>[] classes);
 
 	BatchBackend makeBatchBackend(MassIndexerProgressMonitor progressMonitor);
@@ -80,4 +84,21 @@ public interface SearchFactoryImplementor extends SearchFactoryIntegrator {
 	InstanceInitializer getInstanceInitializer();
 
 	TimingSource getTimingSource();
+
+	/**
+	 * @return the executor searching in parallel the indexes targeted by a query, or null if they
+	 * have to be searched sequentially
+	 */
+	ExecutorService getShardSearchExecutor();
+
+	/**
+	 * @return the cache of the most recent query results, or null if query results are not cached
+	 */
+	QueryResultCache getQueryResultCache();
+
+	/**
+	 * @return the number of upcoming hits whose entities are loaded together when iterating or scrolling
+	 * over the results of a query, unless the query defines its own fetch size
+	 */
+	int getQueryLoadingBatchSize();
 }
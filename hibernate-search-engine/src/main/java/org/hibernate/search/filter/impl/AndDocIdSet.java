@@ -29,15 +29,16 @@ import java.util.List;
 
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
-import org.apache.lucene.util.OpenBitSet;
-
-import static java.lang.Math.max;
 
 /**
  * A DocIdSet built as applying "AND" operation to a list of other DocIdSet(s).
  * The DocIdSetIterator returned will return only document ids contained
  * in all DocIdSet(s) handed to the constructor.
  *
+ * The intersection is computed by leapfrogging: the iterator of the sparsest set
+ * leads and the others are advanced to its position, or make it jump to theirs.
+ * The result is stored in the cheapest form for its density, see {@link DocIdSetEncodingHelper}.
+ *
  * @author Sanne Grinovero
  * @author Hardy Ferentschik
  */
@@ -69,13 +70,12 @@ public class AndDocIdSet extends DocIdSet {
 		if ( docIdBitSet != null ) {
 			return docIdBitSet;
 		} // check for concurrent initialization
-		//TODO if all andedDocIdSets are actually DocIdBitSet, use their internal BitSet instead of next algo.
-		//TODO if some andedDocIdSets are DocIdBitSet, merge them first.
-		int size = andedDocIdSets.size();
+		DocIdSet[] sparsestFirst = sortBySparseness( andedDocIdSets );
+		int size = sparsestFirst.length;
 		DocIdSetIterator[] iterators = new DocIdSetIterator[size];
 		for ( int i = 0; i < size; i++ ) {
 			// build all iterators
-			DocIdSetIterator docIdSetIterator = andedDocIdSets.get( i ).iterator();
+			DocIdSetIterator docIdSetIterator = sparsestFirst[i].iterator();
 			if ( docIdSetIterator == null ) {
 				// the Lucene API permits to return null on any iterator for empty matches
 				return DocIdSet.EMPTY_DOCIDSET;
@@ -87,82 +87,60 @@ public class AndDocIdSet extends DocIdSet {
 		return docIdBitSet;
 	}
 
-	private DocIdSet makeDocIdSetOnAgreedBits(final DocIdSetIterator[] iterators) throws IOException {
-		final OpenBitSet result = new OpenBitSet( maxDocNumber );
-		final int numberOfIterators = iterators.length;
-
-		int targetPosition = findFirstTargetPosition( iterators, result );
-
-		if ( targetPosition == DocIdSetIterator.NO_MORE_DOCS ) {
-			return DocIdSet.EMPTY_DOCIDSET;
+	/**
+	 * Sorts the sets by estimated cardinality, computing it once per set as counting
+	 * the bits of a bit set is not free. The number of sets is small: an insertion sort will do.
+	 */
+	private static DocIdSet[] sortBySparseness(List<DocIdSet> docIdSets) {
+		int size = docIdSets.size();
+		DocIdSet[] sets = new DocIdSet[size];
+		int[] cardinalities = new int[size];
+		for ( int i = 0; i < size; i++ ) {
+			DocIdSet set = docIdSets.get( i );
+			int cardinality = DocIdSetEncodingHelper.estimateCardinality( set );
+			int j = i;
+			while ( j > 0 && cardinalities[j - 1] > cardinality ) {
+				sets[j] = sets[j - 1];
+				cardinalities[j] = cardinalities[j - 1];
+				j--;
+			}
+			sets[j] = set;
+			cardinalities[j] = cardinality;
 		}
+		return sets;
+	}
 
-		// Each iterator can vote "ok" for the current target to
-		// be reached; when all agree the bit is set.
-		// if an iterator disagrees (it jumped longer), it's current position becomes the new targetPosition
-		// for the others and he is considered "first" in the voting round (every iterator votes for himself ;-)
+	private DocIdSet makeDocIdSetOnAgreedBits(final DocIdSetIterator[] iterators) throws IOException {
+		final DocIdSetEncodingHelper.Builder result = new DocIdSetEncodingHelper.Builder( maxDocNumber );
+		final DocIdSetIterator lead = iterators[0];
+		final int numberOfIterators = iterators.length;
 
-		int i = 0;
-		int votes = 0; //could be smarter but would make the code even more complex for a minor optimization out of cycle.
-		// enter main loop:
-		while ( true ) {
-			final DocIdSetIterator iterator = iterators[i];
+		int targetPosition = lead.nextDoc();
+		while ( targetPosition != DocIdSetIterator.NO_MORE_DOCS ) {
 			int position = targetPosition;
-			if ( !iteratorAlreadyOnTargetPosition( targetPosition, iterator ) ) {
-				position = iterator.advance( targetPosition );
-			}
-			if ( position == DocIdSetIterator.NO_MORE_DOCS ) {
-				return result;
-			} //exit condition
-			if ( position == targetPosition ) {
-				if ( ++votes == numberOfIterators ) {
-					result.fastSet( position );
-					votes = 0;
-					targetPosition++;
+			for ( int i = 1; i < numberOfIterators; i++ ) {
+				final DocIdSetIterator iterator = iterators[i];
+				position = iterator.docID();
+				if ( position < targetPosition ) {
+					position = iterator.advance( targetPosition );
+				}
+				if ( position != targetPosition ) {
+					break;
 				}
 			}
-			else {
-				votes = 1;
-				targetPosition = position;
+			if ( position == targetPosition ) {
+				// all iterators agree
+				result.add( targetPosition );
+				targetPosition = lead.nextDoc();
 			}
-			i = ++i % numberOfIterators;
-		}
-	}
-
-	// see  HSEARCH-610
-	private boolean iteratorAlreadyOnTargetPosition(int targetPosition, DocIdSetIterator iterator) {
-		return iterator.docID() == targetPosition;
-	}
-
-	private int findFirstTargetPosition(final DocIdSetIterator[] iterators, OpenBitSet result) throws IOException {
-		int targetPosition = iterators[0].nextDoc();
-		if ( targetPosition == DocIdSetIterator.NO_MORE_DOCS ) {
-			// first iterator has no values, so skip all
-			return DocIdSetIterator.NO_MORE_DOCS;
-		}
-
-		boolean allIteratorsShareSameFirstTarget = true;
-
-		//iterator initialize, just one "next" for each DocIdSetIterator
-		for ( int i = 1; i < iterators.length; i++ ) {
-			final DocIdSetIterator iterator = iterators[i];
-			final int position = iterator.nextDoc();
-			if ( position == DocIdSetIterator.NO_MORE_DOCS ) {
-				//current iterator has no values, so skip all
-				return DocIdSetIterator.NO_MORE_DOCS;
+			else if ( position == DocIdSetIterator.NO_MORE_DOCS ) {
+				break;
 			}
-			if ( targetPosition != position ) {
-				targetPosition = max( targetPosition, position );
-				allIteratorsShareSameFirstTarget = false;
+			else {
+				// an iterator jumped further: the lead catches up
+				targetPosition = lead.advance( position );
 			}
 		}
-		// end iterator initialize
-
-		if ( allIteratorsShareSameFirstTarget ) {
-			result.fastSet( targetPosition );
-			targetPosition++;
-		}
-
-		return targetPosition;
+		return result.build();
 	}
 }
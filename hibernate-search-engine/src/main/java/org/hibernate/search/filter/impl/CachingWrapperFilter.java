@@ -24,19 +24,39 @@
 package org.hibernate.search.filter.impl;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.Filter;
 
-import org.hibernate.search.util.impl.SoftLimitMRUCache;
 import org.hibernate.search.util.logging.impl.Log;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
 /**
  * A slightly different version of Lucene's original <code>CachingWrapperFilter</code> which
- * uses <code>SoftReferences</code> instead of <code>WeakReferences</code> in order to cache
- * the filter <code>BitSet</code>.
+ * bounds the memory used by the cached <code>DocIdSet</code>s instead of relying on weak or
+ * soft references.
+ *
+ * The <code>DocIdSet</code>s are re-encoded in the cheapest form for their density (see
+ * {@link DocIdSetEncodingHelper}) and cached per segment core, so that after a reopen only the new
+ * or modified segments are filtered again. As with Lucene's default deletes mode, documents deleted
+ * after the computation of a <code>DocIdSet</code> are not removed from it: searches skip them anyway.
+ * Entries are dropped as soon as their segment core is closed, and least recently used entries are
+ * evicted when the estimated size in bytes of the cached <code>DocIdSet</code>s exceeds the configured limit.
+ * Segment readers only reference a single listener shared by all filters, which knows the filters through
+ * weak references: a filter which is no longer used can be garbage collected with its cache.
+ *
+ * The lock on the cache is only held to look up, insert or evict entries: each <code>DocIdSet</code> is
+ * computed at most once, and threads only wait for the computation of the segment they need.
  *
  * @author Hardy Ferentschik
  * @see org.apache.lucene.search.CachingWrapperFilter
@@ -49,18 +69,49 @@ public class CachingWrapperFilter extends Filter {
 
 	public static final int DEFAULT_SIZE = 5;
 
+	public static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
 	/**
-	 * The cache using soft references in order to store the filter bit sets.
+	 * The maximum number of cached <code>DocIdSet</code>s is the configured size multiplied
+	 * by this ratio, as each index has usually several segments.
 	 */
-	private final SoftLimitMRUCache cache;
+	private static final int SIZE_TO_SEGMENTS_RATIO = 15;
 
-	private final Filter filter;
+	/**
+	 * The filters which cached some <code>DocIdSet</code>, guarded by its own lock.
+	 */
+	private static final Set<Reference<CachingWrapperFilter>> registeredFilters = new HashSet<Reference<CachingWrapperFilter>>();
+
+	private static final ReferenceQueue<CachingWrapperFilter> collectedFilters = new ReferenceQueue<CachingWrapperFilter>();
+
+	private static final IndexReader.ReaderFinishedListener purgeListener = new IndexReader.ReaderFinishedListener() {
+		@Override
+		public void finished(IndexReader reader) {
+			Object key = reader.getCoreCacheKey();
+			for ( CachingWrapperFilter filter : getRegisteredFilters() ) {
+				filter.purge( key );
+			}
+		}
+	};
+
+	/**
+	 * The cached <code>DocIdSet</code>s per segment core cache key, in access order.
+	 * Guarded by its own lock, which also guards {@link #cachedBytes}.
+	 */
+	private final LinkedHashMap<Object, CacheEntry> cache = new LinkedHashMap<Object, CacheEntry>( 16, .75f, true );
+
+	private long cachedBytes;
 
 	/**
-	 * Under memory pressure the JVM will release all Soft references,
-	 * so pushing it too high will invalidate all eventually useful other caches.
+	 * Guarded by the lock on {@link #registeredFilters}.
 	 */
-	private static final int HARD_TO_SOFT_RATIO = 15;
+	private boolean registered = false;
+
+	private final int maxEntries;
+
+	private final long maxBytes;
+
+	private final Filter filter;
 
 	/**
 	 * @param filter Filter to cache results of
@@ -71,30 +122,153 @@ public class CachingWrapperFilter extends Filter {
 
 	/**
 	 * @param filter Filter to cache results of
-	 * @param size soft reference size (gets multiplied by {@link #HARD_TO_SOFT_RATIO}.
+	 * @param size cache size (gets multiplied by {@link #SIZE_TO_SEGMENTS_RATIO}.
 	 */
 	public CachingWrapperFilter(Filter filter, int size) {
+		this( filter, size, DEFAULT_MAX_BYTES );
+	}
+
+	/**
+	 * @param filter Filter to cache results of
+	 * @param size cache size (gets multiplied by {@link #SIZE_TO_SEGMENTS_RATIO}.
+	 * @param maxBytes maximum estimated size in bytes of the cached <code>DocIdSet</code>s
+	 */
+	public CachingWrapperFilter(Filter filter, int size, long maxBytes) {
 		this.filter = filter;
-		final int softRefSize = size * HARD_TO_SOFT_RATIO;
-		log.debugf( "Initialising SoftLimitMRUCache with hard ref size of %d and a soft ref of %d", size, softRefSize );
-		this.cache = new SoftLimitMRUCache( size, softRefSize );
+		this.maxEntries = size * SIZE_TO_SEGMENTS_RATIO;
+		this.maxBytes = maxBytes;
+		log.debugf( "Initialising DocIdSet cache with a maximum of %d entries and %d bytes", maxEntries, maxBytes );
 	}
 
 	@Override
 	public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
-		DocIdSet cached = (DocIdSet) cache.get( reader );
-		if ( cached != null ) {
-			return cached;
-		}
+		final Object key = reader.getCoreCacheKey();
+		CacheEntry entry;
+		boolean added = false;
 		synchronized ( cache ) {
-			cached = (DocIdSet) cache.get( reader );
-			if ( cached != null ) {
-				return cached;
+			entry = cache.get( key );
+			if ( entry == null ) {
+				entry = new CacheEntry();
+				cache.put( key, entry );
+				added = true;
 			}
-			final DocIdSet docIdSet = filter.getDocIdSet( reader );
-			cache.put( reader, docIdSet );
+		}
+		if ( added ) {
+			register();
+			// the listeners are a set, registering the same listener for each new entry is harmless
+			reader.addReaderFinishedListener( purgeListener );
+		}
+		DocIdSet docIdSet = entry.docIdSet;
+		if ( docIdSet != null ) {
 			return docIdSet;
 		}
+		// only the threads needing this segment wait for its computation
+		synchronized ( entry ) {
+			docIdSet = entry.docIdSet;
+			if ( docIdSet != null ) {
+				return docIdSet;
+			}
+			boolean computed = false;
+			try {
+				docIdSet = DocIdSetEncodingHelper.compact( filter.getDocIdSet( reader ), reader.maxDoc() );
+				entry.bytes = DocIdSetEncodingHelper.estimateBytes( docIdSet, reader.maxDoc() );
+				computed = true;
+			}
+			finally {
+				if ( ! computed ) {
+					// don't leave behind an entry which would never be evicted
+					removeIfCurrent( key, entry );
+				}
+			}
+			synchronized ( cache ) {
+				// the entry is only accounted for if it was not purged in the meantime
+				if ( cache.get( key ) == entry ) {
+					cachedBytes += entry.bytes;
+					entry.docIdSet = docIdSet;
+					evictIfNeeded();
+				}
+				else {
+					entry.docIdSet = docIdSet;
+				}
+			}
+		}
+		return docIdSet;
+	}
+
+	/**
+	 * @return the number of cached <code>DocIdSet</code>s
+	 */
+	public int getCacheSize() {
+		synchronized ( cache ) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * @return the estimated size in bytes of the cached <code>DocIdSet</code>s
+	 */
+	public long getCachedBytes() {
+		synchronized ( cache ) {
+			return cachedBytes;
+		}
+	}
+
+	private void removeIfCurrent(Object key, CacheEntry entry) {
+		synchronized ( cache ) {
+			if ( cache.get( key ) == entry ) {
+				cache.remove( key );
+			}
+		}
+	}
+
+	private void register() {
+		synchronized ( registeredFilters ) {
+			Reference<? extends CachingWrapperFilter> collected;
+			while ( ( collected = collectedFilters.poll() ) != null ) {
+				registeredFilters.remove( collected );
+			}
+			if ( ! registered ) {
+				registeredFilters.add( new WeakReference<CachingWrapperFilter>( this, collectedFilters ) );
+				registered = true;
+			}
+		}
+	}
+
+	private static List<CachingWrapperFilter> getRegisteredFilters() {
+		synchronized ( registeredFilters ) {
+			List<CachingWrapperFilter> filters = new ArrayList<CachingWrapperFilter>( registeredFilters.size() );
+			for ( Reference<CachingWrapperFilter> reference : registeredFilters ) {
+				CachingWrapperFilter filter = reference.get();
+				if ( filter != null ) {
+					filters.add( filter );
+				}
+			}
+			return filters;
+		}
+	}
+
+	private void purge(Object key) {
+		synchronized ( cache ) {
+			CacheEntry entry = cache.remove( key );
+			if ( entry != null && entry.docIdSet != null ) {
+				cachedBytes -= entry.bytes;
+			}
+		}
+	}
+
+	/**
+	 * Evicts the least recently used entries, skipping the ones still being computed.
+	 * Must be called holding the lock on {@link #cache}.
+	 */
+	private void evictIfNeeded() {
+		Iterator<CacheEntry> eldest = cache.values().iterator();
+		while ( ( cachedBytes > maxBytes || cache.size() > maxEntries ) && eldest.hasNext() ) {
+			CacheEntry entry = eldest.next();
+			if ( entry.docIdSet != null ) {
+				eldest.remove();
+				cachedBytes -= entry.bytes;
+			}
+		}
 	}
 
 	public String toString() {
@@ -111,4 +285,12 @@ public class CachingWrapperFilter extends Filter {
 	public int hashCode() {
 		return filter.hashCode() ^ 0x1117BF25;
 	}
+
+	private static final class CacheEntry {
+		/**
+		 * Set once computed, under the locks of the entry and of the cache.
+		 */
+		private volatile DocIdSet docIdSet;
+		private long bytes;
+	}
 }
@@ -0,0 +1,257 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.filter.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.DocIdBitSet;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.OpenBitSet;
+import org.apache.lucene.util.SortedVIntList;
+
+/**
+ * Helper class re-encoding DocIdSets in the cheapest form for their density,
+ * so that cached filter results don't take the size of a bit set of the whole
+ * segment when they match a handful of documents:
+ * <ul>
+ * <li>a {@link SortedIntDocIdSet} for very sparse sets, which also advances quickly when intersected;</li>
+ * <li>a {@link SortedVIntList}, compressing the gaps between document ids, for moderately sparse sets;</li>
+ * <li>an {@link OpenBitSet} for dense sets.</li>
+ * </ul>
+ *
+ * @since 4.1
+ */
+public final class DocIdSetEncodingHelper {
+
+	/**
+	 * An int array is used when it takes at most this fraction of the bit set size.
+	 */
+	private static final int INT_ARRAY_TO_BIT_SET_RATIO = 4;
+
+	/**
+	 * Compressed gaps are used when they take at most this fraction of the bit set size.
+	 */
+	private static final int VINT_LIST_TO_BIT_SET_RATIO = 2;
+
+	private DocIdSetEncodingHelper() {
+	}
+
+	/**
+	 * @param docIdSet the set to encode, possibly {@code null}
+	 * @param maxDoc the number of documents of the segment
+	 * @return the same documents in the cheapest form, always cacheable
+	 * @throws IOException if iterating on {@code docIdSet} fails
+	 */
+	public static DocIdSet compact(DocIdSet docIdSet, int maxDoc) throws IOException {
+		if ( docIdSet == null || docIdSet == DocIdSet.EMPTY_DOCIDSET ) {
+			return DocIdSet.EMPTY_DOCIDSET;
+		}
+		else if ( docIdSet instanceof SortedIntDocIdSet ) {
+			return docIdSet;
+		}
+		else if ( docIdSet instanceof OpenBitSet ) {
+			return compact( (OpenBitSet) docIdSet, maxDoc );
+		}
+		DocIdSetIterator iterator = docIdSet.iterator();
+		if ( iterator == null ) {
+			// the Lucene API permits to return null on any iterator for empty matches
+			return DocIdSet.EMPTY_DOCIDSET;
+		}
+		Builder builder = new Builder( maxDoc );
+		int doc;
+		while ( ( doc = iterator.nextDoc() ) != DocIdSetIterator.NO_MORE_DOCS ) {
+			builder.add( doc );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @param docIdSet a DocIdSet
+	 * @param maxDoc the number of documents of the segment
+	 * @return the estimated size in bytes of the set
+	 */
+	public static long estimateBytes(DocIdSet docIdSet, int maxDoc) {
+		if ( docIdSet == DocIdSet.EMPTY_DOCIDSET ) {
+			return 0;
+		}
+		else if ( docIdSet instanceof SortedIntDocIdSet ) {
+			return ( (SortedIntDocIdSet) docIdSet ).getByteSize();
+		}
+		else if ( docIdSet instanceof OpenBitSet ) {
+			return ( (OpenBitSet) docIdSet ).getBits().length * 8L;
+		}
+		else if ( docIdSet instanceof FixedBitSet ) {
+			return ( (FixedBitSet) docIdSet ).getBits().length * 8L;
+		}
+		else if ( docIdSet instanceof DocIdBitSet ) {
+			return ( (DocIdBitSet) docIdSet ).getBitSet().size() / 8;
+		}
+		else if ( docIdSet instanceof SortedVIntList ) {
+			return ( (SortedVIntList) docIdSet ).getByteSize();
+		}
+		// unknown implementation, assume a bit set
+		return maxDoc / 8 + 1;
+	}
+
+	/**
+	 * @param docIdSet a DocIdSet
+	 * @return the number of documents of the set if known without iterating on it, {@code Integer.MAX_VALUE} otherwise
+	 */
+	public static int estimateCardinality(DocIdSet docIdSet) {
+		if ( docIdSet instanceof SortedIntDocIdSet ) {
+			return ( (SortedIntDocIdSet) docIdSet ).size();
+		}
+		else if ( docIdSet instanceof SortedVIntList ) {
+			return ( (SortedVIntList) docIdSet ).size();
+		}
+		else if ( docIdSet instanceof OpenBitSet ) {
+			return (int) ( (OpenBitSet) docIdSet ).cardinality();
+		}
+		else if ( docIdSet instanceof FixedBitSet ) {
+			return ( (FixedBitSet) docIdSet ).cardinality();
+		}
+		else if ( docIdSet instanceof DocIdBitSet ) {
+			return ( (DocIdBitSet) docIdSet ).getBitSet().cardinality();
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	private static DocIdSet compact(OpenBitSet bits, int maxDoc) {
+		long cardinality = bits.cardinality();
+		if ( cardinality == 0 ) {
+			return DocIdSet.EMPTY_DOCIDSET;
+		}
+		long bitSetBytes = bitSetBytes( maxDoc );
+		if ( cardinality * 4 * INT_ARRAY_TO_BIT_SET_RATIO <= bitSetBytes ) {
+			int[] docs = new int[(int) cardinality];
+			int size = 0;
+			int doc = bits.nextSetBit( 0 );
+			while ( doc != -1 ) {
+				docs[size++] = doc;
+				doc = bits.nextSetBit( doc + 1 );
+			}
+			return new SortedIntDocIdSet( docs, size );
+		}
+		if ( cardinality * VINT_LIST_TO_BIT_SET_RATIO <= bitSetBytes ) {
+			// at least one byte per document
+			SortedVIntList vIntList = toVIntList( bits.iterator() );
+			if ( vIntList.getByteSize() * VINT_LIST_TO_BIT_SET_RATIO <= bitSetBytes ) {
+				return vIntList;
+			}
+		}
+		return bits;
+	}
+
+	private static DocIdSet compact(int[] docs, int size, int maxDoc) {
+		long bitSetBytes = bitSetBytes( maxDoc );
+		if ( (long) size * VINT_LIST_TO_BIT_SET_RATIO <= bitSetBytes ) {
+			SortedVIntList vIntList = new SortedVIntList( docs, size );
+			if ( vIntList.getByteSize() * VINT_LIST_TO_BIT_SET_RATIO <= bitSetBytes ) {
+				return vIntList;
+			}
+		}
+		OpenBitSet bits = new OpenBitSet( maxDoc );
+		for ( int i = 0; i < size; i++ ) {
+			bits.fastSet( docs[i] );
+		}
+		return bits;
+	}
+
+	private static SortedVIntList toVIntList(DocIdSetIterator iterator) {
+		try {
+			return new SortedVIntList( iterator );
+		}
+		catch ( IOException e ) {
+			// can't happen iterating in memory
+			throw new IllegalStateException( e );
+		}
+	}
+
+	private static long bitSetBytes(int maxDoc) {
+		return OpenBitSet.bits2words( maxDoc ) * 8L;
+	}
+
+	/**
+	 * Builds a compact DocIdSet from document ids added in increasing order. Ids are
+	 * collected in an int array while the set is sparse, and in a bit set once it
+	 * would take less memory.
+	 */
+	public static final class Builder {
+		private final int maxDoc;
+		private final int maxArraySize;
+		private int[] docs = new int[16];
+		private int size;
+		private OpenBitSet bits;
+
+		/**
+		 * @param maxDoc the number of documents of the segment
+		 */
+		public Builder(int maxDoc) {
+			this.maxDoc = maxDoc;
+			this.maxArraySize = (int) Math.min( Integer.MAX_VALUE, bitSetBytes( maxDoc ) / 4 );
+		}
+
+		/**
+		 * @param doc a document id, greater than the previously added one
+		 */
+		public void add(int doc) {
+			if ( bits != null ) {
+				bits.fastSet( doc );
+				return;
+			}
+			if ( size == maxArraySize ) {
+				bits = new OpenBitSet( maxDoc );
+				for ( int i = 0; i < size; i++ ) {
+					bits.fastSet( docs[i] );
+				}
+				docs = null;
+				bits.fastSet( doc );
+				return;
+			}
+			if ( size == docs.length ) {
+				docs = Arrays.copyOf( docs, Math.min( maxArraySize, size << 1 ) );
+			}
+			docs[size++] = doc;
+		}
+
+		/**
+		 * @return the added document ids in the cheapest form
+		 */
+		public DocIdSet build() {
+			if ( bits != null ) {
+				return compact( bits, maxDoc );
+			}
+			else if ( size == 0 ) {
+				return DocIdSet.EMPTY_DOCIDSET;
+			}
+			else if ( size * 4L * INT_ARRAY_TO_BIT_SET_RATIO <= bitSetBytes( maxDoc ) ) {
+				return new SortedIntDocIdSet( size == docs.length ? docs : Arrays.copyOf( docs, size ), size );
+			}
+			return compact( docs, size, maxDoc );
+		}
+	}
+}
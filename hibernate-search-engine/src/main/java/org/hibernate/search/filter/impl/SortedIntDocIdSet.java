@@ -0,0 +1,129 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.filter.impl;
+
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * A DocIdSet storing its document ids in a sorted int array: the cheapest
+ * representation for sparse sets, which can be advanced in logarithmic time.
+ *
+ * @since 4.1
+ */
+public final class SortedIntDocIdSet extends DocIdSet {
+
+	private final int[] docs;
+	private final int size;
+
+	/**
+	 * @param docs document ids sorted in increasing order, without duplicates
+	 * @param size number of document ids used in {@code docs}
+	 */
+	public SortedIntDocIdSet(int[] docs, int size) {
+		this.docs = docs;
+		this.size = size;
+	}
+
+	/**
+	 * @return the number of documents in this set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the size in bytes of the document ids array
+	 */
+	public long getByteSize() {
+		return docs.length * 4L;
+	}
+
+	@Override
+	public DocIdSetIterator iterator() {
+		return new SortedIntIterator();
+	}
+
+	@Override
+	public boolean isCacheable() {
+		return true;
+	}
+
+	private final class SortedIntIterator extends DocIdSetIterator {
+		private int index = -1;
+		private int doc = -1;
+
+		@Override
+		public int docID() {
+			return doc;
+		}
+
+		@Override
+		public int nextDoc() {
+			if ( ++index < size ) {
+				doc = docs[index];
+			}
+			else {
+				index = size;
+				doc = NO_MORE_DOCS;
+			}
+			return doc;
+		}
+
+		@Override
+		public int advance(int target) {
+			// gallop from the current position then binary search, so that
+			// both short and long jumps are cheap when intersecting
+			int low = index + 1;
+			int bound = 1;
+			int high = low;
+			while ( high < size && docs[high] < target ) {
+				low = high + 1;
+				high += bound;
+				bound <<= 1;
+			}
+			if ( high >= size ) {
+				high = size - 1;
+			}
+			while ( low <= high ) {
+				int middle = ( low + high ) >>> 1;
+				if ( docs[middle] < target ) {
+					low = middle + 1;
+				}
+				else {
+					high = middle - 1;
+				}
+			}
+			index = low;
+			if ( index < size ) {
+				doc = docs[index];
+			}
+			else {
+				index = size;
+				doc = NO_MORE_DOCS;
+			}
+			return doc;
+		}
+	}
+}
@@ -23,19 +23,25 @@
  */
 package org.hibernate.search.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.analysis.Analyzer;
 
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
 import org.hibernate.search.backend.spi.BackendQueueProcessor;
+import org.hibernate.search.backend.spi.IndexingQueueStatistics;
 import org.hibernate.search.backend.spi.Worker;
 import org.hibernate.search.engine.impl.FilterDef;
 import org.hibernate.search.engine.spi.SearchFactoryImplementor;
 import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.search.indexes.impl.DefaultIndexReaderAccessor;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
 import org.hibernate.search.indexes.impl.IndexManagerHolder;
 import org.hibernate.search.indexes.spi.IndexManager;
 import org.hibernate.search.jmx.impl.JMXRegistrar;
@@ -60,6 +66,7 @@ import org.hibernate.search.engine.spi.TimingSource;
 import org.hibernate.search.engine.ServiceManager;
 import org.hibernate.search.exception.ErrorHandler;
 import org.hibernate.search.filter.FilterCachingStrategy;
+import org.hibernate.search.jmx.IndexingQueueInfo;
 import org.hibernate.search.jmx.StatisticsInfo;
 import org.hibernate.search.jmx.StatisticsInfoMBean;
 import org.hibernate.search.query.dsl.QueryContextBuilder;
@@ -67,6 +74,7 @@ import org.hibernate.search.query.dsl.impl.ConnectedQueryContextBuilder;
 import org.hibernate.search.query.engine.spi.HSQuery;
 import org.hibernate.search.query.engine.spi.TimeoutExceptionFactory;
 import org.hibernate.search.query.engine.impl.HSQueryImpl;
+import org.hibernate.search.query.engine.impl.QueryResultCache;
 import org.hibernate.search.spi.InstanceInitializer;
 import org.hibernate.search.spi.ServiceProvider;
 import org.hibernate.search.spi.WorkerBuildContext;
@@ -88,6 +96,7 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 	}
 
 	private static final Log log = LoggerFactory.make();
+	private static final int DEFAULT_QUERY_LOADING_BATCH_SIZE = 20;
 
 	private final Map<Class<?>, EntityIndexBinder> indexBindingForEntities;
 	private final Map<Class<?>, DocumentBuilderContainedEntity<?>> documentBuildersContainedEntities;
@@ -97,6 +106,7 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 	private final Map<String, Analyzer> analyzers;
 	private final AtomicBoolean stopped = new AtomicBoolean( false );
 	private final int cacheBitResultsSize;
+	private final int cacheBitResultsMaxBytes;
 	private final Properties configurationProperties;
 	private final PolymorphicIndexHierarchy indexHierarchy;
 	private final StatisticsImpl statistics;
@@ -106,16 +116,20 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 	private final String indexingStrategy;
 	private final ServiceManager serviceManager;
 	private final boolean enableDirtyChecks;
+	private final int queryLoadingBatchSize;
 	private final DefaultIndexReaderAccessor indexReaderAccessor;
 	private final InstanceInitializer instanceInitializer;
 	private final TimeoutExceptionFactory timeoutExceptionFactory;
 	private final TimingSource timingSource;
+	private final ExecutorService shardSearchExecutor;
+	private final QueryResultCache queryResultCache;
 	private final SearchMapping mapping;
 	private final boolean indexMetadataIsComplete;
 
 	public ImmutableSearchFactory(SearchFactoryState state) {
 		this.analyzers = state.getAnalyzers();
 		this.cacheBitResultsSize = state.getCacheBitResultsSize();
+		this.cacheBitResultsMaxBytes = state.getCacheBitResultsMaxBytes();
 		this.configurationProperties = state.getConfigurationProperties();
 		this.indexBindingForEntities = state.getIndexBindingForEntity();
 		this.documentBuildersContainedEntities = state.getDocumentBuildersContainedEntities();
@@ -131,6 +145,8 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 		this.instanceInitializer = state.getInstanceInitializer();
 		this.timeoutExceptionFactory = state.getDefaultTimeoutExceptionFactory();
 		this.timingSource = state.getTimingSource();
+		this.shardSearchExecutor = state.getShardSearchExecutor();
+		this.queryResultCache = state.getQueryResultCache();
 		this.mapping = state.getProgrammaticMapping();
 		this.statistics = new StatisticsImpl( this );
 		this.indexMetadataIsComplete = state.isIndexMetadataComplete();
@@ -143,6 +159,13 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 				configurationProperties, Environment.ENABLE_DIRTY_CHECK, true
 		);
 
+		this.queryLoadingBatchSize = ConfigurationParseHelper.getIntValue(
+				configurationProperties, Environment.QUERY_LOADING_BATCH_SIZE, DEFAULT_QUERY_LOADING_BATCH_SIZE
+		);
+		if ( queryLoadingBatchSize < 1 ) {
+			throw log.propertyMustBePositive( Environment.QUERY_LOADING_BATCH_SIZE, queryLoadingBatchSize );
+		}
+
 		if ( isJMXEnabled() ) {
 			// since the SearchFactory is mutable we might have an already existing MBean which we have to unregister first
 			if ( JMXRegistrar.isNameRegistered( StatisticsInfoMBean.STATISTICS_MBEAN_OBJECT_NAME ) ) {
@@ -151,6 +174,13 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 			JMXRegistrar.registerMBean(
 					new StatisticsInfo( statistics ), StatisticsInfoMBean.STATISTICS_MBEAN_OBJECT_NAME
 			);
+			for ( IndexingQueueStatistics queueStatistics : getIndexingQueueStatistics() ) {
+				String objectName = IndexingQueueInfo.objectName( queueStatistics.getIndexName() );
+				if ( JMXRegistrar.isNameRegistered( objectName ) ) {
+					JMXRegistrar.unRegisterMBean( objectName );
+				}
+				JMXRegistrar.registerMBean( new IndexingQueueInfo( queueStatistics ), objectName );
+			}
 		}
 
 		this.indexReaderAccessor = new DefaultIndexReaderAccessor( this );
@@ -173,8 +203,17 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 				log.workerException( e );
 			}
 
+			if ( isJMXEnabled() ) {
+				for ( IndexingQueueStatistics queueStatistics : getIndexingQueueStatistics() ) {
+					JMXRegistrar.unRegisterMBean( IndexingQueueInfo.objectName( queueStatistics.getIndexName() ) );
+				}
+			}
+
 			this.allIndexesManager.stop();
 			this.timingSource.stop();
+			if ( shardSearchExecutor != null ) {
+				shardSearchExecutor.shutdownNow();
+			}
 
 			serviceManager.stopServices();
 
@@ -190,6 +229,25 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 		}
 	}
 
+	/**
+	 * @return the gauges of the Lucene backends applying work asynchronously, to be exposed via JMX
+	 */
+	private List<IndexingQueueStatistics> getIndexingQueueStatistics() {
+		List<IndexingQueueStatistics> queues = new ArrayList<IndexingQueueStatistics>();
+		for ( IndexManager indexManager : allIndexesManager.getIndexManagers() ) {
+			if ( indexManager instanceof DirectoryBasedIndexManager ) {
+				BackendQueueProcessor backend = ( (DirectoryBasedIndexManager) indexManager ).getBackendQueueProcessor();
+				if ( backend instanceof LuceneBackendQueueProcessor ) {
+					IndexingQueueStatistics queueStatistics = ( (LuceneBackendQueueProcessor) backend ).getQueueStatistics();
+					if ( queueStatistics != null ) {
+						queues.add( queueStatistics );
+					}
+				}
+			}
+		}
+		return queues;
+	}
+
 	public HSQuery createHSQuery() {
 		return new HSQueryImpl( this );
 	}
@@ -274,6 +332,10 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 		return cacheBitResultsSize;
 	}
 
+	public int getCacheBitResultsMaxBytes() {
+		return cacheBitResultsMaxBytes;
+	}
+
 	public Properties getConfigurationProperties() {
 		return configurationProperties;
 	}
@@ -294,6 +356,10 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 		return cacheBitResultsSize;
 	}
 
+	public int getFilterCacheBitResultsMaxBytes() {
+		return cacheBitResultsMaxBytes;
+	}
+
 	public Set<Class<?>> getIndexedTypesPolymorphic(Class<?>[] classes) {
 		return indexHierarchy.getIndexedClasses( classes );
 	}
@@ -323,6 +389,10 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 		return enableDirtyChecks;
 	}
 
+	public int getQueryLoadingBatchSize() {
+		return queryLoadingBatchSize;
+	}
+
 	public boolean isStopped() {
 		return stopped.get();
 	}
@@ -373,6 +443,16 @@ public class ImmutableSearchFactory implements SearchFactoryImplementorWithShare
 		return this.timingSource;
 	}
 
+	@Override
+	public ExecutorService getShardSearchExecutor() {
+		return this.shardSearchExecutor;
+	}
+
+	@Override
+	public QueryResultCache getQueryResultCache() {
+		return this.queryResultCache;
+	}
+
 	@Override
 	public SearchMapping getProgrammaticMapping() {
 		return mapping;
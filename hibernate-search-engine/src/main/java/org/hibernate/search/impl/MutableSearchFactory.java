@@ -26,6 +26,7 @@ package org.hibernate.search.impl;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -45,6 +46,7 @@ import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.search.indexes.impl.IndexManagerHolder;
 import org.hibernate.search.query.dsl.QueryContextBuilder;
 import org.hibernate.search.query.engine.spi.HSQuery;
+import org.hibernate.search.query.engine.impl.QueryResultCache;
 import org.hibernate.search.query.engine.spi.TimeoutExceptionFactory;
 import org.hibernate.search.spi.InstanceInitializer;
 import org.hibernate.search.spi.SearchFactoryBuilder;
@@ -106,6 +108,10 @@ public class MutableSearchFactory implements SearchFactoryImplementorWithShareab
 		return delegate.getCacheBitResultsSize();
 	}
 
+	public int getCacheBitResultsMaxBytes() {
+		return delegate.getCacheBitResultsMaxBytes();
+	}
+
 	public Properties getConfigurationProperties() {
 		return delegate.getConfigurationProperties();
 	}
@@ -130,6 +136,10 @@ public class MutableSearchFactory implements SearchFactoryImplementorWithShareab
 		return delegate.getFilterCacheBitResultsSize();
 	}
 
+	public int getFilterCacheBitResultsMaxBytes() {
+		return delegate.getFilterCacheBitResultsMaxBytes();
+	}
+
 	public Set<Class<?>> getIndexedTypesPolymorphic(Class<?>[] classes) {
 		return delegate.getIndexedTypesPolymorphic( classes );
 	}
@@ -201,6 +211,10 @@ public class MutableSearchFactory implements SearchFactoryImplementorWithShareab
 		return delegate.isDirtyChecksEnabled();
 	}
 
+	public int getQueryLoadingBatchSize() {
+		return delegate.getQueryLoadingBatchSize();
+	}
+
 	public boolean isStopped() {
 		return delegate.isStopped();
 	}
@@ -240,6 +254,16 @@ public class MutableSearchFactory implements SearchFactoryImplementorWithShareab
 		return delegate.getTimingSource();
 	}
 
+	@Override
+	public ExecutorService getShardSearchExecutor() {
+		return delegate.getShardSearchExecutor();
+	}
+
+	@Override
+	public QueryResultCache getQueryResultCache() {
+		return delegate.getQueryResultCache();
+	}
+
 	@Override
 	public SearchMapping getProgrammaticMapping() {
 		return delegate.getProgrammaticMapping();
@@ -26,6 +26,7 @@ package org.hibernate.search.impl;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.hibernate.search.backend.spi.BackendQueueProcessor;
@@ -39,6 +40,7 @@ import org.hibernate.search.engine.spi.TimingSource;
 import org.hibernate.search.exception.ErrorHandler;
 import org.hibernate.search.filter.FilterCachingStrategy;
 import org.hibernate.search.indexes.impl.IndexManagerHolder;
+import org.hibernate.search.query.engine.impl.QueryResultCache;
 import org.hibernate.search.query.engine.spi.TimeoutExceptionFactory;
 import org.hibernate.search.spi.InstanceInitializer;
 import org.hibernate.search.spi.internals.PolymorphicIndexHierarchy;
@@ -61,6 +63,7 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 	private FilterCachingStrategy filterCachingStrategy;
 	private Map<String, Analyzer> analyzers;
 	private int cacheBitResultsSize;
+	private int cacheBitResultsMaxBytes;
 	private Properties configurationProperties;
 	private PolymorphicIndexHierarchy indexHierarchy;
 	private ServiceManager serviceManager;
@@ -70,6 +73,8 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 	private TimeoutExceptionFactory defaultTimeoutExceptionFactory;
 	private InstanceInitializer instanceInitializer;
 	private TimingSource timingSource;
+	private ExecutorService shardSearchExecutor;
+	private QueryResultCache queryResultCache;
 	private SearchMapping mapping;
 	private boolean indexMetadataIsComplete;
 
@@ -82,6 +87,7 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 		filterCachingStrategy = oldFactoryState.getFilterCachingStrategy();
 		analyzers = oldFactoryState.getAnalyzers();
 		cacheBitResultsSize = oldFactoryState.getCacheBitResultsSize();
+		cacheBitResultsMaxBytes = oldFactoryState.getCacheBitResultsMaxBytes();
 		configurationProperties = oldFactoryState.getConfigurationProperties();
 		indexHierarchy = oldFactoryState.getIndexHierarchy();
 		serviceManager = oldFactoryState.getServiceManager();
@@ -91,6 +97,8 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 		defaultTimeoutExceptionFactory = oldFactoryState.getDefaultTimeoutExceptionFactory();
 		instanceInitializer = oldFactoryState.getInstanceInitializer();
 		timingSource = oldFactoryState.getTimingSource();
+		shardSearchExecutor = oldFactoryState.getShardSearchExecutor();
+		queryResultCache = oldFactoryState.getQueryResultCache();
 		mapping = oldFactoryState.getProgrammaticMapping();
 		indexMetadataIsComplete= oldFactoryState.isIndexMetadataComplete();
 	}
@@ -139,6 +147,10 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 		return cacheBitResultsSize;
 	}
 
+	public int getCacheBitResultsMaxBytes() {
+		return cacheBitResultsMaxBytes;
+	}
+
 	public Properties getConfigurationProperties() {
 		return configurationProperties;
 	}
@@ -183,6 +195,10 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 		this.cacheBitResultsSize = cacheBitResultsSize;
 	}
 
+	public void setCacheBitResultsMaxBytes(int cacheBitResultsMaxBytes) {
+		this.cacheBitResultsMaxBytes = cacheBitResultsMaxBytes;
+	}
+
 	public void setConfigurationProperties(Properties configurationProperties) {
 		this.configurationProperties = configurationProperties;
 	}
@@ -248,6 +264,24 @@ public class MutableSearchFactoryState implements SearchFactoryState {
 		this.timingSource = timingSource;
 	}
 
+	@Override
+	public ExecutorService getShardSearchExecutor() {
+		return shardSearchExecutor;
+	}
+
+	public void setShardSearchExecutor(ExecutorService shardSearchExecutor) {
+		this.shardSearchExecutor = shardSearchExecutor;
+	}
+
+	@Override
+	public QueryResultCache getQueryResultCache() {
+		return queryResultCache;
+	}
+
+	public void setQueryResultCache(QueryResultCache queryResultCache) {
+		this.queryResultCache = queryResultCache;
+	}
+
 	public void setProgrammaticMapping(SearchMapping mapping) {
 		this.mapping = mapping;
 	}
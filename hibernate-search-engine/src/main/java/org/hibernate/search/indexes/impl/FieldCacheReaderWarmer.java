@@ -0,0 +1,174 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.indexes.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.queryParser.ParseException;
+import org.apache.lucene.queryParser.QueryParser;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+
+import org.hibernate.annotations.common.util.StringHelper;
+import org.hibernate.search.Environment;
+import org.hibernate.search.SearchException;
+import org.hibernate.search.indexes.spi.ReaderWarmer;
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Built-in {@link ReaderWarmer}: loads the FieldCache of the configured fields on the new segments,
+ * then runs the configured queries on the whole IndexReader.
+ * Fields are listed in <code>warmer.fields</code>, separated by commas; each name can be followed
+ * by the type of the cache entry to load: <code>:string_index</code> (the default, used by sorting
+ * and faceting), <code>:string</code>, <code>:int</code>, <code>:long</code>, <code>:float</code> or <code>:double</code>.
+ * Queries are listed in <code>warmer.queries</code>, separated by semicolons, using the Lucene
+ * query parser syntax; the terms are not analyzed.
+ *
+ * @since 4.1
+ */
+public class FieldCacheReaderWarmer implements ReaderWarmer {
+
+	private static final Log log = LoggerFactory.make();
+
+	public static final String FIELDS = "warmer.fields";
+	public static final String QUERIES = "warmer.queries";
+
+	private static final int MAX_HITS = 10;
+	private static final List<String> TYPES = Arrays.asList( "string_index", "string", "int", "long", "float", "double" );
+
+	private final List<String> fields = new ArrayList<String>();
+	private final List<String> types = new ArrayList<String>();
+	private final List<Query> queries = new ArrayList<Query>();
+	private String indexName;
+
+	@Override
+	public void initialize(String indexName, Properties props) {
+		this.indexName = indexName;
+		String fieldList = props.getProperty( FIELDS );
+		if ( StringHelper.isNotEmpty( fieldList ) ) {
+			for ( String field : fieldList.split( "," ) ) {
+				field = field.trim();
+				if ( field.length() == 0 ) {
+					continue;
+				}
+				int typeSeparator = field.lastIndexOf( ':' );
+				if ( typeSeparator < 0 ) {
+					fields.add( field );
+					types.add( "string_index" );
+				}
+				else {
+					String type = field.substring( typeSeparator + 1 ).trim().toLowerCase();
+					if ( ! TYPES.contains( type ) ) {
+						throw new SearchException( "Unknown FieldCache type '" + type + "' for warm-up field '"
+								+ field + "' of index " + indexName );
+					}
+					fields.add( field.substring( 0, typeSeparator ).trim() );
+					types.add( type );
+				}
+			}
+		}
+		String queryList = props.getProperty( QUERIES );
+		if ( StringHelper.isNotEmpty( queryList ) ) {
+			QueryParser parser = new QueryParser( Environment.DEFAULT_LUCENE_MATCH_VERSION, "", new KeywordAnalyzer() );
+			for ( String query : queryList.split( ";" ) ) {
+				if ( query.trim().length() == 0 ) {
+					continue;
+				}
+				try {
+					queries.add( parser.parse( query.trim() ) );
+				}
+				catch (ParseException e) {
+					throw new SearchException( "Unable to parse warm-up query '" + query + "' of index " + indexName, e );
+				}
+			}
+		}
+	}
+
+	@Override
+	public void warm(IndexReader reader, List<IndexReader> newSegments) {
+		for ( IndexReader segment : newSegments ) {
+			for ( int i = 0; i < fields.size(); i++ ) {
+				try {
+					loadFieldCache( segment, fields.get( i ), types.get( i ) );
+				}
+				catch (IOException e) {
+					log.unableToWarmIndexReader( indexName, e );
+				}
+				catch (RuntimeException e) {
+					// e.g. a numeric cache on a field containing text
+					log.unableToWarmIndexReader( indexName, e );
+				}
+			}
+		}
+		if ( ! queries.isEmpty() ) {
+			IndexSearcher searcher = new IndexSearcher( reader );
+			try {
+				for ( Query query : queries ) {
+					searcher.search( query, MAX_HITS );
+				}
+			}
+			catch (IOException e) {
+				log.unableToWarmIndexReader( indexName, e );
+			}
+			finally {
+				try {
+					searcher.close();
+				}
+				catch (IOException e) {
+					log.unableToWarmIndexReader( indexName, e );
+				}
+			}
+		}
+	}
+
+	private void loadFieldCache(IndexReader segment, String field, String type) throws IOException {
+		if ( "string".equals( type ) ) {
+			FieldCache.DEFAULT.getStrings( segment, field );
+		}
+		else if ( "int".equals( type ) ) {
+			FieldCache.DEFAULT.getInts( segment, field );
+		}
+		else if ( "long".equals( type ) ) {
+			FieldCache.DEFAULT.getLongs( segment, field );
+		}
+		else if ( "float".equals( type ) ) {
+			FieldCache.DEFAULT.getFloats( segment, field );
+		}
+		else if ( "double".equals( type ) ) {
+			FieldCache.DEFAULT.getDoubles( segment, field );
+		}
+		else {
+			FieldCache.DEFAULT.getStringIndex( segment, field );
+		}
+	}
+
+}
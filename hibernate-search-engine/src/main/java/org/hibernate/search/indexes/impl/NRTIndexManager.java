@@ -20,9 +20,12 @@
  */
 package org.hibernate.search.indexes.impl;
 
+import java.util.List;
 import java.util.Properties;
 
 import org.hibernate.search.Environment;
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
 import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
 import org.hibernate.search.backend.impl.lucene.NRTWorkspaceImpl;
 import org.hibernate.search.backend.spi.BackendQueueProcessor;
@@ -71,4 +74,31 @@ public class NRTIndexManager extends DirectoryBasedIndexManager {
 		return nrtWorkspace;
 	}
 
+	@Override
+	public void performOperations(List<LuceneWork> workList, IndexingMonitor monitor) {
+		// the generation is assigned before submitting, so that it's accounted for even if the backend is async
+		nrtWorkspace.transactionSubmitted();
+		super.performOperations( workList, monitor );
+	}
+
+	/**
+	 * @return the generation of the last transaction submitted to this index: once this method returns,
+	 * it includes the changes of any transaction the current thread committed before invoking it
+	 * @see #waitForGeneration(long)
+	 */
+	public long getCurrentGeneration() {
+		return nrtWorkspace.getCurrentGeneration();
+	}
+
+	/**
+	 * Blocks until queries see the changes of the given generation: useful to read your own
+	 * writes when the IndexReader is refreshed in background, see {@link Environment#NRT_MAX_STALENESS}.
+	 *
+	 * @param generation as returned by {@link #getCurrentGeneration()} after applying some changes
+	 * @throws org.hibernate.search.SearchException if refreshing the IndexReader failed while waiting
+	 */
+	public void waitForGeneration(long generation) {
+		nrtWorkspace.waitForGeneration( generation );
+	}
+
 }
@@ -21,33 +21,73 @@
 package org.hibernate.search.indexes.impl;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.ReaderUtil;
 import org.hibernate.annotations.common.AssertionFailure;
+import org.hibernate.annotations.common.util.StringHelper;
 import org.hibernate.search.SearchException;
+import org.hibernate.search.batchindexing.impl.Executors;
 import org.hibernate.search.indexes.spi.DirectoryBasedReaderProvider;
+import org.hibernate.search.indexes.spi.IndexCommitListener;
+import org.hibernate.search.indexes.spi.ReaderWarmer;
 import org.hibernate.search.store.DirectoryProvider;
+import org.hibernate.search.util.configuration.impl.ConfigurationParseHelper;
+import org.hibernate.search.util.impl.ClassLoaderHelper;
 import org.hibernate.search.util.logging.impl.Log;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 
 /**
  * This <code>ReaderProvider</code> shares IndexReaders as long as they are "current";
- * It uses IndexReader.reopen() which should improve performance on larger indexes
+ * It uses IndexReader.openIfChanged() which should improve performance on larger indexes
  * as it shares buffers with previous IndexReader generation for the segments which didn't change.
+ * When a {@link ReaderWarmer} is configured the reopened IndexReader is warmed up by a background
+ * thread, while queries keep using the previous one until it is ready.
+ * When {@link #ASYNC_REFRESH} is enabled queries never check nor reopen the IndexReader: a background
+ * thread does it after each commit of the local backend and optionally at a fixed period.
  *
  * @author Sanne Grinovero <sanne@hibernate.org> (C) 2011 Red Hat Inc.
  */
-public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider {
+public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider, IndexCommitListener {
 
 	private static final Log log = LoggerFactory.make();
 
+	/**
+	 * Fully qualified class name of the {@link ReaderWarmer} to apply to new IndexReaders before they are used.
+	 * This is scoped to the <code>reader</code> prefix of the index.
+	 */
+	public static final String WARMER = "warmer";
+
+	/**
+	 * When true, IndexReaders are reopened by a background thread instead of by the querying threads.
+	 * This is scoped to the <code>reader</code> prefix of the index and defaults to false.
+	 */
+	public static final String ASYNC_REFRESH = "async_refresh";
+
+	/**
+	 * Period in milliseconds at which the background thread checks for index changes, in addition to
+	 * the notifications of commits performed by the local backend; useful when the index is modified by
+	 * other processes. This is scoped to the <code>reader</code> prefix of the index and defaults to 0: no
+	 * periodic check.
+	 */
+	public static final String ASYNC_REFRESH_PERIOD = "async_refresh.period";
+
 	/**
 	 * contains all Readers (most current per Directory and all unclosed old readers)
 	 */
@@ -60,6 +100,19 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 
 	private DirectoryProvider directoryProvider;
 	private String indexName;
+
+	/**
+	 * When not null, new IndexReaders are warmed up by this thread before being published
+	 */
+	private ReaderWarmer warmer;
+	private ExecutorService warmingExecutor;
+
+	/**
+	 * When not null, IndexReaders are reopened by this thread only
+	 */
+	private ScheduledExecutorService refreshExecutor;
+	private final AtomicBoolean refreshPending = new AtomicBoolean( false );
+	private final Runnable refreshTask = new RefreshAll();
 	
 	@Override
 	public IndexReader openIndexReader() {
@@ -87,6 +140,20 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 	public void initialize(DirectoryBasedIndexManager indexManager, Properties props) {
 		this.directoryProvider = indexManager.getDirectoryProvider();
 		this.indexName = indexManager.getIndexName();
+		this.warmer = createWarmer( indexName, props );
+		boolean asyncRefresh = props != null && ConfigurationParseHelper.getBooleanValue( props, ASYNC_REFRESH, false );
+		if ( asyncRefresh ) {
+			// warming up happens on the refreshing thread as well
+			this.refreshExecutor = Executors.newScheduledThreadPool( 1, "IndexReader refresher for index " + indexName );
+			indexManager.addIndexCommitListener( this );
+			int period = ConfigurationParseHelper.getIntValue( props, ASYNC_REFRESH_PERIOD, 0 );
+			if ( period > 0 ) {
+				refreshExecutor.scheduleWithFixedDelay( refreshTask, period, period, TimeUnit.MILLISECONDS );
+			}
+		}
+		else if ( warmer != null ) {
+			this.warmingExecutor = Executors.newFixedThreadPool( 1, "IndexReader warmer for index " + indexName );
+		}
 		// Initialize at least one, don't forget directoryProvider might return different Directory later
 		createReader( directoryProvider.getDirectory() );
 	}
@@ -114,8 +181,55 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 		}
 	}
 
+	/**
+	 * @return the ReaderWarmer configured by {@link #WARMER}, the {@link FieldCacheReaderWarmer} if only its options
+	 * are set, null otherwise
+	 */
+	private static ReaderWarmer createWarmer(String indexName, Properties props) {
+		if ( props == null ) {
+			return null;
+		}
+		String impl = props.getProperty( WARMER );
+		ReaderWarmer readerWarmer;
+		if ( StringHelper.isNotEmpty( impl ) ) {
+			readerWarmer = ClassLoaderHelper.instanceFromName(
+					ReaderWarmer.class, impl, SharingBufferReaderProvider.class, "reader warmer"
+			);
+		}
+		else if ( props.getProperty( FieldCacheReaderWarmer.FIELDS ) != null
+				|| props.getProperty( FieldCacheReaderWarmer.QUERIES ) != null ) {
+			readerWarmer = new FieldCacheReaderWarmer();
+		}
+		else {
+			return null;
+		}
+		readerWarmer.initialize( indexName, props );
+		return readerWarmer;
+	}
+
+	/**
+	 * Notifies that changes were committed to the index. When {@link #ASYNC_REFRESH} is enabled
+	 * this schedules a reopen of the IndexReaders, otherwise it has no effect as queries check
+	 * the index status.
+	 */
+	@Override
+	public void indexCommitted() {
+		if ( refreshExecutor != null && refreshPending.compareAndSet( false, true ) ) {
+			try {
+				refreshExecutor.execute( refreshTask );
+			}
+			catch ( RejectedExecutionException e ) {
+				// we are being stopped
+				refreshPending.set( false );
+			}
+		}
+	}
+
 	@Override
 	public void stop() {
+		// let the pending warm-ups publish their reader, so that they are closed as well
+		awaitTermination( warmingExecutor );
+		awaitTermination( refreshExecutor );
 		for ( IndexReader reader : allReaders.keySet() ) {
 			ReaderUsagePair usage = allReaders.get( reader );
 			usage.close();
@@ -126,6 +240,41 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 		}
 	}
 
+	private static void awaitTermination(ExecutorService executor) {
+		if ( executor == null ) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			executor.awaitTermination( Long.MAX_VALUE, TimeUnit.SECONDS );
+		}
+		catch ( InterruptedException e ) {
+			log.interruptedWhileWaitingForIndexActivity( e );
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Reopens the IndexReaders of all Directories, if they changed.
+	 */
+	private final class RefreshAll implements Runnable {
+
+		@Override
+		public void run() {
+			// commits happening from now on need a new refresh
+			refreshPending.set( false );
+			for ( PerDirectoryLatestReader latestReader : currentReaders.values() ) {
+				try {
+					latestReader.refreshInBackground();
+				}
+				catch ( RuntimeException e ) {
+					log.unableToRefreshIndexReader( indexName, e );
+				}
+			}
+		}
+
+	}
+
 	//overridable method for testability:
 	protected IndexReader readerFactory(final Directory directory) throws IOException {
 		return IndexReader.open( directory, true );
@@ -150,6 +299,23 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 			reader = r;
 		}
 
+		/**
+		 * Takes a usage token, unless the reader was already closed.
+		 *
+		 * @return false if the reader was closed and can't be used any more
+		 */
+		boolean tryAcquire() {
+			while ( true ) {
+				int refCount = usageCounter.get();
+				if ( refCount <= 0 ) {
+					return false;
+				}
+				if ( usageCounter.compareAndSet( refCount, refCount + 1 ) ) {
+					return true;
+				}
+			}
+		}
+
 		/**
 		 * Closes the <code>IndexReader</code> if no other resource is using it
 		 * in which case the reference to this container will also be removed.
@@ -191,10 +357,11 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 
 		/**
 		 * Reference to the most current IndexReader for a DirectoryProvider;
-		 * guarded by lockOnReplaceCurrent;
+		 * replaced under lockOnReplaceCurrent, volatile to be read without lock when refreshing asynchronously;
 		 */
-		public ReaderUsagePair current; //guarded by lockOnReplaceCurrent
+		public volatile ReaderUsagePair current; //guarded by lockOnReplaceCurrent
 		private final Lock lockOnReplaceCurrent = new ReentrantLock();
+		private boolean warmingInProgress = false; //guarded by lockOnReplaceCurrent
 
 		/**
 		 * @param directory The <code>Directory</code> for which we manage the <code>IndexReader</code>.
@@ -203,6 +370,10 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 		 */
 		public PerDirectoryLatestReader(Directory directory) throws IOException {
 			IndexReader reader = readerFactory( directory );
+			if ( warmer != null ) {
+				// not used by queries yet: warm it up synchronously
+				warm( reader, null );
+			}
 			ReaderUsagePair initialPair = new ReaderUsagePair( reader );
 			initialPair.usageCounter.set( 1 ); //a token to mark as active (preventing real close).
 			lockOnReplaceCurrent.lock(); //no harm, just ensuring safe publishing.
@@ -218,21 +389,37 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 		 * @return the current IndexReader if it's in sync with underlying index, a new one otherwise.
 		 */
 		public IndexReader refreshAndGet() {
+			if ( refreshExecutor != null ) {
+				// the background thread takes care of refreshing
+				return acquireCurrent();
+			}
 			ReaderUsagePair previousCurrent;
 			IndexReader updatedReader;
 			lockOnReplaceCurrent.lock();
 			try {
+				if ( warmingInProgress ) {
+					// keep using the current reader until the new one is warm
+					current.usageCounter.incrementAndGet();
+					return current.reader;
+				}
 				IndexReader beforeUpdateReader = current.reader;
 				try {
-					updatedReader = beforeUpdateReader.reopen();
+					updatedReader = IndexReader.openIfChanged( beforeUpdateReader );
 				}
 				catch ( IOException e ) {
 					throw new SearchException( "Unable to reopen IndexReader", e );
 				}
-				if ( beforeUpdateReader == updatedReader ) {
+				if ( updatedReader == null ) {
+					updatedReader = beforeUpdateReader;
 					previousCurrent = null;
 					current.usageCounter.incrementAndGet();
 				}
+				else if ( warmer != null ) {
+					warmingInProgress = true;
+					warmingExecutor.execute( new WarmAndPublish( beforeUpdateReader, updatedReader ) );
+					current.usageCounter.incrementAndGet();
+					return beforeUpdateReader;
+				}
 				else {
 					ReaderUsagePair newPair = new ReaderUsagePair( updatedReader );
 					//no need to increment usageCounter in newPair, as it is constructed with correct number 2.
@@ -251,6 +438,111 @@ public class SharingBufferReaderProvider implements DirectoryBasedReaderProvider
 			}
 			return updatedReader;
 		}
+
+		/**
+		 * @return the current IndexReader, after taking a usage token on it
+		 */
+		private IndexReader acquireCurrent() {
+			while ( true ) {
+				ReaderUsagePair pair = current;
+				if ( pair.tryAcquire() ) {
+					return pair.reader;
+				}
+				// it was replaced and closed meanwhile: the new current is visible already
+			}
+		}
+
+		/**
+		 * Reopens the current IndexReader and publishes the new one if the index changed.
+		 * Only invoked by the refreshing thread, which is the only one replacing the current reader.
+		 */
+		void refreshInBackground() {
+			IndexReader beforeUpdateReader = current.reader;
+			IndexReader updatedReader;
+			try {
+				updatedReader = IndexReader.openIfChanged( beforeUpdateReader );
+			}
+			catch ( IOException e ) {
+				throw new SearchException( "Unable to reopen IndexReader", e );
+			}
+			if ( updatedReader != null ) {
+				if ( warmer != null ) {
+					warm( updatedReader, beforeUpdateReader );
+				}
+				publish( updatedReader );
+			}
+		}
+
+		/**
+		 * Makes a new IndexReader the current one, releasing the token of the previous one.
+		 */
+		private void publish(IndexReader newReader) {
+			ReaderUsagePair previousCurrent;
+			ReaderUsagePair newPair = new ReaderUsagePair( newReader );
+			newPair.usageCounter.set( 1 ); //only the token marking it as current: nobody is using it yet
+			// register it before it's visible to queries which might close it
+			allReaders.put( newReader, newPair );
+			lockOnReplaceCurrent.lock();
+			try {
+				previousCurrent = current;
+				current = newPair;
+				warmingInProgress = false;
+			}
+			finally {
+				lockOnReplaceCurrent.unlock();
+			}
+			previousCurrent.close();
+		}
+
+		/**
+		 * @param reader the IndexReader to warm up
+		 * @param previousReader the IndexReader it was reopened from, null if it was opened from scratch
+		 */
+		private void warm(IndexReader reader, IndexReader previousReader) {
+			Set<Object> previousCores = new HashSet<Object>();
+			if ( previousReader != null ) {
+				List<IndexReader> previousSegments = new ArrayList<IndexReader>();
+				ReaderUtil.gatherSubReaders( previousSegments, previousReader );
+				for ( IndexReader segment : previousSegments ) {
+					previousCores.add( segment.getCoreCacheKey() );
+				}
+			}
+			List<IndexReader> segments = new ArrayList<IndexReader>();
+			ReaderUtil.gatherSubReaders( segments, reader );
+			List<IndexReader> newSegments = new ArrayList<IndexReader>( segments.size() );
+			for ( IndexReader segment : segments ) {
+				if ( ! previousCores.contains( segment.getCoreCacheKey() ) ) {
+					newSegments.add( segment );
+				}
+			}
+			try {
+				warmer.warm( reader, newSegments );
+			}
+			catch ( RuntimeException e ) {
+				log.unableToWarmIndexReader( indexName, e );
+			}
+		}
+
+		/**
+		 * Warms up a new IndexReader, then makes it the current one.
+		 */
+		private final class WarmAndPublish implements Runnable {
+
+			private final IndexReader previousReader;
+			private final IndexReader newReader;
+
+			WarmAndPublish(IndexReader previousReader, IndexReader newReader) {
+				this.previousReader = previousReader;
+				this.newReader = newReader;
+			}
+
+			@Override
+			public void run() {
+				warm( newReader, previousReader );
+				publish( newReader );
+			}
+
+		}
 	}
 
 }
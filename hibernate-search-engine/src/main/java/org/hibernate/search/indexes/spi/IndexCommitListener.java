@@ -0,0 +1,43 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.indexes.spi;
+
+/**
+ * Notified by the backend of a {@link org.hibernate.search.indexes.impl.DirectoryBasedIndexManager}
+ * each time changes are committed to the index, for example by a {@link ReaderProvider}
+ * refreshing its IndexReaders asynchronously.
+ * Listeners are invoked by the committing thread after it released the locks of the IndexWriter,
+ * so they must return quickly and be threadsafe.
+ *
+ * @see org.hibernate.search.indexes.impl.DirectoryBasedIndexManager#addIndexCommitListener(IndexCommitListener)
+ * @since 4.1
+ */
+public interface IndexCommitListener {
+
+	/**
+	 * Invoked after changes were committed to the index.
+	 */
+	void indexCommitted();
+
+}
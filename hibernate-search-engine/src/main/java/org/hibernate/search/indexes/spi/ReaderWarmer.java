@@ -0,0 +1,56 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.indexes.spi;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.lucene.index.IndexReader;
+
+/**
+ * Prepares a newly opened IndexReader before it is used by queries, for example
+ * loading the FieldCache of the new segments, so that the first queries after
+ * a change to the index don't pay for it.
+ * Implementations must be threadsafe and have a no-arg constructor.
+ *
+ * @since 4.1
+ */
+public interface ReaderWarmer {
+
+	/**
+	 * @param indexName the name of the index whose readers are warmed
+	 * @param props the configuration properties of the reader provider,
+	 * scoped to the <code>reader</code> prefix of the index
+	 */
+	void initialize(String indexName, Properties props);
+
+	/**
+	 * Invoked on a background thread before the reader is made available to queries.
+	 *
+	 * @param reader the new IndexReader
+	 * @param newSegments the segment readers of {@code reader} which were not part of the previous IndexReader
+	 */
+	void warm(IndexReader reader, List<IndexReader> newSegments);
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.jmx;
+
+import javax.management.ObjectName;
+
+import org.hibernate.search.backend.spi.IndexingQueueStatistics;
+
+/**
+ * Exposes the {@link IndexingQueueStatistics} of an index.
+ *
+ * @since 4.1
+ */
+public class IndexingQueueInfo implements IndexingQueueInfoMBean {
+
+	private final IndexingQueueStatistics statistics;
+
+	public IndexingQueueInfo(IndexingQueueStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	/**
+	 * @param indexName the name of the index
+	 * @return the object name to register the MBean of this index with
+	 */
+	public static String objectName(String indexName) {
+		return INDEXING_QUEUE_MBEAN_OBJECT_NAME_PREFIX + ObjectName.quote( indexName );
+	}
+
+	public String getIndexName() {
+		return statistics.getIndexName();
+	}
+
+	public String getOverflowPolicy() {
+		return statistics.getOverflowPolicy();
+	}
+
+	public int getQueueDepth() {
+		return statistics.getQueueDepth();
+	}
+
+	public int getMaxQueueLength() {
+		return statistics.getMaxQueueLength();
+	}
+
+	public long getSubmittedWorkCount() {
+		return statistics.getSubmittedWorkCount();
+	}
+
+	public long getSubmitWaitTotalTime() {
+		return statistics.getSubmitWaitTotalTime();
+	}
+
+	public long getSubmitWaitMaxTime() {
+		return statistics.getSubmitWaitMaxTime();
+	}
+
+	public long getSubmitWaitAvgTime() {
+		return statistics.getSubmitWaitAvgTime();
+	}
+
+	public long getRejectedWorkCount() {
+		return statistics.getRejectedWorkCount();
+	}
+
+	public long getCallerRunsWorkCount() {
+		return statistics.getCallerRunsWorkCount();
+	}
+
+	public long getSpilledWorkCount() {
+		return statistics.getSpilledWorkCount();
+	}
+
+	public long getCoalescedOperationCount() {
+		return statistics.getCoalescedOperationCount();
+	}
+
+}
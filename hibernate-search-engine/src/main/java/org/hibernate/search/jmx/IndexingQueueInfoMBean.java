@@ -0,0 +1,76 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.jmx;
+
+/**
+ * Gauges of the asynchronous work queue of an index using the Lucene backend,
+ * to detect committing threads piling up before the queue is full.
+ * Times are in nanoseconds.
+ *
+ * @since 4.1
+ */
+public interface IndexingQueueInfoMBean {
+
+	/**
+	 * Prefix of the object name, to be completed with the quoted index name.
+	 */
+	public static final String INDEXING_QUEUE_MBEAN_OBJECT_NAME_PREFIX = "org.hibernate.search.jmx:type=IndexingQueueInfoMBean,index=";
+
+	String getIndexName();
+
+	/**
+	 * @return the configured overflow policy
+	 */
+	String getOverflowPolicy();
+
+	/**
+	 * @return the number of work lists waiting to be applied, including the ones spilled to disk
+	 */
+	int getQueueDepth();
+
+	int getMaxQueueLength();
+
+	long getSubmittedWorkCount();
+
+	long getSubmitWaitTotalTime();
+
+	long getSubmitWaitMaxTime();
+
+	long getSubmitWaitAvgTime();
+
+	/**
+	 * @return the number of work lists discarded because the queue was full
+	 */
+	long getRejectedWorkCount();
+
+	long getCallerRunsWorkCount();
+
+	long getSpilledWorkCount();
+
+	/**
+	 * @return the number of queued operations skipped as a later operation on the same entity was queued
+	 */
+	long getCoalescedOperationCount();
+
+}
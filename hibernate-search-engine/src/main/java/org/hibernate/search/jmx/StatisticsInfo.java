@@ -80,6 +80,30 @@ public class StatisticsInfo implements StatisticsInfoMBean {
 		return delegate.getObjectsLoadedCount();
 	}
 
+	public long getIndexMergeCount() {
+		return delegate.getIndexMergeCount();
+	}
+
+	public long getIndexMergeTotalTime() {
+		return delegate.getIndexMergeTotalTime();
+	}
+
+	public long getIndexMergeMaxTime() {
+		return delegate.getIndexMergeMaxTime();
+	}
+
+	public long getIndexMergedBytes() {
+		return delegate.getIndexMergedBytes();
+	}
+
+	public long getQueryResultCacheHitCount() {
+		return delegate.getQueryResultCacheHitCount();
+	}
+
+	public long getQueryResultCacheMissCount() {
+		return delegate.getQueryResultCacheMissCount();
+	}
+
 	public boolean isStatisticsEnabled() {
 		return delegate.isStatisticsEnabled();
 	}
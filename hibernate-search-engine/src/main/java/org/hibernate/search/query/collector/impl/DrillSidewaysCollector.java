@@ -0,0 +1,144 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.query.collector.impl;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Scorer;
+
+/**
+ * Collects the hits of a query which is not restricted to the facets selected on some dimensions,
+ * each dimension being the filter of the facets selected for a drill sideways faceting request:
+ * <ul>
+ * <li>the hits matching all dimensions are the drill down hits, passed to the drill down collector
+ * and to the collectors of all dimensions;</li>
+ * <li>the hits matching all dimensions but one are only passed to the collector of this dimension,
+ * which this way counts the facets ignoring its own selection;</li>
+ * <li>the other hits are ignored.</li>
+ * </ul>
+ * The drill down hits and the counts of all dimensions are this way computed in a single search.
+ * The filters are applied by advancing their iterators to the collected documents, so the documents
+ * are collected in order.
+ *
+ * @since 4.1
+ */
+public final class DrillSidewaysCollector extends Collector {
+
+	private final Collector drillDownCollector;
+	private final Filter[] dimensionFilters;
+	private final Collector[] sidewaysCollectors;
+
+	/**
+	 * The iterator over the documents of each dimension in the current segment, null if it has no document
+	 */
+	private final DocIdSetIterator[] dimensionIterators;
+
+	/**
+	 * The current document of each dimension iterator
+	 */
+	private final int[] dimensionDocs;
+
+	/**
+	 * @param drillDownCollector the collector of the hits matching all dimensions
+	 * @param dimensionFilters the filter of the selected facets of each dimension
+	 * @param sidewaysCollectors the collector of each dimension, at the same index as its filter
+	 */
+	public DrillSidewaysCollector(Collector drillDownCollector, Filter[] dimensionFilters, Collector[] sidewaysCollectors) {
+		if ( dimensionFilters.length != sidewaysCollectors.length ) {
+			throw new IllegalArgumentException( "Each dimension needs a filter and a collector" );
+		}
+		this.drillDownCollector = drillDownCollector;
+		this.dimensionFilters = dimensionFilters;
+		this.sidewaysCollectors = sidewaysCollectors;
+		this.dimensionIterators = new DocIdSetIterator[dimensionFilters.length];
+		this.dimensionDocs = new int[dimensionFilters.length];
+	}
+
+	@Override
+	public void setScorer(Scorer scorer) throws IOException {
+		drillDownCollector.setScorer( scorer );
+		for ( Collector sidewaysCollector : sidewaysCollectors ) {
+			sidewaysCollector.setScorer( scorer );
+		}
+	}
+
+	@Override
+	public void collect(int doc) throws IOException {
+		int missedDimension = -1;
+		for ( int i = 0; i < dimensionIterators.length; i++ ) {
+			if ( !matches( i, doc ) ) {
+				if ( missedDimension >= 0 ) {
+					// the document misses two dimensions: not counted by any of them
+					return;
+				}
+				missedDimension = i;
+			}
+		}
+		if ( missedDimension >= 0 ) {
+			sidewaysCollectors[missedDimension].collect( doc );
+		}
+		else {
+			drillDownCollector.collect( doc );
+			for ( Collector sidewaysCollector : sidewaysCollectors ) {
+				sidewaysCollector.collect( doc );
+			}
+		}
+	}
+
+	private boolean matches(int dimension, int doc) throws IOException {
+		DocIdSetIterator iterator = dimensionIterators[dimension];
+		if ( iterator == null ) {
+			return false;
+		}
+		if ( dimensionDocs[dimension] < doc ) {
+			dimensionDocs[dimension] = iterator.advance( doc );
+		}
+		return dimensionDocs[dimension] == doc;
+	}
+
+	@Override
+	public void setNextReader(IndexReader reader, int docBase) throws IOException {
+		for ( int i = 0; i < dimensionFilters.length; i++ ) {
+			DocIdSet docIdSet = dimensionFilters[i].getDocIdSet( reader );
+			dimensionIterators[i] = docIdSet == null ? null : docIdSet.iterator();
+			dimensionDocs[i] = -1;
+		}
+		drillDownCollector.setNextReader( reader, docBase );
+		for ( Collector sidewaysCollector : sidewaysCollectors ) {
+			sidewaysCollector.setNextReader( reader, docBase );
+		}
+	}
+
+	@Override
+	public boolean acceptsDocsOutOfOrder() {
+		// the dimension iterators only move forward
+		return false;
+	}
+
+}
@@ -26,16 +26,16 @@ package org.hibernate.search.query.collector.impl;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.Term;
-import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.Scorer;
 
@@ -68,46 +68,26 @@ public class FacetCollector extends Collector {
 	 */
 	private final FacetingRequestImpl facetRequest;
 
-	/**
-	 * Used to load field values from the Lucene field cache
-	 */
-	private final FieldLoadingStrategy fieldLoader;
-
 	/**
 	 * A counter mapped to the field name for which it is counting
 	 */
 	private final FacetCounter facetCounts;
 
-	/**
-	 * Flag indicating whether the data structure has been initialised. Initialisation happens on the first call
-	 * to {@link #setNextReader(org.apache.lucene.index.IndexReader, int)}.
-	 */
-	private boolean initialised = false;
-
 	public FacetCollector(Collector nextInChainCollector, FacetingRequestImpl facetRequest) {
 		this.nextInChainCollector = nextInChainCollector;
 		this.facetRequest = facetRequest;
 		this.facetCounts = createFacetCounter( facetRequest );
-		fieldLoader = FieldCacheLoadingType.getLoadingStrategy(
-				this.facetRequest.getFieldName(), this.facetRequest.getFieldCacheType()
-		);
 	}
 
 	@Override
 	public void setNextReader(IndexReader reader, int docBase) throws IOException {
-		if ( !initialised ) {
-			initialiseCollector( reader );
-		}
-		initialiseFieldCaches( reader );
+		facetCounts.setNextReader( reader );
 		nextInChainCollector.setNextReader( reader, docBase );
 	}
 
 	@Override
 	public void collect(int doc) throws IOException {
-		Object value = fieldLoader.collect( doc );
-		if ( value != null ) {
-			facetCounts.countValue( value );
-		}
+		facetCounts.countDocument( doc );
 		nextInChainCollector.collect( doc );
 	}
 
@@ -129,6 +109,15 @@ public class FacetCollector extends Collector {
 		return createSortedFacetList( facetCounts, facetRequest );
 	}
 
+	/**
+	 * Adds the counts of a collector which handled the same facet request on another part of the index.
+	 *
+	 * @param other the collector whose counts to add to the ones of this collector
+	 */
+	public void mergeCounts(FacetCollector other) {
+		facetCounts.addCounts( other.facetCounts );
+	}
+
 	private List<Facet> createSortedFacetList(FacetCounter counter, FacetingRequestImpl request) {
 		List<Facet> facetList;
 		// handle RANGE_DEFINITION_ODER differently from count based orders. we try to avoid the creation of
@@ -141,18 +130,48 @@ public class FacetCollector extends Collector {
 			}
 		}
 		else {
-			List<Map.Entry<String, Integer>> countEntryList = newArrayList();
-			for ( Entry<String, Integer> stringIntegerEntry : counter.getCounts().entrySet() ) {
-				countEntryList.add( stringIntegerEntry );
-			}
+			Map<String, Integer> counts = counter.getCounts();
 			int facetCount = facetRequest.getMaxNumberOfFacets() > 0 ?
-					facetRequest.getMaxNumberOfFacets() : countEntryList.size();
-			Collections.sort( countEntryList, new FacetEntryComparator( request.getSort() ) );
+					facetRequest.getMaxNumberOfFacets() : counts.size();
+			List<Map.Entry<String, Integer>> countEntryList = selectTopEntries(
+					counts, new FacetEntryComparator( request.getSort() ), facetCount, request.hasZeroCountsIncluded()
+			);
 			facetList = createRangeFacetList( countEntryList, request, facetCount );
 		}
 		return facetList;
 	}
 
+	/**
+	 * Only the entries which will be returned as facets are sorted: when a maximum number of facets
+	 * is requested they are selected using a bounded heap, instead of sorting all the counted values.
+	 */
+	private List<Map.Entry<String, Integer>> selectTopEntries(Map<String, Integer> counts, FacetEntryComparator comparator, int facetCount, boolean includeZeroCounts) {
+		List<Map.Entry<String, Integer>> countEntryList = newArrayList();
+		if ( facetCount >= counts.size() ) {
+			for ( Entry<String, Integer> stringIntegerEntry : counts.entrySet() ) {
+				countEntryList.add( stringIntegerEntry );
+			}
+		}
+		else {
+			// the head of the queue is the worst selected entry
+			PriorityQueue<Map.Entry<String, Integer>> queue = new PriorityQueue<Map.Entry<String, Integer>>(
+					facetCount + 1, Collections.reverseOrder( comparator )
+			);
+			for ( Entry<String, Integer> stringIntegerEntry : counts.entrySet() ) {
+				if ( !includeZeroCounts && stringIntegerEntry.getValue() == 0 ) {
+					continue;
+				}
+				queue.add( stringIntegerEntry );
+				if ( queue.size() > facetCount ) {
+					queue.poll();
+				}
+			}
+			countEntryList.addAll( queue );
+		}
+		Collections.sort( countEntryList, comparator );
+		return countEntryList;
+	}
+
 	private List<Facet> createRangeFacetList(Collection<Entry<String, Integer>> countEntryList, FacetingRequestImpl request, int count) {
 		List<Facet> facetList = newArrayList();
 		int includedFacetCount = 0;
@@ -170,25 +189,16 @@ public class FacetCollector extends Collector {
 		return facetList;
 	}
 
-	private void initialiseCollector(IndexReader reader) throws IOException {
-		// we only need to initialise the counts in case we have to include 0 counts as well
-		if ( facetRequest.hasZeroCountsIncluded() && facetRequest instanceof DiscreteFacetRequest ) {
-			initFacetCounts( reader );
-		}
-		initialised = true;
-	}
-
-	private void initialiseFieldCaches(IndexReader reader) throws IOException {
-		fieldLoader.loadNewCacheValues( reader );
-	}
-
 	private <N extends Number> FacetCounter createFacetCounter(FacetingRequestImpl request) {
 		if ( request instanceof DiscreteFacetRequest ) {
-			return new SimpleFacetCounter();
+			return new SimpleFacetCounter( request );
 		}
 		else if ( request instanceof RangeFacetRequest ) {
 			@SuppressWarnings("unchecked")
 			RangeFacetRequest<N> rangeFacetRequest = (RangeFacetRequest<N>) request;
+			if ( NumericRangeBuckets.isSupported( rangeFacetRequest.getFieldCacheType() ) ) {
+				return new NumericRangeFacetCounter<N>( rangeFacetRequest );
+			}
 			return new RangeFacetCounter<N>( rangeFacetRequest );
 		}
 		else {
@@ -196,24 +206,6 @@ public class FacetCollector extends Collector {
 		}
 	}
 
-	private void initFacetCounts(IndexReader reader) throws IOException {
-		String fieldName = facetRequest.getFieldName();
-		// term are enumerated by field name and within field names by term value
-		TermEnum terms = reader.terms( new Term( fieldName, "" ) );
-		try {
-			while ( fieldName.equals( terms.term().field() ) ) {
-				String fieldValue = terms.term().text();
-				facetCounts.initCount( fieldValue );
-				if ( !terms.next() ) {
-					break;
-				}
-			}
-		}
-		finally {
-			terms.close();
-		}
-	}
-
 	static public class FacetEntryComparator implements Comparator<Entry<String, Integer>>, Serializable {
 		private final FacetSortOrder sortOder;
 
@@ -245,6 +237,7 @@ public class FacetCollector extends Collector {
 		private Map<String, Integer> counts = newHashMap();
 
 		Map<String, Integer> getCounts() {
+			flushCounts();
 			return counts;
 		}
 
@@ -255,40 +248,241 @@ public class FacetCollector extends Collector {
 		}
 
 		void incrementCount(String value) {
-			if ( !counts.containsKey( value ) ) {
-				counts.put( value, 1 );
+			addCount( value, 1 );
+		}
+
+		void addCount(String value, int count) {
+			Integer previousCount = counts.get( value );
+			counts.put( value, previousCount == null ? count : previousCount + count );
+		}
+
+		void addCounts(FacetCounter other) {
+			flushCounts();
+			for ( Entry<String, Integer> otherCount : other.getCounts().entrySet() ) {
+				addCount( otherCount.getKey(), otherCount.getValue() );
+			}
+		}
+
+		/**
+		 * Adds to the counts the values counted in an intermediate form, if any.
+		 */
+		void flushCounts() {
+		}
+
+		/**
+		 * @param reader the segment in which the next documents will be counted
+		 *
+		 * @throws IOException in case an error occurs reading the field values from the index
+		 */
+		abstract void setNextReader(IndexReader reader) throws IOException;
+
+		/**
+		 * @param doc the matching document, relative to the current segment
+		 */
+		abstract void countDocument(int doc);
+	}
+
+	/**
+	 * Counts the values of a field by term ordinal: each matching document only increments an
+	 * {@code int} in an array indexed by the ordinal of its values in the segment, see {@link FacetOrdinals}.
+	 * For hierarchical facets the document is counted once for each path of its values and of their
+	 * ancestors. The counts are added to the value keyed ones once per segment, and only for the values
+	 * which were found.
+	 */
+	static class SimpleFacetCounter extends FacetCounter {
+		private final DiscreteFacetRequest request;
+		private final boolean includeZeroCounts;
+		private FacetOrdinals ordinals;
+		private FacetOrdinals.PathNodes pathNodes;
+		private int[] ordCounts;
+
+		/**
+		 * For hierarchical facets, the last document counted for each path: a document having several
+		 * values with a common ancestor is counted once for this ancestor.
+		 */
+		private int[] lastCountedDocs;
+
+		SimpleFacetCounter(FacetingRequestImpl request) {
+			this.request = (DiscreteFacetRequest) request;
+			// we only need to initialise the counts in case we have to include 0 counts as well
+			this.includeZeroCounts = request.hasZeroCountsIncluded();
+		}
+
+		@Override
+		void setNextReader(IndexReader reader) throws IOException {
+			flushCounts();
+			ordinals = FacetOrdinals.get( reader, request.getFieldName() );
+			if ( request.isHierarchical() ) {
+				pathNodes = ordinals.getPathNodes( request.getPathSeparator() );
+				ordCounts = new int[pathNodes.size()];
+				lastCountedDocs = new int[pathNodes.size()];
+				Arrays.fill( lastCountedDocs, -1 );
 			}
 			else {
-				counts.put( value, counts.get( value ) + 1 );
+				ordCounts = new int[ordinals.size()];
+			}
+		}
+
+		@Override
+		void countDocument(int doc) {
+			if ( ordinals.isSingleValued() ) {
+				int ord = ordinals.getOrd( doc );
+				if ( ord >= 0 ) {
+					countOrd( ord, doc );
+				}
+			}
+			else {
+				int[] ords = ordinals.getOrds();
+				int end = ordinals.getEnd( doc );
+				for ( int i = ordinals.getStart( doc ); i < end; i++ ) {
+					countOrd( ords[i], doc );
+				}
+			}
+		}
+
+		private void countOrd(int ord, int doc) {
+			if ( pathNodes == null ) {
+				ordCounts[ord]++;
+				return;
+			}
+			for ( int node : pathNodes.getNodes( ord ) ) {
+				if ( lastCountedDocs[node] != doc ) {
+					lastCountedDocs[node] = doc;
+					ordCounts[node]++;
+				}
 			}
 		}
 
-		abstract void countValue(Object value);
+		@Override
+		void flushCounts() {
+			if ( ordCounts == null ) {
+				return;
+			}
+			for ( int ord = 0; ord < ordCounts.length; ord++ ) {
+				String value;
+				if ( pathNodes == null ) {
+					value = ordinals.getTerm( ord );
+				}
+				else if ( request.isReturnedPath( pathNodes.getPath( ord ), pathNodes.getDepth( ord ) ) ) {
+					value = pathNodes.getPath( ord );
+				}
+				else {
+					continue;
+				}
+				int count = ordCounts[ord];
+				if ( count > 0 ) {
+					addCount( value, count );
+				}
+				else if ( includeZeroCounts ) {
+					initCount( value );
+				}
+			}
+			ordCounts = null;
+			ordinals = null;
+			pathNodes = null;
+			lastCountedDocs = null;
+		}
 	}
 
-	static class SimpleFacetCounter extends FacetCounter {
-		void countValue(Object value) {
-			incrementCount( (String) value );
+	/**
+	 * Counts the values of a numeric field in the buckets delimited by the boundaries of the ranges:
+	 * each matching document increments an {@code int} in an array, and the counts are only added
+	 * to the ranges once all documents are collected.
+	 */
+	static class NumericRangeFacetCounter<T> extends FacetCounter {
+		private final List<FacetRange<T>> ranges;
+		private final NumericRangeBuckets buckets;
+		private final NumericRangeBuckets.SortableValues values;
+		private final int[] bucketCounts;
+
+		NumericRangeFacetCounter(RangeFacetRequest<T> request) {
+			this.ranges = request.getFacetRangeList();
+			this.buckets = new NumericRangeBuckets( ranges );
+			this.values = NumericRangeBuckets.SortableValues.create(
+					request.getFieldCacheType(), request.getFieldName()
+			);
+			this.bucketCounts = new int[buckets.size()];
+			for ( FacetRange<T> range : ranges ) {
+				initCount( range.getRangeString() );
+			}
+		}
+
+		@Override
+		void setNextReader(IndexReader reader) throws IOException {
+			values.loadNewCacheValues( reader );
+		}
+
+		@Override
+		void countDocument(int doc) {
+			int bucket = buckets.bucketOf( values.get( doc ) );
+			if ( bucket >= 0 ) {
+				bucketCounts[bucket]++;
+			}
+		}
+
+		@Override
+		void flushCounts() {
+			int[] rangeCounts = buckets.toRangeCounts( bucketCounts );
+			for ( int i = 0; i < rangeCounts.length; i++ ) {
+				if ( rangeCounts[i] > 0 ) {
+					addCount( ranges.get( i ).getRangeString(), rangeCounts[i] );
+				}
+			}
+			Arrays.fill( bucketCounts, 0 );
 		}
 	}
 
+	/**
+	 * Counts the values of a string or date field, comparing them with each range.
+	 */
 	static class RangeFacetCounter<T> extends FacetCounter {
 		private final List<FacetRange<T>> ranges;
 
+		/**
+		 * Used to load field values from the Lucene field cache
+		 */
+		private final FieldLoadingStrategy fieldLoader;
+
+		private final int[] rangeCounts;
+
 		RangeFacetCounter(RangeFacetRequest<T> request) {
 			this.ranges = request.getFacetRangeList();
+			this.fieldLoader = FieldCacheLoadingType.getLoadingStrategy(
+					request.getFieldName(), request.getFieldCacheType()
+			);
+			this.rangeCounts = new int[ranges.size()];
 			for ( FacetRange<T> range : ranges ) {
 				initCount( range.getRangeString() );
 			}
 		}
 
+		@Override
+		void setNextReader(IndexReader reader) throws IOException {
+			fieldLoader.loadNewCacheValues( reader );
+		}
+
+		@Override
 		@SuppressWarnings("unchecked")
-		void countValue(Object value) {
-			for ( FacetRange<T> range : ranges ) {
-				if ( range.isInRange( (T) value ) ) {
-					incrementCount( range.getRangeString() );
+		void countDocument(int doc) {
+			Object value = fieldLoader.collect( doc );
+			if ( value == null ) {
+				return;
+			}
+			for ( int i = 0; i < rangeCounts.length; i++ ) {
+				if ( ranges.get( i ).isInRange( (T) value ) ) {
+					rangeCounts[i]++;
+				}
+			}
+		}
+
+		@Override
+		void flushCounts() {
+			for ( int i = 0; i < rangeCounts.length; i++ ) {
+				if ( rangeCounts[i] > 0 ) {
+					addCount( ranges.get( i ).getRangeString(), rangeCounts[i] );
 				}
 			}
+			Arrays.fill( rangeCounts, 0 );
 		}
 	}
 }
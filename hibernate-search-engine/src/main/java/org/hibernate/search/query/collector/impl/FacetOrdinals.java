@@ -0,0 +1,312 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.query.collector.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+
+/**
+ * The values of a field in a segment, as ordinals of the field terms: unlike a
+ * {@code FieldCache.StringIndex} a document can have any number of values.
+ * Single valued fields are stored as one ordinal per document, multi-valued fields
+ * as the list of ordinals of each document.
+ *
+ * Instances are built once per segment and field, and cached like the {@code FieldCache} entries
+ * until the segment is garbage collected. For hierarchical facets the paths of the values are
+ * split once as well, see {@link #getPathNodes(String)}.
+ *
+ * @since 4.1
+ */
+final class FacetOrdinals {
+
+	/**
+	 * The instances per segment core and field name.
+	 */
+	private static final Map<Object, Map<String, FacetOrdinals>> cache = new WeakHashMap<Object, Map<String, FacetOrdinals>>();
+
+	/**
+	 * The field terms, by ordinal.
+	 */
+	private final String[] terms;
+
+	/**
+	 * The ordinal of the value of each document, -1 for no value; {@code null} for multi-valued fields.
+	 */
+	private final int[] docOrds;
+
+	/**
+	 * For multi-valued fields, the ordinals of document {@code doc} are stored in {@link #ords}
+	 * from {@code docStarts[doc]} included to {@code docStarts[doc + 1]} excluded.
+	 */
+	private final int[] docStarts;
+	private final int[] ords;
+
+	private final Map<String, PathNodes> pathNodesBySeparator = new HashMap<String, PathNodes>();
+
+	private FacetOrdinals(String[] terms, int[] docOrds, int[] docStarts, int[] ords) {
+		this.terms = terms;
+		this.docOrds = docOrds;
+		this.docStarts = docStarts;
+		this.ords = ords;
+	}
+
+	/**
+	 * @param reader a segment reader
+	 * @param fieldName the field to facet on
+	 *
+	 * @return the ordinals of the field values in the segment
+	 *
+	 * @throws IOException in case an error occurs reading the index
+	 */
+	static FacetOrdinals get(IndexReader reader, String fieldName) throws IOException {
+		Map<String, FacetOrdinals> segmentOrdinals;
+		synchronized ( cache ) {
+			segmentOrdinals = cache.get( reader.getCoreCacheKey() );
+			if ( segmentOrdinals == null ) {
+				segmentOrdinals = new HashMap<String, FacetOrdinals>();
+				cache.put( reader.getCoreCacheKey(), segmentOrdinals );
+			}
+		}
+		// only the facet requests on the same segment wait for each other
+		synchronized ( segmentOrdinals ) {
+			FacetOrdinals ordinals = segmentOrdinals.get( fieldName );
+			if ( ordinals == null ) {
+				ordinals = build( reader, fieldName );
+				segmentOrdinals.put( fieldName, ordinals );
+			}
+			return ordinals;
+		}
+	}
+
+	/**
+	 * @return the number of distinct values
+	 */
+	int size() {
+		return terms.length;
+	}
+
+	String getTerm(int ord) {
+		return terms[ord];
+	}
+
+	/**
+	 * @return whether a document has at most one value
+	 */
+	boolean isSingleValued() {
+		return docOrds != null;
+	}
+
+	/**
+	 * @return the ordinal of the value of a document, -1 if it has no value. Only for single valued fields
+	 */
+	int getOrd(int doc) {
+		return docOrds[doc];
+	}
+
+	/**
+	 * @return the index in {@link #getOrds()} of the first ordinal of a document. Only for multi-valued fields
+	 */
+	int getStart(int doc) {
+		return docStarts[doc];
+	}
+
+	/**
+	 * @return the index in {@link #getOrds()} after the last ordinal of a document. Only for multi-valued fields
+	 */
+	int getEnd(int doc) {
+		return docStarts[doc + 1];
+	}
+
+	int[] getOrds() {
+		return ords;
+	}
+
+	/**
+	 * @param separator the separator of the path elements in the field values
+	 *
+	 * @return the paths of the field values and of their ancestors
+	 */
+	synchronized PathNodes getPathNodes(String separator) {
+		PathNodes pathNodes = pathNodesBySeparator.get( separator );
+		if ( pathNodes == null ) {
+			pathNodes = new PathNodes( terms, separator );
+			pathNodesBySeparator.put( separator, pathNodes );
+		}
+		return pathNodes;
+	}
+
+	private static FacetOrdinals build(IndexReader reader, String fieldName) throws IOException {
+		int maxDoc = reader.maxDoc();
+		List<String> terms = new ArrayList<String>();
+		// the documents of each term, in term order
+		int[] postings = new int[Math.max( 16, maxDoc )];
+		int postingCount = 0;
+		int[] termStarts = new int[16];
+		int[] docCounts = new int[maxDoc];
+		boolean singleValued = true;
+
+		// term are enumerated by field name and within field names by term value
+		TermEnum termEnum = reader.terms( new Term( fieldName, "" ) );
+		TermDocs termDocs = reader.termDocs();
+		try {
+			while ( termEnum.term() != null && fieldName.equals( termEnum.term().field() ) ) {
+				if ( terms.size() + 1 >= termStarts.length ) {
+					termStarts = Arrays.copyOf( termStarts, termStarts.length << 1 );
+				}
+				termStarts[terms.size()] = postingCount;
+				terms.add( termEnum.term().text() );
+				termDocs.seek( termEnum );
+				while ( termDocs.next() ) {
+					int doc = termDocs.doc();
+					if ( postingCount == postings.length ) {
+						postings = Arrays.copyOf( postings, postings.length << 1 );
+					}
+					postings[postingCount++] = doc;
+					if ( ++docCounts[doc] > 1 ) {
+						singleValued = false;
+					}
+				}
+				if ( !termEnum.next() ) {
+					break;
+				}
+			}
+		}
+		finally {
+			termDocs.close();
+			termEnum.close();
+		}
+		int termCount = terms.size();
+		termStarts[termCount] = postingCount;
+
+		if ( singleValued ) {
+			int[] docOrds = new int[maxDoc];
+			Arrays.fill( docOrds, -1 );
+			for ( int ord = 0; ord < termCount; ord++ ) {
+				for ( int i = termStarts[ord]; i < termStarts[ord + 1]; i++ ) {
+					docOrds[postings[i]] = ord;
+				}
+			}
+			return new FacetOrdinals( terms.toArray( new String[termCount] ), docOrds, null, null );
+		}
+
+		// transpose the postings: as terms are visited in order, the ordinals of each document are sorted
+		int[] docStarts = new int[maxDoc + 1];
+		for ( int doc = 0; doc < maxDoc; doc++ ) {
+			docStarts[doc + 1] = docStarts[doc] + docCounts[doc];
+		}
+		int[] ords = new int[postingCount];
+		int[] nextPositions = Arrays.copyOf( docStarts, maxDoc );
+		for ( int ord = 0; ord < termCount; ord++ ) {
+			for ( int i = termStarts[ord]; i < termStarts[ord + 1]; i++ ) {
+				ords[nextPositions[postings[i]]++] = ord;
+			}
+		}
+		return new FacetOrdinals( terms.toArray( new String[termCount] ), null, docStarts, ords );
+	}
+
+	/**
+	 * The distinct paths of the field values and of all their ancestors: a document with the value
+	 * {@code a/b/c} is counted for the nodes {@code a}, {@code a/b} and {@code a/b/c}.
+	 */
+	static final class PathNodes {
+		private final String[] paths;
+		private final int[] depths;
+
+		/**
+		 * The nodes of each term ordinal: the term itself and its ancestors.
+		 */
+		private final int[][] termNodes;
+
+		private PathNodes(String[] terms, String separator) {
+			Map<String, Integer> nodeIds = new HashMap<String, Integer>();
+			List<String> pathList = new ArrayList<String>();
+			List<Integer> depthList = new ArrayList<Integer>();
+			termNodes = new int[terms.length][];
+			List<Integer> nodes = new ArrayList<Integer>();
+			for ( int ord = 0; ord < terms.length; ord++ ) {
+				String term = terms[ord];
+				nodes.clear();
+				int depth = 0;
+				int end = term.indexOf( separator );
+				while ( true ) {
+					String path = end < 0 ? term : term.substring( 0, end );
+					Integer nodeId = nodeIds.get( path );
+					if ( nodeId == null ) {
+						nodeId = pathList.size();
+						nodeIds.put( path, nodeId );
+						pathList.add( path );
+						depthList.add( depth );
+					}
+					nodes.add( nodeId );
+					if ( end < 0 ) {
+						break;
+					}
+					depth++;
+					end = term.indexOf( separator, end + separator.length() );
+				}
+				termNodes[ord] = new int[nodes.size()];
+				for ( int i = 0; i < nodes.size(); i++ ) {
+					termNodes[ord][i] = nodes.get( i );
+				}
+			}
+			paths = pathList.toArray( new String[pathList.size()] );
+			depths = new int[depthList.size()];
+			for ( int i = 0; i < depths.length; i++ ) {
+				depths[i] = depthList.get( i );
+			}
+		}
+
+		/**
+		 * @return the number of distinct paths
+		 */
+		int size() {
+			return paths.length;
+		}
+
+		String getPath(int node) {
+			return paths[node];
+		}
+
+		/**
+		 * @return the number of separators in the path
+		 */
+		int getDepth(int node) {
+			return depths[node];
+		}
+
+		int[] getNodes(int ord) {
+			return termNodes[ord];
+		}
+	}
+}
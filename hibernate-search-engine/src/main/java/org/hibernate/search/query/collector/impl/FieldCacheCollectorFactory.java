@@ -26,6 +26,7 @@ import org.hibernate.search.bridge.TwoWayStringBridge;
 import org.hibernate.search.bridge.builtin.StringBridge;
 import org.hibernate.search.query.fieldcache.impl.FieldCacheLoadingType;
 import org.hibernate.search.query.fieldcache.impl.FieldLoadingStrategy;
+import org.hibernate.search.query.fieldcache.impl.PrimitiveFieldLoadingStrategy;
 
 /**
  * Every search needs a fresh instance of a Collector, still for
@@ -86,12 +87,59 @@ public class FieldCacheCollectorFactory {
 		}
 	}
 
+	/**
+	 * @param totalMaxDocs the maximum document count
+	 *
+	 * @return an array able to contain a value of this field per document, to be passed to
+	 *         {@link #createFieldCollector(Collector, Object)}: primitive for numeric fields
+	 */
+	public Object createValueContainer(int totalMaxDocs) {
+		if ( type == FieldCacheLoadingType.STRING ) {
+			return new String[totalMaxDocs];
+		}
+		else {
+			return new long[totalMaxDocs];
+		}
+	}
+
+	/**
+	 * Creates a collector storing the values in the given array, indexed by document id.
+	 * Collectors searching different shards of the same {@code MultiReader} in parallel can share
+	 * the same array, as each of them writes a different range of it: any of them then returns
+	 * the values collected by all of them.
+	 *
+	 * @param collector the collector to delegate to
+	 * @param valueContainer an array created by {@link #createValueContainer(int)}
+	 *
+	 * @return a new {@code FieldCacheCollector} writing in {@code valueContainer}
+	 */
+	public FieldCacheCollector createFieldCollector(Collector collector, Object valueContainer) {
+		FieldLoadingStrategy loadingStrategy = type.createLoadingStrategy( fieldName );
+		FieldCacheCollector fieldCollector;
+		if ( valueContainer instanceof long[] ) {
+			fieldCollector = new PrimitiveArrayFieldCacheCollectorImpl(
+					collector, (PrimitiveFieldLoadingStrategy) loadingStrategy, (long[]) valueContainer
+			);
+		}
+		else {
+			fieldCollector = new BigArrayFieldCacheCollectorImpl(
+					collector, loadingStrategy, (Object[]) valueContainer
+			);
+		}
+		if ( twoWayStringBridge != null ) {
+			return new TwoWayTransformingFieldCacheCollector( fieldCollector, twoWayStringBridge );
+		}
+		else {
+			return fieldCollector;
+		}
+	}
+
 	/**
 	 * There are two possible implementations of {@code FieldCacheCollector},
 	 * one is more efficient for large and one for small results.
 	 * Here we try to guesstimate the most appropriate implementation,
 	 * which doesn't depend on the type but on the estimated result size
-	 * (so it's a per-query decision)
+	 * (so it's a per-query decision). Numeric values are stored unboxed.
 	 *
 	 * @param collector the collector to delegate to
 	 * @param totalMaxDocs the maximum document count
@@ -105,7 +153,18 @@ public class FieldCacheCollectorFactory {
 			Collector collector, int totalMaxDocs, int expectedMatchesCount,
 			FieldLoadingStrategy loadingStrategy) {
 
-		if ( expectedMatchesCount > implementationSwitchThreshold ) {
+		if ( loadingStrategy instanceof PrimitiveFieldLoadingStrategy ) {
+			PrimitiveFieldLoadingStrategy primitiveLoadingStrategy = (PrimitiveFieldLoadingStrategy) loadingStrategy;
+			if ( expectedMatchesCount > implementationSwitchThreshold ) {
+				return new PrimitiveArrayFieldCacheCollectorImpl(
+						collector, primitiveLoadingStrategy, new long[totalMaxDocs]
+				);
+			}
+			else {
+				return new PrimitiveMapFieldCacheCollectorImpl( collector, primitiveLoadingStrategy, expectedMatchesCount );
+			}
+		}
+		else if ( expectedMatchesCount > implementationSwitchThreshold ) {
 			return new BigArrayFieldCacheCollectorImpl(
 					collector, loadingStrategy, new String[totalMaxDocs]
 			);
@@ -0,0 +1,299 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.query.collector.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.util.NumericUtils;
+
+import org.hibernate.search.query.dsl.impl.FacetRange;
+
+/**
+ * Numeric facet ranges compiled into sorted boundaries, so that the ranges containing a value
+ * are found with a binary search, or a division when the ranges have the same width, instead of
+ * comparing the value with each range.
+ *
+ * All values are converted to a {@code long} preserving their order: floating point values use
+ * {@link NumericUtils#floatToSortableInt(float)} and {@link NumericUtils#doubleToSortableLong(double)}.
+ * The boundaries of all ranges split the values in buckets: the values of a bucket are contained
+ * in the same ranges, which supports overlapping ranges.
+ *
+ * @since 4.1
+ */
+final class NumericRangeBuckets {
+
+	/**
+	 * The first value of each bucket, in increasing order. The last bucket has no upper bound.
+	 */
+	private final long[] bucketStarts;
+
+	/**
+	 * The indexes of the ranges containing the values of each bucket.
+	 */
+	private final int[][] bucketRanges;
+
+	/**
+	 * The width of all buckets but the last one if they have the same width, 0 otherwise.
+	 */
+	private final long uniformWidth;
+
+	private final int rangeCount;
+
+	NumericRangeBuckets(List<? extends FacetRange<?>> ranges) {
+		rangeCount = ranges.size();
+		long[] lows = new long[rangeCount];
+		long[] highs = new long[rangeCount];
+		SortedSet<Long> starts = new TreeSet<Long>();
+		for ( int i = 0; i < rangeCount; i++ ) {
+			FacetRange<?> range = ranges.get( i );
+			lows[i] = lowerBound( range );
+			highs[i] = upperBound( range );
+			if ( lows[i] > highs[i] || isExcludingAll( range ) ) {
+				// empty range, never counted
+				lows[i] = Long.MAX_VALUE;
+				highs[i] = Long.MIN_VALUE;
+				continue;
+			}
+			starts.add( lows[i] );
+			if ( highs[i] != Long.MAX_VALUE ) {
+				starts.add( highs[i] + 1 );
+			}
+		}
+		bucketStarts = new long[starts.size()];
+		int bucket = 0;
+		for ( Long start : starts ) {
+			bucketStarts[bucket++] = start;
+		}
+		bucketRanges = new int[bucketStarts.length][];
+		List<Integer> containingRanges = new ArrayList<Integer>();
+		for ( bucket = 0; bucket < bucketStarts.length; bucket++ ) {
+			containingRanges.clear();
+			for ( int i = 0; i < rangeCount; i++ ) {
+				if ( lows[i] <= bucketStarts[bucket] && bucketStarts[bucket] <= highs[i] ) {
+					containingRanges.add( i );
+				}
+			}
+			bucketRanges[bucket] = new int[containingRanges.size()];
+			for ( int i = 0; i < containingRanges.size(); i++ ) {
+				bucketRanges[bucket][i] = containingRanges.get( i );
+			}
+		}
+		uniformWidth = computeUniformWidth( bucketStarts );
+	}
+
+	/**
+	 * @return the number of buckets
+	 */
+	int size() {
+		return bucketStarts.length;
+	}
+
+	/**
+	 * @param value a value converted by {@link SortableValues}
+	 *
+	 * @return the index of the bucket containing the value, -1 if it isn't contained in any range
+	 */
+	int bucketOf(long value) {
+		int last = bucketStarts.length - 1;
+		if ( last < 0 || value < bucketStarts[0] ) {
+			return -1;
+		}
+		if ( value >= bucketStarts[last] ) {
+			return last;
+		}
+		if ( uniformWidth > 0 ) {
+			return (int) ( ( value - bucketStarts[0] ) / uniformWidth );
+		}
+		// the greatest bucket start lower or equal to the value
+		int low = 0;
+		int high = last;
+		while ( low < high ) {
+			int middle = ( low + high + 1 ) >>> 1;
+			if ( bucketStarts[middle] <= value ) {
+				low = middle;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param bucketCounts the number of values counted in each bucket
+	 *
+	 * @return the number of values counted in each range
+	 */
+	int[] toRangeCounts(int[] bucketCounts) {
+		int[] rangeCounts = new int[rangeCount];
+		for ( int bucket = 0; bucket < bucketCounts.length; bucket++ ) {
+			int count = bucketCounts[bucket];
+			if ( count > 0 ) {
+				for ( int range : bucketRanges[bucket] ) {
+					rangeCounts[range] += count;
+				}
+			}
+		}
+		return rangeCounts;
+	}
+
+	/**
+	 * @param type the type of the range values
+	 *
+	 * @return whether ranges of this type can be compiled into buckets
+	 */
+	static boolean isSupported(Class<?> type) {
+		return Integer.class.equals( type ) || Long.class.equals( type )
+				|| Float.class.equals( type ) || Double.class.equals( type );
+	}
+
+	static long toSortableLong(Object value) {
+		if ( value instanceof Float ) {
+			return NumericUtils.floatToSortableInt( (Float) value );
+		}
+		else if ( value instanceof Double ) {
+			return NumericUtils.doubleToSortableLong( (Double) value );
+		}
+		return ( (Number) value ).longValue();
+	}
+
+	private static long lowerBound(FacetRange<?> range) {
+		if ( range.getMin() == null ) {
+			return Long.MIN_VALUE;
+		}
+		long min = toSortableLong( range.getMin() );
+		return range.isMinIncluded() || min == Long.MAX_VALUE ? min : min + 1;
+	}
+
+	private static long upperBound(FacetRange<?> range) {
+		if ( range.getMax() == null ) {
+			return Long.MAX_VALUE;
+		}
+		long max = toSortableLong( range.getMax() );
+		return range.isMaxIncluded() || max == Long.MIN_VALUE ? max : max - 1;
+	}
+
+	/**
+	 * @return whether the range excludes the only value it could contain, at the limits of the {@code long}s
+	 */
+	private static boolean isExcludingAll(FacetRange<?> range) {
+		return ( range.getMin() != null && !range.isMinIncluded() && toSortableLong( range.getMin() ) == Long.MAX_VALUE )
+				|| ( range.getMax() != null && !range.isMaxIncluded() && toSortableLong( range.getMax() ) == Long.MIN_VALUE );
+	}
+
+	private static long computeUniformWidth(long[] starts) {
+		if ( starts.length < 3 ) {
+			return 0;
+		}
+		long width = starts[1] - starts[0];
+		if ( width <= 0 || width > Long.MAX_VALUE / ( starts.length - 1 ) ) {
+			// the offset of a value from the first start could overflow
+			return 0;
+		}
+		for ( int i = 2; i < starts.length; i++ ) {
+			if ( starts[i] - starts[i - 1] != width ) {
+				return 0;
+			}
+		}
+		return width;
+	}
+
+	/**
+	 * Loads the values of a numeric field from the {@code FieldCache}, converted to {@code long}s
+	 * preserving their order.
+	 */
+	abstract static class SortableValues {
+		protected final String fieldName;
+
+		SortableValues(String fieldName) {
+			this.fieldName = fieldName;
+		}
+
+		abstract void loadNewCacheValues(IndexReader reader) throws IOException;
+
+		abstract long get(int doc);
+
+		static SortableValues create(Class<?> type, String fieldName) {
+			if ( Integer.class.equals( type ) ) {
+				return new SortableValues( fieldName ) {
+					private int[] values;
+
+					void loadNewCacheValues(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getInts( reader, fieldName );
+					}
+
+					long get(int doc) {
+						return values[doc];
+					}
+				};
+			}
+			else if ( Long.class.equals( type ) ) {
+				return new SortableValues( fieldName ) {
+					private long[] values;
+
+					void loadNewCacheValues(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getLongs( reader, fieldName );
+					}
+
+					long get(int doc) {
+						return values[doc];
+					}
+				};
+			}
+			else if ( Float.class.equals( type ) ) {
+				return new SortableValues( fieldName ) {
+					private float[] values;
+
+					void loadNewCacheValues(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getFloats( reader, fieldName );
+					}
+
+					long get(int doc) {
+						return NumericUtils.floatToSortableInt( values[doc] );
+					}
+				};
+			}
+			else if ( Double.class.equals( type ) ) {
+				return new SortableValues( fieldName ) {
+					private double[] values;
+
+					void loadNewCacheValues(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getDoubles( reader, fieldName );
+					}
+
+					long get(int doc) {
+						return NumericUtils.doubleToSortableLong( values[doc] );
+					}
+				};
+			}
+			throw new IllegalArgumentException( "Unsupported range type: " + type );
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.query.collector.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Collector;
+
+import org.hibernate.search.query.fieldcache.impl.PrimitiveFieldLoadingStrategy;
+
+/**
+ * {@code FieldCacheCollector} for numeric fields, storing the extracted values in an
+ * open addressing hash table keyed by document id: neither the document ids nor the values
+ * are boxed, values only when requested by {@link #getValue(int)}.
+ * Meant for small result sets, for which {@link PrimitiveArrayFieldCacheCollectorImpl}
+ * would allocate an array way bigger than needed.
+ *
+ * @since 4.1
+ * @see MapFieldCacheCollectorImpl
+ */
+final class PrimitiveMapFieldCacheCollectorImpl extends FieldCacheCollector {
+
+	private static final int FREE = -1;
+
+	private final PrimitiveFieldLoadingStrategy cacheLoadingStrategy;
+
+	private int[] keys;
+	private long[] values;
+	private int mask;
+	private int shift;
+	private int size;
+	private int resizeThreshold;
+
+	private int currentDocBase;
+
+	public PrimitiveMapFieldCacheCollectorImpl(Collector delegate, PrimitiveFieldLoadingStrategy cacheLoadingStrategy, int expectedMatchesCount) {
+		super( delegate );
+		this.cacheLoadingStrategy = cacheLoadingStrategy;
+		int capacity = 16;
+		// keep the load factor at most 0.5 for the expected size
+		while ( capacity < expectedMatchesCount * 2 ) {
+			capacity <<= 1;
+		}
+		allocate( capacity );
+	}
+
+	@Override
+	public void collect(int doc) throws IOException {
+		//warning when changing this method: extremely performance sensitive!
+		this.delegate.collect( doc );
+		put( currentDocBase + doc, cacheLoadingStrategy.collectAsLong( doc ) );
+	}
+
+	@Override
+	public void setNextReader(IndexReader reader, int docBase) throws IOException {
+		this.currentDocBase = docBase;
+		this.cacheLoadingStrategy.loadNewCacheValues( reader );
+		this.delegate.setNextReader( reader, docBase );
+	}
+
+	public Object getValue(int docId) {
+		int slot = slot( docId );
+		while ( keys[slot] != FREE ) {
+			if ( keys[slot] == docId ) {
+				return cacheLoadingStrategy.decode( values[slot] );
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+		return null;
+	}
+
+	private void put(int docId, long value) {
+		int slot = slot( docId );
+		while ( keys[slot] != FREE ) {
+			if ( keys[slot] == docId ) {
+				values[slot] = value;
+				return;
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+		keys[slot] = docId;
+		values[slot] = value;
+		if ( ++size > resizeThreshold ) {
+			rehash();
+		}
+	}
+
+	private int slot(int docId) {
+		// document ids are often sequential: spread them over the table using the high bits of a multiplicative hash
+		return ( docId * 0x9E3779B9 ) >>> shift;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		Arrays.fill( keys, FREE );
+		values = new long[capacity];
+		mask = capacity - 1;
+		shift = 32 - Integer.numberOfTrailingZeros( capacity );
+		resizeThreshold = capacity >> 1;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate( keys.length << 1 );
+		size = 0;
+		for ( int i = 0; i < oldKeys.length; i++ ) {
+			if ( oldKeys[i] != FREE ) {
+				put( oldKeys[i], oldValues[i] );
+			}
+		}
+	}
+}
@@ -0,0 +1,337 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.query.collector.impl;
+
+import java.io.IOException;
+import java.text.Collator;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreCachingWrappingScorer;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+
+import org.hibernate.search.util.logging.impl.Log;
+import org.hibernate.search.util.logging.impl.LoggerFactory;
+
+/**
+ * Only passes to the delegate the hits which are sorted after a given hit,
+ * usually the last hit of the previous page: this way the delegate only needs to
+ * keep the top documents of the current page, whatever the offset of the page.
+ * All hits are counted, see {@link #getTotalHits()}.
+ *
+ * Hits are compared the same way Lucene sorts them: by the sort fields if any, by
+ * relevance otherwise, and finally by document id. For sorted queries the given hit
+ * must be a {@code FieldDoc} holding the sort values, as returned by a {@code TopFieldCollector}
+ * filling the fields; values are read from the {@code FieldCache}, so custom comparators
+ * are not supported.
+ *
+ * @since 4.1
+ */
+public final class SearchAfterCollector extends Collector {
+
+	private static final Log log = LoggerFactory.make();
+
+	private final Collector delegate;
+	private final int afterDoc;
+	private final AfterComparator[] comparators;
+	private Scorer scorer;
+	private int docBase;
+	private int totalHits;
+
+	/**
+	 * @param delegate the collector receiving the hits sorted after {@code after}
+	 * @param sort the sort of the query, or {@code null} if sorted by relevance
+	 * @param after the hit after which hits are collected, its document id relative to the top level reader
+	 */
+	public SearchAfterCollector(Collector delegate, Sort sort, ScoreDoc after) {
+		this.delegate = delegate;
+		this.afterDoc = after.doc;
+		if ( sort == null ) {
+			comparators = new AfterComparator[] { new ScoreAfterComparator( after.score, false ) };
+		}
+		else {
+			if ( !( after instanceof FieldDoc ) ) {
+				throw log.searchAfterRequiresFieldDoc();
+			}
+			Object[] afterValues = ( (FieldDoc) after ).fields;
+			SortField[] sortFields = sort.getSort();
+			if ( afterValues == null || afterValues.length != sortFields.length ) {
+				throw log.searchAfterRequiresFieldDoc();
+			}
+			comparators = new AfterComparator[sortFields.length];
+			for ( int i = 0; i < sortFields.length; i++ ) {
+				comparators[i] = createComparator( sortFields[i], afterValues[i] );
+			}
+		}
+	}
+
+	/**
+	 * @return the number of hits, including the ones not passed to the delegate
+	 */
+	public int getTotalHits() {
+		return totalHits;
+	}
+
+	@Override
+	public void setScorer(Scorer scorer) throws IOException {
+		// both this collector and the delegate might need the score
+		this.scorer = new ScoreCachingWrappingScorer( scorer );
+		this.delegate.setScorer( this.scorer );
+	}
+
+	@Override
+	public void collect(int doc) throws IOException {
+		totalHits++;
+		if ( isAfter( doc ) ) {
+			delegate.collect( doc );
+		}
+	}
+
+	@Override
+	public void setNextReader(IndexReader reader, int docBase) throws IOException {
+		this.docBase = docBase;
+		for ( AfterComparator comparator : comparators ) {
+			comparator.setNextReader( reader );
+		}
+		delegate.setNextReader( reader, docBase );
+	}
+
+	@Override
+	public boolean acceptsDocsOutOfOrder() {
+		return delegate.acceptsDocsOutOfOrder();
+	}
+
+	private boolean isAfter(int doc) throws IOException {
+		for ( AfterComparator comparator : comparators ) {
+			int comparison = comparator.compareToAfter( doc );
+			if ( comparison != 0 ) {
+				return comparison > 0;
+			}
+		}
+		// same sort values: Lucene sorts by document id
+		return docBase + doc > afterDoc;
+	}
+
+	private AfterComparator createComparator(SortField sortField, final Object afterValue) {
+		final String field = sortField.getField();
+		final FieldCache.Parser parser = sortField.getParser();
+		final boolean reverse = sortField.getReverse();
+		switch ( sortField.getType() ) {
+			case SortField.SCORE:
+				return new ScoreAfterComparator( (Float) afterValue, reverse );
+			case SortField.DOC:
+				return new AfterComparator( reverse ) {
+					private final int after = (Integer) afterValue;
+
+					int compare(int doc) {
+						int globalDoc = docBase + doc;
+						return globalDoc < after ? -1 : ( globalDoc == after ? 0 : 1 );
+					}
+				};
+			case SortField.INT:
+				return new AfterComparator( reverse ) {
+					private final int after = (Integer) afterValue;
+					private int[] values;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getInts( reader, field, (FieldCache.IntParser) parser );
+					}
+
+					int compare(int doc) {
+						return values[doc] < after ? -1 : ( values[doc] == after ? 0 : 1 );
+					}
+				};
+			case SortField.LONG:
+				return new AfterComparator( reverse ) {
+					private final long after = (Long) afterValue;
+					private long[] values;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getLongs( reader, field, (FieldCache.LongParser) parser );
+					}
+
+					int compare(int doc) {
+						return values[doc] < after ? -1 : ( values[doc] == after ? 0 : 1 );
+					}
+				};
+			case SortField.SHORT:
+				return new AfterComparator( reverse ) {
+					private final short after = (Short) afterValue;
+					private short[] values;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getShorts( reader, field, (FieldCache.ShortParser) parser );
+					}
+
+					int compare(int doc) {
+						return values[doc] - after;
+					}
+				};
+			case SortField.BYTE:
+				return new AfterComparator( reverse ) {
+					private final byte after = (Byte) afterValue;
+					private byte[] values;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getBytes( reader, field, (FieldCache.ByteParser) parser );
+					}
+
+					int compare(int doc) {
+						return values[doc] - after;
+					}
+				};
+			case SortField.FLOAT:
+				return new AfterComparator( reverse ) {
+					private final float after = (Float) afterValue;
+					private float[] values;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getFloats( reader, field, (FieldCache.FloatParser) parser );
+					}
+
+					int compare(int doc) {
+						// same as the Lucene comparator, which doesn't use Float.compare
+						return values[doc] < after ? -1 : ( values[doc] > after ? 1 : 0 );
+					}
+				};
+			case SortField.DOUBLE:
+				return new AfterComparator( reverse ) {
+					private final double after = (Double) afterValue;
+					private double[] values;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						values = FieldCache.DEFAULT.getDoubles( reader, field, (FieldCache.DoubleParser) parser );
+					}
+
+					int compare(int doc) {
+						return values[doc] < after ? -1 : ( values[doc] > after ? 1 : 0 );
+					}
+				};
+			case SortField.STRING:
+				if ( sortField.getLocale() != null ) {
+					return new StringAfterComparator( field, (String) afterValue, reverse, Collator.getInstance( sortField.getLocale() ) );
+				}
+				return new AfterComparator( reverse ) {
+					private final String after = (String) afterValue;
+					private String[] lookup;
+					private int[] order;
+
+					void setNextReader(IndexReader reader) throws IOException {
+						FieldCache.StringIndex index = FieldCache.DEFAULT.getStringIndex( reader, field );
+						lookup = index.lookup;
+						order = index.order;
+					}
+
+					int compare(int doc) {
+						return compareStrings( lookup[order[doc]], after );
+					}
+				};
+			case SortField.STRING_VAL:
+				return new StringAfterComparator( field, (String) afterValue, reverse, null );
+			default:
+				throw log.searchAfterNotSupportedForSort( String.valueOf( field ) );
+		}
+	}
+
+	private static int compareStrings(String value, String after) {
+		// documents without value are sorted first
+		if ( value == null ) {
+			return after == null ? 0 : -1;
+		}
+		else if ( after == null ) {
+			return 1;
+		}
+		return value.compareTo( after );
+	}
+
+	/**
+	 * Compares the sort value of a document with the one of the hit to page after.
+	 */
+	private abstract static class AfterComparator {
+		private final boolean reverse;
+
+		AfterComparator(boolean reverse) {
+			this.reverse = reverse;
+		}
+
+		void setNextReader(IndexReader reader) throws IOException {
+		}
+
+		/**
+		 * @return a positive value if the document is sorted after the hit, 0 if it is at the same position
+		 */
+		final int compareToAfter(int doc) throws IOException {
+			int comparison = compare( doc );
+			return reverse ? -comparison : comparison;
+		}
+
+		/**
+		 * @return the comparison of the document value with the hit value, in natural order
+		 */
+		abstract int compare(int doc) throws IOException;
+	}
+
+	private final class ScoreAfterComparator extends AfterComparator {
+		private final float after;
+
+		ScoreAfterComparator(float after, boolean reverse) {
+			super( reverse );
+			this.after = after;
+		}
+
+		int compare(int doc) throws IOException {
+			float score = scorer.score();
+			// higher scores come first
+			return score > after ? -1 : ( score < after ? 1 : 0 );
+		}
+	}
+
+	private static final class StringAfterComparator extends AfterComparator {
+		private final String field;
+		private final String after;
+		private final Collator collator;
+		private String[] values;
+
+		StringAfterComparator(String field, String after, boolean reverse, Collator collator) {
+			super( reverse );
+			this.field = field;
+			this.after = after;
+			this.collator = collator;
+		}
+
+		void setNextReader(IndexReader reader) throws IOException {
+			values = FieldCache.DEFAULT.getStrings( reader, field );
+		}
+
+		int compare(int doc) {
+			String value = values[doc];
+			if ( collator == null || value == null || after == null ) {
+				return compareStrings( value, after );
+			}
+			return collator.compare( value, after );
+		}
+	}
+
+}
@@ -27,6 +27,30 @@ package org.hibernate.search.query.dsl;
  * @author Hardy Ferentschik
  */
 public interface DiscreteFacetContext extends FacetParameterContext {
+	/**
+	 * Facets on a field whose values are paths in a hierarchy, such as {@code Electronics/Computers/Laptops}.
+	 * A document is counted once for its values and for each of their ancestors, and
+	 * selecting a facet matches the documents having this path or one of its descendants.
+	 *
+	 * @param separator the separator of the path elements in the field values
+	 *
+	 * @return a {@code DiscreteFacetContext} to continue building the facet request
+	 *
+	 * @since 4.1
+	 */
+	DiscreteFacetContext hierarchical(String separator);
+
+	/**
+	 * Only returns the facets for the direct children of a path of a hierarchical facet,
+	 * typically the path of the facet selected by the user. Requires {@link #hierarchical(String)}.
+	 *
+	 * @param path the parent path, {@code null} for the root values
+	 *
+	 * @return a {@code DiscreteFacetContext} to continue building the facet request
+	 *
+	 * @since 4.1
+	 */
+	DiscreteFacetContext childrenOf(String path);
 }
 
 
@@ -53,6 +53,20 @@ public interface FacetParameterContext extends FacetTermination {
 	 * @return a {@code FacetParameterContext} to continue building the facet request
 	 */
 	FacetParameterContext maxFacetCount(int maxFacetCount);
+
+	/**
+	 * Counts the facets ignoring the facets selected in the facet selection group having the name of this
+	 * faceting request, while the hits are still restricted to them: the counts of the other values of the
+	 * selected facets are kept, so that the user can change or extend the selection. The drill down hits
+	 * and the counts of all drill sideways requests are computed in a single search.
+	 *
+	 * @param drillSideways Determines whether the facets are counted ignoring their own selection
+	 *
+	 * @return a {@code FacetParameterContext} to continue building the facet request
+	 *
+	 * @since 4.1
+	 */
+	FacetParameterContext drillSideways(boolean drillSideways);
 }
 
 
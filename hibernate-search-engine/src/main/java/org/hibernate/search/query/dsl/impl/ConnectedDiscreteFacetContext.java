@@ -39,6 +39,16 @@ public class ConnectedDiscreteFacetContext implements DiscreteFacetContext {
 		this.context = context;
 	}
 
+	public DiscreteFacetContext hierarchical(String separator) {
+		context.setPathSeparator( separator );
+		return this;
+	}
+
+	public DiscreteFacetContext childrenOf(String path) {
+		context.setParentPath( path );
+		return this;
+	}
+
 	public FacetParameterContext orderedBy(FacetSortOrder sort) {
 		context.setSort( sort );
 		return new ConnectedFacetParameterContext( context );
@@ -54,6 +64,11 @@ public class ConnectedDiscreteFacetContext implements DiscreteFacetContext {
 		return new ConnectedFacetParameterContext( context );
 	}
 
+	public FacetParameterContext drillSideways(boolean drillSideways) {
+		context.setDrillSideways( drillSideways );
+		return new ConnectedFacetParameterContext( context );
+	}
+
 	public FacetingRequest createFacetingRequest() {
 		return context.getFacetingRequest();
 	}
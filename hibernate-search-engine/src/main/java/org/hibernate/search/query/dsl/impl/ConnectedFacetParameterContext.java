@@ -53,6 +53,11 @@ public class ConnectedFacetParameterContext implements FacetParameterContext {
 		return this;
 	}
 
+	public FacetParameterContext drillSideways(boolean drillSideways) {
+		context.setDrillSideways( drillSideways );
+		return this;
+	}
+
 	public FacetingRequest createFacetingRequest() {
 		return context.getFacetingRequest();
 	}
@@ -25,6 +25,9 @@
 package org.hibernate.search.query.dsl.impl;
 
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 
@@ -34,8 +37,30 @@ import org.hibernate.search.query.facet.Facet;
  * @author Hardy Ferentschik
  */
 public class DiscreteFacetRequest extends FacetingRequestImpl {
+	/**
+	 * The separator of the path elements for hierarchical facets, {@code null} otherwise
+	 */
+	private final String pathSeparator;
+
+	/**
+	 * The path whose children are returned for hierarchical facets, {@code null} for the root values
+	 */
+	private final String parentPath;
+
+	/**
+	 * Whether only the children of {@link #parentPath} are returned
+	 */
+	private final boolean childrenOnly;
+
 	DiscreteFacetRequest(String name, String fieldName) {
+		this( name, fieldName, null, null, false );
+	}
+
+	DiscreteFacetRequest(String name, String fieldName, String pathSeparator, String parentPath, boolean childrenOnly) {
 		super( name, fieldName );
+		this.pathSeparator = pathSeparator;
+		this.parentPath = parentPath;
+		this.childrenOnly = childrenOnly;
 	}
 
 	@Override
@@ -45,9 +70,50 @@ public class DiscreteFacetRequest extends FacetingRequestImpl {
 
 	@Override
 	public Facet createFacet(String value, int count) {
+		if ( isHierarchical() ) {
+			return new HierarchicalFacet( getFacetingName(), getFieldName(), value, count, pathSeparator );
+		}
 		return new SimpleFacet( getFacetingName(), getFieldName(), value, count );
 	}
 
+	public boolean isHierarchical() {
+		return pathSeparator != null;
+	}
+
+	public String getPathSeparator() {
+		return pathSeparator;
+	}
+
+	/**
+	 * @param path the path of a hierarchical facet
+	 * @param depth the number of separators in the path
+	 *
+	 * @return whether a facet is returned for this path
+	 */
+	public boolean isReturnedPath(String path, int depth) {
+		if ( !childrenOnly ) {
+			return true;
+		}
+		else if ( parentPath == null ) {
+			return depth == 0;
+		}
+		return path.length() > parentPath.length() + pathSeparator.length()
+				&& path.startsWith( parentPath )
+				&& path.startsWith( pathSeparator, parentPath.length() )
+				&& path.indexOf( pathSeparator, parentPath.length() + pathSeparator.length() ) < 0;
+	}
+
+	@Override
+	public String toString() {
+		if ( !isHierarchical() ) {
+			return super.toString();
+		}
+		return "DiscreteFacetRequest{" +
+				"pathSeparator='" + pathSeparator + '\'' +
+				( childrenOnly ? ", parentPath='" + parentPath + '\'' : "" ) +
+				"} " + super.toString();
+	}
+
 	static class SimpleFacet extends AbstractFacet {
 		SimpleFacet(String facetingName, String fieldName, String value, int count) {
 			super( facetingName, fieldName, value, count );
@@ -58,4 +124,22 @@ public class DiscreteFacetRequest extends FacetingRequestImpl {
 			return new TermQuery( new Term( getFieldName(), getValue() ) );
 		}
 	}
-}
\ No newline at end of file
+
+	static class HierarchicalFacet extends AbstractFacet {
+		private final String pathSeparator;
+
+		HierarchicalFacet(String facetingName, String fieldName, String value, int count, String pathSeparator) {
+			super( facetingName, fieldName, value, count );
+			this.pathSeparator = pathSeparator;
+		}
+
+		@Override
+		public Query getFacetQuery() {
+			// the path itself or any descendant
+			BooleanQuery query = new BooleanQuery();
+			query.add( new TermQuery( new Term( getFieldName(), getValue() ) ), BooleanClause.Occur.SHOULD );
+			query.add( new PrefixQuery( new Term( getFieldName(), getValue() + pathSeparator ) ), BooleanClause.Occur.SHOULD );
+			return query;
+		}
+	}
+}
@@ -61,6 +61,7 @@ class FacetBuildingContext<T> {
 	private String fieldName;
 	private FacetSortOrder sort = FacetSortOrder.COUNT_DESC;
 	private boolean includeZeroCount = true;
+	private boolean drillSideways = false;
 	private boolean isRangeQuery = false;
 	private List<FacetRange<T>> rangeList = newArrayList();
 	private T rangeStart;
@@ -68,6 +69,9 @@ class FacetBuildingContext<T> {
 	private T rangeEnd;
 	private boolean includeRangeEnd = true;
 	private int maxFacetCount = -1;
+	private String pathSeparator;
+	private String parentPath;
+	private boolean parentPathSet = false;
 	private DocumentBuilderIndexedEntity<?> documentBuilder;
 
 	public FacetBuildingContext(SearchFactoryImplementor factory, Class<?> entityType) {
@@ -92,6 +96,10 @@ class FacetBuildingContext<T> {
 		this.includeZeroCount = includeZeroCount;
 	}
 
+	void setDrillSideways(boolean drillSideways) {
+		this.drillSideways = drillSideways;
+	}
+
 	public void setRangeQuery(boolean rangeQuery) {
 		isRangeQuery = rangeQuery;
 	}
@@ -116,6 +124,18 @@ class FacetBuildingContext<T> {
 		this.maxFacetCount = maxFacetCount;
 	}
 
+	public void setPathSeparator(String pathSeparator) {
+		if ( pathSeparator == null || pathSeparator.length() == 0 ) {
+			throw new IllegalArgumentException( "The path separator cannot be empty" );
+		}
+		this.pathSeparator = pathSeparator;
+	}
+
+	public void setParentPath(String parentPath) {
+		this.parentPath = parentPath;
+		this.parentPathSet = true;
+	}
+
 	public void makeRange() {
 		Class<?> type = getRangeType();
 		assertValidRangeType( type );
@@ -163,10 +183,14 @@ class FacetBuildingContext<T> {
 						"RANGE_DEFINITION_ODER is not a valid sort order for a discrete faceting request."
 				);
 			}
-			request = new DiscreteFacetRequest( name, fieldName );
+			if ( parentPathSet && pathSeparator == null ) {
+				throw new SearchException( "childrenOf() requires a hierarchical faceting request" );
+			}
+			request = new DiscreteFacetRequest( name, fieldName, pathSeparator, parentPath, parentPathSet );
 		}
 		request.setSort( sort );
 		request.setIncludeZeroCounts( includeZeroCount );
+		request.setDrillSideways( drillSideways );
 		request.setMaxNumberOfFacets( maxFacetCount );
 		return request;
 	}
@@ -194,12 +218,15 @@ class FacetBuildingContext<T> {
 		sb.append( ", fieldName='" ).append( fieldName ).append( '\'' );
 		sb.append( ", sort=" ).append( sort );
 		sb.append( ", includeZeroCount=" ).append( includeZeroCount );
+		sb.append( ", drillSideways=" ).append( drillSideways );
 		sb.append( ", isRangeQuery=" ).append( isRangeQuery );
 		sb.append( ", rangeList=" ).append( rangeList );
 		sb.append( ", rangeStart=" ).append( rangeStart );
 		sb.append( ", includeRangeStart=" ).append( includeRangeStart );
 		sb.append( ", rangeEnd=" ).append( rangeEnd );
 		sb.append( ", includeRangeEnd=" ).append( includeRangeEnd );
+		sb.append( ", pathSeparator='" ).append( pathSeparator ).append( '\'' );
+		sb.append( ", parentPath='" ).append( parentPath ).append( '\'' );
 		sb.append( '}' );
 		return sb.toString();
 	}
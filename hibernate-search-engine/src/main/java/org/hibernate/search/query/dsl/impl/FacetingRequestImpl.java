@@ -54,6 +54,11 @@ public abstract class FacetingRequestImpl implements FacetingRequest {
 	 */
 	private boolean includeZeroCounts = true;
 
+	/**
+	 * Whether the facets are counted ignoring the selection of the facet selection group of the same name
+	 */
+	private boolean drillSideways = false;
+
 	/**
 	 * The maximum number of {@link org.hibernate.search.query.facet.Facet}s to return for this request. A negative value means that all
 	 * facets will be included
@@ -107,6 +112,14 @@ public abstract class FacetingRequestImpl implements FacetingRequest {
 		this.includeZeroCounts = includeZeroCounts;
 	}
 
+	public boolean isDrillSideways() {
+		return drillSideways;
+	}
+
+	public void setDrillSideways(boolean drillSideways) {
+		this.drillSideways = drillSideways;
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
@@ -115,6 +128,7 @@ public abstract class FacetingRequestImpl implements FacetingRequest {
 		sb.append( ", fieldName='" ).append( fieldName ).append( '\'' );
 		sb.append( ", sort=" ).append( sort );
 		sb.append( ", includeZeroCounts=" ).append( includeZeroCounts );
+		sb.append( ", drillSideways=" ).append( drillSideways );
 		sb.append( ", maxNumberOfFacets=" ).append( maxNumberOfFacets );
 		sb.append( '}' );
 		return sb.toString();
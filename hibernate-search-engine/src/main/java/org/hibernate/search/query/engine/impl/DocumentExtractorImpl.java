@@ -36,10 +36,13 @@ import org.hibernate.search.ProjectionConstants;
 import org.hibernate.search.bridge.spi.ConversionContext;
 import org.hibernate.search.bridge.util.impl.ContextualExceptionBridgeHelper;
 import org.hibernate.search.engine.impl.DocumentBuilderHelper;
+import org.hibernate.search.engine.spi.EntityIndexBinder;
 import org.hibernate.search.engine.spi.SearchFactoryImplementor;
 import org.hibernate.search.query.engine.spi.DocumentExtractor;
 import org.hibernate.search.query.engine.spi.EntityInfo;
 import org.hibernate.search.query.collector.impl.FieldCacheCollector;
+import org.hibernate.search.query.fieldcache.impl.FieldCacheProjection;
+import org.hibernate.search.query.fieldcache.impl.PerSegmentFieldCacheReader;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
 import org.hibernate.search.util.logging.impl.Log;
 
@@ -78,6 +81,11 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 	private final Class singleClassIfPossible; //null when not possible
 	private final FieldCacheCollector classTypeCollector; //null when not used
 	private final FieldCacheCollector idsCollector; //null when not used
+	private FieldCacheProjection classFromFieldCache; //null when not used
+	private FieldCacheProjection idFromFieldCache; //null when not used
+	private FieldCacheProjection[] projectionsFromFieldCache; //null when not used
+	private String[] projectionFromStoredFields; //the projection without the fields read from the FieldCache
+	private PerSegmentFieldCacheReader fieldCacheReader; //lazily created
 	private final ConversionContext exceptionWrap = new ContextualExceptionBridgeHelper();
 
 	public DocumentExtractorImpl(QueryHits queryHits,
@@ -117,6 +125,22 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 		this.classTypeCollector = queryHits.getClassTypeCollector();
 		this.idsCollector = queryHits.getIdsCollector();
 		initFieldSelection( projection, idFieldNames );
+		initProjectionFromStoredFields();
+	}
+
+	private void initProjectionFromStoredFields() {
+		if ( projectionsFromFieldCache == null ) {
+			projectionFromStoredFields = projection;
+		}
+		else {
+			// null names don't match any field, so they are left for the FieldCache
+			projectionFromStoredFields = projection.clone();
+			for ( int index = 0; index < projectionsFromFieldCache.length; index++ ) {
+				if ( projectionsFromFieldCache[index] != null ) {
+					projectionFromStoredFields[index] = null;
+				}
+			}
+		}
 	}
 
 	private void initFieldSelection(String[] projection, Set<String> idFieldNames) {
@@ -128,7 +152,8 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 		}
 		else {
 			fields = new HashMap<String, FieldSelectorResult>( projection.length + 2 ); // we actually have no clue
-			for ( String projectionName : projection ) {
+			for ( int index = 0; index < projection.length; index++ ) {
+				String projectionName = projection[index];
 				if ( projectionName == null ) {
 					continue;
 				}
@@ -138,6 +163,7 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 				else if ( ProjectionConstants.DOCUMENT.equals( projectionName ) ) {
 					// if we need to project DOCUMENT do not use fieldSelector as the user might want anything
 					allowFieldSelection = false;
+					projectionsFromFieldCache = null;
 					needId = true;
 					return;
 				}
@@ -157,16 +183,33 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 					continue;
 				}
 				else {
-					fields.put( projectionName, FieldSelectorResult.LOAD );
+					FieldCacheProjection cachedProjection = getCommonFieldCacheProjection( projectionName );
+					if ( cachedProjection != null ) {
+						if ( projectionsFromFieldCache == null ) {
+							projectionsFromFieldCache = new FieldCacheProjection[projection.length];
+						}
+						projectionsFromFieldCache[index] = cachedProjection;
+					}
+					else {
+						fields.put( projectionName, FieldSelectorResult.LOAD );
+					}
 				}
 			}
 		}
 		if ( singleClassIfPossible == null && classTypeCollector == null ) {
-			fields.put( ProjectionConstants.OBJECT_CLASS, FieldSelectorResult.LOAD );
+			classFromFieldCache = getCommonFieldCacheProjection( ProjectionConstants.OBJECT_CLASS );
+			if ( classFromFieldCache == null ) {
+				fields.put( ProjectionConstants.OBJECT_CLASS, FieldSelectorResult.LOAD );
+			}
 		}
 		if ( needId && idsCollector == null ) {
-			for ( String idFieldName : idFieldNames ) {
-				fields.put( idFieldName, FieldSelectorResult.LOAD );
+			if ( idFieldNames.size() == 1 ) {
+				idFromFieldCache = getCommonFieldCacheProjection( idFieldNames.iterator().next() );
+			}
+			if ( idFromFieldCache == null ) {
+				for ( String idFieldName : idFieldNames ) {
+					fields.put( idFieldName, FieldSelectorResult.LOAD );
+				}
 			}
 		}
 		if ( fields.size() == 1 ) {
@@ -181,26 +224,73 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 		// else: this.fieldSelector = null; //We need no fields at all
 	}
 
+	/**
+	 * Projected fields can only be read from the FieldCache when all targeted entities
+	 * agree on how to read them: only the fields not stored by a class bridge or in
+	 * collections of embedded objects and having the appropriate bridges qualify, see
+	 * {@link org.hibernate.search.annotations.FieldCacheType#PROJECTIONS}.
+	 *
+	 * @param fieldName the projected field
+	 *
+	 * @return how to read the field from the FieldCache, or {@code null} to load it from the stored fields
+	 */
+	private FieldCacheProjection getCommonFieldCacheProjection(String fieldName) {
+		if ( !allowFieldSelection ) {
+			// the whole Document is going to be loaded anyway
+			return null;
+		}
+		FieldCacheProjection common = null;
+		for ( Class<?> clazz : targetedClasses.values() ) {
+			EntityIndexBinder entityIndexBinding = searchFactoryImplementor.getIndexBindingForEntity( clazz );
+			if ( entityIndexBinding == null ) {
+				return null;
+			}
+			FieldCacheProjection cachedProjection = entityIndexBinding.getDocumentBuilder()
+					.getFieldCacheProjections()
+					.get( fieldName );
+			if ( cachedProjection == null || ( common != null && !common.equals( cachedProjection ) ) ) {
+				return null;
+			}
+			common = cachedProjection;
+		}
+		return common;
+	}
+
 	private EntityInfo extractEntityInfo(int docId, Document document, int scoreDocIndex, ConversionContext exceptionWrap) throws IOException {
 		Class clazz = extractClass( docId, document, scoreDocIndex );
 		String idName = DocumentBuilderHelper.getDocumentIdName( searchFactoryImplementor, clazz );
-		Serializable id = extractId( docId, document, clazz );
+		Serializable id = extractId( docId, document, clazz, scoreDocIndex );
 		Object[] projected = null;
 		if ( projection != null && projection.length > 0 ) {
 			projected = DocumentBuilderHelper.getDocumentFields(
-					searchFactoryImplementor, clazz, document, projection, exceptionWrap
+					searchFactoryImplementor, clazz, document, projectionFromStoredFields, exceptionWrap
 			);
+			if ( projectionsFromFieldCache != null ) {
+				for ( int index = 0; index < projectionsFromFieldCache.length; index++ ) {
+					if ( projectionsFromFieldCache[index] != null ) {
+						projected[index] = getFieldCacheReader().getValue( projectionsFromFieldCache[index], docId );
+					}
+				}
+			}
 		}
 		return new EntityInfoImpl( clazz, idName, id, projected );
 	}
 
-	private Serializable extractId(int docId, Document document, Class clazz) {
+	private Serializable extractId(int docId, Document document, Class clazz, int scoreDocIndex) throws IOException {
 		if ( !needId ) {
 			return null;
 		}
 		else if ( this.idsCollector != null ) {
 			return (Serializable) this.idsCollector.getValue( docId );
 		}
+		else if ( this.idFromFieldCache != null ) {
+			Serializable id = (Serializable) getFieldCacheReader().getValue( idFromFieldCache, docId );
+			if ( id == null ) {
+				log.forceToUseDocumentExtraction();
+				id = forceIdExtraction( scoreDocIndex, clazz );
+			}
+			return id;
+		}
 		else {
 			return DocumentBuilderHelper.getDocumentId( searchFactoryImplementor, clazz, document, exceptionWrap );
 		}
@@ -219,6 +309,13 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 				className = forceClassNameExtraction( scoreDocIndex );
 			}
 		}
+		else if ( classFromFieldCache != null ) {
+			className = (String) getFieldCacheReader().getValue( classFromFieldCache, docId );
+			if ( className == null ) {
+				log.forceToUseDocumentExtraction();
+				className = forceClassNameExtraction( scoreDocIndex );
+			}
+		}
 		else {
 			className = document.get( ProjectionConstants.OBJECT_CLASS );
 		}
@@ -311,6 +408,20 @@ public class DocumentExtractorImpl implements DocumentExtractor {
 		return doc.get( ProjectionConstants.OBJECT_CLASS );
 	}
 
+	private Serializable forceIdExtraction(int scoreDocIndex, Class clazz) throws IOException {
+		Map<String, FieldSelectorResult> fields = new HashMap<String, FieldSelectorResult>( 1 );
+		fields.put( idFromFieldCache.getFieldName(), FieldSelectorResult.LOAD_AND_BREAK );
+		Document doc = queryHits.doc( scoreDocIndex, new MapFieldSelector( fields ) );
+		return DocumentBuilderHelper.getDocumentId( searchFactoryImplementor, clazz, doc, exceptionWrap );
+	}
+
+	private PerSegmentFieldCacheReader getFieldCacheReader() {
+		if ( fieldCacheReader == null ) {
+			fieldCacheReader = new PerSegmentFieldCacheReader( searcher.getSearcher().getIndexReader() );
+		}
+		return fieldCacheReader;
+	}
+
 	@Override
 	public TopDocs getTopDocs() {
 		return queryHits.getTopDocs();
@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
@@ -71,6 +72,16 @@ public class FacetManagerImpl implements FacetManager {
 	 */
 	private Filter facetFilter;
 
+	/**
+	 * The filters of the selected facets of the drill sideways faceting requests, keyed by faceting name
+	 */
+	private Map<String, Filter> drillSidewaysFilters;
+
+	/**
+	 * The combined filter for the selected facets which are not part of {@link #drillSidewaysFilters}
+	 */
+	private Filter drillDownFilter;
+
 	/**
 	 * The query from which this manager was retrieved
 	 */
@@ -144,24 +155,64 @@ public class FacetManagerImpl implements FacetManager {
 
 	void queryHasChanged() {
 		facetFilter = null;
+		drillSidewaysFilters = null;
+		drillDownFilter = null;
 		this.facetResults = null;
 		query.clearCachedResults();
 	}
 
 	Filter getFacetFilter() {
 		if ( facetFilter == null ) {
-			BooleanQuery boolQuery = new BooleanQuery();
-			for ( FacetSelectionImpl selection : facetSelection.values() ) {
-				if ( !selection.getFacetList().isEmpty() ) {
-					Query selectionGroupQuery = createSelectionGroupQuery( selection );
-					boolQuery.add( selectionGroupQuery, BooleanClause.Occur.MUST );
+			facetFilter = createSelectionFilter( Collections.<String>emptySet() );
+		}
+		return facetFilter;
+	}
+
+	/**
+	 * A faceting request is counted sideways if it is enabled for drill sideways and some facets
+	 * are selected in the facet selection group of the same name.
+	 *
+	 * @return the filter of the selected facets of each faceting request to count sideways, keyed by faceting name
+	 */
+	Map<String, Filter> getDrillSidewaysFilters() {
+		if ( drillSidewaysFilters == null ) {
+			drillSidewaysFilters = newHashMap();
+			for ( FacetingRequestImpl facetRequest : facetRequests.values() ) {
+				FacetSelectionImpl selection = facetSelection.get( facetRequest.getFacetingName() );
+				if ( facetRequest.isDrillSideways() && selection != null && !selection.getFacetList().isEmpty() ) {
+					drillSidewaysFilters.put(
+							facetRequest.getFacetingName(),
+							new QueryWrapperFilter( createSelectionGroupQuery( selection ) )
+					);
 				}
 			}
-			if ( boolQuery.getClauses().length > 0 ) {
-				this.facetFilter = new QueryWrapperFilter( boolQuery );
+		}
+		return drillSidewaysFilters;
+	}
+
+	/**
+	 * @return the combined filter for the selected facets which are not counted sideways, see {@link #getDrillSidewaysFilters()}
+	 */
+	Filter getDrillDownFilter() {
+		if ( drillDownFilter == null ) {
+			drillDownFilter = createSelectionFilter( getDrillSidewaysFilters().keySet() );
+		}
+		return drillDownFilter;
+	}
+
+	private Filter createSelectionFilter(Set<String> excludedGroups) {
+		BooleanQuery boolQuery = new BooleanQuery();
+		for ( Map.Entry<String, FacetSelectionImpl> entry : facetSelection.entrySet() ) {
+			FacetSelectionImpl selection = entry.getValue();
+			if ( !selection.getFacetList().isEmpty() && !excludedGroups.contains( entry.getKey() ) ) {
+				Query selectionGroupQuery = createSelectionGroupQuery( selection );
+				boolQuery.add( selectionGroupQuery, BooleanClause.Occur.MUST );
 			}
 		}
-		return facetFilter;
+		if ( boolQuery.getClauses().length > 0 ) {
+			return new QueryWrapperFilter( boolQuery );
+		}
+		return null;
 	}
 
 	private Query createSelectionGroupQuery(FacetSelectionImpl selection) {
@@ -25,18 +25,23 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Similarity;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
@@ -46,6 +51,7 @@ import org.hibernate.search.FullTextFilter;
 import org.hibernate.search.ProjectionConstants;
 import org.hibernate.search.SearchException;
 import org.hibernate.search.annotations.FieldCacheType;
+import org.hibernate.search.annotations.FilterCacheModeType;
 import org.hibernate.search.engine.spi.DocumentBuilderIndexedEntity;
 import org.hibernate.search.engine.spi.EntityIndexBinder;
 import org.hibernate.search.engine.impl.FilterDef;
@@ -59,6 +65,7 @@ import org.hibernate.search.filter.impl.CachingWrapperFilter;
 import org.hibernate.search.filter.impl.FullTextFilterImpl;
 import org.hibernate.search.indexes.spi.IndexManager;
 import org.hibernate.search.query.collector.impl.FieldCacheCollectorFactory;
+import org.hibernate.search.query.dsl.impl.FacetingRequestImpl;
 import org.hibernate.search.query.engine.spi.DocumentExtractor;
 import org.hibernate.search.query.engine.spi.EntityInfo;
 import org.hibernate.search.query.engine.spi.HSQuery;
@@ -98,6 +105,12 @@ public class HSQueryImpl implements HSQuery, Serializable {
 	 */
 	private Filter filter;
 
+	/**
+	 * Combined chained filter to be applied to the query when counting drill sideways facets: it does not
+	 * contain the filters of the facets selected for the drill sideways faceting requests.
+	 */
+	private Filter drillSidewaysFilter;
+
 	/**
 	 * User specified filters. Will be combined into a single chained filter {@link #filter}.
 	 */
@@ -121,6 +134,16 @@ public class HSQueryImpl implements HSQuery, Serializable {
 	 */
 	private Integer resultSize;
 
+	/**
+	 * If not null, only the hits sorted after this one are returned
+	 */
+	private ScoreDoc searchAfter;
+
+	/**
+	 * The last hit returned by {@link #queryEntityInfos}
+	 */
+	private transient ScoreDoc lastScoreDoc;
+
 
 	public HSQueryImpl(SearchFactoryImplementor searchFactoryImplementor) {
 		this.searchFactoryImplementor = searchFactoryImplementor;
@@ -183,6 +206,15 @@ public class HSQueryImpl implements HSQuery, Serializable {
 		return this;
 	}
 
+	public HSQuery searchAfter(ScoreDoc lastScoreDoc) {
+		this.searchAfter = lastScoreDoc;
+		return this;
+	}
+
+	public ScoreDoc getLastScoreDoc() {
+		return lastScoreDoc;
+	}
+
 	public HSQuery maxResults(int maxResults) {
 		if ( maxResults < 0 ) {
 			throw new IllegalArgumentException( "'max' pagination parameter less than 0" );
@@ -243,18 +275,24 @@ public class HSQueryImpl implements HSQuery, Serializable {
 		try {
 			QueryHits queryHits = getQueryHits( searcher, calculateTopDocsRetrievalSize() );
 			int first = getFirstResultIndex();
-			int max = max( first, queryHits.getTotalHits() );
+			int max = max( first, queryHits.getHitsAfterCursor() );
 
 			int size = max - first + 1 < 0 ? 0 : max - first + 1;
 			List<EntityInfo> infos = new ArrayList<EntityInfo>( size );
 			DocumentExtractor extractor = buildDocumentExtractor( searcher, queryHits, first, max );
+			int lastExtracted = first - 1;
 			for ( int index = first; index <= max; index++ ) {
 				infos.add( extractor.extract( index ) );
+				lastExtracted = index;
 				//TODO should we measure on each extractor?
-				if ( index % 10 == 0 ) {
-					getTimeoutManager().isTimedOut();
+				if ( index % 10 == 0 && getTimeoutManager().isTimedOut() ) {
+					// only reached when limiting fetching on timeout: return the hits extracted so far
+					getTimeoutManagerImpl().reactOnQueryTimeoutExceptionWhileExtracting( null );
+					break;
 				}
 			}
+			// the cursor is the last hit actually returned, not the last one of the requested page
+			lastScoreDoc = lastExtracted >= first ? queryHits.scoreDoc( lastExtracted ) : null;
 			return infos;
 		}
 		catch ( IOException e ) {
@@ -289,14 +327,30 @@ public class HSQueryImpl implements HSQuery, Serializable {
 	 * DocumentExtractor objects *must* be closed when the results are no longer traversed.
 	 */
 	public DocumentExtractor queryDocumentExtractor() {
+		return queryDocumentExtractor( 0 );
+	}
+
+	/**
+	 * Same as {@link #queryDocumentExtractor()}, but the hits are fetched in chunks of the given size
+	 * while iterating, so that only the current chunk is kept in memory.
+	 * Meant for a forward iteration over a large number of results.
+	 */
+	public DocumentExtractor queryStreamingDocumentExtractor(int chunkSize) {
+		if ( chunkSize <= 0 ) {
+			throw new IllegalArgumentException( "Chunk size must be positive: " + chunkSize );
+		}
+		return queryDocumentExtractor( chunkSize );
+	}
+
+	private DocumentExtractor queryDocumentExtractor(int chunkSize) {
 		//keep the searcher open until the resultset is closed
 		//find the directories
 		IndexSearcherWithPayload openSearcher = buildSearcher();
 		//FIXME: handle null searcher
 		try {
-			QueryHits queryHits = getQueryHits( openSearcher, calculateTopDocsRetrievalSize() );
+			QueryHits queryHits = getQueryHits( openSearcher, calculateTopDocsRetrievalSize(), chunkSize );
 			int first = getFirstResultIndex();
-			int max = max( first, queryHits.getTotalHits() );
+			int max = max( first, queryHits.getHitsAfterCursor() );
 			return buildDocumentExtractor( openSearcher, queryHits, first, max );
 		}
 		catch ( IOException e ) {
@@ -316,8 +370,7 @@ public class HSQueryImpl implements HSQuery, Serializable {
 			}
 			else {
 				try {
-					QueryHits queryHits = getQueryHits( searcher, 0 );
-					resultSize = queryHits.getTotalHits();
+					resultSize = countHits( searcher );
 				}
 				catch ( IOException e ) {
 					throw new SearchException( "Unable to query Lucene index", e );
@@ -402,17 +455,32 @@ public class HSQueryImpl implements HSQuery, Serializable {
 	 * @throws IOException in case there is an error executing the lucene search.
 	 */
 	private QueryHits getQueryHits(IndexSearcherWithPayload searcher, Integer n) throws IOException {
+		return getQueryHits( searcher, n, 0 );
+	}
+
+	/**
+	 * Execute the lucene search and return the matching hits.
+	 *
+	 * @param searcher The index searcher.
+	 * @param n Number of documents to retrieve
+	 * @param chunkSize if positive, hits are retrieved in chunks of this size while iterating instead
+	 *
+	 * @return An instance of <code>QueryHits</code> wrapping the Lucene query and the matching documents.
+	 *
+	 * @throws IOException in case there is an error executing the lucene search.
+	 */
+	private QueryHits getQueryHits(IndexSearcherWithPayload searcher, Integer n, int chunkSize) throws IOException {
 		org.apache.lucene.search.Query filteredQuery = filterQueryByClasses( luceneQuery );
 		buildFilters();
 		QueryHits queryHits;
 
 		boolean stats = searchFactoryImplementor.getStatistics().isStatisticsEnabled();
-		long startTime = 0;
-		if ( stats ) {
-			startTime = System.nanoTime();
-		}
-
-		if ( n == null ) { // try to make sure that we get the right amount of top docs
+		// cursors can't be compared, and a chunk is not worth caching
+		QueryResultCache.Key cacheKey = searchAfter == null && chunkSize <= 0
+				? createResultCacheKey( searcher, filteredQuery, sort, n == null ? -1 : n, true )
+				: null;
+		QueryResultCache.Result cachedResult = getCachedResult( cacheKey, stats );
+		if ( cachedResult != null ) {
 			queryHits = new QueryHits(
 					searcher,
 					filteredQuery,
@@ -420,49 +488,184 @@ public class HSQueryImpl implements HSQuery, Serializable {
 					sort,
 					getTimeoutManagerImpl(),
 					facetManager.getFacetRequests(),
-					useFieldCacheOnTypes(),
-					getAppropriateIdFieldCollectorFactory(),
-					this.timeoutExceptionFactory
+					this.timeoutExceptionFactory,
+					searchFactoryImplementor.getShardSearchExecutor(),
+					cachedResult
 			);
+			resultSize = queryHits.getTotalHits();
+			facetManager.setFacetResults( queryHits.getFacets() );
+			return queryHits;
 		}
-		else if ( 0 == n) {
-			queryHits = new QueryHits(
-					searcher,
-					filteredQuery,
-					filter,
-					null,
-					0,
-					getTimeoutManagerImpl(),
-					null,
-					false,
-					null,
-					this.timeoutExceptionFactory
-			);
-		}
-		else {
-			queryHits = new QueryHits(
-					searcher,
-					filteredQuery,
-					filter,
-					sort,
-					n,
-					getTimeoutManagerImpl(),
-					facetManager.getFacetRequests(),
-					useFieldCacheOnTypes(),
-					getAppropriateIdFieldCollectorFactory(),
-					this.timeoutExceptionFactory
-			);
+
+		long startTime = 0;
+		if ( stats ) {
+			startTime = System.nanoTime();
 		}
+
+		// a null n gets the default amount of top docs
+		queryHits = new QueryHits(
+				searcher,
+				filteredQuery,
+				filter,
+				sort,
+				n,
+				getTimeoutManagerImpl(),
+				facetManager.getFacetRequests(),
+				useFieldCacheOnTypes(),
+				getAppropriateIdFieldCollectorFactory(),
+				this.timeoutExceptionFactory,
+				searchFactoryImplementor.getShardSearchExecutor(),
+				searchAfter,
+				chunkSize,
+				drillSidewaysFilter,
+				facetManager.getDrillSidewaysFilters()
+		);
 		resultSize = queryHits.getTotalHits();
 
 		if ( stats ) {
 			searchFactoryImplementor.getStatisticsImplementor()
 					.searchExecuted( filteredQuery.toString(), System.nanoTime() - startTime );
 		}
+		cacheResult( cacheKey, queryHits );
 		facetManager.setFacetResults( queryHits.getFacets() );
 		return queryHits;
 	}
 
+	/**
+	 * Counts the matching documents without sorting, scoring, faceting nor collecting any value: the filters
+	 * are the same as when retrieving the hits, so their cached <code>DocIdSet</code>s are reused.
+	 * The facet results of a previous execution are kept.
+	 *
+	 * @param searcher The index searcher.
+	 *
+	 * @return the number of matching documents
+	 *
+	 * @throws IOException in case there is an error executing the lucene search.
+	 */
+	private int countHits(IndexSearcherWithPayload searcher) throws IOException {
+		org.apache.lucene.search.Query filteredQuery = filterQueryByClasses( luceneQuery );
+		buildFilters();
+
+		boolean stats = searchFactoryImplementor.getStatistics().isStatisticsEnabled();
+		int count = countHitsFromIndexStatistics( searcher.getSearcher().getIndexReader(), filteredQuery );
+		if ( count >= 0 ) {
+			return count;
+		}
+		QueryResultCache.Key cacheKey = createResultCacheKey( searcher, filteredQuery, null, 0, false );
+		QueryResultCache.Result cachedResult = getCachedResult( cacheKey, stats );
+		if ( cachedResult != null ) {
+			return cachedResult.getTotalHits();
+		}
+
+		long startTime = 0;
+		if ( stats ) {
+			startTime = System.nanoTime();
+		}
+		QueryHits queryHits = new QueryHits(
+				searcher,
+				filteredQuery,
+				filter,
+				null,
+				0,
+				getTimeoutManagerImpl(),
+				null,
+				false,
+				null,
+				this.timeoutExceptionFactory,
+				searchFactoryImplementor.getShardSearchExecutor()
+		);
+
+		if ( stats ) {
+			searchFactoryImplementor.getStatisticsImplementor()
+					.searchExecuted( filteredQuery.toString(), System.nanoTime() - startTime );
+		}
+		cacheResult( cacheKey, queryHits );
+		return queryHits.getTotalHits();
+	}
+
+	/**
+	 * @return the key of the query results in the query result cache, or null if they can't be cached
+	 */
+	private QueryResultCache.Key createResultCacheKey(IndexSearcherWithPayload searcher,
+			org.apache.lucene.search.Query filteredQuery, Sort sort, int maxDocs, boolean withFacets) {
+		if ( searchFactoryImplementor.getQueryResultCache() == null ) {
+			return null;
+		}
+		Object[] indexVersions = QueryResultCache.getIndexVersions( searcher.getSearcher().getIndexReader() );
+		if ( indexVersions == null ) {
+			return null;
+		}
+		Map<String, Map<String, Object>> fullTextFilters = new HashMap<String, Map<String, Object>>();
+		for ( FullTextFilterImpl fullTextFilter : filterDefinitions.values() ) {
+			FilterDef def = searchFactoryImplementor.getFilterDefinition( fullTextFilter.getName() );
+			if ( def == null || def.getCacheMode() == FilterCacheModeType.NONE ) {
+				// the filter might depend on state other than its parameters
+				return null;
+			}
+			fullTextFilters.put( fullTextFilter.getName(), new HashMap<String, Object>( fullTextFilter.getParameters() ) );
+		}
+		// faceting requests are mutable: keep their current definition
+		List<String> facetRequests = new ArrayList<String>();
+		if ( withFacets && facetManager.getFacetRequests() != null ) {
+			for ( FacetingRequestImpl facetRequest : new TreeMap<String, FacetingRequestImpl>( facetManager.getFacetRequests() ).values() ) {
+				facetRequests.add( facetRequest.toString() );
+			}
+		}
+		return new QueryResultCache.Key(
+				filteredQuery,
+				sort,
+				new HashSet<Class<?>>( classesAndSubclasses ),
+				fullTextFilters,
+				userFilter,
+				facetManager.getFacetFilter(),
+				facetRequests,
+				maxDocs,
+				indexVersions
+		);
+	}
+
+	private QueryResultCache.Result getCachedResult(QueryResultCache.Key cacheKey, boolean stats) {
+		if ( cacheKey == null ) {
+			return null;
+		}
+		QueryResultCache.Result cachedResult = searchFactoryImplementor.getQueryResultCache().get( cacheKey );
+		if ( stats ) {
+			if ( cachedResult != null ) {
+				searchFactoryImplementor.getStatisticsImplementor().queryResultCacheHit();
+			}
+			else {
+				searchFactoryImplementor.getStatisticsImplementor().queryResultCacheMiss();
+			}
+		}
+		return cachedResult;
+	}
+
+	private void cacheResult(QueryResultCache.Key cacheKey, QueryHits queryHits) {
+		// partial results of a timed out query are not reused
+		if ( cacheKey != null && !getTimeoutManagerImpl().hasPartialResults() ) {
+			searchFactoryImplementor.getQueryResultCache().put( cacheKey, queryHits.getCacheableResult() );
+		}
+	}
+
+	/**
+	 * @return the number of documents matching the query as stored by the index, or -1 if the query has to be executed.
+	 * When a timeout is set the query is always executed, so that it is subject to the timeout
+	 */
+	private int countHitsFromIndexStatistics(IndexReader reader, org.apache.lucene.search.Query filteredQuery)
+			throws IOException {
+		if ( filter != null || getTimeoutManagerImpl().getTimeoutLeftInMilliseconds() != null ) {
+			return -1;
+		}
+		if ( filteredQuery instanceof MatchAllDocsQuery ) {
+			return reader.numDocs();
+		}
+		// the document frequency includes deleted documents
+		if ( filteredQuery instanceof TermQuery && !reader.hasDeletions() ) {
+			return reader.docFreq( ( (TermQuery) filteredQuery ).getTerm() );
+		}
+		return -1;
+	}
+
 	/**
 	 * @return Calculates the number of <code>TopDocs</code> which should be retrieved as part of the query. If Hibernate's
 	 *         pagination parameters are set returned value is <code>first + maxResults</code>. Otherwise <code>null</code> is
@@ -656,29 +859,44 @@ public class HSQueryImpl implements HSQuery, Serializable {
 	}
 
 	private void buildFilters() {
-		ChainedFilter chainedFilter = new ChainedFilter();
+		List<Filter> queryFilters = new ArrayList<Filter>();
 		if ( !filterDefinitions.isEmpty() ) {
 			for ( FullTextFilterImpl fullTextFilter : filterDefinitions.values() ) {
 				Filter filter = buildLuceneFilter( fullTextFilter );
 				if ( filter != null ) {
-					chainedFilter.addFilter( filter );
+					queryFilters.add( filter );
 				}
 			}
 		}
 
 		if ( userFilter != null ) {
-			chainedFilter.addFilter( userFilter );
+			queryFilters.add( userFilter );
+		}
+
+		filter = chainFilters( queryFilters, getFacetManager().getFacetFilter() );
+		if ( facetManager.getDrillSidewaysFilters().isEmpty() ) {
+			drillSidewaysFilter = null;
+		}
+		else {
+			drillSidewaysFilter = chainFilters( queryFilters, facetManager.getDrillDownFilter() );
+		}
+	}
+
+	private Filter chainFilters(List<Filter> queryFilters, Filter facetFilter) {
+		ChainedFilter chainedFilter = new ChainedFilter();
+		for ( Filter queryFilter : queryFilters ) {
+			chainedFilter.addFilter( queryFilter );
 		}
 
-		if ( getFacetManager().getFacetFilter() != null ) {
-			chainedFilter.addFilter( facetManager.getFacetFilter() );
+		if ( facetFilter != null ) {
+			chainedFilter.addFilter( facetFilter );
 		}
 
 		if ( chainedFilter.isEmpty() ) {
-			filter = null;
+			return null;
 		}
 		else {
-			filter = chainedFilter;
+			return chainedFilter;
 		}
 	}
 
@@ -780,7 +998,8 @@ public class HSQueryImpl implements HSQuery, Serializable {
 	private Filter addCachingWrapperFilter(Filter filter, FilterDef def) {
 		if ( cacheResults( def.getCacheMode() ) ) {
 			int cachingWrapperFilterSize = searchFactoryImplementor.getFilterCacheBitResultsSize();
-			filter = new CachingWrapperFilter( filter, cachingWrapperFilterSize );
+			int cachingWrapperFilterMaxBytes = searchFactoryImplementor.getFilterCacheBitResultsMaxBytes();
+			filter = new CachingWrapperFilter( filter, cachingWrapperFilterSize, cachingWrapperFilterMaxBytes );
 		}
 
 		return filter;
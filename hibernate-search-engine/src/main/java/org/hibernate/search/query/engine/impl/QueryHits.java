@@ -29,13 +29,20 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TimeLimitingCollector;
 import org.apache.lucene.search.TopDocs;
@@ -47,13 +54,16 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.Counter;
 
 import org.hibernate.search.SearchException;
+import org.hibernate.search.query.collector.impl.DrillSidewaysCollector;
 import org.hibernate.search.query.collector.impl.FacetCollector;
 import org.hibernate.search.query.collector.impl.FieldCacheCollector;
 import org.hibernate.search.query.collector.impl.FieldCacheCollectorFactory;
+import org.hibernate.search.query.collector.impl.SearchAfterCollector;
 import org.hibernate.search.query.dsl.impl.FacetingRequestImpl;
 import org.hibernate.search.query.engine.spi.TimeoutExceptionFactory;
 import org.hibernate.search.query.engine.spi.TimeoutManager;
 import org.hibernate.search.query.facet.Facet;
+import org.hibernate.search.reader.impl.CacheableMultiReader;
 
 /**
  * A helper class which gives access to the current query and its hits. This class will dynamically
@@ -70,6 +80,14 @@ public class QueryHits {
 	private final IndexSearcherWithPayload searcher;
 	private final Filter filter;
 	private final Sort sort;
+
+	/**
+	 * If not null, the filter to search with when counting the facets of the drill sideways faceting requests,
+	 * and the filters of their selected facets, see {@link DrillSidewaysCollector}
+	 */
+	private final Filter drillSidewaysFilter;
+	private final Map<String, Filter> drillSidewaysFilters;
+
 	private final Map<String, FacetingRequestImpl> facetRequests;
 	private final TimeoutManagerImpl timeoutManager;
 
@@ -93,6 +111,32 @@ public class QueryHits {
 
 	private final TimeoutExceptionFactory timeoutExceptionFactory;
 
+	/**
+	 * If not null, the shards of a MultiReader are searched in parallel by this executor
+	 */
+	private final ExecutorService shardSearchExecutor;
+
+	/**
+	 * If not null, only the hits sorted after this one are returned
+	 */
+	private final ScoreDoc after;
+
+	/**
+	 * The number of hits sorted after {@link #after}, or the total number of hits if there is no such hit
+	 */
+	private int hitsAfterCursor;
+
+	/**
+	 * If positive, {@link #topDocs} only contains the chunk of hits starting at {@code currentChunk * chunkSize}
+	 */
+	private final int chunkSize;
+	private int currentChunk;
+
+	/**
+	 * The hit after which each chunk found so far starts, so that any of them can be fetched again
+	 */
+	private List<ScoreDoc> chunkCursors;
+
 	public QueryHits(IndexSearcherWithPayload searcher,
 					 org.apache.lucene.search.Query preparedQuery,
 					 Filter filter,
@@ -103,9 +147,26 @@ public class QueryHits {
 					 FieldCacheCollectorFactory idFieldCollector,
 					 TimeoutExceptionFactory timeoutExceptionFactory)
 			throws IOException {
+		this(
+				searcher, preparedQuery, filter, sort, timeoutManager, facetRequests,
+				enableFieldCacheOnTypes, idFieldCollector, timeoutExceptionFactory, null
+		);
+	}
+
+	public QueryHits(IndexSearcherWithPayload searcher,
+					 org.apache.lucene.search.Query preparedQuery,
+					 Filter filter,
+					 Sort sort,
+					 TimeoutManagerImpl timeoutManager,
+					 Map<String, FacetingRequestImpl> facetRequests,
+					 boolean enableFieldCacheOnTypes,
+					 FieldCacheCollectorFactory idFieldCollector,
+					 TimeoutExceptionFactory timeoutExceptionFactory,
+					 ExecutorService shardSearchExecutor)
+			throws IOException {
 		this(
 				searcher, preparedQuery, filter, sort, DEFAULT_TOP_DOC_RETRIEVAL_SIZE, timeoutManager, facetRequests,
-				enableFieldCacheOnTypes, idFieldCollector, timeoutExceptionFactory
+				enableFieldCacheOnTypes, idFieldCollector, timeoutExceptionFactory, shardSearchExecutor
 		);
 	}
 
@@ -120,16 +181,145 @@ public class QueryHits {
 					 FieldCacheCollectorFactory idFieldCollector,
 					 TimeoutExceptionFactory timeoutExceptionFactory)
 			throws IOException {
+		this(
+				searcher, preparedQuery, filter, sort, n, timeoutManager, facetRequests,
+				enableFieldCacheOnTypes, idFieldCollector, timeoutExceptionFactory, null
+		);
+	}
+
+	public QueryHits(IndexSearcherWithPayload searcher,
+					 org.apache.lucene.search.Query preparedQuery,
+					 Filter filter,
+					 Sort sort,
+					 Integer n,
+					 TimeoutManagerImpl timeoutManager,
+					 Map<String, FacetingRequestImpl> facetRequests,
+					 boolean enableFieldCacheOnTypes,
+					 FieldCacheCollectorFactory idFieldCollector,
+					 TimeoutExceptionFactory timeoutExceptionFactory,
+					 ExecutorService shardSearchExecutor)
+			throws IOException {
+		this(
+				searcher, preparedQuery, filter, sort, n, timeoutManager, facetRequests,
+				enableFieldCacheOnTypes, idFieldCollector, timeoutExceptionFactory, shardSearchExecutor, null, 0
+		);
+	}
+
+	/**
+	 * @param after if not null, only the hits sorted after this one are returned: index 0 is the first of them
+	 * @param chunkSize if positive, hits are fetched in chunks of this size while iterating, keeping only
+	 * the current chunk in memory; meant for a forward iteration over all hits
+	 */
+	public QueryHits(IndexSearcherWithPayload searcher,
+					 org.apache.lucene.search.Query preparedQuery,
+					 Filter filter,
+					 Sort sort,
+					 Integer n,
+					 TimeoutManagerImpl timeoutManager,
+					 Map<String, FacetingRequestImpl> facetRequests,
+					 boolean enableFieldCacheOnTypes,
+					 FieldCacheCollectorFactory idFieldCollector,
+					 TimeoutExceptionFactory timeoutExceptionFactory,
+					 ExecutorService shardSearchExecutor,
+					 ScoreDoc after,
+					 int chunkSize)
+			throws IOException {
+		this(
+				searcher, preparedQuery, filter, sort, n, timeoutManager, facetRequests,
+				enableFieldCacheOnTypes, idFieldCollector, timeoutExceptionFactory, shardSearchExecutor, after, chunkSize,
+				null, null
+		);
+	}
+
+	/**
+	 * @param after if not null, only the hits sorted after this one are returned: index 0 is the first of them
+	 * @param chunkSize if positive, hits are fetched in chunks of this size while iterating, keeping only
+	 * the current chunk in memory; meant for a forward iteration over all hits
+	 * @param drillSidewaysFilter the filter to search with when counting the facets of the drill sideways
+	 * faceting requests: {@code filter} without the filters of their selected facets
+	 * @param drillSidewaysFilters the filters of the selected facets of the drill sideways faceting requests,
+	 * keyed by faceting name
+	 */
+	public QueryHits(IndexSearcherWithPayload searcher,
+					 org.apache.lucene.search.Query preparedQuery,
+					 Filter filter,
+					 Sort sort,
+					 Integer n,
+					 TimeoutManagerImpl timeoutManager,
+					 Map<String, FacetingRequestImpl> facetRequests,
+					 boolean enableFieldCacheOnTypes,
+					 FieldCacheCollectorFactory idFieldCollector,
+					 TimeoutExceptionFactory timeoutExceptionFactory,
+					 ExecutorService shardSearchExecutor,
+					 ScoreDoc after,
+					 int chunkSize,
+					 Filter drillSidewaysFilter,
+					 Map<String, Filter> drillSidewaysFilters)
+			throws IOException {
 		this.timeoutManager = timeoutManager;
 		this.preparedQuery = preparedQuery;
 		this.searcher = searcher;
 		this.filter = filter;
+		this.drillSidewaysFilter = drillSidewaysFilter;
+		this.drillSidewaysFilters = drillSidewaysFilters;
 		this.sort = sort;
 		this.facetRequests = facetRequests;
-		this.enableFieldCacheOnClassName = enableFieldCacheOnTypes;
-		this.idFieldCollectorFactory = idFieldCollector;
+		// FieldCache collectors are sized by the index, not worth it for a single chunk
+		this.enableFieldCacheOnClassName = enableFieldCacheOnTypes && chunkSize <= 0;
+		this.idFieldCollectorFactory = chunkSize <= 0 ? idFieldCollector : null;
 		this.timeoutExceptionFactory = timeoutExceptionFactory;
-		updateTopDocs( n );
+		this.shardSearchExecutor = shardSearchExecutor;
+		this.after = after;
+		this.chunkSize = chunkSize;
+		if ( chunkSize > 0 ) {
+			chunkCursors = new ArrayList<ScoreDoc>();
+			chunkCursors.add( after );
+			updateTopDocs( chunkSize, after );
+		}
+		else {
+			updateTopDocs( n == null ? DEFAULT_TOP_DOC_RETRIEVAL_SIZE : n, after );
+		}
+	}
+
+	/**
+	 * Wraps the results of a previous execution of the same query on the same index versions, without
+	 * searching the indexes; they are only searched if more top documents than cached are needed.
+	 */
+	public QueryHits(IndexSearcherWithPayload searcher,
+					 org.apache.lucene.search.Query preparedQuery,
+					 Filter filter,
+					 Sort sort,
+					 TimeoutManagerImpl timeoutManager,
+					 Map<String, FacetingRequestImpl> facetRequests,
+					 TimeoutExceptionFactory timeoutExceptionFactory,
+					 ExecutorService shardSearchExecutor,
+					 QueryResultCache.Result cachedResult) {
+		this.timeoutManager = timeoutManager;
+		this.preparedQuery = preparedQuery;
+		this.searcher = searcher;
+		this.filter = filter;
+		this.sort = sort;
+		this.facetRequests = facetRequests;
+		this.enableFieldCacheOnClassName = false;
+		this.idFieldCollectorFactory = null;
+		this.timeoutExceptionFactory = timeoutExceptionFactory;
+		this.shardSearchExecutor = shardSearchExecutor;
+		this.after = null;
+		this.chunkSize = 0;
+		// the facets are not counted again
+		this.drillSidewaysFilter = null;
+		this.drillSidewaysFilters = null;
+		this.topDocs = cachedResult.getTopDocs();
+		this.totalHits = cachedResult.getTotalHits();
+		this.hitsAfterCursor = totalHits;
+		this.facetMap = cachedResult.getFacets();
+	}
+
+	/**
+	 * @return the results of the search, to be reused by the same query on the same index versions
+	 */
+	public QueryResultCache.Result getCacheableResult() {
+		return new QueryResultCache.Result( topDocs, totalHits, facetMap );
 	}
 
 	public Document doc(int index) throws IOException {
@@ -141,13 +331,16 @@ public class QueryHits {
 	}
 
 	public ScoreDoc scoreDoc(int index) throws IOException {
-		if ( index >= totalHits ) {
+		if ( index >= hitsAfterCursor ) {
 			throw new SearchException( "Not a valid ScoreDoc index: " + index );
 		}
+		if ( chunkSize > 0 ) {
+			return chunkScoreDoc( index );
+		}
 
 		// TODO - Is there a better way to get more TopDocs? Get more or less?
 		if ( index >= topDocs.scoreDocs.length ) {
-			updateTopDocs( 2 * index );
+			updateTopDocs( 2 * index, after );
 		}
 		//if the refresh timed out, raise an exception
 		if ( timeoutManager.isTimedOut() && index >= topDocs.scoreDocs.length ) {
@@ -159,6 +352,50 @@ public class QueryHits {
 		return topDocs.scoreDocs[index];
 	}
 
+	private ScoreDoc chunkScoreDoc(int index) throws IOException {
+		int chunk = index / chunkSize;
+		if ( chunk != currentChunk ) {
+			moveToChunk( chunk );
+		}
+		int position = index - chunk * chunkSize;
+		if ( position >= topDocs.scoreDocs.length ) {
+			//the chunk search timed out
+			throw timeoutExceptionFactory.createTimeoutException(
+					"Timeout period exceeded. Cannot load document: " + index,
+					preparedQuery
+			);
+		}
+		return topDocs.scoreDocs[position];
+	}
+
+	private void moveToChunk(int chunk) throws IOException {
+		if ( chunk < chunkCursors.size() ) {
+			currentChunk = chunk;
+			updateTopDocs( chunkSize, chunkCursors.get( chunk ) );
+			return;
+		}
+		// the chunk start is unknown: move forward from the last known chunk
+		int lastKnownChunk = chunkCursors.size() - 1;
+		if ( currentChunk != lastKnownChunk ) {
+			currentChunk = lastKnownChunk;
+			updateTopDocs( chunkSize, chunkCursors.get( lastKnownChunk ) );
+		}
+		while ( currentChunk < chunk ) {
+			ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+			if ( scoreDocs.length < chunkSize ) {
+				//the chunk search timed out
+				throw timeoutExceptionFactory.createTimeoutException(
+						"Timeout period exceeded. Cannot load chunk of documents: " + chunk,
+						preparedQuery
+				);
+			}
+			ScoreDoc cursor = scoreDocs[scoreDocs.length - 1];
+			chunkCursors.add( cursor );
+			currentChunk++;
+			updateTopDocs( chunkSize, cursor );
+		}
+	}
+
 	public int docId(int index) throws IOException {
 		return scoreDoc( index ).doc;
 	}
@@ -177,6 +414,14 @@ public class QueryHits {
 		return totalHits;
 	}
 
+	/**
+	 * @return the number of hits which can be iterated on: the hits sorted after the cursor hit
+	 * if there is one, all hits otherwise
+	 */
+	public int getHitsAfterCursor() {
+		return hitsAfterCursor;
+	}
+
 	public TopDocs getTopDocs() {
 		return topDocs;
 	}
@@ -192,15 +437,27 @@ public class QueryHits {
 	 * @param n the number of {@code TopDoc}s to retrieve. The actual retrieved number of {@code TopDoc}s is n or the
 	 * total number of documents if {@code n > maxDoc}
 	 *
+	 * @param cursor if not null, only the hits sorted after this one are retrieved
+	 *
 	 * @throws IOException in case a search exception occurs
 	 */
-	private void updateTopDocs(int n) throws IOException {
+	private void updateTopDocs(int n, ScoreDoc cursor) throws IOException {
 		int totalMaxDocs = searcher.getSearcher().maxDoc();
 		final int maxDocs = Math.min( n, totalMaxDocs );
 		final Weight weight = preparedQuery.weight( searcher.getSearcher() );
 
+		// shard results can't be merged when skipping the hits before the cursor
+		IndexReader[] shardReaders = cursor == null ? getShardReadersForParallelSearch() : null;
+		if ( shardReaders != null ) {
+			searchShardsInParallel( shardReaders, weight, totalMaxDocs, maxDocs );
+			this.hitsAfterCursor = totalHits;
+			timeoutManager.isTimedOut();
+			return;
+		}
+
 		final TopDocsCollector<?> topDocCollector;
 		final TotalHitCountCollector hitCountCollector;
+		SearchAfterCollector searchAfterCollector = null;
 		Collector collector = null;
 		if ( maxDocs != 0 ) {
 			topDocCollector = createTopDocCollector( maxDocs, weight );
@@ -208,6 +465,10 @@ public class QueryHits {
 			collector = topDocCollector;
 			collector = optionallyEnableFieldCacheOnTypes( collector, totalMaxDocs, maxDocs );
 			collector = optionallyEnableFieldCacheOnIds( collector, totalMaxDocs, maxDocs );
+			if ( cursor != null ) {
+				searchAfterCollector = new SearchAfterCollector( collector, sort, cursor );
+				collector = searchAfterCollector;
+			}
 			collector = optionallyEnableFacetingCollectors( collector );
 		}
 		else {
@@ -215,12 +476,15 @@ public class QueryHits {
 			hitCountCollector = new TotalHitCountCollector();
 			collector = hitCountCollector;
 		}
+
+		// when counting drill sideways facets, the hits not matching their selected facets are also collected
+		Filter searchFilter = collector instanceof DrillSidewaysCollector ? drillSidewaysFilter : filter;
 		collector = decorateWithTimeOutCollector( collector );
 
 		boolean timeoutNow = isImmediateTimeout();
 		if ( !timeoutNow ) {
 			try {
-				searcher.getSearcher().search( weight, filter, collector );
+				searcher.getSearcher().search( weight, searchFilter, collector );
 			}
 			catch ( TimeLimitingCollector.TimeExceededException e ) {
 				//we have reached the time limit and stopped before the end
@@ -232,7 +496,16 @@ public class QueryHits {
 		// update top docs and totalHits
 		if ( maxDocs != 0 ) {
 			this.topDocs = topDocCollector.topDocs();
-			this.totalHits = topDocs.totalHits;
+			if ( searchAfterCollector != null ) {
+				this.totalHits = searchAfterCollector.getTotalHits();
+				if ( chunkSize <= 0 || cursor == after ) {
+					this.hitsAfterCursor = topDocs.totalHits;
+				}
+			}
+			else {
+				this.totalHits = topDocs.totalHits;
+				this.hitsAfterCursor = totalHits;
+			}
 			// if we were collecting facet data we have to update our instance state
 			if ( facetCollectors != null && !facetCollectors.isEmpty() ) {
 				facetMap = new HashMap<String, List<Facet>>();
@@ -244,23 +517,201 @@ public class QueryHits {
 		else {
 			this.topDocs = null;
 			this.totalHits = hitCountCollector.getTotalHits();
+			this.hitsAfterCursor = totalHits;
 		}
 		timeoutManager.isTimedOut();
 	}
 
+	/**
+	 * @return the readers of the shards to search in parallel, or null if the search should happen on the current thread
+	 */
+	private IndexReader[] getShardReadersForParallelSearch() {
+		if ( shardSearchExecutor == null ) {
+			return null;
+		}
+		IndexReader reader = searcher.getSearcher().getIndexReader();
+		if ( !( reader instanceof CacheableMultiReader ) ) {
+			return null;
+		}
+		IndexReader[] shardReaders = reader.getSequentialSubReaders();
+		return shardReaders.length > 1 ? shardReaders : null;
+	}
+
+	/**
+	 * Searches each shard with its own collectors, one shard on the current thread and the others
+	 * on the shard search executor, then merges the top documents, total hits and facet counts.
+	 * Documents ids are relative to the whole MultiReader, as when searching sequentially.
+	 */
+	private void searchShardsInParallel(IndexReader[] shardReaders, Weight weight, int totalMaxDocs, int maxDocs)
+			throws IOException {
+		Object classTypeValues = maxDocs != 0 && enableFieldCacheOnClassName
+				? FieldCacheCollectorFactory.CLASS_TYPE_FIELD_CACHE_COLLECTOR_FACTORY.createValueContainer( totalMaxDocs )
+				: null;
+		Object idValues = maxDocs != 0 && idFieldCollectorFactory != null
+				? idFieldCollectorFactory.createValueContainer( totalMaxDocs )
+				: null;
+		Long timeoutLeft = null;
+		long timeoutBaseline = 0;
+		if ( timeoutManager.getType() == TimeoutManager.Type.LIMIT ) {
+			timeoutLeft = timeoutManager.getTimeoutLeftInMilliseconds();
+		}
+		if ( timeoutLeft != null ) {
+			// all shards share the same deadline, even the ones waiting for an executor thread
+			timeoutBaseline = timeoutManager.getLuceneTimeoutCounter().get();
+		}
+		ShardSearch[] shardSearches = new ShardSearch[shardReaders.length];
+		int docBase = 0;
+		for ( int i = 0; i < shardReaders.length; i++ ) {
+			shardSearches[i] = new ShardSearch(
+					shardReaders[i], docBase, weight, maxDocs, classTypeValues, idValues, timeoutLeft, timeoutBaseline
+			);
+			docBase += shardReaders[i].maxDoc();
+		}
+
+		if ( !isImmediateTimeout() ) {
+			runShardSearches( shardSearches );
+		}
+
+		boolean timedOut = false;
+		for ( ShardSearch shardSearch : shardSearches ) {
+			timedOut = timedOut || shardSearch.timedOut;
+		}
+		if ( timedOut ) {
+			//at least one shard reached the time limit and stopped before the end
+			timeoutManager.forceTimedOut();
+		}
+
+		if ( maxDocs != 0 ) {
+			TopDocs[] shardTopDocs = new TopDocs[shardSearches.length];
+			for ( int i = 0; i < shardSearches.length; i++ ) {
+				shardTopDocs[i] = shardSearches[i].topDocCollector.topDocs();
+			}
+			this.topDocs = TopDocs.merge( sort, maxDocs, shardTopDocs );
+			this.totalHits = topDocs.totalHits;
+			// the collectors of all shards share the same values
+			this.classTypeCollector = shardSearches[0].classTypeCollector;
+			this.idFieldCollector = shardSearches[0].idFieldCollector;
+			List<FacetCollector> mergedFacetCollectors = shardSearches[0].facetCollectors;
+			if ( mergedFacetCollectors != null ) {
+				facetMap = new HashMap<String, List<Facet>>();
+				for ( int i = 0; i < mergedFacetCollectors.size(); i++ ) {
+					FacetCollector facetCollector = mergedFacetCollectors.get( i );
+					for ( int shard = 1; shard < shardSearches.length; shard++ ) {
+						facetCollector.mergeCounts( shardSearches[shard].facetCollectors.get( i ) );
+					}
+					facetMap.put( facetCollector.getFacetName(), facetCollector.getFacetList() );
+				}
+			}
+		}
+		else {
+			this.topDocs = null;
+			int hits = 0;
+			for ( ShardSearch shardSearch : shardSearches ) {
+				hits += shardSearch.hitCountCollector.getTotalHits();
+			}
+			this.totalHits = hits;
+		}
+	}
+
+	/**
+	 * Runs the first shard search on the current thread and the others on the executor.
+	 * Always waits for all of them, as they use IndexReaders which are closed after the query.
+	 */
+	private void runShardSearches(ShardSearch[] shardSearches) throws IOException {
+		List<Future<Void>> futures = new ArrayList<Future<Void>>( shardSearches.length - 1 );
+		for ( int i = 1; i < shardSearches.length; i++ ) {
+			futures.add( shardSearchExecutor.submit( shardSearches[i] ) );
+		}
+		Throwable failure = null;
+		try {
+			shardSearches[0].call();
+		}
+		catch (Throwable e) {
+			failure = e;
+		}
+		boolean interrupted = false;
+		for ( Future<Void> future : futures ) {
+			while ( true ) {
+				try {
+					future.get();
+					break;
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+				catch (ExecutionException e) {
+					if ( failure == null ) {
+						failure = e.getCause();
+					}
+					break;
+				}
+			}
+		}
+		if ( interrupted ) {
+			Thread.currentThread().interrupt();
+		}
+		if ( failure instanceof IOException ) {
+			throw (IOException) failure;
+		}
+		else if ( failure instanceof RuntimeException ) {
+			throw (RuntimeException) failure;
+		}
+		else if ( failure instanceof Error ) {
+			throw (Error) failure;
+		}
+		else if ( failure != null ) {
+			throw new SearchException( "Unable to search index shards", failure );
+		}
+	}
+
 	private Collector optionallyEnableFacetingCollectors(Collector collector) {
 		if ( facetRequests == null || facetRequests.isEmpty() ) {
 			return collector;
 		}
+		if ( facetMap != null ) {
+			// facets were counted by a previous search of the same hits
+			return collector;
+		}
 		facetCollectors = new ArrayList<FacetCollector>();
+		return createFacetingCollectors( collector, facetCollectors );
+	}
+
+	/**
+	 * Creates a {@code FacetCollector} for each faceting request, in the order of the requests: the ones
+	 * counted sideways only get the hits passed to them by a {@code DrillSidewaysCollector}.
+	 *
+	 * @param collector the collector of the hits
+	 * @param facetCollectors the list to add the created facet collectors to
+	 *
+	 * @return the collector to search with, a {@code DrillSidewaysCollector} if some faceting requests are counted sideways
+	 */
+	private Collector createFacetingCollectors(Collector collector, List<FacetCollector> facetCollectors) {
 		Collector nextInChain = collector;
+		List<Filter> dimensionFilters = new ArrayList<Filter>();
+		List<Collector> sidewaysCollectors = new ArrayList<Collector>();
 		for ( FacetingRequestImpl entry : facetRequests.values() ) {
-			FacetCollector facetCollector = new FacetCollector( nextInChain, entry );
-			nextInChain = facetCollector;
+			Filter dimensionFilter = drillSidewaysFilters != null ? drillSidewaysFilters.get( entry.getFacetingName() ) : null;
+			FacetCollector facetCollector;
+			if ( dimensionFilter == null ) {
+				facetCollector = new FacetCollector( nextInChain, entry );
+				nextInChain = facetCollector;
+			}
+			else {
+				// the hits of a sideways dimension are only counted
+				facetCollector = new FacetCollector( new TotalHitCountCollector(), entry );
+				dimensionFilters.add( dimensionFilter );
+				sidewaysCollectors.add( facetCollector );
+			}
 			facetCollectors.add( facetCollector );
 		}
-
-		return facetCollectors.get( facetCollectors.size() - 1 );
+		if ( dimensionFilters.isEmpty() ) {
+			return nextInChain;
+		}
+		return new DrillSidewaysCollector(
+				nextInChain,
+				dimensionFilters.toArray( new Filter[dimensionFilters.size()] ),
+				sidewaysCollectors.toArray( new Collector[sidewaysCollectors.size()] )
+		);
 	}
 
 	private boolean isImmediateTimeout() {
@@ -284,6 +735,20 @@ public class QueryHits {
 		return timeoutAt0;
 	}
 
+	/**
+	 * @param timeoutBaseline the value of the timeout counter the time allowed starts from: otherwise
+	 * the TimeLimitingCollector would start counting when it first visits a segment
+	 */
+	private Collector decorateWithTimeOutCollector(Collector collector, Long timeoutLeft, long timeoutBaseline) {
+		if ( timeoutLeft == null ) {
+			return collector;
+		}
+		Counter counter = timeoutManager.getLuceneTimeoutCounter();
+		TimeLimitingCollector timeLimitingCollector = new TimeLimitingCollector( collector, counter, timeoutLeft );
+		timeLimitingCollector.setBaseline( timeoutBaseline );
+		return timeLimitingCollector;
+	}
+
 	private Collector decorateWithTimeOutCollector(Collector collector) {
 		Collector maybeTimeLimitingCollector = collector;
 		if ( timeoutManager.getType() == TimeoutManager.Type.LIMIT ) {
@@ -335,6 +800,108 @@ public class QueryHits {
 		}
 	}
 
+	/**
+	 * The search of a single shard, with its own collectors. It doesn't access the
+	 * {@code TimeoutManager}, which is not thread safe.
+	 */
+	private final class ShardSearch implements Callable<Void> {
+
+		private final IndexReader shardReader;
+		private final int docBase;
+		private final Weight weight;
+		private final TopDocsCollector<?> topDocCollector;
+		private final TotalHitCountCollector hitCountCollector;
+		private FieldCacheCollector classTypeCollector;
+		private FieldCacheCollector idFieldCollector;
+		private List<FacetCollector> facetCollectors;
+		private final Collector collector;
+		private final Filter searchFilter;
+		private boolean timedOut = false;
+
+		ShardSearch(IndexReader shardReader, int docBase, Weight weight, int maxDocs,
+					Object classTypeValues, Object idValues, Long timeoutLeft, long timeoutBaseline) throws IOException {
+			this.shardReader = shardReader;
+			this.docBase = docBase;
+			this.weight = weight;
+			Collector chain;
+			if ( maxDocs != 0 ) {
+				topDocCollector = createTopDocCollector( Math.min( maxDocs, Math.max( 1, shardReader.maxDoc() ) ), weight );
+				hitCountCollector = null;
+				chain = topDocCollector;
+				if ( classTypeValues != null ) {
+					classTypeCollector = FieldCacheCollectorFactory
+							.CLASS_TYPE_FIELD_CACHE_COLLECTOR_FACTORY
+							.createFieldCollector( chain, classTypeValues );
+					chain = classTypeCollector;
+				}
+				if ( idValues != null ) {
+					idFieldCollector = idFieldCollectorFactory.createFieldCollector( chain, idValues );
+					chain = idFieldCollector;
+				}
+				if ( facetRequests != null && !facetRequests.isEmpty() ) {
+					facetCollectors = new ArrayList<FacetCollector>();
+					chain = createFacetingCollectors( chain, facetCollectors );
+				}
+			}
+			else {
+				topDocCollector = null;
+				hitCountCollector = new TotalHitCountCollector();
+				chain = hitCountCollector;
+			}
+			this.searchFilter = chain instanceof DrillSidewaysCollector ? drillSidewaysFilter : filter;
+			this.collector = decorateWithTimeOutCollector( chain, timeoutLeft, timeoutBaseline );
+		}
+
+		@Override
+		public Void call() throws IOException {
+			IndexSearcher shardSearcher = new IndexSearcher( shardReader );
+			shardSearcher.setSimilarity( searcher.getSearcher().getSimilarity() );
+			try {
+				shardSearcher.search( weight, searchFilter, new DocBaseShiftingCollector( collector, docBase ) );
+			}
+			catch ( TimeLimitingCollector.TimeExceededException e ) {
+				timedOut = true;
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * Makes the document ids collected on a shard relative to the whole MultiReader.
+	 */
+	private static final class DocBaseShiftingCollector extends Collector {
+
+		private final Collector delegate;
+		private final int shift;
+
+		DocBaseShiftingCollector(Collector delegate, int shift) {
+			this.delegate = delegate;
+			this.shift = shift;
+		}
+
+		@Override
+		public void setScorer(Scorer scorer) throws IOException {
+			delegate.setScorer( scorer );
+		}
+
+		@Override
+		public void collect(int doc) throws IOException {
+			delegate.collect( doc );
+		}
+
+		@Override
+		public void setNextReader(IndexReader reader, int docBase) throws IOException {
+			delegate.setNextReader( reader, shift + docBase );
+		}
+
+		@Override
+		public boolean acceptsDocsOutOfOrder() {
+			return delegate.acceptsDocsOutOfOrder();
+		}
+
+	}
+
 	public FieldCacheCollector getClassTypeCollector() {
 		return classTypeCollector;
 	}
@@ -0,0 +1,225 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.hibernate.search.query.engine.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+
+import org.hibernate.search.query.facet.Facet;
+import org.hibernate.search.reader.impl.CacheableMultiReader;
+import org.hibernate.search.util.impl.LRUMap;
+
+/**
+ * Keeps the results of the most recently executed queries: the top documents, the number of hits
+ * and the facets. A result is only reused by the same query on the same version of each index it
+ * targets, so changing an index makes the cached results of the queries targeting it unreachable;
+ * they are then evicted as the least recently used ones.
+ *
+ * @since 4.1
+ */
+public final class QueryResultCache {
+
+	private final LRUMap results;
+
+	/**
+	 * @param maxEntries the maximum number of query results kept
+	 */
+	public QueryResultCache(int maxEntries) {
+		this.results = new LRUMap( maxEntries );
+	}
+
+	public synchronized Result get(Key key) {
+		return (Result) results.get( key );
+	}
+
+	public synchronized void put(Key key, Result result) {
+		putResult( key, result );
+	}
+
+	public synchronized int size() {
+		return results.size();
+	}
+
+	public synchronized void clear() {
+		results.clear();
+	}
+
+	// LRUMap is a raw Map
+	@SuppressWarnings("unchecked")
+	private void putResult(Key key, Result result) {
+		results.put( key, result );
+	}
+
+	/**
+	 * @param reader the reader searched by a query
+	 *
+	 * @return the directory and version of each index read by the reader, or {@code null}
+	 * if one of them can't be identified, in which case the query results can't be cached
+	 */
+	static Object[] getIndexVersions(IndexReader reader) {
+		IndexReader[] indexReaders = reader instanceof CacheableMultiReader
+				? reader.getSequentialSubReaders()
+				: new IndexReader[] { reader };
+		Object[] versions = new Object[indexReaders.length * 2];
+		try {
+			for ( int i = 0; i < indexReaders.length; i++ ) {
+				versions[2 * i] = indexReaders[i].directory();
+				versions[2 * i + 1] = indexReaders[i].getVersion();
+			}
+		}
+		catch (UnsupportedOperationException e) {
+			return null;
+		}
+		return versions;
+	}
+
+	/**
+	 * Identifies the results of a query: everything changing the top documents, the number of hits
+	 * or the facets is part of the key. The query and sort are copied, so that changing them after
+	 * the query was executed doesn't change the key.
+	 */
+	public static final class Key {
+		private final Query query;
+		private final Sort sort;
+		private final Set<Class<?>> targetedClasses;
+		private final Map<String, Map<String, Object>> fullTextFilters;
+		private final Filter userFilter;
+		private final Filter facetFilter;
+		private final List<String> facetRequests;
+		private final int maxDocs;
+		private final Object[] indexVersions;
+		private final int hashCode;
+
+		/**
+		 * @param query the query, including the restriction on the targeted classes
+		 * @param sort the sort, or null if sorted by relevance
+		 * @param targetedClasses the classes (and subclasses) targeted by the query
+		 * @param fullTextFilters the parameters of each enabled full-text filter, by filter name
+		 * @param userFilter the Lucene filter set on the query, or null
+		 * @param facetFilter the filter of the selected facets, or null
+		 * @param facetRequests the description of each faceting request
+		 * @param maxDocs the number of top documents retrieved, 0 if only hits are counted
+		 * @param indexVersions as returned by {@link QueryResultCache#getIndexVersions(IndexReader)}
+		 */
+		public Key(Query query, Sort sort, Set<Class<?>> targetedClasses,
+				Map<String, Map<String, Object>> fullTextFilters, Filter userFilter, Filter facetFilter,
+				List<String> facetRequests, int maxDocs, Object[] indexVersions) {
+			this.query = (Query) query.clone();
+			this.sort = sort != null ? new Sort( sort.getSort().clone() ) : null;
+			this.targetedClasses = targetedClasses;
+			this.fullTextFilters = fullTextFilters;
+			this.userFilter = userFilter;
+			this.facetFilter = facetFilter;
+			this.facetRequests = facetRequests;
+			this.maxDocs = maxDocs;
+			this.indexVersions = indexVersions;
+			int hash = this.query.hashCode();
+			hash = 31 * hash + ( this.sort != null ? this.sort.hashCode() : 0 );
+			hash = 31 * hash + targetedClasses.hashCode();
+			hash = 31 * hash + fullTextFilters.hashCode();
+			hash = 31 * hash + ( userFilter != null ? userFilter.hashCode() : 0 );
+			hash = 31 * hash + ( facetFilter != null ? facetFilter.hashCode() : 0 );
+			hash = 31 * hash + facetRequests.hashCode();
+			hash = 31 * hash + maxDocs;
+			hash = 31 * hash + Arrays.hashCode( indexVersions );
+			this.hashCode = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if ( this == o ) {
+				return true;
+			}
+			if ( !( o instanceof Key ) ) {
+				return false;
+			}
+			Key other = (Key) o;
+			return hashCode == other.hashCode
+					&& maxDocs == other.maxDocs
+					&& Arrays.equals( indexVersions, other.indexVersions )
+					&& query.equals( other.query )
+					&& ( sort == null ? other.sort == null : sort.equals( other.sort ) )
+					&& targetedClasses.equals( other.targetedClasses )
+					&& fullTextFilters.equals( other.fullTextFilters )
+					&& ( userFilter == null ? other.userFilter == null : userFilter.equals( other.userFilter ) )
+					&& ( facetFilter == null ? other.facetFilter == null : facetFilter.equals( other.facetFilter ) )
+					&& facetRequests.equals( other.facetRequests );
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * The cached results of a query. The facets are copied into unmodifiable lists,
+	 * as the same instances are returned to all the queries reusing the result.
+	 */
+	public static final class Result {
+		private final TopDocs topDocs;
+		private final int totalHits;
+		private final Map<String, List<Facet>> facets;
+
+		/**
+		 * @param topDocs the top documents, or null if only hits were counted
+		 * @param totalHits the number of hits
+		 * @param facets the facets by faceting request name, or null if there is no faceting request
+		 */
+		public Result(TopDocs topDocs, int totalHits, Map<String, List<Facet>> facets) {
+			this.topDocs = topDocs;
+			this.totalHits = totalHits;
+			this.facets = facets != null ? copyOf( facets ) : null;
+		}
+
+		public TopDocs getTopDocs() {
+			return topDocs;
+		}
+
+		public int getTotalHits() {
+			return totalHits;
+		}
+
+		public Map<String, List<Facet>> getFacets() {
+			return facets;
+		}
+
+		private static Map<String, List<Facet>> copyOf(Map<String, List<Facet>> facets) {
+			Map<String, List<Facet>> copy = new HashMap<String, List<Facet>>( facets.size() );
+			for ( Map.Entry<String, List<Facet>> entry : facets.entrySet() ) {
+				copy.put( entry.getKey(), Collections.unmodifiableList( new ArrayList<Facet>( entry.getValue() ) ) );
+			}
+			return Collections.unmodifiableMap( copy );
+		}
+	}
+
+}
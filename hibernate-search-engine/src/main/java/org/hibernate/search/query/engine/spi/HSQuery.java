@@ -26,6 +26,7 @@ import java.util.Set;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
 import org.hibernate.search.FullTextFilter;
@@ -150,6 +151,25 @@ public interface HSQuery extends ProjectionConstants {
 	 */
 	HSQuery maxResults(int maxResults);
 
+	/**
+	 * Only retrieve the elements sorted after the given hit, usually the last hit of the previous page
+	 * as returned by {@link #getLastScoreDoc()}. Unlike {@link #firstResult(int)}, the cost of fetching
+	 * a page then doesn't grow with its offset; the first result index is relative to this hit.
+	 * Sorted queries must be sorted by relevance, document order or fields cached by the Lucene
+	 * {@code FieldCache}, and the given hit must be a {@code FieldDoc} holding the sort values.
+	 *
+	 * @param lastScoreDoc the hit after which elements are retrieved, or {@code null} to start from the first hit
+	 *
+	 * @return {@code this} in order to allow method chaining
+	 */
+	HSQuery searchAfter(ScoreDoc lastScoreDoc);
+
+	/**
+	 * @return the last hit returned by the last call to {@link #queryEntityInfos()}, to pass to
+	 * {@link #searchAfter(ScoreDoc)} to retrieve the next page, or {@code null} if there was no hit
+	 */
+	ScoreDoc getLastScoreDoc();
+
 	/**
 	 * @return the targeted entity types
 	 */
@@ -200,6 +220,17 @@ public interface HSQuery extends ProjectionConstants {
 	 */
 	DocumentExtractor queryDocumentExtractor();
 
+	/**
+	 * Same as {@link #queryDocumentExtractor()}, except that the hits are fetched in chunks of the given size
+	 * while iterating, so that only the current chunk is kept in memory. Meant for a forward iteration
+	 * over a large number of results: going back to a previous chunk executes the query again.
+	 *
+	 * @param chunkSize the number of hits fetched at a time
+	 *
+	 * @return the {@code DocumentExtractor} instance
+	 */
+	DocumentExtractor queryStreamingDocumentExtractor(int chunkSize);
+
 	/**
 	 * @return the number of hits for this search
 	 *         <p/>
@@ -29,9 +29,9 @@ import org.apache.lucene.search.FieldCache;
  * to be able to deal with arrays of primitive values without autoboxing all of them.
  *
  * @author Sanne Grinovero <sanne@hibernate.org> (C) 2011 Red Hat Inc.
- * @see FieldLoadingStrategy
+ * @see PrimitiveFieldLoadingStrategy
  */
-public final class DoubleFieldLoadingStrategy implements FieldLoadingStrategy {
+public final class DoubleFieldLoadingStrategy implements PrimitiveFieldLoadingStrategy {
 	private final String fieldName;
 	private double[] currentCache;
 
@@ -46,4 +46,12 @@ public final class DoubleFieldLoadingStrategy implements FieldLoadingStrategy {
 	public Double collect(int relativeDocId) {
 		return currentCache[relativeDocId];
 	}
+
+	public long collectAsLong(int relativeDocId) {
+		return Double.doubleToRawLongBits( currentCache[relativeDocId] );
+	}
+
+	public Double decode(long encodedValue) {
+		return Double.longBitsToDouble( encodedValue );
+	}
 }
@@ -0,0 +1,98 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.query.fieldcache.impl;
+
+import org.hibernate.search.bridge.TwoWayStringBridge;
+
+/**
+ * Describes a projectable field whose value can be read from the {@code FieldCache}
+ * instead of from the stored {@code Document}: the field name, the kind of cache to use,
+ * and the bridge converting the indexed term back into the projected value, if any.
+ *
+ * @since 4.1
+ * @see PerSegmentFieldCacheReader
+ */
+public final class FieldCacheProjection {
+
+	private final String fieldName;
+	private final FieldCacheLoadingType type;
+	private final TwoWayStringBridge twoWayStringBridge;
+
+	public FieldCacheProjection(String fieldName, FieldCacheLoadingType type, TwoWayStringBridge twoWayStringBridge) {
+		if ( fieldName == null ) {
+			throw new IllegalArgumentException( "fieldName is mandatory" );
+		}
+		if ( type == null ) {
+			throw new IllegalArgumentException( "type is mandatory" );
+		}
+		this.fieldName = fieldName;
+		this.type = type;
+		this.twoWayStringBridge = twoWayStringBridge;
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	public FieldCacheLoadingType getType() {
+		return type;
+	}
+
+	/**
+	 * @param cachedValue the value as read from the {@code FieldCache}, {@code null} if the document has none
+	 *
+	 * @return the projected value
+	 */
+	public Object convert(Object cachedValue) {
+		if ( twoWayStringBridge == null || cachedValue == null ) {
+			return cachedValue;
+		}
+		return twoWayStringBridge.stringToObject( (String) cachedValue );
+	}
+
+	// HashCode and Equals are used to detect the same projection applied on different indexed classes
+	@Override
+	public int hashCode() {
+		int result = fieldName.hashCode();
+		result = 31 * result + type.hashCode();
+		result = 31 * result + ( twoWayStringBridge == null ? 0 : twoWayStringBridge.getClass().hashCode() );
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		if ( obj == null || getClass() != obj.getClass() ) {
+			return false;
+		}
+		FieldCacheProjection other = (FieldCacheProjection) obj;
+		if ( !fieldName.equals( other.fieldName ) || type != other.type ) {
+			return false;
+		}
+		if ( twoWayStringBridge == null ) {
+			return other.twoWayStringBridge == null;
+		}
+		return other.twoWayStringBridge != null
+				&& twoWayStringBridge.getClass() == other.twoWayStringBridge.getClass();
+	}
+
+}
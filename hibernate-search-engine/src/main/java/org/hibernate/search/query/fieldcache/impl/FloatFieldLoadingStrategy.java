@@ -29,9 +29,9 @@ import org.apache.lucene.search.FieldCache;
  * to be able to deal with arrays of primitive values without autoboxing all of them.
  *
  * @author Sanne Grinovero <sanne@hibernate.org> (C) 2011 Red Hat Inc.
- * @see FieldLoadingStrategy
+ * @see PrimitiveFieldLoadingStrategy
  */
-public final class FloatFieldLoadingStrategy implements FieldLoadingStrategy {
+public final class FloatFieldLoadingStrategy implements PrimitiveFieldLoadingStrategy {
 	private final String fieldName;
 	private float[] currentCache;
 
@@ -46,4 +46,12 @@ public final class FloatFieldLoadingStrategy implements FieldLoadingStrategy {
 	public Float collect(int relativeDocId) {
 		return currentCache[relativeDocId];
 	}
+
+	public long collectAsLong(int relativeDocId) {
+		return Float.floatToRawIntBits( currentCache[relativeDocId] );
+	}
+
+	public Float decode(long encodedValue) {
+		return Float.intBitsToFloat( (int) encodedValue );
+	}
 }
@@ -0,0 +1,130 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.query.fieldcache.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.ReaderUtil;
+
+/**
+ * Reads field values of single documents out of the {@code FieldCache} of the index segment
+ * containing them, addressing documents by their id in the top level {@code IndexReader}.
+ * As the caches are per segment, they are shared with sorting and with the
+ * {@code FieldCacheCollector}s and survive reopening the index.
+ *
+ * Instances are not thread safe and are meant to be used for the extraction of
+ * the results of a single query.
+ *
+ * @since 4.1
+ */
+public final class PerSegmentFieldCacheReader {
+
+	private final IndexReader[] segments;
+	private final int[] docStarts;
+	private final Map<String, SegmentValues> valuesPerField = new HashMap<String, SegmentValues>();
+
+	/**
+	 * @param topReader the reader used by the query: document ids are relative to it
+	 */
+	public PerSegmentFieldCacheReader(IndexReader topReader) {
+		List<IndexReader> subReaders = new ArrayList<IndexReader>();
+		ReaderUtil.gatherSubReaders( subReaders, topReader );
+		this.segments = subReaders.toArray( new IndexReader[subReaders.size()] );
+		this.docStarts = new int[segments.length];
+		int maxDoc = 0;
+		for ( int i = 0; i < segments.length; i++ ) {
+			docStarts[i] = maxDoc;
+			maxDoc += segments[i].maxDoc();
+		}
+	}
+
+	/**
+	 * @param projection the field to read
+	 * @param docId the document id in the top level reader
+	 *
+	 * @return the converted value of the field, or {@code null} if the document has none
+	 *
+	 * @throws IOException if the cache of the segment can't be loaded
+	 */
+	public Object getValue(FieldCacheProjection projection, int docId) throws IOException {
+		return projection.convert( getCachedValue( projection.getFieldName(), projection.getType(), docId ) );
+	}
+
+	/**
+	 * @param fieldName the field to read
+	 * @param type the kind of cache to read it from
+	 * @param docId the document id in the top level reader
+	 *
+	 * @return the value of the field as found in the cache, or {@code null} if the document has none
+	 *
+	 * @throws IOException if the cache of the segment can't be loaded
+	 */
+	public Object getCachedValue(String fieldName, FieldCacheLoadingType type, int docId) throws IOException {
+		SegmentValues values = valuesPerField.get( fieldName );
+		if ( values == null ) {
+			values = new SegmentValues( fieldName, type );
+			valuesPerField.put( fieldName, values );
+		}
+		int segment = ReaderUtil.subIndex( docId, docStarts );
+		return values.get( segment, docId - docStarts[segment] );
+	}
+
+	/**
+	 * The caches of a single field, loaded lazily for the segments which are actually hit.
+	 */
+	private final class SegmentValues {
+		private final String fieldName;
+		private final FieldCacheLoadingType type;
+		private final FieldLoadingStrategy[] strategies;
+		private final Bits[] docsWithField;
+
+		SegmentValues(String fieldName, FieldCacheLoadingType type) {
+			this.fieldName = fieldName;
+			this.type = type;
+			this.strategies = new FieldLoadingStrategy[segments.length];
+			// numeric caches return 0 for documents not having the field:
+			this.docsWithField = type == FieldCacheLoadingType.STRING ? null : new Bits[segments.length];
+		}
+
+		Object get(int segment, int relativeDocId) throws IOException {
+			FieldLoadingStrategy strategy = strategies[segment];
+			if ( strategy == null ) {
+				strategy = type.createLoadingStrategy( fieldName );
+				strategy.loadNewCacheValues( segments[segment] );
+				strategies[segment] = strategy;
+				if ( docsWithField != null ) {
+					docsWithField[segment] = FieldCache.DEFAULT.getDocsWithField( segments[segment], fieldName );
+				}
+			}
+			if ( docsWithField != null && !docsWithField[segment].get( relativeDocId ) ) {
+				return null;
+			}
+			return strategy.collect( relativeDocId );
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.query.fieldcache.impl;
+
+/**
+ * A {@link FieldLoadingStrategy} for numeric fields, able to return cached values
+ * without boxing them: collectors can store them in primitive arrays, and convert
+ * them into objects only for the documents actually returned.
+ * All numeric types are encoded in a {@code long}, floating point values by their bits.
+ *
+ * @since 4.1
+ * @see org.hibernate.search.query.collector.impl.FieldCacheCollectorFactory
+ */
+public interface PrimitiveFieldLoadingStrategy extends FieldLoadingStrategy {
+
+	/**
+	 * @param relativeDocId the doc id relative to the current reader
+	 *
+	 * @return the cached field value for the document with the relative id {@code relativeDocId}, encoded in a {@code long}
+	 */
+	public long collectAsLong(int relativeDocId);
+
+	/**
+	 * @param encodedValue a value as returned by {@link #collectAsLong(int)}
+	 *
+	 * @return the value as it would have been returned by {@link #collect(int)}
+	 */
+	public Object decode(long encodedValue);
+}
@@ -37,11 +37,13 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.search.Similarity;
 import org.hibernate.search.backend.impl.BatchedQueueingProcessor;
 import org.hibernate.search.backend.impl.QueueingProcessor;
 import org.hibernate.search.backend.impl.WorkerFactory;
+import org.hibernate.search.batchindexing.impl.Executors;
 import org.hibernate.search.engine.impl.DefaultTimingSource;
 import org.hibernate.search.engine.impl.FilterDef;
 import org.hibernate.search.engine.impl.MutableEntityIndexBinding;
@@ -91,6 +93,7 @@ import org.hibernate.search.impl.ReflectionReplacingSearchConfiguration;
 import org.hibernate.search.impl.SearchMappingBuilder;
 import org.hibernate.search.indexes.impl.IndexManagerHolder;
 import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.query.engine.impl.QueryResultCache;
 import org.hibernate.search.spi.internals.PolymorphicIndexHierarchy;
 import org.hibernate.search.spi.internals.SearchFactoryImplementorWithShareableState;
 import org.hibernate.search.spi.internals.SearchFactoryState;
@@ -183,8 +186,9 @@ public class SearchFactoryBuilder {
 		//update backend
 		//TODO make sure the old IndexManagers and backends are disposed - not currently a problem as we only support adding entities incrementally
 		SearchFactoryImplementorWithShareableState factory = new ImmutableSearchFactory( factoryState );
-		factoryState.setActiveSearchFactory( factory );
 		rootFactory.setDelegate( factory );
+		//the IndexManagers might need the complete SearchFactory as soon as it's set
+		factoryState.setActiveSearchFactory( factory );
 		return rootFactory;
 	}
 
@@ -241,9 +245,15 @@ public class SearchFactoryBuilder {
 						cfg.getProperties(), Environment.CACHE_DOCIDRESULTS_SIZE, CachingWrapperFilter.DEFAULT_SIZE
 				)
 		);
+		factoryState.setCacheBitResultsMaxBytes(
+				ConfigurationParseHelper.getIntValue(
+						cfg.getProperties(), Environment.CACHE_DOCIDRESULTS_MAX_BYTES, CachingWrapperFilter.DEFAULT_MAX_BYTES
+				)
+		);
 		SearchFactoryImplementorWithShareableState factory = new ImmutableSearchFactory( factoryState );
-		factoryState.setActiveSearchFactory( factory );
 		rootFactory.setDelegate( factory );
+		//the IndexManagers might need the complete SearchFactory as soon as it's set
+		factoryState.setActiveSearchFactory( factory );
 		return rootFactory;
 	}
 
@@ -335,6 +345,28 @@ public class SearchFactoryBuilder {
 		return filterCachingStrategy;
 	}
 
+	/**
+	 * @return the executor searching the indexes targeted by a query in parallel, null if disabled
+	 */
+	private static ExecutorService createShardSearchExecutor(Properties properties) {
+		int threads = ConfigurationParseHelper.getIntValue( properties, Environment.QUERY_SHARD_SEARCH_THREADS, 0 );
+		if ( threads < 1 ) {
+			return null;
+		}
+		return Executors.newFixedThreadPool( threads, "Shard search" );
+	}
+
+	/**
+	 * @return the cache of the most recent query results, null if disabled
+	 */
+	private static QueryResultCache createQueryResultCache(Properties properties) {
+		int size = ConfigurationParseHelper.getIntValue( properties, Environment.QUERY_RESULT_CACHE_SIZE, 0 );
+		if ( size < 1 ) {
+			return null;
+		}
+		return new QueryResultCache( size );
+	}
+
 	private void createCleanFactoryState(SearchConfiguration cfg) {
 		if ( rootFactory == null ) {
 			//set the mutable structure of factory state
@@ -349,6 +381,8 @@ public class SearchFactoryBuilder {
 			factoryState.setErrorHandler( createErrorHandler( cfg ) );
 			factoryState.setInstanceInitializer( cfg.getInstanceInitializer() );
 			factoryState.setTimingSource( new DefaultTimingSource() );
+			factoryState.setShardSearchExecutor( createShardSearchExecutor( cfg.getProperties() ) );
+			factoryState.setQueryResultCache( createQueryResultCache( cfg.getProperties() ) );
 			factoryState.setIndexMetadataComplete( cfg.isIndexMetadataComplete() );
 			factoryState.setTransactionManagerExpected( cfg.isTransactionManagerExpected() );
 		}
@@ -35,11 +35,13 @@ import org.hibernate.search.engine.ServiceManager;
 import org.hibernate.search.exception.ErrorHandler;
 import org.hibernate.search.filter.FilterCachingStrategy;
 import org.hibernate.search.indexes.impl.IndexManagerHolder;
+import org.hibernate.search.query.engine.impl.QueryResultCache;
 import org.hibernate.search.query.engine.spi.TimeoutExceptionFactory;
 import org.hibernate.search.spi.InstanceInitializer;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Represents the sharable state of a search factory
@@ -63,6 +65,8 @@ public interface SearchFactoryState {
 
 	int getCacheBitResultsSize();
 
+	int getCacheBitResultsMaxBytes();
+
 	Properties getConfigurationProperties();
 
 	PolymorphicIndexHierarchy getIndexHierarchy();
@@ -81,6 +85,16 @@ public interface SearchFactoryState {
 
 	TimingSource getTimingSource();
 
+	/**
+	 * @return the executor searching shards in parallel, or null if they are searched sequentially
+	 */
+	ExecutorService getShardSearchExecutor();
+
+	/**
+	 * @return the cache of the most recent query results, or null if query results are not cached
+	 */
+	QueryResultCache getQueryResultCache();
+
 	SearchMapping getProgrammaticMapping();
 
 	boolean isIndexMetadataComplete();
@@ -85,6 +85,36 @@ public interface Statistics {
 	 */
 	long getObjectsLoadedCount();
 
+	/**
+	 * Gets the total number of index segment merges
+	 */
+	long getIndexMergeCount();
+
+	/**
+	 * Get the total time in nanoseconds spent merging index segments.
+	 */
+	long getIndexMergeTotalTime();
+
+	/**
+	 * Get the time in nanoseconds of the slowest index segment merge.
+	 */
+	long getIndexMergeMaxTime();
+
+	/**
+	 * Gets the total size in bytes of the merged index segments
+	 */
+	long getIndexMergedBytes();
+
+	/**
+	 * Gets the number of query executions served by the query result cache
+	 */
+	long getQueryResultCacheHitCount();
+
+	/**
+	 * Gets the number of query executions which didn't find their results in the query result cache
+	 */
+	long getQueryResultCacheMissCount();
+
 	/**
 	 * Are statistics logged
 	 */
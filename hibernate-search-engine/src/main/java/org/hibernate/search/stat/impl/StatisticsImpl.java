@@ -66,6 +66,14 @@ public class StatisticsImpl implements Statistics, StatisticsImplementor {
 	private AtomicLong objectLoadTotalTime = new AtomicLong();
 	private AtomicLong objectLoadMaxTime = new AtomicLong();
 
+	private AtomicLong indexMergeCount = new AtomicLong();
+	private AtomicLong indexMergeTotalTime = new AtomicLong();
+	private AtomicLong indexMergeMaxTime = new AtomicLong();
+	private AtomicLong indexMergedBytes = new AtomicLong();
+
+	private AtomicLong queryResultCacheHitCount = new AtomicLong();
+	private AtomicLong queryResultCacheMissCount = new AtomicLong();
+
 	private volatile boolean isStatisticsEnabled;
 
 	private final Lock readLock;
@@ -90,6 +98,14 @@ public class StatisticsImpl implements Statistics, StatisticsImplementor {
 		objectLoadedCount.set( 0 );
 		objectLoadMaxTime.set( 0 );
 		objectLoadTotalTime.set( 0 );
+
+		indexMergeCount.set( 0 );
+		indexMergeTotalTime.set( 0 );
+		indexMergeMaxTime.set( 0 );
+		indexMergedBytes.set( 0 );
+
+		queryResultCacheHitCount.set( 0 );
+		queryResultCacheMissCount.set( 0 );
 	}
 
 	public long getSearchQueryExecutionCount() {
@@ -184,6 +200,55 @@ public class StatisticsImpl implements Statistics, StatisticsImplementor {
 		}
 	}
 
+	public long getIndexMergeCount() {
+		return indexMergeCount.get();
+	}
+
+	public long getIndexMergeTotalTime() {
+		return indexMergeTotalTime.get();
+	}
+
+	public long getIndexMergeMaxTime() {
+		return indexMergeMaxTime.get();
+	}
+
+	public long getIndexMergedBytes() {
+		return indexMergedBytes.get();
+	}
+
+	public void indexMergeExecuted(String indexName, long mergedBytes, long time) {
+		readLock.lock();
+		try {
+			for ( long old = indexMergeMaxTime.get();
+				  ( time > old ) && ( indexMergeMaxTime.compareAndSet( old, time ) );
+				  old = indexMergeMaxTime.get() ) {
+				;
+			}
+			indexMergeCount.getAndIncrement();
+			indexMergeTotalTime.addAndGet( time );
+			indexMergedBytes.addAndGet( mergedBytes );
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+
+	public long getQueryResultCacheHitCount() {
+		return queryResultCacheHitCount.get();
+	}
+
+	public long getQueryResultCacheMissCount() {
+		return queryResultCacheMissCount.get();
+	}
+
+	public void queryResultCacheHit() {
+		queryResultCacheHitCount.getAndIncrement();
+	}
+
+	public void queryResultCacheMiss() {
+		queryResultCacheMissCount.getAndIncrement();
+	}
+
 	public boolean isStatisticsEnabled() {
 		return isStatisticsEnabled;
 	}
@@ -46,4 +46,23 @@ public interface StatisticsImplementor {
 	 * @param time time in nanoseconds to execute the search
 	 */	
 	void searchExecuted(String searchString, long time);
+
+	/**
+	 * Callback for a segment merge completed by an IndexWriter.
+	 *
+	 * @param indexName name of the index being merged
+	 * @param mergedBytes size in bytes of the merged segments
+	 * @param time time in nanoseconds to execute the merge
+	 */
+	void indexMergeExecuted(String indexName, long mergedBytes, long time);
+
+	/**
+	 * Callback for a query execution served by the query result cache.
+	 */
+	void queryResultCacheHit();
+
+	/**
+	 * Callback for a query execution which didn't find its results in the query result cache.
+	 */
+	void queryResultCacheMiss();
 }
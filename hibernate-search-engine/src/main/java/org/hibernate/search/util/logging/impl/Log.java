@@ -542,4 +542,68 @@ public interface Log extends BasicLogger {
 	@LogMessage(level = TRACE)
 	@Message(id = 128, value = "Interceptor enforces update of index data instead of index operation %2$s on instance of class %1$s")
 	void forceUpdateOnIndexOperationViaInterception(Class<?> entityClass, WorkType type);
+
+	@Message(id = 129, value = "Unable to apply changes to %1$d of the %2$d indexes involved in the transaction: %3$s")
+	String unableToApplyChangesToSomeIndexes(int failedIndexes, int totalIndexes, String failedIndexesAndCauses);
+
+	@LogMessage(level = ERROR)
+	@Message(id = 130, value = "Unable to refresh the near-real-time IndexReader of index '%1$s'")
+	void unableToRefreshNRTIndexReader(String indexName, @Cause Throwable e);
+
+	@Message(id = 131, value = "Invalid overflow policy '%2$s' for index '%1$s': use 'block', 'caller_runs' or 'spill'")
+	SearchException invalidOverflowPolicy(String indexName, String policy);
+
+	@Message(id = 132, value = "The indexing queue of index '%1$s' is still full after waiting %2$d ms: work discarded")
+	SearchException indexingQueueFull(String indexName, long timeout);
+
+	@LogMessage(level = WARN)
+	@Message(id = 133, value = "Discarding %1$d work lists spilled to '%2$s' by a previous run")
+	void discardingSpilledWork(int count, String directory);
+
+	@LogMessage(level = ERROR)
+	@Message(id = 134, value = "Unable to spill work of index '%1$s' to disk: work discarded")
+	void unableToSpillWork(String indexName, @Cause Throwable e);
+
+	@LogMessage(level = ERROR)
+	@Message(id = 135, value = "Unable to read spilled work from '%1$s': work discarded")
+	void unableToReadSpilledWork(String fileName, @Cause Throwable e);
+
+	@LogMessage(level = WARN)
+	@Message(id = 136, value = "Ignoring the incomplete or corrupted tail of journal file '%1$s' from position %2$d")
+	void ignoringJournalTail(String fileName, long position);
+
+	@LogMessage(level = INFO)
+	@Message(id = 137, value = "Replaying %1$d work lists from the journal of index '%2$s'")
+	void replayingJournal(int workLists, String indexName);
+
+	@LogMessage(level = ERROR)
+	@Message(id = 138, value = "Unable to write to the journal of index '%1$s': the changes will be lost in case of crash")
+	void unableToWriteJournal(String indexName, @Cause Throwable e);
+
+	@LogMessage(level = WARN)
+	@Message(id = 139, value = "The journal is not supported by the near-real-time index '%1$s' and is disabled")
+	void journalNotSupportedByNRT(String indexName);
+
+	@Message(id = 140, value = "Unable to open or replay the journal of index '%1$s'")
+	SearchException unableToReplayJournal(String indexName, @Cause Throwable e);
+
+	@LogMessage(level = WARN)
+	@Message(id = 141, value = "Unable to warm up the new IndexReader of index '%1$s'")
+	void unableToWarmIndexReader(String indexName, @Cause Throwable e);
+
+	@LogMessage(level = WARN)
+	@Message(id = 142, value = "Unable to refresh the IndexReader of index '%1$s' in background")
+	void unableToRefreshIndexReader(String indexName, @Cause Throwable e);
+
+	@Message(id = 143, value = "Unable to page after a hit of a query sorted by '%1$s': only relevance, document order and FieldCache based sorts are supported")
+	SearchException searchAfterNotSupportedForSort(String sortField);
+
+	@Message(id = 144, value = "Paging a sorted query requires the last hit to be a FieldDoc holding the sort values")
+	SearchException searchAfterRequiresFieldDoc();
+
+	@Message(id = 145, value = "Property '%1$s' must be a positive number, was %2$d")
+	SearchException propertyMustBePositive(String propertyName, int value);
+
+	@Message(id = 146, value = "Unable to refresh the near-real-time IndexReader of index '%1$s': the changes are not visible yet")
+	SearchException nrtIndexReaderRefreshFailed(String indexName, @Cause Throwable e);
 }
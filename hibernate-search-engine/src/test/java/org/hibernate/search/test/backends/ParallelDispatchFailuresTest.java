@@ -0,0 +1,151 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.backends;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.hibernate.search.SearchException;
+import org.hibernate.search.backend.IndexingFailuresException;
+import org.hibernate.search.backend.impl.WorkQueuePerIndexSplitter;
+import org.hibernate.search.indexes.spi.IndexManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the failures reported when the changes of a transaction are dispatched
+ * to several IndexManagers in parallel (see HSEARCH-826).
+ *
+ * @since 4.1
+ */
+public class ParallelDispatchFailuresTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool( 2 );
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testAllFailedIndexesAreReported() {
+		WorkQueuePerIndexSplitter splitter = new WorkQueuePerIndexSplitter( executor );
+		splitter.getIndexManagerQueue( indexManager( "first", new Runnable() {
+			public void run() {
+				throw new SearchException( "first failure" );
+			}
+		} ) );
+		splitter.getIndexManagerQueue( indexManager( "second", null ) );
+		splitter.getIndexManagerQueue( indexManager( "third", new Runnable() {
+			public void run() {
+				throw new SearchException( "third failure" );
+			}
+		} ) );
+		try {
+			splitter.commitOperations( null );
+			fail( "The failures should have been propagated" );
+		}
+		catch ( IndexingFailuresException e ) {
+			assertEquals( 2, e.getFailuresByIndexName().size() );
+			assertEquals( "first failure", e.getFailuresByIndexName().get( "first" ).getMessage() );
+			assertEquals( "third failure", e.getFailuresByIndexName().get( "third" ).getMessage() );
+			assertTrue( e.getMessage().contains( "first" ) );
+			assertTrue( e.getMessage().contains( "third" ) );
+		}
+	}
+
+	@Test
+	public void testIndexesStillRunningAreReportedOnInterruption() {
+		final Thread caller = Thread.currentThread();
+		final CountDownLatch blocked = new CountDownLatch( 1 );
+		// the calling thread serves one of the indexes, then gets interrupted while waiting for the other one
+		Runnable operation = new Runnable() {
+			public void run() {
+				if ( Thread.currentThread() == caller ) {
+					caller.interrupt();
+					return;
+				}
+				try {
+					blocked.await();
+				}
+				catch ( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		WorkQueuePerIndexSplitter splitter = new WorkQueuePerIndexSplitter( executor );
+		splitter.getIndexManagerQueue( indexManager( "first", operation ) );
+		splitter.getIndexManagerQueue( indexManager( "second", operation ) );
+		try {
+			splitter.commitOperations( null );
+			fail( "The caller should know that some changes might not be applied" );
+		}
+		catch ( IndexingFailuresException e ) {
+			assertEquals( 1, e.getFailuresByIndexName().size() );
+			assertTrue( e.getCause() instanceof InterruptedException );
+		}
+		finally {
+			assertTrue( Thread.interrupted() );
+			blocked.countDown();
+		}
+	}
+
+	/**
+	 * @param name the name of the index
+	 * @param operation run when operations are applied to the index, might be {@code null}
+	 */
+	private static IndexManager indexManager(final String name, final Runnable operation) {
+		return (IndexManager) Proxy.newProxyInstance(
+				IndexManager.class.getClassLoader(),
+				new Class<?>[] { IndexManager.class },
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if ( "getIndexName".equals( method.getName() ) ) {
+							return name;
+						}
+						else if ( "performOperations".equals( method.getName() ) && operation != null ) {
+							operation.run();
+						}
+						return null;
+					}
+				}
+		);
+	}
+
+}
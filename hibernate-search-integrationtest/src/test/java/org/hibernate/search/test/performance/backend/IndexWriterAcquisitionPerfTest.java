@@ -0,0 +1,176 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.performance.backend;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.TestCase;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexWriter;
+
+import org.hibernate.search.backend.impl.lucene.AbstractWorkspaceImpl;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.test.util.RamIndexManager;
+
+/**
+ * Measures the latency of acquiring the IndexWriter while another thread keeps adding
+ * documents and committing them (see HSEARCH-852).
+ */
+public class IndexWriterAcquisitionPerfTest extends TestCase {
+
+	private static final int THREADS = 4;
+	private static final int WARMUP_SECONDS = 5;
+	private static final int SECONDS = 10;
+
+	private RamIndexManager indexManager;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		indexManager = RamIndexManager.makeRamDirectory();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		indexManager.destroy();
+		super.tearDown();
+	}
+
+	public void testAcquisitionWhileCommitting() throws InterruptedException {
+		LuceneBackendQueueProcessor backend = (LuceneBackendQueueProcessor) indexManager.getBackendQueueProcessor();
+		AbstractWorkspaceImpl workspace = backend.getIndexResources().getWorkspace();
+		run( workspace, WARMUP_SECONDS );
+		run( workspace, SECONDS );
+	}
+
+	private void run(AbstractWorkspaceImpl workspace, int seconds) throws InterruptedException {
+		AtomicBoolean running = new AtomicBoolean( true );
+		CountDownLatch startSignal = new CountDownLatch( 1 );
+		Committer committer = new Committer( workspace, running, startSignal );
+		Acquirer[] acquirers = new Acquirer[THREADS];
+		Thread[] acquirerThreads = new Thread[THREADS];
+		for ( int i = 0; i < THREADS; i++ ) {
+			acquirers[i] = new Acquirer( workspace, running, startSignal );
+			acquirerThreads[i] = new Thread( acquirers[i], "acquirer-" + i );
+			acquirerThreads[i].start();
+		}
+		Thread committerThread = new Thread( committer, "committer" );
+		committerThread.start();
+		startSignal.countDown();
+		Thread.sleep( TimeUnit.SECONDS.toMillis( seconds ) );
+		running.set( false );
+		committerThread.join();
+		long acquisitions = 0;
+		long totalTime = 0;
+		long maxTime = 0;
+		for ( int i = 0; i < THREADS; i++ ) {
+			acquirerThreads[i].join();
+			acquisitions += acquirers[i].acquisitions;
+			totalTime += acquirers[i].totalTime;
+			maxTime = Math.max( maxTime, acquirers[i].maxTime );
+		}
+		assertTrue( "The committer made no progress", committer.commits > 0 );
+		assertTrue( "The IndexWriter was never acquired", acquisitions > 0 );
+		System.out.println( "Commits performed: " + committer.commits + " in " + seconds + " seconds" );
+		System.out.println( "IndexWriter acquisitions: " + acquisitions + " from " + THREADS + " threads" );
+		System.out.println( "Average acquisition time (ns): " + totalTime / acquisitions );
+		System.out.println( "Max acquisition time (ns): " + maxTime );
+	}
+
+	private static class Acquirer implements Runnable {
+
+		private final AbstractWorkspaceImpl workspace;
+		private final AtomicBoolean running;
+		private final CountDownLatch startSignal;
+		long acquisitions;
+		long totalTime;
+		long maxTime;
+
+		Acquirer(AbstractWorkspaceImpl workspace, AtomicBoolean running, CountDownLatch startSignal) {
+			this.workspace = workspace;
+			this.running = running;
+			this.startSignal = startSignal;
+		}
+
+		@Override
+		public void run() {
+			try {
+				startSignal.await();
+			}
+			catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			while ( running.get() ) {
+				long start = System.nanoTime();
+				IndexWriter writer = workspace.getIndexWriter();
+				long time = System.nanoTime() - start;
+				if ( writer == null ) {
+					throw new IllegalStateException( "IndexWriter could not be opened" );
+				}
+				acquisitions++;
+				totalTime += time;
+				maxTime = Math.max( maxTime, time );
+			}
+		}
+
+	}
+
+	private static class Committer implements Runnable {
+
+		private final AbstractWorkspaceImpl workspace;
+		private final AtomicBoolean running;
+		private final CountDownLatch startSignal;
+		long commits;
+
+		Committer(AbstractWorkspaceImpl workspace, AtomicBoolean running, CountDownLatch startSignal) {
+			this.workspace = workspace;
+			this.running = running;
+			this.startSignal = startSignal;
+		}
+
+		@Override
+		public void run() {
+			try {
+				startSignal.await();
+				while ( running.get() ) {
+					Document document = new Document();
+					document.add( new Field( "id", String.valueOf( commits ), Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+					workspace.getIndexWriter().addDocument( document );
+					workspace.flush();
+					commits++;
+				}
+			}
+			catch ( Exception e ) {
+				throw new RuntimeException( e );
+			}
+		}
+
+	}
+
+}
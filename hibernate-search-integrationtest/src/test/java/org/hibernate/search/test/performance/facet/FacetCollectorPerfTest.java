@@ -0,0 +1,217 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.performance.facet;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.store.RAMDirectory;
+
+import org.hibernate.search.query.collector.impl.FacetCollector;
+import org.hibernate.search.query.dsl.impl.FacetingRequestImpl;
+import org.hibernate.search.test.TestConstants;
+import org.hibernate.search.test.query.facet.Car;
+import org.hibernate.search.test.util.FullTextSessionBuilder;
+
+/**
+ * Compares the latency and the memory allocated by {@link FacetCollector} when counting discrete
+ * facets on all the documents of an index, with a collector counting field values in a map as
+ * {@code FacetCollector} used to.
+ */
+public class FacetCollectorPerfTest extends TestCase {
+
+	private static final String FIELD_NAME = "color";
+	private static final int DOCUMENTS = 2000000;
+	private static final int VALUES = 1000;
+	private static final int ITERATIONS = 20;
+
+	private FullTextSessionBuilder builder;
+	private RAMDirectory directory;
+	private IndexReader reader;
+	private IndexSearcher searcher;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		builder = new FullTextSessionBuilder().addAnnotatedClass( Car.class ).build();
+		directory = createIndex();
+		reader = IndexReader.open( directory );
+		searcher = new IndexSearcher( reader );
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		searcher.close();
+		reader.close();
+		directory.close();
+		builder.close();
+		super.tearDown();
+	}
+
+	public void testDiscreteFacetCounting() throws IOException {
+		FacetingRequestImpl request = (FacetingRequestImpl) builder.getSearchFactory()
+				.buildQueryBuilder().forEntity( Car.class ).get()
+				.facet()
+				.name( "colors" )
+				.onField( FIELD_NAME )
+				.discrete()
+				.maxFacetCount( 10 )
+				.createFacetingRequest();
+		for ( int i = 0; i < 2; i++ ) {
+			// first run to warm up
+			measure( "map based counting", new CollectorFactory() {
+				public Collector create() {
+					return new MapFacetCollector( new TotalHitCountCollector() );
+				}
+			} );
+			measure( "FacetCollector", new FacetCollectorFactory( request ) );
+		}
+	}
+
+	private static RAMDirectory createIndex() throws IOException {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriterConfig config = new IndexWriterConfig( TestConstants.getTargetLuceneVersion(), TestConstants.standardAnalyzer );
+		IndexWriter writer = new IndexWriter( directory, config );
+		Random random = new Random( 13L );
+		for ( int i = 0; i < DOCUMENTS; i++ ) {
+			Document document = new Document();
+			document.add( new Field( FIELD_NAME, "value" + random.nextInt( VALUES ), Field.Store.NO, Field.Index.NOT_ANALYZED ) );
+			writer.addDocument( document );
+		}
+		writer.close();
+		return directory;
+	}
+
+	private void measure(String name, CollectorFactory factory) throws IOException {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long allocatedBefore = allocatedBytes( threadBean );
+		long startTime = System.nanoTime();
+		for ( int i = 0; i < ITERATIONS; i++ ) {
+			Collector collector = factory.create();
+			searcher.search( new MatchAllDocsQuery(), collector );
+			factory.completed( collector );
+		}
+		long totalTimeMs = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime );
+		long allocated = allocatedBytes( threadBean ) - allocatedBefore;
+		System.out.println(
+				name + ": " + ( totalTimeMs / ITERATIONS ) + "ms per query, " +
+						( allocated < 0 ? "unknown" : String.valueOf( allocated / ITERATIONS / 1024 ) ) + "KB allocated per query"
+		);
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread, or -1 if not supported by the JVM
+	 */
+	private static long allocatedBytes(ThreadMXBean threadBean) {
+		if ( threadBean instanceof com.sun.management.ThreadMXBean ) {
+			return ( (com.sun.management.ThreadMXBean) threadBean ).getThreadAllocatedBytes( Thread.currentThread().getId() );
+		}
+		return -1;
+	}
+
+	private abstract static class CollectorFactory {
+		abstract Collector create();
+
+		void completed(Collector collector) {
+		}
+	}
+
+	private static class FacetCollectorFactory extends CollectorFactory {
+		private final FacetingRequestImpl request;
+
+		FacetCollectorFactory(FacetingRequestImpl request) {
+			this.request = request;
+		}
+
+		Collector create() {
+			return new FacetCollector( new TotalHitCountCollector(), request );
+		}
+
+		void completed(Collector collector) {
+			assertEquals( 10, ( (FacetCollector) collector ).getFacetList().size() );
+		}
+	}
+
+	/**
+	 * Counts the field values the way {@code FacetCollector} did before counting by term ordinal.
+	 */
+	private static class MapFacetCollector extends Collector {
+		private final Collector delegate;
+		private final Map<String, Integer> counts = new HashMap<String, Integer>();
+		private String[] values;
+
+		MapFacetCollector(Collector delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void setScorer(Scorer scorer) throws IOException {
+			delegate.setScorer( scorer );
+		}
+
+		@Override
+		public void collect(int doc) throws IOException {
+			Object value = values[doc];
+			if ( value != null ) {
+				String key = (String) value;
+				if ( !counts.containsKey( key ) ) {
+					counts.put( key, 1 );
+				}
+				else {
+					counts.put( key, counts.get( key ) + 1 );
+				}
+			}
+			delegate.collect( doc );
+		}
+
+		@Override
+		public void setNextReader(IndexReader reader, int docBase) throws IOException {
+			values = FieldCache.DEFAULT.getStrings( reader, FIELD_NAME );
+			delegate.setNextReader( reader, docBase );
+		}
+
+		@Override
+		public boolean acceptsDocsOutOfOrder() {
+			return delegate.acceptsDocsOutOfOrder();
+		}
+	}
+}
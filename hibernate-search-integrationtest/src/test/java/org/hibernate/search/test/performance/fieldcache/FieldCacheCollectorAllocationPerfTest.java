@@ -0,0 +1,208 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.performance.fieldcache;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+
+import org.hibernate.search.query.collector.impl.FieldCacheCollector;
+import org.hibernate.search.query.collector.impl.FieldCacheCollectorFactory;
+import org.hibernate.search.query.fieldcache.impl.FieldCacheLoadingType;
+import org.hibernate.search.query.fieldcache.impl.FieldLoadingStrategy;
+
+/**
+ * Measures the memory allocated by collecting numeric identifiers from the FieldCache,
+ * comparing the unboxed collectors with collectors boxing each value.
+ * Requires a HotSpot JVM to measure the allocations per thread.
+ */
+public class FieldCacheCollectorAllocationPerfTest extends TestCase {
+
+	private static final int DOCUMENTS = 500000;
+	private static final int SPARSE_MODULO = 10000;
+	private static final int WARMUP_ITERATIONS = 20;
+	private static final int ITERATIONS = 100;
+
+	private RAMDirectory directory;
+	private IndexReader reader;
+	private IndexSearcher searcher;
+	private final FieldCacheCollectorFactory factory = new FieldCacheCollectorFactory(
+			"id", FieldCacheLoadingType.INT, null
+	);
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(
+				directory, new IndexWriterConfig( Version.LUCENE_35, new KeywordAnalyzer() )
+		);
+		for ( int i = 0; i < DOCUMENTS; i++ ) {
+			Document document = new Document();
+			document.add( new NumericField( "id" ).setIntValue( i ) );
+			document.add( new Field( "group", String.valueOf( i % SPARSE_MODULO ), Field.Store.NO, Field.Index.NOT_ANALYZED_NO_NORMS ) );
+			writer.addDocument( document );
+		}
+		writer.close();
+		reader = IndexReader.open( directory );
+		searcher = new IndexSearcher( reader );
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		searcher.close();
+		reader.close();
+		directory.close();
+		super.tearDown();
+	}
+
+	public void testDenseResults() throws IOException {
+		compare( "dense", new MatchAllDocsQuery(), DOCUMENTS );
+	}
+
+	public void testSparseResults() throws IOException {
+		compare( "sparse", new TermQuery( new Term( "group", "42" ) ), DOCUMENTS / SPARSE_MODULO );
+	}
+
+	private void compare(String name, Query query, int expectedMatches) throws IOException {
+		run( query, expectedMatches, false, WARMUP_ITERATIONS );
+		run( query, expectedMatches, true, WARMUP_ITERATIONS );
+		long boxed = run( query, expectedMatches, true, ITERATIONS );
+		long unboxed = run( query, expectedMatches, false, ITERATIONS );
+		System.out.println(
+				"Collecting " + expectedMatches + " " + name + " ids: "
+						+ ( boxed / ITERATIONS ) + " bytes allocated boxing values, "
+						+ ( unboxed / ITERATIONS ) + " bytes allocated unboxed"
+		);
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread for all iterations
+	 */
+	private long run(Query query, int expectedMatches, boolean boxing, int iterations) throws IOException {
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long before = threadMXBean.getThreadAllocatedBytes( threadId );
+		long checksum = 0;
+		for ( int i = 0; i < iterations; i++ ) {
+			TopScoreDocCollector topDocs = TopScoreDocCollector.create( 100, false );
+			if ( boxing ) {
+				BoxingCollector collector = new BoxingCollector( topDocs, expectedMatches );
+				searcher.search( query, collector );
+				for ( ScoreDoc scoreDoc : topDocs.topDocs().scoreDocs ) {
+					checksum += (Integer) collector.getValue( scoreDoc.doc );
+				}
+			}
+			else {
+				FieldCacheCollector collector = factory.createFieldCollector( topDocs, reader.maxDoc(), expectedMatches );
+				searcher.search( query, collector );
+				for ( ScoreDoc scoreDoc : topDocs.topDocs().scoreDocs ) {
+					checksum += (Integer) collector.getValue( scoreDoc.doc );
+				}
+			}
+		}
+		long allocated = threadMXBean.getThreadAllocatedBytes( threadId ) - before;
+		assertTrue( checksum >= 0 );
+		return allocated;
+	}
+
+	/**
+	 * Collects the values as they were collected before the unboxed collectors were introduced:
+	 * in an {@code Object[]} for large results and a {@code HashMap} for small ones.
+	 */
+	private static final class BoxingCollector extends Collector {
+		private final Collector delegate;
+		private final FieldLoadingStrategy loadingStrategy = FieldCacheLoadingType.INT.createLoadingStrategy( "id" );
+		private final Object[] valuesArray;
+		private final Map<Integer, Object> valuesMap;
+		private int docBase;
+
+		BoxingCollector(Collector delegate, int expectedMatches) {
+			this.delegate = delegate;
+			if ( expectedMatches > 100 ) {
+				valuesArray = new Object[DOCUMENTS];
+				valuesMap = null;
+			}
+			else {
+				valuesArray = null;
+				valuesMap = new HashMap<Integer, Object>();
+			}
+		}
+
+		@Override
+		public void setScorer(Scorer scorer) throws IOException {
+			delegate.setScorer( scorer );
+		}
+
+		@Override
+		public void collect(int doc) throws IOException {
+			delegate.collect( doc );
+			if ( valuesArray != null ) {
+				valuesArray[docBase + doc] = loadingStrategy.collect( doc );
+			}
+			else {
+				valuesMap.put( docBase + doc, loadingStrategy.collect( doc ) );
+			}
+		}
+
+		@Override
+		public void setNextReader(IndexReader reader, int docBase) throws IOException {
+			this.docBase = docBase;
+			loadingStrategy.loadNewCacheValues( reader );
+			delegate.setNextReader( reader, docBase );
+		}
+
+		@Override
+		public boolean acceptsDocsOutOfOrder() {
+			return delegate.acceptsDocsOutOfOrder();
+		}
+
+		Object getValue(int docId) {
+			return valuesArray != null ? valuesArray[docId] : valuesMap.get( docId );
+		}
+	}
+
+}
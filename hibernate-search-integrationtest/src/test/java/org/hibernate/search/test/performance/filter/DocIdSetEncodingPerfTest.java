@@ -0,0 +1,117 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.performance.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.OpenBitSet;
+
+import org.hibernate.search.filter.impl.AndDocIdSet;
+import org.hibernate.search.filter.impl.DocIdSetEncodingHelper;
+
+/**
+ * Compares the memory used by cached filter results stored as bit sets and in their
+ * compact encoding, and the time needed to intersect them with {@link AndDocIdSet}.
+ */
+public class DocIdSetEncodingPerfTest extends TestCase {
+
+	private static final int MAX_DOC = 5000000;
+	private static final int ROUNDS = 50;
+	private static final int[] DENSITIES = { 100000, 1000, 50, 2 };
+
+	private final List<DocIdSet> bitSets = new ArrayList<DocIdSet>();
+	private final List<DocIdSet> compactSets = new ArrayList<DocIdSet>();
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		for ( int density : DENSITIES ) {
+			OpenBitSet bits = makeRandomBitSet( density, density );
+			DocIdSet compact = DocIdSetEncodingHelper.compact( bits, MAX_DOC );
+			System.out.println(
+					"1 document out of " + density + ": " +
+							DocIdSetEncodingHelper.estimateBytes( bits, MAX_DOC ) + " bytes as bit set, " +
+							DocIdSetEncodingHelper.estimateBytes( compact, MAX_DOC ) + " bytes as " +
+							compact.getClass().getSimpleName()
+			);
+			bitSets.add( bits );
+			compactSets.add( compact );
+		}
+	}
+
+	public void testIntersections() throws IOException {
+		// warm up
+		int bitSetMatches = measureIntersections( "bit sets", bitSets );
+		int compactSetMatches = measureIntersections( "compact sets", compactSets );
+		assertEquals( bitSetMatches, compactSetMatches );
+		measureIntersections( "bit sets", bitSets );
+		measureIntersections( "compact sets", compactSets );
+	}
+
+	private int measureIntersections(String name, List<DocIdSet> sets) throws IOException {
+		int matches = 0;
+		long startTime = System.nanoTime();
+		for ( int i = 0; i < ROUNDS; i++ ) {
+			// intersect the densest sets, then the sparsest ones
+			for ( int size = 2; size <= sets.size(); size++ ) {
+				matches += iterateOnResults( new AndDocIdSet( sets.subList( sets.size() - size, sets.size() ), MAX_DOC ) );
+				matches += iterateOnResults( new AndDocIdSet( sets.subList( 0, size ), MAX_DOC ) );
+			}
+		}
+		long totalTimeMs = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime );
+		System.out.println(
+				"Time to AND " + name + " and iterate on results " + ROUNDS + " times: " +
+						totalTimeMs + "ms (" + matches + " matches)"
+		);
+		return matches;
+	}
+
+	private static int iterateOnResults(DocIdSet docIdSet) throws IOException {
+		int count = 0;
+		DocIdSetIterator iterator = docIdSet.iterator();
+		while ( iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS ) {
+			count++;
+		}
+		return count;
+	}
+
+	private static OpenBitSet makeRandomBitSet(long seed, int density) {
+		Random random = new Random( seed );
+		OpenBitSet bits = new OpenBitSet( MAX_DOC );
+		for ( int doc = 0; doc < MAX_DOC; doc++ ) {
+			if ( random.nextInt( density ) == 0 ) {
+				bits.fastSet( doc );
+			}
+		}
+		return bits;
+	}
+}
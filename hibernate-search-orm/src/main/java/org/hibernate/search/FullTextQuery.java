@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
 import org.hibernate.Criteria;
@@ -151,6 +152,25 @@ public interface FullTextQuery extends Query, ProjectionConstants {
 	 */
 	FullTextQuery setMaxResults(int maxResults);
 
+	/**
+	 * Only return the results sorted after the given hit, usually the last hit of the previous page
+	 * as returned by {@link #getLastScoreDoc()}. The cost of fetching a page then doesn't grow with
+	 * its offset, and {@link #setFirstResult(int)} becomes relative to this hit.
+	 *
+	 * @param lastScoreDoc the hit after which results are returned, or {@code null} to start from the first hit
+	 *
+	 * @return {@code this} to allow method chaining
+	 *
+	 * @see org.hibernate.search.query.engine.spi.HSQuery#searchAfter(ScoreDoc)
+	 */
+	FullTextQuery setSearchAfter(ScoreDoc lastScoreDoc);
+
+	/**
+	 * @return the hit of the last result returned by {@link #list()}, to pass to
+	 * {@link #setSearchAfter(ScoreDoc)} to get the next page, or {@code null} if there was no result
+	 */
+	ScoreDoc getLastScoreDoc();
+
 	/**
 	 * Defines scrollable result fetch size as well as the JDBC fetch size
 	 */
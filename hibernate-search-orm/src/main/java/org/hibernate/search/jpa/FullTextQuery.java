@@ -28,6 +28,7 @@ import javax.persistence.Query;
 
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
 import org.hibernate.Criteria;
@@ -70,6 +71,23 @@ public interface FullTextQuery extends Query, ProjectionConstants {
 	 */
 	FullTextQuery setFilter(Filter filter);
 
+	/**
+	 * Only return the results sorted after the given hit, usually the last hit of the previous page
+	 * as returned by {@link #getLastScoreDoc()}. The cost of fetching a page then doesn't grow with
+	 * its offset, and <code>setFirstResult</code> becomes relative to this hit.
+	 *
+	 * @param lastScoreDoc the hit after which results are returned, or null to start from the first hit
+	 *
+	 * @return this for method chaining
+	 */
+	FullTextQuery setSearchAfter(ScoreDoc lastScoreDoc);
+
+	/**
+	 * @return the hit of the last result returned by <code>getResultList()</code>, to pass to
+	 * {@link #setSearchAfter(ScoreDoc)} to get the next page, or null if there was no result
+	 */
+	ScoreDoc getLastScoreDoc();
+
 	/**
 	 * Returns the number of hits for this search
 	 *
@@ -49,6 +49,7 @@ import javax.persistence.TemporalType;
 
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
 import org.hibernate.Criteria;
@@ -105,6 +106,15 @@ public class FullTextQueryImpl implements FullTextQuery {
 		return this;
 	}
 
+	public FullTextQuery setSearchAfter(ScoreDoc lastScoreDoc) {
+		query.setSearchAfter( lastScoreDoc );
+		return this;
+	}
+
+	public ScoreDoc getLastScoreDoc() {
+		return query.getLastScoreDoc();
+	}
+
 	public int getResultSize() {
 		try {
 			return query.getResultSize();
@@ -32,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
 import org.hibernate.Criteria;
@@ -72,9 +73,16 @@ import org.hibernate.transform.ResultTransformer;
 public class FullTextQueryImpl extends AbstractQueryImpl implements FullTextQuery {
 
 	private static final Log log = LoggerFactory.make();
+	/**
+	 * Minimum number of hits read from the index at a time when scrolling forward only
+	 */
+	private static final int MIN_STREAMING_CHUNK_SIZE = 100;
 	private Criteria criteria;
 	private ResultTransformer resultTransformer;
-	private int fetchSize = 1;
+	/**
+	 * The number of hits loaded at a time when iterating or scrolling, 0 to use the default of the search factory
+	 */
+	private int fetchSize = 0;
 	private ObjectLookupMethod lookupMethod = ObjectLookupMethod.SKIP; //default
 	private DatabaseRetrievalMethod retrievalMethod = DatabaseRetrievalMethod.QUERY; //default
 	private final HSQuery hSearchQuery;
@@ -137,7 +145,7 @@ public class FullTextQueryImpl extends AbstractQueryImpl implements FullTextQuer
 		}
 		else {
 			Loader loader = getLoader();
-			iterator = new IteratorImpl( entityInfos, loader );
+			iterator = new IteratorImpl( entityInfos, loader, getLoadingBatchSize() );
 		}
 		hSearchQuery.getTimeoutManager().stop();
 		return iterator;
@@ -192,7 +200,7 @@ public class FullTextQueryImpl extends AbstractQueryImpl implements FullTextQuer
 		hSearchQuery.getTimeoutManager().stop();
 		Loader loader = getLoader();
 		return new ScrollableResultsImpl(
-				fetchSize,
+				getLoadingBatchSize(),
 				documentExtractor,
 				loader,
 				this.session
@@ -200,8 +208,33 @@ public class FullTextQueryImpl extends AbstractQueryImpl implements FullTextQuer
 	}
 
 	public ScrollableResults scroll(ScrollMode scrollMode) throws HibernateException {
-		//TODO think about this scrollmode
-		return scroll();
+		if ( scrollMode != ScrollMode.FORWARD_ONLY ) {
+			return scroll();
+		}
+		//stream through the hits: only the current chunk of hits and fetch window are kept in memory
+		hSearchQuery.getTimeoutManager().start();
+		final DocumentExtractor documentExtractor = hSearchQuery.queryStreamingDocumentExtractor(
+				Math.max( getLoadingBatchSize(), MIN_STREAMING_CHUNK_SIZE )
+		);
+		hSearchQuery.getTimeoutManager().stop();
+		Loader loader = getLoader();
+		return new ScrollableResultsImpl(
+				getLoadingBatchSize(),
+				documentExtractor,
+				loader,
+				this.session,
+				true
+		);
+	}
+
+	/**
+	 * @return the number of upcoming hits whose entities are loaded together when iterating or scrolling
+	 */
+	private int getLoadingBatchSize() {
+		if ( fetchSize > 0 ) {
+			return fetchSize;
+		}
+		return hSearchQuery.getSearchFactoryImplementor().getQueryLoadingBatchSize();
 	}
 
 	public List list() throws HibernateException {
@@ -254,6 +287,15 @@ public class FullTextQueryImpl extends AbstractQueryImpl implements FullTextQuer
 		return this;
 	}
 
+	public FullTextQuery setSearchAfter(ScoreDoc lastScoreDoc) {
+		hSearchQuery.searchAfter( lastScoreDoc );
+		return this;
+	}
+
+	public ScoreDoc getLastScoreDoc() {
+		return hSearchQuery.getLastScoreDoc();
+	}
+
 	public FullTextQuery setFetchSize(int fetchSize) {
 		super.setFetchSize( fetchSize );
 		if ( fetchSize <= 0 ) {
@@ -30,9 +30,11 @@ import java.util.NoSuchElementException;
 import org.hibernate.search.query.engine.spi.EntityInfo;
 
 /**
+ * Iterates over the entities of the hits, loading them from the database in batches: the entities
+ * of the next {@code batchSize} hits are loaded together once the iteration reaches them.
+ *
  * @author Emmanuel Bernard
  */
-//TODO load the next batch-size elements to benefit from batch-size 
 public class IteratorImpl implements Iterator<Object> {
 
 	private final List<EntityInfo> entityInfos;
@@ -41,11 +43,22 @@ public class IteratorImpl implements Iterator<Object> {
 	private Object next;
 	private int nextObjectIndex = -1;
 	private final Loader loader;
+	private final int batchSize;
+
+	/**
+	 * The index of the first hit which is not part of an already loaded batch
+	 */
+	private int batchEnd = 0;
 
 	public IteratorImpl(List<EntityInfo> entityInfos, Loader loader) {
+		this( entityInfos, loader, 1 );
+	}
+
+	public IteratorImpl(List<EntityInfo> entityInfos, Loader loader, int batchSize) {
 		this.entityInfos = entityInfos;
 		this.size = entityInfos.size();
 		this.loader = loader;
+		this.batchSize = batchSize;
 	}
 
 	//side effect is to set up next
@@ -59,6 +72,9 @@ public class IteratorImpl implements Iterator<Object> {
 				next = null;
 				return false;
 			}
+			if ( index >= batchEnd ) {
+				loadBatch();
+			}
 			next = loader.load( entityInfos.get( index ) );
 			if ( next == null ) {
 				index++;
@@ -71,6 +87,16 @@ public class IteratorImpl implements Iterator<Object> {
 		return true;
 	}
 
+	private void loadBatch() {
+		batchEnd = Math.min( size, index + batchSize );
+		int sizeToLoad = batchEnd - index;
+		//preload efficiently by batches:
+		if ( sizeToLoad > 1 ) {
+			loader.load( entityInfos.subList( index, batchEnd ).toArray( new EntityInfo[sizeToLoad] ) );
+			//(no references stored at this point: they still need to be loaded one by one to inject null results)
+		}
+	}
+
 	public Object next() {
 		//hasNext() has side effect
 		if ( !hasNext() ) throw new NoSuchElementException( "Out of boundaries" );
@@ -33,6 +33,9 @@ import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.search.SearchException;
 import org.hibernate.search.query.engine.spi.EntityInfo;
 import org.hibernate.search.util.logging.impl.LoggerFactory;
@@ -117,6 +120,21 @@ public class ObjectLoaderHelper {
 		return maybeProxy;
 	}
 
+	/**
+	 * @return true if the entity is already initialized in the persistence context of the session; always false
+	 * if the document id is not the entity id, as the entity can't be looked up without a query
+	 */
+	public static boolean isInitializedInPersistenceContext(EntityInfo entityInfo, Session session) {
+		if ( !areDocIdAndEntityIdIdentical( entityInfo, session ) ) {
+			return false;
+		}
+		SessionImplementor sessionImplementor = (SessionImplementor) session;
+		String entityName = session.getSessionFactory().getClassMetadata( entityInfo.getClazz() ).getEntityName();
+		EntityPersister persister = sessionImplementor.getFactory().getEntityPersister( entityName );
+		EntityKey entityKey = new EntityKey( entityInfo.getId(), persister, session.getTenantIdentifier() );
+		return sessionImplementor.getPersistenceContext().containsEntity( entityKey );
+	}
+
 	//TODO should we cache that result?
 	public static boolean areDocIdAndEntityIdIdentical(EntityInfo entityInfo, Session session) {
 		String hibernateIdentifierProperty = session.getSessionFactory()
@@ -71,8 +71,8 @@ public class QueryLoader extends AbstractLoader {
 	}
 
 	public final Object executeLoad(EntityInfo entityInfo) {
-		//if explicit criteria, make sure to use it to load the objects
-		if ( isExplicitCriteria ) {
+		//if explicit criteria, make sure to use it to load the objects, unless already loaded by a batch
+		if ( isExplicitCriteria && !ObjectLoaderHelper.isInitializedInPersistenceContext( entityInfo, session ) ) {
 			load( new EntityInfo[] { entityInfo } );
 		}
 		final Object result = ObjectLoaderHelper.load( entityInfo, session );
@@ -85,14 +85,27 @@ public class ScrollableResultsImpl implements ScrollableResults {
 	
 	/**
 	 * Caches result rows and EntityInfo from
-	 * <code>first</code> to <code>max</code>
+	 * <code>first</code> to <code>max</code>, or only the ones of
+	 * the current loading window when scrolling forward only
 	 */
 	private final LoadedObject[] resultsContext;
+
+	/**
+	 * If true, the memory used doesn't depend on the number of results:
+	 * scrolling backwards is still possible but reads the results again
+	 */
+	private final boolean forwardOnly;
 	
 	private int current;
 
 	public ScrollableResultsImpl(int fetchSize, DocumentExtractor extractor,
 			Loader loader, SessionImplementor sessionImplementor
+	) {
+		this( fetchSize, extractor, loader, sessionImplementor, false );
+	}
+
+	public ScrollableResultsImpl(int fetchSize, DocumentExtractor extractor,
+			Loader loader, SessionImplementor sessionImplementor, boolean forwardOnly
 	) {
 		this.loader = loader;
 		this.documentExtractor = extractor;
@@ -100,29 +113,39 @@ public class ScrollableResultsImpl implements ScrollableResults {
 		this.session = sessionImplementor;
 		this.first = extractor.getFirstIndex();
 		this.max = extractor.getMaxIndex();
+		this.forwardOnly = forwardOnly;
 		int size = Math.max( max - first + 1, 0 );
-		this.resultsContext = new LoadedObject[size];
+		this.resultsContext = new LoadedObject[forwardOnly ? Math.min( size, fetchSize ) : size];
 		beforeFirst();
 	}
 
+	private int getContextIndex(int x) {
+		return forwardOnly ? ( x - first ) % resultsContext.length : x - first;
+	}
+
+	private LoadedObject getLoadedObject(int x) {
+		LoadedObject lo = resultsContext[getContextIndex( x )];
+		return lo != null && lo.position == x ? lo : null;
+	}
+
 	private LoadedObject ensureCurrentLoaded() {
-		LoadedObject currentCacheRef = resultsContext[current - first];
+		LoadedObject currentCacheRef = getLoadedObject( current );
 		if ( currentCacheRef != null ) {
 			return currentCacheRef;
 		}
-		// the loading window is optimized for scrolling in both directions:
+		// the loading window is optimized for scrolling in both directions,
+		// or starts at the current position when scrolling forward only:
 		int windowStop = Math.min( max + 1 , current + fetchSize );
-		int windowStart = Math.max( first, current - fetchSize + 1 );
+		int windowStart = forwardOnly ? current : Math.max( first, current - fetchSize + 1 );
 		List<EntityInfo> entityInfosToLoad = new ArrayList<EntityInfo>( fetchSize );
 		int sizeToLoad = 0;
 		for (int x = windowStart; x < windowStop; x++) {
-			int arrayIdx = x - first;
-			LoadedObject lo = resultsContext[arrayIdx];
+			LoadedObject lo = getLoadedObject( x );
 			if ( lo == null ) {
-				lo = new LoadedObject();
+				lo = new LoadedObject( x );
 				// makes hard references and extract EntityInfos:
 				entityInfosToLoad.add( lo.getEntityInfo( x ) );
-				resultsContext[arrayIdx] = lo;
+				resultsContext[getContextIndex( x )] = lo;
 				sizeToLoad++;
 				if ( sizeToLoad >= fetchSize )
 					break;
@@ -133,7 +156,7 @@ public class ScrollableResultsImpl implements ScrollableResults {
 			loader.load( entityInfosToLoad.toArray( new EntityInfo[sizeToLoad] ) );
 			//(no references stored at this point: they still need to be loaded one by one to inject null results)
 		}
-		return resultsContext[ current - first ];
+		return getLoadedObject( current );
 	}
 	
 	/**
@@ -419,9 +442,14 @@ public class ScrollableResultsImpl implements ScrollableResults {
 	}
 	
 	private final class LoadedObject {
-		
+
+		private final int position;
 		private Reference<Object[]> entity; //never==null but Reference.get can return null
 		private Reference<EntityInfo> einfo; //never==null but Reference.get can return null
+
+		private LoadedObject(int position) {
+			this.position = position;
+		}
 		
 		/**
 		 * Gets the objects from cache if it is available and attached to session,
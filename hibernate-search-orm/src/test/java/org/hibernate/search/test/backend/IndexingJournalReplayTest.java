@@ -0,0 +1,177 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.backend;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+
+import org.hibernate.Transaction;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.engine.spi.SearchFactoryImplementor;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.test.util.FullTextSessionBuilder;
+import org.hibernate.search.test.worker.Drink;
+import org.hibernate.search.util.impl.FileHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies the journal of the asynchronous backend is emptied once changes are committed,
+ * and that work left in it by a crash is applied on the next startup.
+ *
+ * @since 4.1
+ */
+public class IndexingJournalReplayTest {
+
+	private File journalDirectory;
+
+	@Before
+	public void createJournalDirectory() {
+		journalDirectory = new File( FullTextSessionBuilder.indexRootDirectory, "journal" );
+		FileHelper.delete( journalDirectory );
+	}
+
+	@After
+	public void deleteJournalDirectory() {
+		FileHelper.delete( journalDirectory );
+	}
+
+	@Test
+	public void testJournaledWorkIsReplayedAfterCrash() throws IOException {
+		Map<String, byte[]> crashSnapshot;
+		FullTextSessionBuilder builder = createSearchFactory();
+		try {
+			DirectoryBasedIndexManager indexManager = getIndexManager( builder );
+			// holding the lock keeps the work in the journal, as if the JVM crashed before the commit
+			Lock lock = indexManager.getBackendQueueProcessor().getExclusiveWriteLock();
+			lock.lock();
+			try {
+				storeDrink( builder, "Water" );
+				crashSnapshot = readSegments();
+			}
+			finally {
+				lock.unlock();
+			}
+			assertEquals( 1, crashSnapshot.size() );
+		}
+		finally {
+			builder.close();
+		}
+		assertTrue( "Committed work should be removed from the journal", readSegments().isEmpty() );
+
+		for ( Map.Entry<String, byte[]> segment : crashSnapshot.entrySet() ) {
+			FileOutputStream out = new FileOutputStream( new File( journalDirectory, segment.getKey() ) );
+			try {
+				out.write( segment.getValue() );
+			}
+			finally {
+				out.close();
+			}
+		}
+		builder = createSearchFactory();
+		try {
+			assertEquals( 1, countDrinks( builder ) );
+			assertTrue( "Replayed work should be removed from the journal", readSegments().isEmpty() );
+		}
+		finally {
+			builder.close();
+		}
+	}
+
+	private FullTextSessionBuilder createSearchFactory() {
+		return new FullTextSessionBuilder()
+				.setProperty( "hibernate.search.default." + Environment.WORKER_EXECUTION, "async" )
+				.setProperty( "hibernate.search.default." + Environment.WORKER_JOURNAL, "true" )
+				.setProperty( "hibernate.search.default." + Environment.WORKER_JOURNAL_DIRECTORY, journalDirectory.getAbsolutePath() )
+				.addAnnotatedClass( Drink.class )
+				.build();
+	}
+
+	private DirectoryBasedIndexManager getIndexManager(FullTextSessionBuilder builder) {
+		SearchFactoryImplementor searchFactory = (SearchFactoryImplementor) builder.getSearchFactory();
+		return (DirectoryBasedIndexManager) searchFactory.getIndexBindingForEntity( Drink.class ).getIndexManagers()[0];
+	}
+
+	private void storeDrink(FullTextSessionBuilder builder, String name) {
+		FullTextSession session = builder.openFullTextSession();
+		Transaction transaction = session.beginTransaction();
+		Drink drink = new Drink();
+		drink.setName( name );
+		session.persist( drink );
+		transaction.commit();
+		session.close();
+	}
+
+	private int countDrinks(FullTextSessionBuilder builder) {
+		FullTextSession session = builder.openFullTextSession();
+		Transaction transaction = session.beginTransaction();
+		int count = session.createFullTextQuery( new MatchAllDocsQuery(), Drink.class ).getResultSize();
+		transaction.commit();
+		session.close();
+		return count;
+	}
+
+	/**
+	 * @return the content of the non-empty journal files, by file name
+	 */
+	private Map<String, byte[]> readSegments() throws IOException {
+		Map<String, byte[]> segments = new HashMap<String, byte[]>();
+		File[] files = journalDirectory.listFiles();
+		if ( files == null ) {
+			return segments;
+		}
+		for ( File file : files ) {
+			if ( file.length() == 0 ) {
+				continue;
+			}
+			byte[] data = new byte[(int) file.length()];
+			FileInputStream in = new FileInputStream( file );
+			try {
+				int offset = 0;
+				while ( offset < data.length ) {
+					offset += in.read( data, offset, data.length - offset );
+				}
+			}
+			finally {
+				in.close();
+			}
+			segments.put( file.getName(), data );
+		}
+		return segments;
+	}
+
+}
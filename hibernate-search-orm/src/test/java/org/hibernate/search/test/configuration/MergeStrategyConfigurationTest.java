@@ -0,0 +1,126 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.configuration;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.index.TieredMergePolicy;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.Environment;
+import org.hibernate.search.backend.impl.lucene.AbstractWorkspaceImpl;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.backend.impl.lucene.overrides.ConcurrentMergeScheduler;
+import org.hibernate.search.backend.impl.lucene.overrides.MergeThrottlingDirectory;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.stat.Statistics;
+import org.hibernate.search.test.query.Author;
+
+import static org.hibernate.search.backend.configuration.impl.IndexWriterSetting.MERGE_FACTOR;
+import static org.hibernate.search.backend.configuration.impl.IndexWriterSetting.MERGE_MAX_MB_PER_SEC;
+import static org.hibernate.search.backend.configuration.impl.IndexWriterSetting.MERGE_MAX_THREAD_COUNT;
+
+/**
+ * Verifies the merge policy and merge scheduler options are applied,
+ * and that merges are reported to the statistics.
+ *
+ * @since 4.1
+ */
+public class MergeStrategyConfigurationTest extends ConfigurationReadTestCase {
+
+	public void testMergeOptionsAreParsed() {
+		assertValueIsSet( Author.class, MERGE_FACTOR, 2 );
+		assertValueIsSet( Author.class, MERGE_MAX_THREAD_COUNT, 1 );
+		assertValueIsSet( Author.class, MERGE_MAX_MB_PER_SEC, 20 );
+	}
+
+	public void testMergeOptionsAreAppliedToTheIndexWriter() {
+		DirectoryBasedIndexManager indexManager = (DirectoryBasedIndexManager) getSearchFactory()
+				.getIndexBindingForEntity( Author.class ).getIndexManagers()[0];
+		LuceneBackendQueueProcessor backend = (LuceneBackendQueueProcessor) indexManager.getBackendQueueProcessor();
+		AbstractWorkspaceImpl workspace = backend.getIndexResources().getWorkspace();
+		IndexWriter writer = workspace.getIndexWriter();
+		try {
+			IndexWriterConfig writerConfig = writer.getConfig();
+
+			MergePolicy mergePolicy = writerConfig.getMergePolicy();
+			assertTrue( mergePolicy instanceof TieredMergePolicy );
+			assertEquals( 2, ( (TieredMergePolicy) mergePolicy ).getMaxMergeAtOnce() );
+			assertEquals( 2d, ( (TieredMergePolicy) mergePolicy ).getSegmentsPerTier(), 0d );
+
+			MergeScheduler mergeScheduler = writerConfig.getMergeScheduler();
+			assertTrue( mergeScheduler instanceof ConcurrentMergeScheduler );
+			assertEquals( 1, ( (ConcurrentMergeScheduler) mergeScheduler ).getMaxThreadCount() );
+
+			assertTrue( "Merges should be throttled", writer.getDirectory() instanceof MergeThrottlingDirectory );
+		}
+		finally {
+			workspace.afterTransactionApplied( false, false );
+		}
+	}
+
+	public void testMergesAreReportedToStatistics() throws InterruptedException {
+		Statistics statistics = getSearchFactory().getStatistics();
+		statistics.clear();
+		for ( int i = 0; i < 10; i++ ) {
+			Session session = openSession();
+			Transaction transaction = session.beginTransaction();
+			Author author = new Author();
+			author.setName( "Author " + i );
+			session.persist( author );
+			transaction.commit();
+			session.close();
+		}
+		getSearchFactory().optimize( Author.class );
+		// the merge is reported right after the IndexWriter is notified of its completion
+		for ( int i = 0; i < 50 && statistics.getIndexMergeCount() == 0; i++ ) {
+			Thread.sleep( 100 );
+		}
+		assertTrue( statistics.getIndexMergeCount() > 0 );
+		assertTrue( statistics.getIndexMergedBytes() > 0 );
+		assertTrue( statistics.getIndexMergeTotalTime() > 0 );
+		assertTrue( statistics.getIndexMergeMaxTime() <= statistics.getIndexMergeTotalTime() );
+	}
+
+	@Override
+	protected void configure(org.hibernate.cfg.Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( Environment.GENERATE_STATS, "true" );
+		cfg.setProperty( "hibernate.search.default.indexwriter.merge_policy", "tiered" );
+		cfg.setProperty( "hibernate.search.default.indexwriter.merge_factor", "2" );
+		cfg.setProperty( "hibernate.search.default.indexwriter.merge_max_thread_count", "1" );
+		cfg.setProperty( "hibernate.search.default.indexwriter.merge_max_mb_per_sec", "20" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Author.class
+		};
+	}
+
+}
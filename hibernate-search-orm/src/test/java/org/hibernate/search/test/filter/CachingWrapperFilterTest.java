@@ -0,0 +1,268 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.filter;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.OpenBitSet;
+
+import org.hibernate.search.filter.impl.CachingWrapperFilter;
+import org.hibernate.search.test.TestConstants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the per segment caching of {@link CachingWrapperFilter}.
+ *
+ * @since 4.1
+ */
+public class CachingWrapperFilterTest {
+
+	private RAMDirectory directory;
+	private IndexWriter writer;
+	private IndexReader reader;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = new RAMDirectory();
+		IndexWriterConfig config = new IndexWriterConfig( TestConstants.getTargetLuceneVersion(), TestConstants.standardAnalyzer );
+		config.setMergePolicy( NoMergePolicy.NO_COMPOUND_FILES );
+		writer = new IndexWriter( directory, config );
+		for ( int segment = 0; segment < 3; segment++ ) {
+			addDocuments( 100 );
+		}
+		reader = IndexReader.open( directory );
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		reader.close();
+		writer.close();
+		directory.close();
+	}
+
+	@Test
+	public void testOnlyNewSegmentsAreFilteredAfterReopen() throws Exception {
+		CountingFilter counting = new CountingFilter();
+		CachingWrapperFilter filter = new CachingWrapperFilter( counting );
+		assertEquals( 150, countMatches( filter, reader ) );
+		assertEquals( 3, counting.invocations.get() );
+		assertEquals( 150, countMatches( filter, reader ) );
+		assertEquals( 3, counting.invocations.get() );
+
+		addDocuments( 100 );
+		IndexReader newReader = IndexReader.openIfChanged( reader );
+		reader.close();
+		reader = newReader;
+		assertEquals( 200, countMatches( filter, reader ) );
+		assertEquals( "Only the new segment should have been filtered", 4, counting.invocations.get() );
+		assertEquals( 4, filter.getCacheSize() );
+	}
+
+	@Test
+	public void testCacheIsBoundedByBytes() throws Exception {
+		IndexReader[] segments = reader.getSequentialSubReaders();
+		CachingWrapperFilter filter = new CachingWrapperFilter( new CountingFilter(), CachingWrapperFilter.DEFAULT_SIZE, 50 );
+		for ( IndexReader segment : segments ) {
+			filter.getDocIdSet( segment );
+		}
+		// a bit set of 100 documents takes 16 bytes
+		assertEquals( 3, filter.getCacheSize() );
+		assertEquals( 48, filter.getCachedBytes() );
+
+		filter = new CachingWrapperFilter( new CountingFilter(), CachingWrapperFilter.DEFAULT_SIZE, 40 );
+		DocIdSet first = filter.getDocIdSet( segments[0] );
+		filter.getDocIdSet( segments[1] );
+		assertSame( first, filter.getDocIdSet( segments[0] ) );
+		filter.getDocIdSet( segments[2] );
+		assertEquals( 2, filter.getCacheSize() );
+		assertTrue( filter.getCachedBytes() <= 40 );
+		assertSame( "The least recently used segment should have been evicted instead", first, filter.getDocIdSet( segments[0] ) );
+	}
+
+	@Test
+	public void testEntriesArePurgedWhenSegmentsAreClosed() throws Exception {
+		CachingWrapperFilter filter = new CachingWrapperFilter( new CountingFilter() );
+		IndexReader otherReader = IndexReader.open( directory );
+		assertEquals( 150, countMatches( filter, otherReader ) );
+		assertEquals( 3, filter.getCacheSize() );
+		otherReader.close();
+		assertEquals( 0, filter.getCacheSize() );
+		assertEquals( 0, filter.getCachedBytes() );
+	}
+
+	@Test
+	public void testFailedComputationIsNotCached() throws Exception {
+		CachingWrapperFilter filter = new CachingWrapperFilter( new FailingOnceFilter() );
+		IndexReader segment = reader.getSequentialSubReaders()[0];
+		try {
+			filter.getDocIdSet( segment );
+			fail( "The failure of the wrapped filter should have been propagated" );
+		}
+		catch (IOException e) {
+			// expected
+		}
+		assertEquals( 0, filter.getCacheSize() );
+		assertEquals( 50, ( (OpenBitSet) filter.getDocIdSet( segment ) ).cardinality() );
+		assertEquals( 1, filter.getCacheSize() );
+	}
+
+	@Test
+	public void testUnusedFiltersAreNotReferencedByReaders() throws Exception {
+		CachingWrapperFilter filter = new CachingWrapperFilter( new CountingFilter() );
+		assertEquals( 150, countMatches( filter, reader ) );
+		WeakReference<CachingWrapperFilter> reference = new WeakReference<CachingWrapperFilter>( filter );
+		filter = null;
+		for ( int i = 0; i < 10 && reference.get() != null; i++ ) {
+			System.gc();
+			Thread.sleep( 10 );
+		}
+		assertNull( "The open reader should not keep the filter and its cache reachable", reference.get() );
+	}
+
+	@Test
+	public void testNonCacheableDocIdSetsAreCopied() throws Exception {
+		Filter filter = new CachingWrapperFilter( new QueryWrapperFilter( new TermQuery( new Term( "parity", "even" ) ) ) );
+		IndexReader segment = reader.getSequentialSubReaders()[0];
+		DocIdSet docIdSet = filter.getDocIdSet( segment );
+		assertTrue( docIdSet.isCacheable() );
+		assertSame( docIdSet, filter.getDocIdSet( segment ) );
+		assertEquals( 50, ( (OpenBitSet) docIdSet ).cardinality() );
+	}
+
+	@Test
+	public void testDocIdSetIsComputedOnceUnderConcurrentAccess() throws Exception {
+		final CountingFilter counting = new CountingFilter();
+		final CachingWrapperFilter filter = new CachingWrapperFilter( counting );
+		final CountDownLatch start = new CountDownLatch( 1 );
+		ExecutorService executor = Executors.newFixedThreadPool( 8 );
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for ( int i = 0; i < 8; i++ ) {
+				results.add(
+						executor.submit(
+								new Callable<Integer>() {
+									public Integer call() throws Exception {
+										start.await();
+										return countMatches( filter, reader );
+									}
+								}
+						)
+				);
+			}
+			start.countDown();
+			for ( Future<Integer> result : results ) {
+				assertEquals( 150, result.get().intValue() );
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals( 3, counting.invocations.get() );
+	}
+
+	private void addDocuments(int count) throws IOException {
+		for ( int i = 0; i < count; i++ ) {
+			Document document = new Document();
+			document.add( new Field( "parity", i % 2 == 0 ? "even" : "odd", Field.Store.NO, Field.Index.NOT_ANALYZED ) );
+			writer.addDocument( document );
+		}
+		writer.commit();
+	}
+
+	private static int countMatches(Filter filter, IndexReader reader) throws IOException {
+		int count = 0;
+		for ( IndexReader segment : reader.getSequentialSubReaders() ) {
+			DocIdSetIterator iterator = filter.getDocIdSet( segment ).iterator();
+			while ( iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS ) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Matches the even documents of each segment, counting its invocations.
+	 */
+	@SuppressWarnings("serial")
+	private static class CountingFilter extends Filter {
+		private final AtomicInteger invocations = new AtomicInteger();
+
+		@Override
+		public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
+			invocations.incrementAndGet();
+			OpenBitSet bits = new OpenBitSet( reader.maxDoc() );
+			for ( int i = 0; i < reader.maxDoc(); i += 2 ) {
+				bits.set( i );
+			}
+			return bits;
+		}
+	}
+
+	/**
+	 * Fails the first time it's invoked, then behaves like {@link CountingFilter}.
+	 */
+	@SuppressWarnings("serial")
+	private static class FailingOnceFilter extends CountingFilter {
+		@Override
+		public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
+			if ( super.invocations.get() == 0 ) {
+				super.invocations.incrementAndGet();
+				throw new IOException( "Failing on purpose" );
+			}
+			return super.getDocIdSet( reader );
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.DocIdBitSet;
+import org.apache.lucene.util.OpenBitSet;
+import org.apache.lucene.util.OpenBitSetIterator;
+import org.apache.lucene.util.SortedVIntList;
+
+import org.hibernate.search.filter.impl.AndDocIdSet;
+import org.hibernate.search.filter.impl.DocIdSetEncodingHelper;
+import org.hibernate.search.filter.impl.SortedIntDocIdSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the compact encodings of cached DocIdSets.
+ *
+ * @since 4.1
+ * @see DocIdSetEncodingHelper
+ */
+public class DocIdSetEncodingTest {
+
+	private static final int MAX_DOC = 100000;
+
+	@Test
+	public void testEncodingDependsOnDensity() throws Exception {
+		BitSet sparse = makeRandomBitSet( 1L, MAX_DOC, 1000 );
+		DocIdSet encoded = DocIdSetEncodingHelper.compact( new DocIdBitSet( sparse ), MAX_DOC );
+		assertTrue( encoded instanceof SortedIntDocIdSet );
+		assertTrue( AndDocIdSetsTest.docIdSetsEqual( new DocIdBitSet( sparse ), encoded ) );
+
+		BitSet moderate = makeRandomBitSet( 2L, MAX_DOC, 30 );
+		encoded = DocIdSetEncodingHelper.compact( new DocIdBitSet( moderate ), MAX_DOC );
+		assertTrue( encoded instanceof SortedVIntList );
+		assertTrue( AndDocIdSetsTest.docIdSetsEqual( new DocIdBitSet( moderate ), encoded ) );
+
+		BitSet dense = makeRandomBitSet( 3L, MAX_DOC, 2 );
+		encoded = DocIdSetEncodingHelper.compact( new DocIdBitSet( dense ), MAX_DOC );
+		assertTrue( encoded instanceof OpenBitSet );
+		assertTrue( AndDocIdSetsTest.docIdSetsEqual( new DocIdBitSet( dense ), encoded ) );
+	}
+
+	@Test
+	public void testSparseBitSetIsShrunk() throws Exception {
+		OpenBitSet bits = new OpenBitSet( MAX_DOC );
+		bits.set( 7 );
+		bits.set( 70000 );
+		DocIdSet encoded = DocIdSetEncodingHelper.compact( bits, MAX_DOC );
+		assertTrue( encoded instanceof SortedIntDocIdSet );
+		assertEquals( 8, DocIdSetEncodingHelper.estimateBytes( encoded, MAX_DOC ) );
+		assertTrue( DocIdSetEncodingHelper.estimateBytes( bits, MAX_DOC ) > 12000 );
+	}
+
+	@Test
+	public void testEmptySets() throws Exception {
+		assertSame( DocIdSet.EMPTY_DOCIDSET, DocIdSetEncodingHelper.compact( null, MAX_DOC ) );
+		assertSame( DocIdSet.EMPTY_DOCIDSET, DocIdSetEncodingHelper.compact( new OpenBitSet( MAX_DOC ), MAX_DOC ) );
+		assertSame( DocIdSet.EMPTY_DOCIDSET, DocIdSetEncodingHelper.compact( new DocIdBitSet( new BitSet() ), MAX_DOC ) );
+	}
+
+	@Test
+	public void testSortedIntAdvance() throws Exception {
+		DocIdSetIterator iterator = new SortedIntDocIdSet( new int[] { 2, 5, 9, 40, 41, 1000 }, 6 ).iterator();
+		assertEquals( -1, iterator.docID() );
+		assertEquals( 2, iterator.advance( 0 ) );
+		assertEquals( 5, iterator.nextDoc() );
+		assertEquals( 40, iterator.advance( 10 ) );
+		assertEquals( 41, iterator.advance( 41 ) );
+		assertEquals( 1000, iterator.advance( 42 ) );
+		assertEquals( DocIdSetIterator.NO_MORE_DOCS, iterator.advance( 1001 ) );
+		assertEquals( DocIdSetIterator.NO_MORE_DOCS, iterator.nextDoc() );
+	}
+
+	@Test
+	public void testAndOnMixedEncodings() throws Exception {
+		Random random = new Random( 13L );
+		for ( int round = 0; round < 10; round++ ) {
+			BitSet expected = null;
+			List<DocIdSet> sets = new ArrayList<DocIdSet>();
+			for ( int density : Arrays.asList( 500, 20, 3, 2 ) ) {
+				BitSet bits = makeRandomBitSet( random.nextLong(), MAX_DOC, density );
+				sets.add( DocIdSetEncodingHelper.compact( new DocIdBitSet( bits ), MAX_DOC ) );
+				if ( expected == null ) {
+					expected = bits;
+				}
+				else {
+					expected.and( bits );
+				}
+			}
+			assertTrue( AndDocIdSetsTest.docIdSetsEqual( new DocIdBitSet( expected ), new AndDocIdSet( sets, MAX_DOC ) ) );
+		}
+	}
+
+	@Test
+	public void testAndOfDenseSetsIsStoredAsBitSet() throws Exception {
+		List<DocIdSet> sets = new ArrayList<DocIdSet>();
+		sets.add( new DocIdBitSet( makeRandomBitSet( 5L, MAX_DOC, 1 ) ) );
+		sets.add( new DocIdBitSet( makeRandomBitSet( 6L, MAX_DOC, 1 ) ) );
+		AndDocIdSet and = new AndDocIdSet( sets, MAX_DOC );
+		assertEquals( MAX_DOC, count( and ) );
+		assertTrue( and.iterator() instanceof OpenBitSetIterator );
+	}
+
+	/**
+	 * @param density one document out of {@code density} on average is set
+	 */
+	@Test
+	public void testCardinalityOfBitSetsIsEstimated() throws Exception {
+		OpenBitSet bits = new OpenBitSet( MAX_DOC );
+		bits.set( 7 );
+		bits.set( 42 );
+		assertEquals( 2, DocIdSetEncodingHelper.estimateCardinality( bits ) );
+		assertEquals( 1, DocIdSetEncodingHelper.estimateCardinality( new SortedIntDocIdSet( new int[] { 7 }, 1 ) ) );
+	}
+
+	static BitSet makeRandomBitSet(long seed, int maxDoc, int density) {
+		Random random = new Random( seed );
+		BitSet bits = new BitSet( maxDoc );
+		for ( int doc = 0; doc < maxDoc; doc++ ) {
+			if ( random.nextInt( density ) == 0 ) {
+				bits.set( doc );
+			}
+		}
+		return bits;
+	}
+
+	private static int count(DocIdSet docIdSet) throws IOException {
+		int count = 0;
+		DocIdSetIterator iterator = docIdSet.iterator();
+		while ( iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS ) {
+			count++;
+		}
+		return count;
+	}
+}
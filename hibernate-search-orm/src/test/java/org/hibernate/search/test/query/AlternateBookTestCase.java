@@ -0,0 +1,85 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query;
+
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.test.util.FullTextSessionBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Base class for the tests querying a set of {@link AlternateBook}s, with ids from 0 to
+ * {@link #getBookCount()} excluded, stored before each test.
+ *
+ * @since 4.1
+ */
+public abstract class AlternateBookTestCase {
+
+	private FullTextSessionBuilder builder;
+	protected FullTextSession sess;
+
+	@Before
+	public void setUp() {
+		builder = new FullTextSessionBuilder();
+		builder.addAnnotatedClass( AlternateBook.class );
+		configure( builder );
+		builder.build();
+		sess = builder.openFullTextSession();
+		Transaction tx = sess.beginTransaction();
+		for ( int i = 0; i < getBookCount(); i++ ) {
+			sess.persist( new AlternateBook( i, getSummary( i ) ) );
+		}
+		tx.commit();
+		sess.clear();
+	}
+
+	@After
+	public void tearDown() {
+		sess.close();
+		builder.close();
+	}
+
+	/**
+	 * @return the number of books stored before each test
+	 */
+	protected abstract int getBookCount();
+
+	/**
+	 * @param id the id of a book
+	 *
+	 * @return the summary of the book
+	 */
+	protected String getSummary(int id) {
+		return "book about the number " + id;
+	}
+
+	/**
+	 * Override to set additional properties before the SessionFactory is built.
+	 */
+	protected void configure(FullTextSessionBuilder builder) {
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2010, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query;
+
+import java.util.Iterator;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.test.util.FullTextSessionBuilder;
+import org.hibernate.stat.Statistics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that iterating and scrolling over the results of a query loads the entities in batches.
+ */
+public class BatchLoadingTest extends AlternateBookTestCase {
+
+	private static final int BOOKS = 95;
+
+	@Override
+	protected int getBookCount() {
+		return BOOKS;
+	}
+
+	@Override
+	protected void configure(FullTextSessionBuilder builder) {
+		builder
+			.setProperty( "hibernate.generate_statistics", "true" )
+			.setProperty( Environment.QUERY_LOADING_BATCH_SIZE, "10" );
+	}
+
+	@Test
+	public void testIterateLoadsConfiguredBatchSize() {
+		Statistics statistics = resetStatistics();
+		Iterator<?> iterator = createQuery().iterate();
+		assertIteratesOverAllBooks( iterator );
+		assertEquals( "One query per batch of 10 books", 10, statistics.getPrepareStatementCount() );
+	}
+
+	@Test
+	public void testIterateLoadsFetchSize() {
+		Statistics statistics = resetStatistics();
+		Iterator<?> iterator = createQuery().setFetchSize( 50 ).iterate();
+		assertIteratesOverAllBooks( iterator );
+		assertEquals( "One query per batch of 50 books", 2, statistics.getPrepareStatementCount() );
+	}
+
+	@Test
+	public void testScrollLoadsConfiguredBatchSize() {
+		Statistics statistics = resetStatistics();
+		ScrollableResults scrollableResults = createQuery().scroll( ScrollMode.FORWARD_ONLY );
+		int position = 0;
+		while ( scrollableResults.next() ) {
+			AlternateBook book = (AlternateBook) scrollableResults.get()[0];
+			assertEquals( position++, book.getId().intValue() );
+		}
+		scrollableResults.close();
+		assertEquals( BOOKS, position );
+		assertEquals( "One query per batch of 10 books", 10, statistics.getPrepareStatementCount() );
+	}
+
+	private FullTextQuery createQuery() {
+		return sess.createFullTextQuery( new TermQuery( new Term( "summary", "number" ) ), AlternateBook.class )
+				.setSort( new Sort( new SortField( "id", SortField.STRING ) ) );
+	}
+
+	private void assertIteratesOverAllBooks(Iterator<?> iterator) {
+		for ( int i = 0; i < BOOKS; i++ ) {
+			assertTrue( iterator.hasNext() );
+			AlternateBook book = (AlternateBook) iterator.next();
+			assertEquals( i, book.getId().intValue() );
+			assertTrue( sess.contains( book ) );
+		}
+		assertFalse( iterator.hasNext() );
+	}
+
+	private Statistics resetStatistics() {
+		Statistics statistics = sess.getSessionFactory().getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query;
+
+import java.util.List;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.hibernate.Transaction;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.query.facet.Facet;
+import org.hibernate.search.query.facet.FacetingRequest;
+import org.hibernate.search.stat.Statistics;
+import org.hibernate.search.test.util.FullTextSessionBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies query results are reused until the index changes.
+ *
+ * @since 4.1
+ */
+public class QueryResultCacheTest extends AlternateBookTestCase {
+
+	private Statistics statistics;
+
+	@Override
+	protected int getBookCount() {
+		return 20;
+	}
+
+	@Override
+	protected String getSummary(int id) {
+		return id % 4 == 0 ? "book about fizz " + id : super.getSummary( id );
+	}
+
+	@Override
+	protected void configure(FullTextSessionBuilder builder) {
+		builder
+			.setProperty( Environment.QUERY_RESULT_CACHE_SIZE, "10" )
+			.setProperty( Environment.GENERATE_STATS, "true" );
+	}
+
+	@Before
+	public void setUpStatistics() {
+		statistics = sess.getSearchFactory().getStatistics();
+	}
+
+	@Test
+	public void testSameQueryReusesResults() {
+		Transaction tx = sess.beginTransaction();
+		List<?> books = createQuery( fizzOrNumber() ).setMaxResults( 5 ).list();
+		assertCacheStatistics( 0, 1 );
+		long executions = statistics.getSearchQueryExecutionCount();
+
+		List<?> cachedBooks = createQuery( fizzOrNumber() ).setMaxResults( 5 ).list();
+		assertCacheStatistics( 1, 1 );
+		assertEquals( executions, statistics.getSearchQueryExecutionCount() );
+		assertEquals( books, cachedBooks );
+
+		createQuery( fizzOrNumber() ).setMaxResults( 6 ).list();
+		createQuery( fizzOrNumber() ).setMaxResults( 5 ).setSort( new Sort( new SortField( "id", SortField.STRING ) ) ).list();
+		assertCacheStatistics( 1, 3 );
+		tx.commit();
+	}
+
+	@Test
+	public void testIndexChangeInvalidatesResults() {
+		Transaction tx = sess.beginTransaction();
+		assertEquals( 5, createQuery( fizz() ).list().size() );
+		tx.commit();
+
+		persist( new AlternateBook( 20, "book about fizz 20" ) );
+
+		tx = sess.beginTransaction();
+		assertEquals( 6, createQuery( fizz() ).list().size() );
+		assertCacheStatistics( 0, 2 );
+		assertEquals( 6, createQuery( fizz() ).list().size() );
+		assertCacheStatistics( 1, 2 );
+		tx.commit();
+	}
+
+	@Test
+	public void testResultSizeReusesCount() {
+		Transaction tx = sess.beginTransaction();
+		assertEquals( 20, createQuery( fizzOrNumber() ).getResultSize() );
+		assertEquals( 20, createQuery( fizzOrNumber() ).getResultSize() );
+		assertCacheStatistics( 1, 1 );
+		tx.commit();
+	}
+
+	@Test
+	public void testFacetsAreCached() {
+		Transaction tx = sess.beginTransaction();
+		List<Facet> facets = facetQuery().getFacetManager().getFacets( "ids" );
+		assertEquals( 5, facets.size() );
+		assertEquals( facets, facetQuery().getFacetManager().getFacets( "ids" ) );
+		assertCacheStatistics( 1, 1 );
+		tx.commit();
+	}
+
+	private FullTextQuery facetQuery() {
+		FacetingRequest request = sess.getSearchFactory().buildQueryBuilder().forEntity( AlternateBook.class ).get()
+				.facet()
+				.name( "ids" )
+				.onField( "id" )
+				.discrete()
+				.includeZeroCounts( false )
+				.createFacetingRequest();
+		FullTextQuery query = createQuery( fizz() );
+		query.getFacetManager().enableFaceting( request );
+		return query;
+	}
+
+	private void assertCacheStatistics(long hits, long misses) {
+		assertEquals( "query result cache hits", hits, statistics.getQueryResultCacheHitCount() );
+		assertEquals( "query result cache misses", misses, statistics.getQueryResultCacheMissCount() );
+	}
+
+	private FullTextQuery createQuery(Query luceneQuery) {
+		return sess.createFullTextQuery( luceneQuery, AlternateBook.class );
+	}
+
+	private static Query fizz() {
+		return new TermQuery( new Term( "summary", "fizz" ) );
+	}
+
+	private static Query fizzOrNumber() {
+		BooleanQuery query = new BooleanQuery();
+		query.add( new TermQuery( new Term( "summary", "fizz" ) ), BooleanClause.Occur.SHOULD );
+		query.add( new TermQuery( new Term( "summary", "number" ) ), BooleanClause.Occur.SHOULD );
+		return query;
+	}
+
+	private void persist(AlternateBook book) {
+		Transaction tx = sess.beginTransaction();
+		sess.persist( book );
+		tx.commit();
+		sess.clear();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.TermQuery;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextQuery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies the number of results of a query is counted right, whether or not it is
+ * read from the index statistics.
+ *
+ * @since 4.1
+ */
+public class QueryResultSizeTest extends AlternateBookTestCase {
+
+	@Override
+	protected int getBookCount() {
+		return 30;
+	}
+
+	@Override
+	protected String getSummary(int id) {
+		return id % 3 == 0 ? "book about fizz " + id : super.getSummary( id );
+	}
+
+	@Test
+	public void testResultSizeWithoutDeletions() {
+		assertResultSizes( 10, 20 );
+	}
+
+	@Test
+	public void testResultSizeWithDeletions() {
+		Transaction tx = sess.beginTransaction();
+		for ( int i = 0; i < 6; i++ ) {
+			sess.delete( sess.load( AlternateBook.class, i ) );
+		}
+		tx.commit();
+		sess.clear();
+		// 0 and 3 were about fizz
+		assertResultSizes( 8, 16 );
+	}
+
+	private void assertResultSizes(int fizzBooks, int numberBooks) {
+		Transaction tx = sess.beginTransaction();
+		int books = fizzBooks + numberBooks;
+		assertEquals( fizzBooks, resultSize( new TermQuery( new Term( "summary", "fizz" ) ) ) );
+		assertEquals( books, resultSize( new TermQuery( new Term( "summary", "book" ) ) ) );
+		assertEquals( 0, resultSize( new TermQuery( new Term( "summary", "missing" ) ) ) );
+		assertEquals( books, resultSize( new MatchAllDocsQuery() ) );
+
+		BooleanQuery booleanQuery = new BooleanQuery();
+		booleanQuery.add( new TermQuery( new Term( "summary", "fizz" ) ), BooleanClause.Occur.SHOULD );
+		booleanQuery.add( new TermQuery( new Term( "summary", "number" ) ), BooleanClause.Occur.SHOULD );
+		assertEquals( books, resultSize( booleanQuery ) );
+
+		FullTextQuery filteredQuery = sess.createFullTextQuery( new TermQuery( new Term( "summary", "book" ) ), AlternateBook.class );
+		filteredQuery.setFilter( new QueryWrapperFilter( new TermQuery( new Term( "summary", "fizz" ) ) ) );
+		assertEquals( fizzBooks, filteredQuery.getResultSize() );
+		assertEquals( fizzBooks, filteredQuery.list().size() );
+		tx.commit();
+	}
+
+	private int resultSize(Query luceneQuery) {
+		FullTextQuery query = sess.createFullTextQuery( luceneQuery, AlternateBook.class );
+		int resultSize = query.getResultSize();
+		assertEquals( query.list().size(), resultSize );
+		return resultSize;
+	}
+
+}
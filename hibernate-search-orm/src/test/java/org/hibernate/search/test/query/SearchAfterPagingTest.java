@@ -0,0 +1,171 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextQuery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pages through results with {@link FullTextQuery#setSearchAfter} and scrolls forward only,
+ * which only keep the current page of hits in memory.
+ *
+ * @since 4.1
+ */
+public class SearchAfterPagingTest extends AlternateBookTestCase {
+
+	private static final int BOOKS = 324;
+
+	@Override
+	protected int getBookCount() {
+		return BOOKS;
+	}
+
+	@Test
+	public void testSortedPagingMatchesOffsetPaging() {
+		Sort sort = new Sort( new SortField( "id", SortField.STRING ) );
+		assertSamePages( new TermQuery( new Term( "summary", "number" ) ), sort, 25 );
+	}
+
+	@Test
+	public void testReverseSortedPagingMatchesOffsetPaging() {
+		Sort sort = new Sort( new SortField( "id", SortField.STRING, true ) );
+		assertSamePages( new TermQuery( new Term( "summary", "number" ) ), sort, 40 );
+	}
+
+	@Test
+	public void testRelevancePagingMatchesOffsetPaging() {
+		BooleanQuery query = new BooleanQuery();
+		query.add( new TermQuery( new Term( "summary", "number" ) ), BooleanClause.Occur.SHOULD );
+		for ( int i = 0; i < 30; i += 3 ) {
+			query.add( new TermQuery( new Term( "summary", String.valueOf( i ) ) ), BooleanClause.Occur.SHOULD );
+		}
+		assertSamePages( query, null, 17 );
+	}
+
+	@Test
+	public void testFirstResultIsRelativeToLastHit() {
+		Transaction tx = sess.beginTransaction();
+		Sort sort = new Sort( new SortField( "id", SortField.STRING ) );
+		FullTextQuery query = sess.createFullTextQuery( new TermQuery( new Term( "summary", "number" ) ), AlternateBook.class )
+				.setSort( sort )
+				.setMaxResults( 10 );
+		query.list();
+		List<?> page = query.setSearchAfter( query.getLastScoreDoc() )
+				.setFirstResult( 5 )
+				.list();
+		assertEquals( 10, page.size() );
+		assertEquals( 15, ( (AlternateBook) page.get( 0 ) ).getId().intValue() );
+		assertEquals( BOOKS, query.getResultSize() );
+		tx.commit();
+	}
+
+	@Test
+	public void testForwardOnlyScrollReturnsAllHits() {
+		Transaction tx = sess.beginTransaction();
+		Sort sort = new Sort( new SortField( "id", SortField.STRING ) );
+		ScrollableResults scrollableResults = sess
+			.createFullTextQuery( new TermQuery( new Term( "summary", "number" ) ), AlternateBook.class )
+			.setSort( sort )
+			.setFetchSize( 10 )
+			.scroll( ScrollMode.FORWARD_ONLY );
+		int position = -1;
+		while ( scrollableResults.next() ) {
+			position++;
+			assertEquals( position, scrollableResults.getRowNumber() );
+			AlternateBook book = (AlternateBook) scrollableResults.get()[0];
+			assertEquals( position, book.getId().intValue() );
+			if ( position % 50 == 0 ) {
+				sess.clear();
+			}
+		}
+		assertEquals( BOOKS - 1, position );
+		// going back executes the query again
+		assertTrue( scrollableResults.scroll( -319 ) );
+		assertEquals( 5, ( (AlternateBook) scrollableResults.get()[0] ).getId().intValue() );
+		scrollableResults.close();
+		tx.commit();
+	}
+
+	private void assertSamePages(Query luceneQuery, Sort sort, int pageSize) {
+		Transaction tx = sess.beginTransaction();
+		List<Integer> expected = new ArrayList<Integer>();
+		for ( int first = 0; first < BOOKS; first += pageSize ) {
+			expected.addAll( ids( createQuery( luceneQuery, sort ).setFirstResult( first ).setMaxResults( pageSize ).list() ) );
+		}
+		assertEquals( BOOKS, expected.size() );
+
+		List<Integer> found = new ArrayList<Integer>();
+		FullTextQuery query = createQuery( luceneQuery, sort ).setMaxResults( pageSize );
+		ScoreDoc lastScoreDoc = null;
+		while ( true ) {
+			List<?> page = query.setSearchAfter( lastScoreDoc ).list();
+			if ( page.isEmpty() ) {
+				break;
+			}
+			found.addAll( ids( page ) );
+			lastScoreDoc = query.getLastScoreDoc();
+			sess.clear();
+		}
+		assertNull( query.getLastScoreDoc() );
+		assertEquals( expected, found );
+		assertEquals( BOOKS, query.getResultSize() );
+		tx.commit();
+	}
+
+	private FullTextQuery createQuery(Query luceneQuery, Sort sort) {
+		FullTextQuery query = sess.createFullTextQuery( luceneQuery, AlternateBook.class );
+		if ( sort != null ) {
+			query.setSort( sort );
+		}
+		return query;
+	}
+
+	private static List<Integer> ids(List<?> books) {
+		List<Integer> ids = new ArrayList<Integer>( books.size() );
+		for ( Object book : books ) {
+			ids.add( ( (AlternateBook) book ).getId() );
+		}
+		return ids;
+	}
+
+}
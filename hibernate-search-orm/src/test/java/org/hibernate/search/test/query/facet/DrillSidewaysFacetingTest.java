@@ -0,0 +1,173 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2011, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query.facet;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.query.engine.spi.FacetManager;
+import org.hibernate.search.query.facet.Facet;
+import org.hibernate.search.query.facet.FacetingRequest;
+
+/**
+ * Tests the facets counted ignoring their own selection.
+ */
+public class DrillSidewaysFacetingTest extends AbstractFacetTest {
+	private final String ccsFacetName = "ccs";
+	private final String colorFacetName = "color";
+
+	public void testDrillSideways() throws Exception {
+		FullTextQuery query = createMatchAllQuery( Car.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( createColorFacetingRequest( true ) );
+		facetManager.enableFaceting( createCcsFacetingRequest( true ) );
+		assertEquals( "Wrong number of query matches", 50, query.getResultSize() );
+		List<Facet> colorFacets = facetManager.getFacets( colorFacetName );
+		List<Facet> ccsFacets = facetManager.getFacets( ccsFacetName );
+		assertFacetCounts( colorFacets, new int[] { 12, 12, 12, 12, 2 } );
+		assertFacetCounts( ccsFacets, new int[] { 17, 16, 16, 1 } );
+
+		// the other colors are still counted
+		facetManager.getFacetGroup( colorFacetName ).selectFacets( colorFacets.get( 0 ) );
+		assertEquals( "Wrong number of query matches", 12, query.list().size() );
+		assertFacetCounts( facetManager.getFacets( colorFacetName ), new int[] { 12, 12, 12, 12, 2 } );
+		assertFacetCounts( facetManager.getFacets( ccsFacetName ), new int[] { 4, 4, 4, 0 } );
+
+		// each dimension is restricted by the selection of the other one
+		facetManager.getFacetGroup( ccsFacetName ).selectFacets( ccsFacets.get( 0 ) );
+		assertEquals( "Wrong number of query matches", 4, query.list().size() );
+		assertFacetCounts( facetManager.getFacets( colorFacetName ), new int[] { 4, 4, 4, 4, 1 } );
+		assertFacetCounts( facetManager.getFacets( ccsFacetName ), new int[] { 4, 4, 4, 0 } );
+
+		facetManager.getFacetGroup( colorFacetName ).clearSelectedFacets();
+		facetManager.getFacetGroup( ccsFacetName ).clearSelectedFacets();
+		assertEquals( "Wrong number of query matches", 50, query.getResultSize() );
+		assertFacetCounts( facetManager.getFacets( colorFacetName ), new int[] { 12, 12, 12, 12, 2 } );
+		assertFacetCounts( facetManager.getFacets( ccsFacetName ), new int[] { 17, 16, 16, 1 } );
+	}
+
+	public void testDrillSidewaysWithDrillDown() throws Exception {
+		FullTextQuery query = createMatchAllQuery( Car.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( createColorFacetingRequest( true ) );
+		facetManager.enableFaceting( createCcsFacetingRequest( false ) );
+		List<Facet> colorFacets = facetManager.getFacets( colorFacetName );
+		List<Facet> ccsFacets = facetManager.getFacets( ccsFacetName );
+
+		facetManager.getFacetGroup( colorFacetName ).selectFacets( colorFacets.get( 0 ) );
+		facetManager.getFacetGroup( ccsFacetName ).selectFacets( ccsFacets.get( 0 ) );
+		assertEquals( "Wrong number of query matches", 4, query.list().size() );
+		assertFacetCounts( facetManager.getFacets( colorFacetName ), new int[] { 4, 4, 4, 4, 1 } );
+		assertFacetCounts( facetManager.getFacets( ccsFacetName ), new int[] { 4, 0, 0, 0 } );
+	}
+
+	public void testDrillSidewaysPaging() throws Exception {
+		FullTextQuery query = createMatchAllQuery( Car.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( createColorFacetingRequest( true ) );
+		List<Facet> colorFacets = facetManager.getFacets( colorFacetName );
+
+		facetManager.getFacetGroup( colorFacetName ).selectFacets( colorFacets.get( 4 ) );
+		query.setFirstResult( 1 ).setMaxResults( 5 );
+		List<?> cars = query.list();
+		assertEquals( "Wrong number of query matches", 2, query.getResultSize() );
+		assertEquals( "Wrong number of results", 1, cars.size() );
+		assertEquals( "yellow", ( (Car) cars.get( 0 ) ).getColor() );
+		assertFacetCounts( facetManager.getFacets( colorFacetName ), new int[] { 12, 12, 12, 12, 2 } );
+	}
+
+	public void testRangeFacetDrillSideways() {
+		final String priceRange = "priceRange";
+		FacetingRequest rangeRequest = queryBuilder( Fruit.class ).facet()
+				.name( priceRange )
+				.onField( "price" )
+				.range()
+				.from( 0.00 ).to( 1.00 )
+				.from( 1.01 ).to( 1.50 )
+				.from( 1.51 ).to( 3.00 )
+				.from( 4.00 ).to( 5.00 )
+				.drillSideways( true )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Fruit.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( rangeRequest );
+
+		List<Facet> facets = facetManager.getFacets( priceRange );
+		facetManager.getFacetGroup( priceRange ).selectFacets( facets.get( 2 ) );
+
+		assertEquals( "Wrong number of query matches", 2, query.list().size() );
+		assertFacetCounts( facetManager.getFacets( priceRange ), new int[] { 5, 3, 2, 0 } );
+	}
+
+	private FacetingRequest createColorFacetingRequest(boolean drillSideways) {
+		return queryBuilder( Car.class ).facet()
+				.name( colorFacetName )
+				.onField( "color" )
+				.discrete()
+				.drillSideways( drillSideways )
+				.createFacetingRequest();
+	}
+
+	private FacetingRequest createCcsFacetingRequest(boolean drillSideways) {
+		return queryBuilder( Car.class ).facet()
+				.name( ccsFacetName )
+				.onField( "cubicCapacity" )
+				.discrete()
+				.drillSideways( drillSideways )
+				.createFacetingRequest();
+	}
+
+	public void loadTestData(Session session) {
+		Transaction tx = session.beginTransaction();
+		for ( int i = 0; i < fruits.length; i++ ) {
+			Fruit fruit = new Fruit( fruits[i], fruitPrices[i] );
+			session.save( fruit );
+		}
+
+		for ( String make : makes ) {
+			for ( String color : colors ) {
+				for ( int cc : ccs ) {
+					Car car = new Car( make, color, cc );
+					session.save( car );
+				}
+			}
+		}
+		Car car = new Car( "Honda", "yellow", 2407 );
+		session.save( car );
+
+		car = new Car( "Ford", "yellow", 2500 );
+		session.save( car );
+		tx.commit();
+		session.clear();
+	}
+
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Car.class,
+				Fruit.class
+		};
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2011, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.query.facet;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.SearchException;
+import org.hibernate.search.query.engine.spi.FacetManager;
+import org.hibernate.search.query.facet.Facet;
+import org.hibernate.search.query.facet.FacetSortOrder;
+import org.hibernate.search.query.facet.FacetingRequest;
+
+/**
+ * Tests faceting on multi-valued and hierarchical fields.
+ */
+public class MultiValuedFacetingTest extends AbstractFacetTest {
+	private final String indexFieldName = "categories";
+	private final String facetName = "categoryFacet";
+
+	public void testMultiValuedFaceting() throws Exception {
+		FacetingRequest request = queryBuilder( Product.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.orderedBy( FacetSortOrder.FIELD_VALUE )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Product.class );
+		query.getFacetManager().enableFaceting( request );
+
+		List<Facet> facetList = query.getFacetManager().getFacets( facetName );
+		assertFacetValues(
+				facetList,
+				new String[] {
+						"Books/Fiction",
+						"Electronics/Computers/Accessories",
+						"Electronics/Computers/Desktops",
+						"Electronics/Computers/Laptops",
+						"Electronics/TV",
+						"Sale"
+				}
+		);
+		assertFacetCounts( facetList, new int[] { 1, 1, 1, 2, 1, 3 } );
+	}
+
+	public void testMultiValuedFacetDrillDown() throws Exception {
+		FacetingRequest request = queryBuilder( Product.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Product.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( request );
+
+		List<Facet> facetList = facetManager.getFacets( facetName );
+		assertEquals( "Sale", facetList.get( 0 ).getValue() );
+		facetManager.getFacetGroup( facetName ).selectFacets( facetList.get( 0 ) );
+		assertEquals( "Wrong number of query matches", 3, query.list().size() );
+	}
+
+	public void testHierarchicalFaceting() throws Exception {
+		FacetingRequest request = queryBuilder( Product.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.hierarchical( "/" )
+				.orderedBy( FacetSortOrder.FIELD_VALUE )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Product.class );
+		query.getFacetManager().enableFaceting( request );
+
+		List<Facet> facetList = query.getFacetManager().getFacets( facetName );
+		assertFacetValues(
+				facetList,
+				new String[] {
+						"Books",
+						"Books/Fiction",
+						"Electronics",
+						"Electronics/Computers",
+						"Electronics/Computers/Accessories",
+						"Electronics/Computers/Desktops",
+						"Electronics/Computers/Laptops",
+						"Electronics/TV",
+						"Sale"
+				}
+		);
+		// a product in several categories of the same parent is counted once for the parent
+		assertFacetCounts( facetList, new int[] { 1, 1, 4, 3, 1, 1, 2, 1, 3 } );
+	}
+
+	public void testRootCategories() throws Exception {
+		FacetingRequest request = queryBuilder( Product.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.hierarchical( "/" )
+				.childrenOf( null )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Product.class );
+		query.getFacetManager().enableFaceting( request );
+
+		List<Facet> facetList = query.getFacetManager().getFacets( facetName );
+		assertFacetValues( facetList, new String[] { "Electronics", "Sale", "Books" } );
+		assertFacetCounts( facetList, new int[] { 4, 3, 1 } );
+	}
+
+	public void testHierarchicalFacetDrillDown() throws Exception {
+		FacetingRequest request = queryBuilder( Product.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.hierarchical( "/" )
+				.childrenOf( "Electronics" )
+				.includeZeroCounts( true )
+				.orderedBy( FacetSortOrder.FIELD_VALUE )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Product.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( request );
+
+		List<Facet> facetList = facetManager.getFacets( facetName );
+		assertFacetValues( facetList, new String[] { "Electronics/Computers", "Electronics/TV" } );
+		assertFacetCounts( facetList, new int[] { 3, 1 } );
+
+		// selecting a path matches the products of its sub categories
+		facetManager.getFacetGroup( facetName ).selectFacets( facetList.get( 0 ) );
+		assertEquals( "Wrong number of query matches", 3, query.list().size() );
+		facetList = facetManager.getFacets( facetName );
+		assertFacetCounts( facetList, new int[] { 3, 0 } );
+	}
+
+	public void testChildrenOfRequiresHierarchicalFacet() throws Exception {
+		try {
+			queryBuilder( Product.class ).facet()
+					.name( facetName )
+					.onField( indexFieldName )
+					.discrete()
+					.childrenOf( "Electronics" )
+					.createFacetingRequest();
+			fail( "childrenOf() should require a path separator" );
+		}
+		catch (SearchException e) {
+			// success
+		}
+	}
+
+	private void assertFacetValues(List<Facet> facetList, String[] values) {
+		assertEquals( "Wrong number of facets", values.length, facetList.size() );
+		for ( int i = 0; i < facetList.size(); i++ ) {
+			assertEquals( "Wrong facet value for facet " + i, values[i], facetList.get( i ).getValue() );
+		}
+	}
+
+	public void loadTestData(Session session) {
+		Transaction tx = session.beginTransaction();
+		session.save( new Product( "Laptop A", "Electronics/Computers/Laptops", "Sale" ) );
+		session.save(
+				new Product( "Laptop B", "Electronics/Computers/Laptops", "Electronics/Computers/Accessories" )
+		);
+		session.save( new Product( "Desktop", "Electronics/Computers/Desktops" ) );
+		session.save( new Product( "Television", "Electronics/TV", "Sale" ) );
+		session.save( new Product( "Novel", "Books/Fiction", "Sale" ) );
+		tx.commit();
+		session.clear();
+	}
+
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Product.class
+		};
+	}
+}
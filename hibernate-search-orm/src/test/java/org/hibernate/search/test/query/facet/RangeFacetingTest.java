@@ -157,6 +157,62 @@ public class RangeFacetingTest extends AbstractFacetTest {
 
 	}
 
+	public void testOverlappingRanges() {
+		FacetingRequest rangeRequest = queryBuilder( Cd.class ).facet()
+				.name( priceRange )
+				.onField( indexFieldName )
+				.range()
+				.below( 1500 )
+				.from( 1000 ).to( 2000 )
+				.above( 1500 ).excludeLimit()
+				.orderedBy( FacetSortOrder.RANGE_DEFINITION_ODER )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Cd.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( rangeRequest );
+
+		List<Facet> facets = facetManager.getFacets( priceRange );
+		assertFacetCounts( facets, new int[] { 5, 7, 5 } );
+	}
+
+	public void testRangesOfSameWidth() {
+		FacetingRequest rangeRequest = queryBuilder( Cd.class ).facet()
+				.name( priceRange )
+				.onField( indexFieldName )
+				.range()
+				.from( 0 ).to( 499 )
+				.from( 500 ).to( 999 )
+				.from( 1000 ).to( 1499 )
+				.from( 1500 ).to( 1999 )
+				.from( 2000 ).to( 2499 )
+				.orderedBy( FacetSortOrder.RANGE_DEFINITION_ODER )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Cd.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( rangeRequest );
+
+		List<Facet> facets = facetManager.getFacets( priceRange );
+		assertFacetCounts( facets, new int[] { 1, 1, 0, 6, 1 } );
+	}
+
+	public void testOverlappingRangesForDouble() {
+		FacetingRequest rangeRequest = queryBuilder( Fruit.class ).facet()
+				.name( priceRange )
+				.onField( indexFieldName )
+				.range()
+				.below( 1.50 )
+				.from( 1.00 ).to( 2.00 )
+				.above( 1.50 ).excludeLimit()
+				.orderedBy( FacetSortOrder.RANGE_DEFINITION_ODER )
+				.createFacetingRequest();
+		FullTextQuery query = createMatchAllQuery( Fruit.class );
+		FacetManager facetManager = query.getFacetManager();
+		facetManager.enableFaceting( rangeRequest );
+
+		List<Facet> facets = facetManager.getFacets( priceRange );
+		assertFacetCounts( facets, new int[] { 5, 7, 5 } );
+	}
+
 	// HSEARCH-770
 	public void testRangeBelowWithFacetSelection() {
 		final String facetingName = "truckHorsePowerFaceting";
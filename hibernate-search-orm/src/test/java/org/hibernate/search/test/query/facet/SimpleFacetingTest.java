@@ -142,6 +142,54 @@ public class SimpleFacetingTest extends AbstractFacetTest {
 		assertFacetCounts( facetList, new int[] { 5 } );
 	}
 
+	public void testMaxFacetCountSmallerThanValueCountIncludingZeroCounts() throws Exception {
+		FacetingRequest request = queryBuilder( Car.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.orderedBy( FacetSortOrder.COUNT_ASC )
+				.includeZeroCounts( true )
+				.maxFacetCount( 2 )
+				.createFacetingRequest();
+		FullTextQuery query = queryHondaWithFacet( request );
+
+		List<Facet> facetList = query.getFacetManager().getFacets( facetName );
+		assertFacetCounts( facetList, new int[] { 0, 4 } );
+	}
+
+	public void testMaxFacetCountSmallerThanValueCountExcludingZeroCounts() throws Exception {
+		FacetingRequest request = queryBuilder( Car.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.orderedBy( FacetSortOrder.COUNT_ASC )
+				.includeZeroCounts( false )
+				.maxFacetCount( 2 )
+				.createFacetingRequest();
+		FullTextQuery query = queryHondaWithFacet( request );
+
+		List<Facet> facetList = query.getFacetManager().getFacets( facetName );
+		assertFacetCounts( facetList, new int[] { 4, 4 } );
+	}
+
+	public void testMaxFacetCountSmallerThanValueCountSortedByValue() throws Exception {
+		FacetingRequest request = queryBuilder( Car.class ).facet()
+				.name( facetName )
+				.onField( indexFieldName )
+				.discrete()
+				.orderedBy( FacetSortOrder.FIELD_VALUE )
+				.includeZeroCounts( false )
+				.maxFacetCount( 3 )
+				.createFacetingRequest();
+		FullTextQuery query = queryHondaWithFacet( request );
+
+		List<Facet> facetList = query.getFacetManager().getFacets( facetName );
+		assertEquals( "The number of facets should be restricted", 3, facetList.size() );
+		assertEquals( "2407", facetList.get( 0 ).getValue() );
+		assertEquals( "2831", facetList.get( 1 ).getValue() );
+		assertEquals( "3398", facetList.get( 2 ).getValue() );
+	}
+
 	public void testNullFieldNameThrowsException() {
 		try {
 			queryBuilder( Car.class ).facet()
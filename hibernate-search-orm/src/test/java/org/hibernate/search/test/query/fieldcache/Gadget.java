@@ -0,0 +1,83 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.test.query.fieldcache;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.CacheFromIndex;
+import org.hibernate.search.annotations.DocumentId;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.FieldCacheType;
+import org.hibernate.search.annotations.Indexed;
+import org.hibernate.search.annotations.NumericField;
+import org.hibernate.search.annotations.Store;
+
+/**
+ * Entity having fields which can be projected from the FieldCache
+ * (id, code and stock) and one which can't (description).
+ */
+@Entity
+@Indexed
+@CacheFromIndex({ FieldCacheType.CLASS, FieldCacheType.PROJECTIONS })
+public class Gadget {
+
+	@Id
+	@DocumentId
+	private Long id;
+
+	@Field(analyze = Analyze.NO, store = Store.YES)
+	private String code;
+
+	@Field(store = Store.YES)
+	@NumericField
+	private Integer stock;
+
+	@Field(store = Store.YES)
+	private String description;
+
+	public Gadget() {
+	}
+
+	public Gadget(Long id, String code, Integer stock, String description) {
+		this.id = id;
+		this.code = code;
+		this.stock = stock;
+		this.description = description;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public Integer getStock() {
+		return stock;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+}
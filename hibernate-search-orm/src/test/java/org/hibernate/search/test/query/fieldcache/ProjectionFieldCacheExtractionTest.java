@@ -0,0 +1,155 @@
+/* 
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.hibernate.search.test.query.fieldcache;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.ProjectionConstants;
+import org.hibernate.search.Search;
+import org.hibernate.search.query.dsl.QueryBuilder;
+import org.hibernate.search.test.SearchTestCase;
+import org.hibernate.search.test.util.FieldSelectorLeakingReaderProvider;
+
+/**
+ * Verifies projected fields are read from the FieldCache when
+ * {@link org.hibernate.search.annotations.FieldCacheType#PROJECTIONS} is enabled.
+ */
+public class ProjectionFieldCacheExtractionTest extends SearchTestCase {
+
+	private static final int NUM_GADGETS = 50;
+
+	public void setUp() throws Exception {
+		super.setUp();
+		prepareData();
+	}
+
+	public void testProjectionsFromFieldCacheOnly() {
+		Session session = openSession();
+		Transaction tx = session.beginTransaction();
+		FieldSelectorLeakingReaderProvider.resetFieldSelector();
+		List<Object[]> results = createQuery( session, ProjectionConstants.ID, "code", "stock" ).list();
+		// no stored field had to be loaded
+		FieldSelectorLeakingReaderProvider.assertFieldSelectorDisabled();
+		Assert.assertEquals( NUM_GADGETS, results.size() );
+		for ( int i = 0; i < NUM_GADGETS; i++ ) {
+			Object[] projection = results.get( i );
+			Assert.assertEquals( Long.valueOf( i ), projection[0] );
+			Assert.assertEquals( code( i ), projection[1] );
+			Assert.assertEquals( Integer.valueOf( 100 - i ), projection[2] );
+		}
+		tx.commit();
+		session.close();
+	}
+
+	public void testStoredOnlyFieldsStillLoaded() {
+		Session session = openSession();
+		Transaction tx = session.beginTransaction();
+		FieldSelectorLeakingReaderProvider.resetFieldSelector();
+		List<Object[]> results = createQuery( session, "code", "description", "id" ).list();
+		// the analyzed description is the only field needing the stored Document
+		FieldSelectorLeakingReaderProvider.assertFieldSelectorEnabled( "description" );
+		Assert.assertEquals( NUM_GADGETS, results.size() );
+		for ( int i = 0; i < NUM_GADGETS; i++ ) {
+			Object[] projection = results.get( i );
+			Assert.assertEquals( code( i ), projection[0] );
+			Assert.assertEquals( "Gadget number " + i, projection[1] );
+			Assert.assertEquals( Long.valueOf( i ), projection[2] );
+		}
+		tx.commit();
+		session.close();
+	}
+
+	public void testEntityLoading() {
+		Session session = openSession();
+		Transaction tx = session.beginTransaction();
+		FieldSelectorLeakingReaderProvider.resetFieldSelector();
+		List<Gadget> gadgets = createQuery( session ).list();
+		FieldSelectorLeakingReaderProvider.assertFieldSelectorDisabled();
+		Assert.assertEquals( NUM_GADGETS, gadgets.size() );
+		for ( int i = 0; i < NUM_GADGETS; i++ ) {
+			Assert.assertEquals( code( i ), gadgets.get( i ).getCode() );
+		}
+		tx.commit();
+		session.close();
+	}
+
+	private FullTextQuery createQuery(Session session, String... projections) {
+		QueryBuilder queryBuilder = getSearchFactory().buildQueryBuilder().forEntity( Gadget.class ).get();
+		Query query = queryBuilder.all().createQuery();
+		FullTextSession fullTextSession = Search.getFullTextSession( session );
+		FullTextQuery fullTextQuery = fullTextSession.createFullTextQuery( query, Gadget.class );
+		// not in document order, to verify the docId transformations across segments
+		fullTextQuery.setSort( new Sort( new SortField( "code", SortField.STRING ) ) );
+		if ( projections.length > 0 ) {
+			fullTextQuery.setProjection( projections );
+		}
+		return fullTextQuery;
+	}
+
+	private static String code(int i) {
+		// zero padded so that sorting by code matches the id order
+		return String.format( "G%03d", i );
+	}
+
+	private void prepareData() {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		// persisted in reverse order so that documents are not sorted by code
+		for ( int i = NUM_GADGETS - 1; i >= 0; i-- ) {
+			session.persist( new Gadget( Long.valueOf( i ), code( i ), Integer.valueOf( 100 - i ), "Gadget number " + i ) );
+		}
+		transaction.commit();
+		session.close();
+	}
+
+	public void tearDown() throws Exception {
+		Session session = openSession();
+		Transaction tx = session.beginTransaction();
+		session.createQuery( "delete Gadget" ).executeUpdate();
+		tx.commit();
+		session.close();
+		super.tearDown();
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class<?>[] { Gadget.class };
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		// force multiple segments
+		cfg.setProperty( "hibernate.search.default.indexwriter.transaction.max_merge_docs", "10" );
+		cfg.setProperty( "hibernate.search.default." + Environment.READER_STRATEGY, FieldSelectorLeakingReaderProvider.class.getName() );
+	}
+
+}
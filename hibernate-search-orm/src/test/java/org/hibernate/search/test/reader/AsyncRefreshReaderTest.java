@@ -0,0 +1,104 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.reader;
+
+import org.apache.lucene.index.IndexReader;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.indexes.impl.SharingBufferReaderProvider;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.indexes.spi.ReaderProvider;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies IndexReaders are reopened by the background thread when
+ * {@link SharingBufferReaderProvider#ASYNC_REFRESH} is enabled.
+ *
+ * @since 4.1
+ */
+public class AsyncRefreshReaderTest extends SearchTestCase {
+
+	public void testCommitsTriggerBackgroundRefresh() throws Exception {
+		ReaderProvider readerProvider = getIndexManager().getReaderProvider();
+		IndexReader emptyReader = readerProvider.openIndexReader();
+		assertEquals( 0, emptyReader.numDocs() );
+		// without changes queries share the same reader
+		IndexReader sameReader = readerProvider.openIndexReader();
+		assertSame( emptyReader, sameReader );
+		readerProvider.closeIndexReader( sameReader );
+
+		storeDetective( "Hercule Poirot", "Belgian" );
+		IndexReader refreshedReader = waitForDocuments( readerProvider, 1 );
+		assertNotSame( emptyReader, refreshedReader );
+		// still usable by whoever opened it before the refresh
+		assertEquals( 0, emptyReader.numDocs() );
+		readerProvider.closeIndexReader( emptyReader );
+		readerProvider.closeIndexReader( refreshedReader );
+	}
+
+	private IndexReader waitForDocuments(ReaderProvider readerProvider, int expected) throws InterruptedException {
+		for ( int i = 0; i < 500; i++ ) {
+			IndexReader reader = readerProvider.openIndexReader();
+			if ( reader.numDocs() == expected ) {
+				return reader;
+			}
+			readerProvider.closeIndexReader( reader );
+			Thread.sleep( 10 );
+		}
+		fail( "The IndexReader was not refreshed" );
+		return null;
+	}
+
+	private IndexManager getIndexManager() {
+		return getSearchFactoryImpl().getAllIndexesManager().getIndexManager( Detective.class.getName() );
+	}
+
+	private void storeDetective(String name, String badge) {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		Detective detective = new Detective();
+		detective.setName( name );
+		detective.setBadge( badge );
+		session.persist( detective );
+		transaction.commit();
+		session.close();
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default.reader." + SharingBufferReaderProvider.ASYNC_REFRESH, "true" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Detective.class,
+				Suspect.class
+		};
+	}
+
+}
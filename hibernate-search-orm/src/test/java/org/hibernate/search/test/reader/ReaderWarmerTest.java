@@ -0,0 +1,133 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.reader;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.MatchAllDocsQuery;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.hibernate.search.indexes.impl.FieldCacheReaderWarmer;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies reopened IndexReaders are warmed up before being used by queries.
+ *
+ * @since 4.1
+ */
+public class ReaderWarmerTest extends SearchTestCase {
+
+	public void testReopenedReaderIsWarmedBeforeUse() throws Exception {
+		CountingWarmer.reset();
+		storeDetective( "Hercule Poirot", "Belgian" );
+		waitForResults( 1 );
+		assertTrue( CountingWarmer.warmedReaders.get() >= 1 );
+		assertTrue( isFieldCached( "badge" ) );
+
+		int warmedBefore = CountingWarmer.warmedReaders.get();
+		storeDetective( "Miss Marple", "English" );
+		waitForResults( 2 );
+		assertTrue( CountingWarmer.warmedReaders.get() > warmedBefore );
+		// the segment written by the first transaction was already warm
+		assertEquals( 1, CountingWarmer.lastNewSegments.get() );
+	}
+
+	private boolean isFieldCached(String field) {
+		for ( FieldCache.CacheEntry entry : FieldCache.DEFAULT.getCacheEntries() ) {
+			if ( field.equals( entry.getFieldName() ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void waitForResults(int expected) throws InterruptedException {
+		int found = -1;
+		for ( int i = 0; i < 500 && found != expected; i++ ) {
+			if ( i > 0 ) {
+				Thread.sleep( 10 );
+			}
+			FullTextSession session = Search.getFullTextSession( openSession() );
+			Transaction transaction = session.beginTransaction();
+			found = session.createFullTextQuery( new MatchAllDocsQuery(), Detective.class ).getResultSize();
+			transaction.commit();
+			session.close();
+		}
+		assertEquals( expected, found );
+	}
+
+	private void storeDetective(String name, String badge) {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		Detective detective = new Detective();
+		detective.setName( name );
+		detective.setBadge( badge );
+		session.persist( detective );
+		transaction.commit();
+		session.close();
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default.reader.warmer", CountingWarmer.class.getName() );
+		cfg.setProperty( "hibernate.search.default.reader." + FieldCacheReaderWarmer.FIELDS, "badge, name:string" );
+		cfg.setProperty( "hibernate.search.default.reader." + FieldCacheReaderWarmer.QUERIES, "badge:Belgian; name:poirot" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Detective.class,
+				Suspect.class
+		};
+	}
+
+	public static class CountingWarmer extends FieldCacheReaderWarmer {
+
+		static final AtomicInteger warmedReaders = new AtomicInteger();
+		static final AtomicInteger lastNewSegments = new AtomicInteger();
+
+		static void reset() {
+			warmedReaders.set( 0 );
+			lastNewSegments.set( 0 );
+		}
+
+		@Override
+		public void warm(IndexReader reader, List<IndexReader> newSegments) {
+			super.warm( reader, newSegments );
+			lastNewSegments.set( newSegments.size() );
+			warmedReaders.incrementAndGet();
+		}
+
+	}
+
+}
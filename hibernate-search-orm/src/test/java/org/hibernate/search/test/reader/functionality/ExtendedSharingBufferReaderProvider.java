@@ -211,9 +211,9 @@ public class ExtendedSharingBufferReaderProvider extends SharingBufferReaderProv
 		}
 
 		@Override
-		public synchronized IndexReader reopen() {
+		protected synchronized IndexReader doOpenIfChanged() {
 			if ( isIndexReaderCurrent.get() ) {
-				return this;
+				return null;
 			}
 			else {
 				if ( hasAlreadyBeenReOpened.compareAndSet( false, true ) ) {
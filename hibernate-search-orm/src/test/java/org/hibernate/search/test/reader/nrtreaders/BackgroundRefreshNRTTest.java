@@ -0,0 +1,87 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.reader.nrtreaders;
+
+import org.apache.lucene.index.IndexReader;
+import org.hibernate.Session;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.indexes.impl.NRTIndexManager;
+import org.hibernate.search.indexes.spi.ReaderProvider;
+import org.hibernate.search.test.Document;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies that with a max staleness the NRT IndexReader is not refreshed
+ * after each transaction, but waiting for a generation makes the changes visible.
+ *
+ * @since 4.1
+ */
+public class BackgroundRefreshNRTTest extends SearchTestCase {
+
+	public void testChangesVisibleAfterWaitingForGeneration() {
+		NRTIndexManager indexManager = (NRTIndexManager) getSearchFactoryImpl().getAllIndexesManager().getIndexManager( "Documents" );
+		assertEquals( 0, countDocuments( indexManager ) );
+
+		Session s = getSessions().openSession();
+		s.getTransaction().begin();
+		s.persist( new Document( "Hibernate in Action", "Object/relational mapping with Hibernate", "blah blah blah" ) );
+		s.getTransaction().commit();
+		s.close();
+
+		long generation = indexManager.getCurrentGeneration();
+		assertEquals( 1, generation );
+		// the reader is refreshed at most once a minute, unless somebody waits for it
+		assertEquals( 0, countDocuments( indexManager ) );
+		indexManager.waitForGeneration( generation );
+		assertEquals( 1, countDocuments( indexManager ) );
+	}
+
+	private int countDocuments(NRTIndexManager indexManager) {
+		ReaderProvider readerProvider = indexManager.getReaderProvider();
+		IndexReader reader = readerProvider.openIndexReader();
+		try {
+			return reader.numDocs();
+		}
+		finally {
+			readerProvider.closeIndexReader( reader );
+		}
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Document.class
+		};
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default.indexmanager", "near-real-time" );
+		cfg.setProperty( "hibernate.search.default." + Environment.NRT_MAX_STALENESS, "60000" );
+		cfg.setProperty( "hibernate.search.default." + Environment.NRT_MIN_REFRESH_INTERVAL, "0" );
+	}
+
+}
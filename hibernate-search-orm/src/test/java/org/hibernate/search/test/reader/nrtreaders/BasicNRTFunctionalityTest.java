@@ -30,6 +30,7 @@ import org.hibernate.search.Search;
 import org.hibernate.search.engine.spi.SearchFactoryImplementor;
 import org.hibernate.search.indexes.impl.NRTIndexManager;
 import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.indexes.spi.ReaderProvider;
 import org.hibernate.search.test.AlternateDocument;
 import org.hibernate.search.test.Document;
 import org.hibernate.search.test.SearchTestCase;
@@ -102,6 +103,51 @@ public class BasicNRTFunctionalityTest extends SearchTestCase {
 		assertEquals( 0, getDocumentNbrFromReaderProvider( indexManager ) );
 	}
 
+	public void testReaderInUseIsNotClosedOnRefresh() throws Exception {
+		NRTIndexManager indexManager = (NRTIndexManager) getSearchFactoryImpl().getAllIndexesManager().getIndexManager( "Documents" );
+		ReaderProvider readerProvider = indexManager.getReaderProvider();
+		Document first = storeDocument( "Hibernate in Action" );
+
+		IndexReader oldReader = readerProvider.openIndexReader();
+		IndexReader sameReader = readerProvider.openIndexReader();
+		assertSame( "readers should be shared until the index changes", oldReader, sameReader );
+		readerProvider.closeIndexReader( sameReader );
+		assertEquals( 1, oldReader.numDocs() );
+
+		Document second = storeDocument( "Lucene in Action" );
+
+		IndexReader newReader = readerProvider.openIndexReader();
+		try {
+			assertNotSame( oldReader, newReader );
+			assertEquals( 2, newReader.numDocs() );
+			// the replaced reader is still open as we didn't release it yet
+			assertEquals( 1, oldReader.getRefCount() );
+			assertEquals( 1, oldReader.numDocs() );
+		}
+		finally {
+			readerProvider.closeIndexReader( newReader );
+			readerProvider.closeIndexReader( oldReader );
+		}
+		assertEquals( 0, oldReader.getRefCount() );
+
+		Session s = getSessions().openSession();
+		s.getTransaction().begin();
+		s.delete( s.get( Document.class, first.getId() ) );
+		s.delete( s.get( Document.class, second.getId() ) );
+		s.getTransaction().commit();
+		s.close();
+	}
+
+	private Document storeDocument(String title) {
+		Document document = new Document( title, "Object/relational mapping with Hibernate", "blah blah blah" );
+		Session s = getSessions().openSession();
+		s.getTransaction().begin();
+		s.persist( document );
+		s.getTransaction().commit();
+		s.close();
+		return document;
+	}
+
 	private int getDocumentNbrFromReaderProvider(NRTIndexManager indexManager) {
 		IndexReader reader = indexManager.getReaderProvider().openIndexReader();
 		try {
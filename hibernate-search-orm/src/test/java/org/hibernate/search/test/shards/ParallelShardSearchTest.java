@@ -0,0 +1,130 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.shards;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.hibernate.search.query.facet.Facet;
+import org.hibernate.search.query.facet.FacetingRequest;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies the results of queries searching the shards of an index in parallel
+ * are merged as if they were searched sequentially.
+ *
+ * @since 4.1
+ */
+public class ParallelShardSearchTest extends SearchTestCase {
+
+	private static final String[] NAMES = { "Elephant", "Bear", "Mouse", "Bear", "Elephant", "Bear", "Mouse", "Bear", "Tiger" };
+
+	public void testSortedPaginationAcrossShards() {
+		storeAnimals();
+		FullTextSession session = Search.getFullTextSession( openSession() );
+		Transaction transaction = session.beginTransaction();
+		FullTextQuery query = session.createFullTextQuery( new MatchAllDocsQuery(), Animal.class );
+		query.setSort( new Sort( new SortField( "id", SortField.STRING, true ) ) );
+		query.setFirstResult( 2 ).setMaxResults( 3 );
+		List<?> animals = query.list();
+		assertEquals( 3, animals.size() );
+		assertEquals( Integer.valueOf( 7 ), ( (Animal) animals.get( 0 ) ).getId() );
+		assertEquals( Integer.valueOf( 6 ), ( (Animal) animals.get( 1 ) ).getId() );
+		assertEquals( Integer.valueOf( 5 ), ( (Animal) animals.get( 2 ) ).getId() );
+		assertEquals( NAMES.length, query.getResultSize() );
+		transaction.commit();
+		session.close();
+	}
+
+	public void testHitsAndFacetsMergedAcrossShards() {
+		storeAnimals();
+		FullTextSession session = Search.getFullTextSession( openSession() );
+		Transaction transaction = session.beginTransaction();
+		Query luceneQuery = session.getSearchFactory().buildQueryBuilder().forEntity( Animal.class ).get()
+				.keyword().onField( "name" ).matching( "bear elephant" ).createQuery();
+		assertEquals( 6, session.createFullTextQuery( luceneQuery, Animal.class ).getResultSize() );
+
+		FacetingRequest request = session.getSearchFactory().buildQueryBuilder().forEntity( Animal.class ).get()
+				.facet()
+				.name( "names" )
+				.onField( "name" )
+				.discrete()
+				.createFacetingRequest();
+		FullTextQuery query = session.createFullTextQuery( new MatchAllDocsQuery(), Animal.class );
+		query.limitExecutionTimeTo( 1, TimeUnit.MINUTES );
+		query.getFacetManager().enableFaceting( request );
+		assertEquals( NAMES.length, query.list().size() );
+		assertFalse( query.hasPartialResults() );
+		List<Facet> facets = query.getFacetManager().getFacets( "names" );
+		assertEquals( 4, facets.size() );
+		assertEquals( "bear", facets.get( 0 ).getValue() );
+		assertEquals( 4, facets.get( 0 ).getCount() );
+		assertEquals( 2, facets.get( 1 ).getCount() );
+		assertEquals( 2, facets.get( 2 ).getCount() );
+		assertEquals( "tiger", facets.get( 3 ).getValue() );
+		assertEquals( 1, facets.get( 3 ).getCount() );
+		transaction.commit();
+		session.close();
+	}
+
+	private void storeAnimals() {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		for ( int i = 0; i < NAMES.length; i++ ) {
+			Animal animal = new Animal();
+			animal.setId( i + 1 );
+			animal.setName( NAMES[i] );
+			session.persist( animal );
+		}
+		transaction.commit();
+		session.close();
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.Animal.sharding_strategy.nbr_of_shards", "3" );
+		cfg.setProperty( Environment.QUERY_SHARD_SEARCH_THREADS, "2" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Animal.class
+		};
+	}
+
+}
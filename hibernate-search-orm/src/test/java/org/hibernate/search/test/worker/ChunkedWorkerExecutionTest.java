@@ -0,0 +1,96 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.worker;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.backend.impl.lucene.WorkerExecutionCounters;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies small queues are applied inline and larger ones in chunks
+ * shared among the worker threads.
+ *
+ * @since 4.1
+ */
+public class ChunkedWorkerExecutionTest extends SearchTestCase {
+
+	public void testQueuesAreAppliedInlineOrInChunks() {
+		DirectoryBasedIndexManager indexManager = (DirectoryBasedIndexManager) getSearchFactoryImpl()
+				.getIndexBindingForEntity( Drink.class ).getIndexManagers()[0];
+		LuceneBackendQueueProcessor backend = (LuceneBackendQueueProcessor) indexManager.getBackendQueueProcessor();
+		WorkerExecutionCounters counters = backend.getIndexResources().getExecutionCounters();
+
+		storeDrinks( 2 );
+		assertEquals( 1, counters.getInlineQueueCount() );
+		assertEquals( 0, counters.getChunkedQueueCount() );
+
+		storeDrinks( 20 );
+		assertEquals( 1, counters.getInlineQueueCount() );
+		assertEquals( 1, counters.getChunkedQueueCount() );
+		assertEquals( 4, counters.getChunkCount() );
+		assertEquals( 5d, counters.getAverageChunkSize() );
+
+		FullTextSession session = Search.getFullTextSession( openSession() );
+		Transaction transaction = session.beginTransaction();
+		assertEquals( 22, session.createFullTextQuery( new MatchAllDocsQuery(), Drink.class ).getResultSize() );
+		transaction.commit();
+		session.close();
+	}
+
+	private void storeDrinks(int number) {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		for ( int i = 0; i < number; i++ ) {
+			Drink drink = new Drink();
+			drink.setName( "Drink " + i );
+			session.persist( drink );
+		}
+		transaction.commit();
+		session.close();
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_THREADPOOL_SIZE, "4" );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_INLINE_THRESHOLD, "2" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Drink.class
+		};
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.ProjectionConstants;
+import org.hibernate.search.Search;
+import org.hibernate.search.backend.AddLuceneWork;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.UpdateLuceneWork;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies that the operations on the same entity are applied in queue order
+ * when the queue is split in chunks.
+ *
+ * @since 4.1
+ */
+public class ChunkedWorkerOrderingTest extends SearchTestCase {
+
+	public void testOperationsOnTheSameEntityAreAppliedInQueueOrder() {
+		DirectoryBasedIndexManager indexManager = (DirectoryBasedIndexManager) getSearchFactoryImpl()
+				.getIndexBindingForEntity( Drink.class ).getIndexManagers()[0];
+		// 20 operations are split in 4 chunks of 5: by position, the three operations
+		// on the same drink would be applied by three different chunks
+		List<LuceneWork> queue = new ArrayList<LuceneWork>();
+		for ( int i = 0; i < 20; i++ ) {
+			if ( i == 0 ) {
+				queue.add( new AddLuceneWork( 1, "1", Drink.class, createDocument( 1, "first" ) ) );
+			}
+			else if ( i == 10 ) {
+				queue.add( new UpdateLuceneWork( 1, "1", Drink.class, createDocument( 1, "second" ) ) );
+			}
+			else if ( i == 19 ) {
+				queue.add( new UpdateLuceneWork( 1, "1", Drink.class, createDocument( 1, "third" ) ) );
+			}
+			else {
+				queue.add( new AddLuceneWork( 100 + i, String.valueOf( 100 + i ), Drink.class, createDocument( 100 + i, "other" ) ) );
+			}
+		}
+		indexManager.performOperations( queue, null );
+
+		assertEquals( 1, countDrinks( new TermQuery( new Term( "id", "1" ) ) ) );
+		assertEquals( 1, countDrinks( new TermQuery( new Term( "name", "third" ) ) ) );
+		assertEquals( 0, countDrinks( new TermQuery( new Term( "name", "second" ) ) ) );
+		assertEquals( 17, countDrinks( new TermQuery( new Term( "name", "other" ) ) ) );
+	}
+
+	private Document createDocument(int id, String name) {
+		Document document = new Document();
+		document.add( new Field( ProjectionConstants.OBJECT_CLASS, Drink.class.getName(), Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+		document.add( new Field( "id", String.valueOf( id ), Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+		document.add( new Field( "name", name, Field.Store.NO, Field.Index.ANALYZED ) );
+		return document;
+	}
+
+	private int countDrinks(Query query) {
+		FullTextSession session = Search.getFullTextSession( openSession() );
+		Transaction transaction = session.beginTransaction();
+		try {
+			return session.createFullTextQuery( query, Drink.class ).getResultSize();
+		}
+		finally {
+			transaction.commit();
+			session.close();
+		}
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_THREADPOOL_SIZE, "4" );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_INLINE_THRESHOLD, "2" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Drink.class
+		};
+	}
+
+}
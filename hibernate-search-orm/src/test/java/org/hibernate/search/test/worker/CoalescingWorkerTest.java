@@ -0,0 +1,124 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.worker;
+
+import java.util.concurrent.locks.Lock;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.hibernate.search.backend.impl.lucene.IndexingQueueCounters;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies queued updates of the same entity are coalesced, keeping only the last one.
+ *
+ * @since 4.1
+ */
+public class CoalescingWorkerTest extends SearchTestCase {
+
+	public void testOnlyLastUpdateIsApplied() throws Exception {
+		DirectoryBasedIndexManager indexManager = (DirectoryBasedIndexManager) getSearchFactoryImpl()
+				.getIndexBindingForEntity( Drink.class ).getIndexManagers()[0];
+		LuceneBackendQueueProcessor backend = (LuceneBackendQueueProcessor) indexManager.getBackendQueueProcessor();
+		IndexingQueueCounters counters = backend.getIndexResources().getQueueCounters();
+
+		Integer id;
+		Lock lock = backend.getExclusiveWriteLock();
+		lock.lock();
+		try {
+			id = storeDrink( "water" );
+			// wait for the queue processor to be blocked on the first transaction
+			for ( int i = 0; i < 500 && backend.getQueueDepth() != 0; i++ ) {
+				Thread.sleep( 10 );
+			}
+			renameDrink( id, "coffee" );
+			renameDrink( id, "tea" );
+			renameDrink( id, "juice" );
+		}
+		finally {
+			lock.unlock();
+		}
+		for ( int i = 0; i < 500 && countDrinks( "juice" ) == 0; i++ ) {
+			Thread.sleep( 10 );
+		}
+		assertEquals( 1, countDrinks( "juice" ) );
+		assertEquals( 0, countDrinks( "water" ) );
+		assertEquals( 0, countDrinks( "coffee" ) );
+		assertEquals( 0, countDrinks( "tea" ) );
+		assertEquals( 2, counters.getCoalescedCount() );
+	}
+
+	private Integer storeDrink(String name) {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		Drink drink = new Drink();
+		drink.setName( name );
+		session.persist( drink );
+		transaction.commit();
+		session.close();
+		return drink.getId();
+	}
+
+	private void renameDrink(Integer id, String name) {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		Drink drink = (Drink) session.get( Drink.class, id );
+		drink.setName( name );
+		transaction.commit();
+		session.close();
+	}
+
+	private int countDrinks(String name) {
+		FullTextSession session = Search.getFullTextSession( openSession() );
+		Transaction transaction = session.beginTransaction();
+		int count = session.createFullTextQuery( new TermQuery( new Term( "name", name ) ), Drink.class ).getResultSize();
+		transaction.commit();
+		session.close();
+		return count;
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_EXECUTION, "async" );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_COALESCE, "true" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Drink.class
+		};
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.worker;
+
+import org.apache.lucene.analysis.StopAnalyzer;
+
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.backend.impl.lucene.IndexCommitCounters;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+
+/**
+ * Runs the concurrent worker test using the async backend with group commit enabled,
+ * and verifies the commit counters.
+ *
+ * @since 4.1
+ */
+public class GroupCommitWorkerTest extends WorkerTestCase {
+
+	@Override
+	public void testConcurrency() throws Exception {
+		DirectoryBasedIndexManager indexManager = (DirectoryBasedIndexManager) getSearchFactoryImpl()
+				.getIndexBindingForEntity( Employee.class ).getIndexManagers()[0];
+		LuceneBackendQueueProcessor backend = (LuceneBackendQueueProcessor) indexManager.getBackendQueueProcessor();
+		super.testConcurrency();
+		// the SessionFactory is closed now, so all queued work was applied
+		IndexCommitCounters counters = backend.getIndexResources().getCommitCounters();
+		assertTrue( counters.getTransactionCount() > 0 );
+		assertTrue( "Some transactions should have been grouped in a single commit",
+				counters.getMaxTransactionsPerCommit() > 1 );
+		assertTrue( "Grouping should need less commits than transactions",
+				counters.getCommitCount() < counters.getTransactionCount() );
+		assertTrue( counters.getMaxTransactionsPerCommit() <= 10 );
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default.directory_provider", "ram" );
+		cfg.setProperty( Environment.ANALYZER_CLASS, StopAnalyzer.class.getName() );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_EXECUTION, "async" );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_GROUP_COMMIT, "true" );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_GROUP_COMMIT_MAX_LATENCY, "20" );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_GROUP_COMMIT_MAX_BATCH_SIZE, "10" );
+	}
+
+	@Override
+	protected boolean isWorkerSync() {
+		return false;
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * Copyright (c) 2012, Red Hat, Inc. and/or its affiliates or third-party contributors as
+ * indicated by the @author tags or express copyright attribution
+ * statements applied by the authors.  All third-party contributions are
+ * distributed under license by Red Hat, Inc.
+ *
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.hibernate.search.test.worker;
+
+import java.util.concurrent.locks.Lock;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.search.Environment;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.hibernate.search.backend.impl.lucene.IndexingQueueCounters;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.backend.impl.lucene.QueueOverflowPolicy;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.test.SearchTestCase;
+
+/**
+ * Verifies the overflow policies applied when the queue of the asynchronous backend is full.
+ * The queue processing thread is held by taking the exclusive write lock of the index,
+ * so that the queue of length one fills up.
+ *
+ * @since 4.1
+ */
+public class QueueOverflowPolicyTest extends SearchTestCase {
+
+	public void testSpilledWorkIsAppliedInOrder() throws Exception {
+		LuceneBackendQueueProcessor backend = getBackend( Employee.class );
+		assertEquals( QueueOverflowPolicy.SPILL, backend.getOverflowPolicy() );
+		IndexingQueueCounters counters = backend.getIndexResources().getQueueCounters();
+
+		Lock lock = backend.getExclusiveWriteLock();
+		lock.lock();
+		try {
+			storeEmployee( "Employee 1" );
+			waitForQueueDepth( backend, 0 );
+			storeEmployee( "Employee 2" );
+			storeEmployee( "Employee 3" );
+			storeEmployee( "Employee 4" );
+			assertEquals( 3, backend.getQueueDepth() );
+			assertEquals( 2, counters.getSpilledCount() );
+		}
+		finally {
+			lock.unlock();
+		}
+		waitForIndexSize( Employee.class, 4 );
+		assertEquals( 4, counters.getSubmittedCount() );
+		assertEquals( 0, counters.getRejectedCount() );
+		waitForQueueDepth( backend, 0 );
+	}
+
+	public void testCallerRunsWhenQueueIsFull() throws Exception {
+		LuceneBackendQueueProcessor backend = getBackend( Employer.class );
+		assertEquals( QueueOverflowPolicy.CALLER_RUNS, backend.getOverflowPolicy() );
+		IndexingQueueCounters counters = backend.getIndexResources().getQueueCounters();
+
+		Lock lock = backend.getExclusiveWriteLock();
+		lock.lock();
+		try {
+			storeEmployer( "Employer 1" );
+			waitForQueueDepth( backend, 0 );
+			storeEmployer( "Employer 2" );
+			// the queue is full: applied by this thread, which owns the lock
+			storeEmployer( "Employer 3" );
+			assertEquals( 1, counters.getCallerRunsCount() );
+			assertEquals( 1, backend.getQueueDepth() );
+		}
+		finally {
+			lock.unlock();
+		}
+		waitForIndexSize( Employer.class, 3 );
+		assertEquals( 3, counters.getSubmittedCount() );
+		assertEquals( 0, counters.getSpilledCount() );
+	}
+
+	private LuceneBackendQueueProcessor getBackend(Class<?> entityType) {
+		DirectoryBasedIndexManager indexManager = (DirectoryBasedIndexManager) getSearchFactoryImpl()
+				.getIndexBindingForEntity( entityType ).getIndexManagers()[0];
+		return (LuceneBackendQueueProcessor) indexManager.getBackendQueueProcessor();
+	}
+
+	private void waitForQueueDepth(LuceneBackendQueueProcessor backend, int depth) throws InterruptedException {
+		for ( int i = 0; i < 500 && backend.getQueueDepth() != depth; i++ ) {
+			Thread.sleep( 10 );
+		}
+		assertEquals( depth, backend.getQueueDepth() );
+	}
+
+	private void waitForIndexSize(Class<?> entityType, int expected) throws InterruptedException {
+		int size = -1;
+		for ( int i = 0; i < 500 && size != expected; i++ ) {
+			if ( i > 0 ) {
+				Thread.sleep( 10 );
+			}
+			FullTextSession session = Search.getFullTextSession( openSession() );
+			Transaction transaction = session.beginTransaction();
+			size = session.createFullTextQuery( new MatchAllDocsQuery(), entityType ).getResultSize();
+			transaction.commit();
+			session.close();
+		}
+		assertEquals( expected, size );
+	}
+
+	private void storeEmployee(String name) {
+		Employee employee = new Employee();
+		employee.setName( name );
+		store( employee );
+	}
+
+	private void storeEmployer(String name) {
+		Employer employer = new Employer();
+		employer.setName( name );
+		store( employer );
+	}
+
+	private void store(Object entity) {
+		Session session = openSession();
+		Transaction transaction = session.beginTransaction();
+		session.persist( entity );
+		transaction.commit();
+		session.close();
+	}
+
+	@Override
+	protected void configure(Configuration cfg) {
+		super.configure( cfg );
+		cfg.setProperty( "hibernate.search.default." + Environment.WORKER_EXECUTION, "async" );
+		cfg.setProperty( "hibernate.search.default." + Environment.MAX_QUEUE_LENGTH, "1" );
+		cfg.setProperty( "hibernate.search.employee." + Environment.WORKER_OVERFLOW_POLICY, "spill" );
+		cfg.setProperty( "hibernate.search.employer." + Environment.WORKER_OVERFLOW_POLICY, "caller_runs" );
+	}
+
+	@Override
+	protected Class<?>[] getAnnotatedClasses() {
+		return new Class[] {
+				Employee.class,
+				Employer.class
+		};
+	}
+
+}